@@ -0,0 +1,124 @@
+package com.innvo.async;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the heavy REST requests on a dedicated executor, so the container threads are released while
+ * they wait on the database, Elasticsearch or the client.
+ *
+ * <p>
+ * The tasks are handed to Spring MVC as {@link WebAsyncTask}s, so the security context of the request
+ * follows them to the executor thread. No entity manager does: open-in-view is disabled, so a task reads
+ * its entities in the transactions of the repositories and services it calls, or in its own with
+ * {@link #submitInTransaction(Callable)}.
+ * </p>
+ */
+public class RestTaskExecutor implements InitializingBean, DisposableBean {
+
+    /**
+     * For the servlet container, an async timeout of zero or less is no timeout at all.
+     */
+    private static final long NO_TIMEOUT = 0L;
+
+    private final AsyncTaskExecutor executor;
+
+    private final long timeout;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public RestTaskExecutor(AsyncTaskExecutor executor, long timeout, PlatformTransactionManager transactionManager) {
+        this.executor = executor;
+        this.timeout = timeout;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Run a request on the executor.
+     *
+     * @param callable the request
+     * @param <T> the type of the result of the request
+     * @return the task to return from the controller
+     */
+    public <T> WebAsyncTask<T> submit(Callable<T> callable) {
+        return new WebAsyncTask<>(timeout, executor, callable);
+    }
+
+    /**
+     * Run a request streaming its response on the executor, without the timeout: it is written while it is
+     * read, and may take longer than the timeout of the other requests.
+     *
+     * @param callable the request
+     * @param <T> the type of the result of the request
+     * @return the task to return from the controller
+     */
+    public <T> WebAsyncTask<T> submitWithoutTimeout(Callable<T> callable) {
+        return new WebAsyncTask<>(NO_TIMEOUT, executor, callable);
+    }
+
+    /**
+     * Run a request on the executor, in a transaction.
+     *
+     * @param callable the request
+     * @param <T> the type of the result of the request
+     * @return the task to return from the controller
+     */
+    public <T> WebAsyncTask<T> submitInTransaction(Callable<T> callable) {
+        return submit(() -> {
+            try {
+                return transactionTemplate.execute(status -> {
+                    try {
+                        return callable.call();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CheckedException(e);
+                    }
+                });
+            } catch (CheckedException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    public AsyncTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (executor instanceof InitializingBean) {
+            ((InitializingBean) executor).afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (executor instanceof DisposableBean) {
+            ((DisposableBean) executor).destroy();
+        }
+    }
+
+    /**
+     * Carries a checked exception of a request out of the transaction, which is rolled back.
+     */
+    private static class CheckedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CheckedException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+}
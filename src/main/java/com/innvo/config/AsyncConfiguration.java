@@ -1,17 +1,26 @@
 package com.innvo.config;
 
 import com.innvo.async.ExceptionHandlingAsyncTaskExecutor;
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.config.metrics.ThreadPoolMetricSet;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.*;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 
 import javax.inject.Inject;
 
@@ -37,6 +46,51 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    @Bean
+    public RestTaskExecutor restTaskExecutor(PlatformTransactionManager transactionManager, MetricRegistry metricRegistry) {
+        JHipsterProperties.Async.Rest rest = jHipsterProperties.getAsync().getRest();
+        if (!rest.isEnabled()) {
+            log.debug("Heavy REST requests run on the container threads");
+            return new RestTaskExecutor(new TaskExecutorAdapter(new SyncTaskExecutor()), rest.getTimeout(), transactionManager);
+        }
+        log.debug("Creating REST Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(rest.getCorePoolSize());
+        executor.setMaxPoolSize(rest.getMaxPoolSize());
+        executor.setQueueCapacity(rest.getQueueCapacity());
+        executor.setThreadNamePrefix("adap-assessment-Rest-");
+        if (rest.isVirtualThreads()) {
+            ThreadFactory threadFactory = virtualThreadFactory("adap-assessment-Rest-");
+            if (threadFactory != null) {
+                executor.setThreadFactory(threadFactory);
+            } else {
+                log.warn("Virtual threads are not supported by this JVM, the REST Task Executor uses platform threads");
+            }
+        }
+        // a full queue is answered with a 503, see ExceptionTranslator
+        Meter rejected = metricRegistry.meter(MetricRegistry.name(RestTaskExecutor.class, "rejected"));
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.mark();
+            throw new RejectedExecutionException("The REST Task Executor is saturated");
+        });
+        metricRegistry.register(MetricRegistry.name(RestTaskExecutor.class), new ThreadPoolMetricSet(executor));
+        return new RestTaskExecutor(executor, rest.getTimeout(), transactionManager);
+    }
+
+    /**
+     * A factory of virtual threads, looked up by reflection as they need Java 21, or null when the JVM has none.
+     */
+    private ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -1,6 +1,8 @@
 package com.innvo.config;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.instance.HazelcastInstanceFactory;
@@ -20,6 +22,7 @@ import org.springframework.core.env.Environment;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import java.util.Map;
 
 @SuppressWarnings("unused")
 @Configuration
@@ -92,6 +95,19 @@ public class CacheConfiguration {
         
         config.getMapConfigs().put("default", initializeDefaultMapConfig());
         config.getMapConfigs().put("com.innvo.domain.*", initializeDomainMapConfig(jHipsterProperties));
+        JHipsterProperties.Cache cache = jHipsterProperties.getCache();
+        for (Map.Entry<String, JHipsterProperties.Cache.Region> entity : cache.getEntities().entrySet()) {
+            config.getMapConfigs().put("com.innvo.domain." + entity.getKey(),
+                initializeRegionMapConfig(entity.getValue(), cache.getTimeToLiveSeconds()));
+        }
+        for (Map.Entry<String, JHipsterProperties.Cache.Region> springCache : cache.getCaches().entrySet()) {
+            config.getMapConfigs().put(springCache.getKey(),
+                initializeRegionMapConfig(springCache.getValue(), cache.getTimeToLiveSeconds()));
+        }
+        for (Map.Entry<String, JHipsterProperties.Cache.Region> query : cache.getQueries().entrySet()) {
+            config.getMapConfigs().put(query.getKey(),
+                initializeRegionMapConfig(query.getValue(), cache.getTimeToLiveSeconds()));
+        }
 
         hazelcastInstance = HazelcastInstanceFactory.newHazelcastInstance(config);
 
@@ -143,6 +159,37 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
+    /**
+     * Map configuration of a single region or cache.
+     *
+     * The Hibernate entity and query regions are kept by LocalRegionCache, which only reads the time to live
+     * and the maximum size of its map configuration: they are already local to every node. The near cache only
+     * applies to the distributed maps of the Spring caches.
+     */
+    private MapConfig initializeRegionMapConfig(JHipsterProperties.Cache.Region region, int defaultTimeToLiveSeconds) {
+        MapConfig mapConfig = initializeDefaultMapConfig();
+
+        mapConfig.setTimeToLiveSeconds(region.getTimeToLiveSeconds() != null ?
+            region.getTimeToLiveSeconds() : defaultTimeToLiveSeconds);
+        if (region.getMaxSize() > 0) {
+            mapConfig.setMaxSizeConfig(new MaxSizeConfig(region.getMaxSize(), MaxSizeConfig.MaxSizePolicy.PER_NODE));
+        }
+        if (region.isNearCache()) {
+            // read-mostly reference data: keep it deserialized, and also near the entries owned by this node
+            mapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+            NearCacheConfig nearCacheConfig = new NearCacheConfig();
+            nearCacheConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+            nearCacheConfig.setInvalidateOnChange(true);
+            nearCacheConfig.setCacheLocalEntries(true);
+            nearCacheConfig.setEvictionPolicy(EvictionPolicy.LRU.name());
+            if (region.getMaxSize() > 0) {
+                nearCacheConfig.setMaxSize(region.getMaxSize());
+            }
+            mapConfig.setNearCacheConfig(nearCacheConfig);
+        }
+        return mapConfig;
+    }
+
     /**
     * @return the unique instance.
     */
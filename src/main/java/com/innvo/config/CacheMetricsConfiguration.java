@@ -0,0 +1,67 @@
+package com.innvo.config;
+
+import com.innvo.config.metrics.HazelcastMapMetricSet;
+import com.innvo.config.metrics.HibernateRegionMetricSet;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exports the statistics of the Spring caches and of the Hibernate 2nd level cache regions to the metrics.
+ *
+ * Kept apart from CacheConfiguration, as the datasource and therefore the EntityManagerFactory depend on it.
+ */
+@Configuration
+public class CacheMetricsConfiguration {
+
+    private static final String PROP_METRIC_REG_HAZELCAST = "hazelcast";
+    private static final String PROP_METRIC_REG_HIBERNATE_CACHE = "hibernate.cache";
+
+    private final Logger log = LoggerFactory.getLogger(CacheMetricsConfiguration.class);
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private HazelcastInstance hazelcastInstance;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @PostConstruct
+    public void init() {
+        log.debug("Registering cache gauges");
+        for (Map.Entry<String, JHipsterProperties.Cache.Region> cache : jHipsterProperties.getCache().getCaches().entrySet()) {
+            metricRegistry.register(MetricRegistry.name(PROP_METRIC_REG_HAZELCAST, cache.getKey()),
+                new HazelcastMapMetricSet(hazelcastInstance.getMap(cache.getKey()), cache.getValue().isNearCache()));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            log.info("Hibernate statistics are disabled, the 2nd level cache regions are not measured");
+            return;
+        }
+        Set<String> regionNames = new HashSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()));
+        regionNames.addAll(jHipsterProperties.getCache().getQueries().keySet());
+        for (String regionName : regionNames) {
+            metricRegistry.register(MetricRegistry.name(PROP_METRIC_REG_HIBERNATE_CACHE, regionName),
+                new HibernateRegionMetricSet(statistics, regionName));
+        }
+    }
+}
@@ -21,6 +21,20 @@ public final class Constants {
 
     public static final String SYSTEM_ACCOUNT = "system";
 
+    // Spring cache of the questions of a group that are not displayed by a condition
+    public static final String CACHE_QUESTIONS_WITHOUT_CONDITION = "questionsWithoutCondition";
+    // Spring cache of the serialized questionnaire trees
+    public static final String CACHE_QUESTIONNAIRE_TREE = "questionnaireTree";
+    // Spring cache of the compiled display logic of the questionnaires
+    public static final String CACHE_SKIP_LOGIC = "skipLogic";
+    // Hazelcast maps of the cached GET responses, and of the sequence their tags were last invalidated at
+    public static final String CACHE_RESPONSES = "responseCache";
+    public static final String CACHE_RESPONSE_TAGS = "responseCacheTags";
+    // Hibernate query cache regions of the questionnaire definition finders
+    public static final String QUERY_CACHE_QUESTIONGROUPS_BY_QUESTIONNAIRE = "questiongroupsByQuestionnaire";
+    public static final String QUERY_CACHE_QUESTIONS_BY_QUESTIONGROUP = "questionsByQuestiongroup";
+    public static final String QUERY_CACHE_LOGICOPERATORS_BY_QUESTIONNAIRE = "logicoperatorsByQuestionnaire";
+
     private Constants() {
     }
 }
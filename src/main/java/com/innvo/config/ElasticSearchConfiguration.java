@@ -18,8 +18,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class ElasticSearchConfiguration {
 
     @Bean
-    public ElasticsearchTemplate elasticsearchTemplate(Client client, Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
-        return new ElasticsearchTemplate(client, new CustomEntityMapper(jackson2ObjectMapperBuilder.createXmlMapper(false).build()));
+    public EntityMapper entityMapper(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        return new CustomEntityMapper(jackson2ObjectMapperBuilder.createXmlMapper(false).build());
+    }
+
+    @Bean
+    public ElasticsearchTemplate elasticsearchTemplate(Client client, EntityMapper entityMapper) {
+        return new ElasticsearchTemplate(client, entityMapper);
     }
 
     public class CustomEntityMapper implements EntityMapper {
@@ -4,6 +4,9 @@ package com.innvo.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 /**
  * Properties specific to JHipster.
@@ -33,6 +36,12 @@ public class JHipsterProperties {
 
     private final Ribbon ribbon = new Ribbon();
 
+    private final Ingestion ingestion = new Ingestion();
+
+    private final SearchOutbox searchOutbox = new SearchOutbox();
+
+    private final SearchReindex searchReindex = new SearchReindex();
+
     public Async getAsync() {
         return async;
     }
@@ -69,6 +78,18 @@ public class JHipsterProperties {
         return ribbon;
     }
 
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    public SearchOutbox getSearchOutbox() {
+        return searchOutbox;
+    }
+
+    public SearchReindex getSearchReindex() {
+        return searchReindex;
+    }
+
     public static class Async {
 
         private int corePoolSize = 2;
@@ -77,6 +98,8 @@ public class JHipsterProperties {
 
         private int queueCapacity = 10000;
 
+        private final Rest rest = new Rest();
+
         public int getCorePoolSize() {
             return corePoolSize;
         }
@@ -100,6 +123,73 @@ public class JHipsterProperties {
         public void setQueueCapacity(int queueCapacity) {
             this.queueCapacity = queueCapacity;
         }
+
+        public Rest getRest() {
+            return rest;
+        }
+
+        public static class Rest {
+
+            private boolean enabled = false;
+
+            private int corePoolSize = 10;
+
+            private int maxPoolSize = 50;
+
+            private int queueCapacity = 200;
+
+            private long timeout = 60000;
+
+            private boolean virtualThreads = false;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getCorePoolSize() {
+                return corePoolSize;
+            }
+
+            public void setCorePoolSize(int corePoolSize) {
+                this.corePoolSize = corePoolSize;
+            }
+
+            public int getMaxPoolSize() {
+                return maxPoolSize;
+            }
+
+            public void setMaxPoolSize(int maxPoolSize) {
+                this.maxPoolSize = maxPoolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public long getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(long timeout) {
+                this.timeout = timeout;
+            }
+
+            public boolean isVirtualThreads() {
+                return virtualThreads;
+            }
+
+            public void setVirtualThreads(boolean virtualThreads) {
+                this.virtualThreads = virtualThreads;
+            }
+        }
     }
 
     public static class Http {
@@ -129,6 +219,21 @@ public class JHipsterProperties {
         private int timeToLiveSeconds = 3600;
         private final Hazelcast hazelcast = new Hazelcast();
 
+        /**
+         * Hibernate 2nd level cache regions, by simple entity name.
+         */
+        private final Map<String, Region> entities = new HashMap<>();
+
+        /**
+         * Spring caches, by cache name.
+         */
+        private final Map<String, Region> caches = new HashMap<>();
+
+        /**
+         * Hibernate query cache regions, by region name.
+         */
+        private final Map<String, Region> queries = new HashMap<>();
+
 
         public int getTimeToLiveSeconds() {
             return timeToLiveSeconds;
@@ -141,6 +246,18 @@ public class JHipsterProperties {
             return hazelcast;
         }
 
+        public Map<String, Region> getEntities() {
+            return entities;
+        }
+
+        public Map<String, Region> getCaches() {
+            return caches;
+        }
+
+        public Map<String, Region> getQueries() {
+            return queries;
+        }
+
         public static class Hazelcast {
 
             private int backupCount = 1;
@@ -153,6 +270,147 @@ public class JHipsterProperties {
                 this.backupCount = backupCount;
             }
         }
+
+        public static class Region {
+
+            /**
+             * Time to live of the entries, the cache time to live when not set.
+             */
+            private Integer timeToLiveSeconds;
+
+            /**
+             * Maximum number of entries per node, 0 for no limit.
+             */
+            private int maxSize = 0;
+
+            /**
+             * Whether to keep a near cache of deserialized entries on every node.
+             */
+            private boolean nearCache = false;
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public boolean isNearCache() {
+                return nearCache;
+            }
+
+            public void setNearCache(boolean nearCache) {
+                this.nearCache = nearCache;
+            }
+        }
+    }
+
+    public static class Ingestion {
+
+        private int chunkSize = 50;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class SearchOutbox {
+
+        private int batchSize = 500;
+
+        private long pollDelay = 1000;
+
+        private long initialBackoff = 1000;
+
+        private long maxBackoff = 300000;
+
+        private long claimTimeout = 60000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPollDelay() {
+            return pollDelay;
+        }
+
+        public void setPollDelay(long pollDelay) {
+            this.pollDelay = pollDelay;
+        }
+
+        public long getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(long initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public long getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(long maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public long getClaimTimeout() {
+            return claimTimeout;
+        }
+
+        public void setClaimTimeout(long claimTimeout) {
+            this.claimTimeout = claimTimeout;
+        }
+    }
+
+    public static class SearchReindex {
+
+        private int parallelism = 4;
+
+        private int sliceSize = 10000;
+
+        private int batchSize = 1000;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getSliceSize() {
+            return sliceSize;
+        }
+
+        public void setSliceSize(int sliceSize) {
+            this.sliceSize = sliceSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
     }
 
     public static class Mail {
@@ -191,6 +449,8 @@ public class JHipsterProperties {
                 private long tokenValidityInSeconds = 1800;
                 private long tokenValidityInSecondsForRememberMe = 2592000;
 
+                private int cacheSize = 10000;
+
                 public String getSecret() {
                     return secret;
                 }
@@ -214,6 +474,14 @@ public class JHipsterProperties {
                 public void setTokenValidityInSecondsForRememberMe(long tokenValidityInSecondsForRememberMe) {
                     this.tokenValidityInSecondsForRememberMe = tokenValidityInSecondsForRememberMe;
                 }
+
+                public int getCacheSize() {
+                    return cacheSize;
+                }
+
+                public void setCacheSize(int cacheSize) {
+                    this.cacheSize = cacheSize;
+                }
             }
         }
     }
@@ -0,0 +1,24 @@
+package com.innvo.config;
+
+import com.innvo.web.rest.cache.ResponseCacheInterceptor;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import javax.inject.Inject;
+
+/**
+ * Serves the <code>@ResponseCached</code> endpoints from the response cache.
+ */
+@Configuration
+public class ResponseCacheConfiguration extends WebMvcConfigurerAdapter {
+
+    @Inject
+    private ResponseCacheInterceptor responseCacheInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(responseCacheInterceptor).addPathPatterns("/api/**");
+    }
+}
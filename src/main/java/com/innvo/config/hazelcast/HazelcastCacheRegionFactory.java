@@ -39,7 +39,10 @@ public class HazelcastCacheRegionFactory implements RegionFactory {
     public final QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties)
             throws CacheException {
 
-        return new HazelcastQueryResultsRegion(hazelcastInstance, regionName, properties);
+        LocalQueryResultsRegion region = new LocalQueryResultsRegion(hazelcastInstance, regionName, properties);
+
+        cleanupService.registerCache(region.getCache());
+        return region;
     }
 
     public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties, CacheDataDescription metadata)
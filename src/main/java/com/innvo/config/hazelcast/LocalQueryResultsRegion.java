@@ -0,0 +1,22 @@
+package com.innvo.config.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.hibernate.local.LocalRegionCache;
+import com.hazelcast.hibernate.region.AbstractGeneralRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+
+import java.util.Properties;
+
+/**
+ * Query results region kept on every node, sized by the Hazelcast map configuration of its name.
+ *
+ * Unlike HazelcastQueryResultsRegion, its cache is given the Hazelcast instance, so it reads the time to live and
+ * the maximum size of the region from the configuration. No invalidation topic is needed: outdated results are
+ * detected with the update timestamps of the queried tables, which are shared by the cluster.
+ */
+public class LocalQueryResultsRegion extends AbstractGeneralRegion<LocalRegionCache> implements QueryResultsRegion {
+
+    public LocalQueryResultsRegion(HazelcastInstance hazelcastInstance, String regionName, Properties properties) {
+        super(hazelcastInstance, regionName, properties, new LocalRegionCache(regionName, hazelcastInstance, null, false));
+    }
+}
@@ -0,0 +1,162 @@
+package com.innvo.config.liquibase;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Logs the derived repository finders whose predicate columns are not covered by an index.
+ *
+ * <p>
+ * Every "findBy..." method of the Spring Data JPA repositories is parsed into its predicate columns,
+ * and each "Or" branch is reported when no index of the table starts with one of its columns.
+ * Finders declared with <code>@Query</code> are not checked.
+ * </p>
+ * <p>
+ * With the "dev" profile, Liquibase runs asynchronously and may not be finished when this check runs.
+ * </p>
+ */
+@Component
+public class RepositoryIndexChecker implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final Logger log = LoggerFactory.getLogger(RepositoryIndexChecker.class);
+
+    @Inject
+    private ApplicationContext applicationContext;
+
+    @Inject
+    private DataSource dataSource;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            int unindexed = check().size();
+            if (unindexed > 0) {
+                log.warn("{} repository finder predicate(s) are not backed by an index", unindexed);
+            } else {
+                log.debug("All repository finder predicates are backed by an index");
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not check the indexes of the repository finders: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Check the finders of all the repositories, logging those that are not backed by an index.
+     *
+     * @return the unindexed finder predicates, as "Repository.method on table[columns]", one per "Or" branch
+     * @throws SQLException if the indexes cannot be read
+     */
+    List<String> check() throws SQLException {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Map<String, Set<String>> leadingColumnsByTable = new HashMap<>();
+        List<String> unindexed = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (JpaRepositoryFactoryBean<?, ?, ?> factory : applicationContext.getBeansOfType(JpaRepositoryFactoryBean.class).values()) {
+                RepositoryInformation information = factory.getRepositoryInformation();
+                Class<?> domainClass = information.getDomainType();
+                ClassMetadata classMetadata = sessionFactory.getClassMetadata(domainClass);
+                if (!(classMetadata instanceof AbstractEntityPersister)) {
+                    continue;
+                }
+                AbstractEntityPersister persister = (AbstractEntityPersister) classMetadata;
+                String table = persister.getTableName();
+                Set<String> leadingColumns = leadingColumnsByTable.get(table);
+                if (leadingColumns == null) {
+                    leadingColumns = readLeadingIndexColumns(connection, metaData, table);
+                    leadingColumnsByTable.put(table, leadingColumns);
+                }
+                for (Method method : information.getQueryMethods()) {
+                    if (method.isAnnotationPresent(Query.class)) {
+                        continue;
+                    }
+                    PartTree tree;
+                    try {
+                        tree = new PartTree(method.getName(), domainClass);
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    for (PartTree.OrPart orPart : tree) {
+                        Set<String> columns = new LinkedHashSet<>();
+                        for (Part part : orPart) {
+                            String column = columnOf(persister, part.getProperty());
+                            if (column != null) {
+                                columns.add(column.toLowerCase());
+                            }
+                        }
+                        if (!columns.isEmpty() && columns.stream().noneMatch(leadingColumns::contains)) {
+                            log.warn("Repository finder {}.{} filters {} on unindexed column(s) {}",
+                                information.getRepositoryInterface().getSimpleName(), method.getName(), table, columns);
+                            unindexed.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName() +
+                                " on " + table + columns);
+                        }
+                    }
+                }
+            }
+        }
+        return unindexed;
+    }
+
+    /**
+     * Resolve the column of a finder property: a basic property, the identifier, or the foreign key
+     * of a to-one association when the path ends on its identifier. Deeper paths need a join and are ignored.
+     */
+    private String columnOf(AbstractEntityPersister persister, PropertyPath path) {
+        String property = path.getSegment();
+        if (property.equals(persister.getIdentifierPropertyName())) {
+            return path.hasNext() ? null : persister.getIdentifierColumnNames()[0];
+        }
+        if (path.hasNext() && (path.next().hasNext() || !"id".equals(path.next().getSegment()))) {
+            return null;
+        }
+        String[] columns = persister.getPropertyColumnNames(property);
+        return columns.length > 0 ? columns[0] : null;
+    }
+
+    private Set<String> readLeadingIndexColumns(Connection connection, DatabaseMetaData metaData, String table) throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table.toLowerCase();
+        Set<String> leadingColumns = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, tableName, false, true)) {
+            while (indexes.next()) {
+                String column = indexes.getString("COLUMN_NAME");
+                if (indexes.getShort("ORDINAL_POSITION") == 1 && column != null) {
+                    leadingColumns.add(column.toLowerCase());
+                }
+            }
+        }
+        return leadingColumns;
+    }
+}
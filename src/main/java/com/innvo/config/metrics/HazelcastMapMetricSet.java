@@ -0,0 +1,72 @@
+package com.innvo.config.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.RatioGauge;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.monitor.LocalMapStats;
+import com.hazelcast.monitor.NearCacheStats;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gauges of the local statistics of a Hazelcast map: hits, hit ratio, near cache hits and evictions.
+ */
+public class HazelcastMapMetricSet implements MetricSet {
+
+    private final IMap<?, ?> map;
+
+    private final boolean nearCache;
+
+    private final Counter evictions = new Counter();
+
+    /**
+     * @param map the map
+     * @param nearCache whether the map has a near cache
+     */
+    public HazelcastMapMetricSet(IMap<?, ?> map, boolean nearCache) {
+        this.map = map;
+        this.nearCache = nearCache;
+        // expired entries are reported as evicted too
+        map.addLocalEntryListener((EntryEvictedListener<Object, Object>) event -> evictions.inc());
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> metrics = new HashMap<>();
+        metrics.put("entries", (Gauge<Long>) () -> map.getLocalMapStats().getOwnedEntryCount());
+        metrics.put("gets", (Gauge<Long>) () -> map.getLocalMapStats().getGetOperationCount());
+        metrics.put("hits", (Gauge<Long>) () -> map.getLocalMapStats().getHits());
+        metrics.put("hit-ratio", new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                LocalMapStats stats = map.getLocalMapStats();
+                return Ratio.of(stats.getHits(), stats.getGetOperationCount());
+            }
+        });
+        metrics.put("evictions", evictions);
+        if (!nearCache) {
+            return Collections.unmodifiableMap(metrics);
+        }
+        metrics.put("near-cache.entries", (Gauge<Long>) () -> nearCacheStats().getOwnedEntryCount());
+        metrics.put("near-cache.hits", (Gauge<Long>) () -> nearCacheStats().getHits());
+        metrics.put("near-cache.misses", (Gauge<Long>) () -> nearCacheStats().getMisses());
+        metrics.put("near-cache.hit-ratio", new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                NearCacheStats stats = nearCacheStats();
+                return Ratio.of(stats.getHits(), stats.getHits() + stats.getMisses());
+            }
+        });
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private NearCacheStats nearCacheStats() {
+        return map.getLocalMapStats().getNearCacheStats();
+    }
+}
@@ -0,0 +1,55 @@
+package com.innvo.config.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.RatioGauge;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Gauges of the statistics of a Hibernate 2nd level cache region: hits, misses, puts and hit ratio.
+ *
+ * Hibernate only gathers them when hibernate.generate_statistics is set.
+ */
+public class HibernateRegionMetricSet implements MetricSet {
+
+    private final Statistics statistics;
+
+    private final String regionName;
+
+    public HibernateRegionMetricSet(Statistics statistics, String regionName) {
+        this.statistics = statistics;
+        this.regionName = regionName;
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> metrics = new HashMap<>();
+        metrics.put("entries", (Gauge<Long>) () -> count(SecondLevelCacheStatistics::getElementCountInMemory));
+        metrics.put("hits", (Gauge<Long>) () -> count(SecondLevelCacheStatistics::getHitCount));
+        metrics.put("misses", (Gauge<Long>) () -> count(SecondLevelCacheStatistics::getMissCount));
+        metrics.put("puts", (Gauge<Long>) () -> count(SecondLevelCacheStatistics::getPutCount));
+        metrics.put("hit-ratio", new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                long hits = count(SecondLevelCacheStatistics::getHitCount);
+                return Ratio.of(hits, hits + count(SecondLevelCacheStatistics::getMissCount));
+            }
+        });
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * A count of the region, 0 while the region is not built: query regions are built on their first query.
+     */
+    private long count(ToLongFunction<SecondLevelCacheStatistics> counter) {
+        SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(regionName);
+        return regionStatistics == null ? 0 : counter.applyAsLong(regionStatistics);
+    }
+}
@@ -0,0 +1,45 @@
+package com.innvo.config.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gauges of a thread pool: active threads, pool size, queued and completed tasks.
+ *
+ * The queue gauges read 0 until the pool is initialized.
+ */
+public class ThreadPoolMetricSet implements MetricSet {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public ThreadPoolMetricSet(ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> metrics = new HashMap<>();
+        metrics.put("active", (Gauge<Integer>) executor::getActiveCount);
+        metrics.put("pool.size", (Gauge<Integer>) executor::getPoolSize);
+        metrics.put("pool.max", (Gauge<Integer>) executor::getMaxPoolSize);
+        metrics.put("queue.size", (Gauge<Integer>) () -> isInitialized() ? executor.getThreadPoolExecutor().getQueue().size() : 0);
+        metrics.put("queue.remaining", (Gauge<Integer>) () ->
+            isInitialized() ? executor.getThreadPoolExecutor().getQueue().remainingCapacity() : 0);
+        metrics.put("completed", (Gauge<Long>) () -> isInitialized() ? executor.getThreadPoolExecutor().getCompletedTaskCount() : 0L);
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private boolean isInitialized() {
+        try {
+            return executor.getThreadPoolExecutor() != null;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+}
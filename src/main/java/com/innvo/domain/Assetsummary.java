@@ -0,0 +1,184 @@
+package com.innvo.domain;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * The latest assessment of an asset for a questionnaire.
+ *
+ * <p>
+ * An Assetsummary is maintained whenever a response of the asset, its Responsembrs or its
+ * Responsedetails are saved, so the portfolio views read one row per asset and questionnaire.
+ * </p>
+ */
+@Entity
+@Table(name = "assetsummary")
+public class Assetsummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assetsummarySequenceGenerator")
+    @GenericGenerator(name = "assetsummarySequenceGenerator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+        @Parameter(name = "sequence_name", value = "assetsummary_seq"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled")
+    })
+    private Long id;
+
+    @NotNull
+    @Column(name = "asset_id", nullable = false)
+    private Long assetId;
+
+    @NotNull
+    @Column(name = "questionnaire_id", nullable = false)
+    private Long questionnaireId;
+
+    @NotNull
+    @Column(name = "response_id", nullable = false)
+    private Long responseId;
+
+    @Size(max = 25)
+    @Column(name = "status", length = 25)
+    private String status;
+
+    @Column(name = "completion")
+    private Integer completion;
+
+    @Column(name = "question_count")
+    private Integer questionCount;
+
+    @Column(name = "answered_count")
+    private Integer answeredCount;
+
+    @Column(name = "answer_count")
+    private Integer answerCount;
+
+    @Column(name = "lastmodifieddatetime")
+    private ZonedDateTime lastmodifieddatetime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAssetId() {
+        return assetId;
+    }
+
+    public void setAssetId(Long assetId) {
+        this.assetId = assetId;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(Long questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public Long getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(Long responseId) {
+        this.responseId = responseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the percentage of the questions of the questionnaire that are answered
+     */
+    public Integer getCompletion() {
+        return completion;
+    }
+
+    public void setCompletion(Integer completion) {
+        this.completion = completion;
+    }
+
+    public Integer getQuestionCount() {
+        return questionCount;
+    }
+
+    public void setQuestionCount(Integer questionCount) {
+        this.questionCount = questionCount;
+    }
+
+    public Integer getAnsweredCount() {
+        return answeredCount;
+    }
+
+    public void setAnsweredCount(Integer answeredCount) {
+        this.answeredCount = answeredCount;
+    }
+
+    public Integer getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(Integer answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Assetsummary assetsummary = (Assetsummary) o;
+        if(assetsummary.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, assetsummary.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "Assetsummary{" +
+            "id=" + id +
+            ", assetId='" + assetId + "'" +
+            ", questionnaireId='" + questionnaireId + "'" +
+            ", responseId='" + responseId + "'" +
+            ", status='" + status + "'" +
+            ", completion='" + completion + "'" +
+            ", questionCount='" + questionCount + "'" +
+            ", answeredCount='" + answeredCount + "'" +
+            ", answerCount='" + answerCount + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            '}';
+    }
+}
@@ -3,7 +3,6 @@ package com.innvo.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
-import org.springframework.data.elasticsearch.annotations.Document;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -19,7 +18,6 @@ import java.util.Objects;
 @Entity
 @Table(name = "questiongroup")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
-@Document(indexName = "questiongroup")
 public class Questiongroup implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,178 @@
+package com.innvo.domain;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The typed form of a Responsedetail.
+ *
+ * <p>
+ * A Responseanswer shares the id of its Responsedetail and holds exactly one kind of value:
+ * the id of the chosen Answer, a number, or free text. The questionnaire and the questiongroup
+ * are not repeated, they are reached through the question.
+ * </p>
+ */
+@Entity
+@Table(name = "responseanswer")
+public class Responseanswer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "response_id")
+    private Long responseId;
+
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "subquestion_id")
+    private Long subquestionId;
+
+    @Column(name = "answer_id")
+    private Long answerId;
+
+    @Column(name = "numeric_value", precision = 19, scale = 4)
+    private BigDecimal numericValue;
+
+    @Column(name = "text_value")
+    private String textValue;
+
+    /**
+     * Type the raw response of a Responsedetail. The migration typing the existing rows,
+     * 20261018120100_migrate_responseanswer.xml, applies the same rules in SQL.
+     *
+     * @param id the id of the Responsedetail
+     * @param responseId the id of the response
+     * @param questionId the id of the question
+     * @param subquestionId the id of the subquestion, or null
+     * @param response the raw response
+     * @param answerIdsByCode the ids of the answers of the question, by code
+     * @return the typed response
+     */
+    public static Responseanswer of(Long id, Long responseId, Long questionId, Long subquestionId,
+                                    String response, Map<String, Long> answerIdsByCode) {
+        Responseanswer responseanswer = new Responseanswer();
+        responseanswer.id = id;
+        responseanswer.responseId = responseId;
+        responseanswer.questionId = questionId;
+        responseanswer.subquestionId = subquestionId;
+        if (response == null || response.trim().isEmpty()) {
+            return responseanswer;
+        }
+        String value = response.trim();
+        Long answerId = answerIdsByCode == null ? null : answerIdsByCode.get(value);
+        if (answerId != null) {
+            responseanswer.answerId = answerId;
+            return responseanswer;
+        }
+        BigDecimal number = toNumber(value);
+        if (number != null) {
+            responseanswer.numericValue = number;
+        } else {
+            responseanswer.textValue = response;
+        }
+        return responseanswer;
+    }
+
+    private static BigDecimal toNumber(String value) {
+        // only plain decimals, so that codes like "1e5" or "NaN" stay text
+        if (!value.matches("-?\\d{1,15}(\\.\\d{1,4})?")) {
+            return null;
+        }
+        return new BigDecimal(value);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(Long responseId) {
+        this.responseId = responseId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public Long getSubquestionId() {
+        return subquestionId;
+    }
+
+    public void setSubquestionId(Long subquestionId) {
+        this.subquestionId = subquestionId;
+    }
+
+    public Long getAnswerId() {
+        return answerId;
+    }
+
+    public void setAnswerId(Long answerId) {
+        this.answerId = answerId;
+    }
+
+    public BigDecimal getNumericValue() {
+        return numericValue;
+    }
+
+    public void setNumericValue(BigDecimal numericValue) {
+        this.numericValue = numericValue;
+    }
+
+    public String getTextValue() {
+        return textValue;
+    }
+
+    public void setTextValue(String textValue) {
+        this.textValue = textValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Responseanswer responseanswer = (Responseanswer) o;
+        if(responseanswer.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, responseanswer.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "Responseanswer{" +
+            "id=" + id +
+            ", responseId='" + responseId + "'" +
+            ", questionId='" + questionId + "'" +
+            ", subquestionId='" + subquestionId + "'" +
+            ", answerId='" + answerId + "'" +
+            ", numericValue='" + numericValue + "'" +
+            ", textValue='" + textValue + "'" +
+            '}';
+    }
+}
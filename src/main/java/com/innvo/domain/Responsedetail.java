@@ -2,7 +2,9 @@ package com.innvo.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
-import org.springframework.data.elasticsearch.annotations.Document;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -10,26 +12,34 @@ import java.util.Objects;
 
 /**
  * A Responsedetail.
+ *
+ * <p>
+ * The questionnaire and questiongroup ids are not stored: they are read from the response and the question.
+ * </p>
  */
 @Entity
 @Table(name = "responsedetail")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
-@Document(indexName = "responsedetail")
 public class Responsedetail implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "responsedetailSequenceGenerator")
+    @GenericGenerator(name = "responsedetailSequenceGenerator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+        @Parameter(name = "sequence_name", value = "responsedetail_seq"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled")
+    })
     private Long id;
 
     @Column(name = "response_id")
     private Long responseId;
 
-    @Column(name = "questionnaire_id")
+    @Formula("(SELECT r.questionnaire_id FROM response r WHERE r.id = response_id)")
     private Long questionnaireId;
 
-    @Column(name = "questiongroup_id")
+    @Formula("(SELECT q.questiongroup_id FROM question q WHERE q.id = question_id)")
     private Long questiongroupId;
 
     @Column(name = "question_id")
@@ -61,18 +71,10 @@ public class Responsedetail implements Serializable {
         return questionnaireId;
     }
 
-    public void setQuestionnaireId(Long questionnaireId) {
-        this.questionnaireId = questionnaireId;
-    }
-
     public Long getQuestiongroupId() {
         return questiongroupId;
     }
 
-    public void setQuestiongroupId(Long questiongroupId) {
-        this.questiongroupId = questiongroupId;
-    }
-
     public Long getQuestionId() {
         return questionId;
     }
@@ -0,0 +1,164 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Answer;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Answer: its option and codes, and the id of its question.
+ */
+@Document(indexName = "answer", type = "answer")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/answer.json")
+public class AnswerDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String code;
+
+    private String answeroption;
+
+    private Integer position;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    private Long questionId;
+
+    public AnswerDocument() {
+    }
+
+    public AnswerDocument(Answer answer) {
+        this.id = answer.getId();
+        this.code = answer.getCode();
+        this.answeroption = answer.getAnsweroption();
+        this.position = answer.getPosition();
+        this.status = answer.getStatus();
+        this.lastmodifiedby = answer.getLastmodifiedby();
+        this.lastmodifieddatetime = answer.getLastmodifieddatetime();
+        this.domain = answer.getDomain();
+        this.questionId = answer.getQuestion() == null ? null : answer.getQuestion().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getAnsweroption() {
+        return answeroption;
+    }
+
+    public void setAnsweroption(String answeroption) {
+        this.answeroption = answeroption;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AnswerDocument answerDocument = (AnswerDocument) o;
+        if(answerDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, answerDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "AnswerDocument{" +
+            "id=" + id +
+            ", code='" + code + "'" +
+            ", answeroption='" + answeroption + "'" +
+            ", position='" + position + "'" +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            ", questionId='" + questionId + "'" +
+            '}';
+    }
+}
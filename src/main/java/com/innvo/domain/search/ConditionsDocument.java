@@ -0,0 +1,151 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Conditions;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A searchable Conditions: its action and operator, and the ids of the questions it links.
+ */
+@Document(indexName = "conditions", type = "conditions")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/conditions.json")
+public class ConditionsDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String action;
+
+    private String operator;
+
+    private String response;
+
+    private Long displayedquestionId;
+
+    private Long questionId;
+
+    private Long questionnaireId;
+
+    private Long subquestionId;
+
+    public ConditionsDocument() {
+    }
+
+    public ConditionsDocument(Conditions conditions) {
+        this.id = conditions.getId();
+        this.action = conditions.getAction();
+        this.operator = conditions.getOperator();
+        this.response = conditions.getResponse();
+        this.displayedquestionId = conditions.getDisplayedquestion() == null ? null : conditions.getDisplayedquestion().getId();
+        this.questionId = conditions.getQuestion() == null ? null : conditions.getQuestion().getId();
+        this.questionnaireId = conditions.getQuestionnaire() == null ? null : conditions.getQuestionnaire().getId();
+        this.subquestionId = conditions.getSubquestion() == null ? null : conditions.getSubquestion().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public void setOperator(String operator) {
+        this.operator = operator;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public Long getDisplayedquestionId() {
+        return displayedquestionId;
+    }
+
+    public void setDisplayedquestionId(Long displayedquestionId) {
+        this.displayedquestionId = displayedquestionId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(Long questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public Long getSubquestionId() {
+        return subquestionId;
+    }
+
+    public void setSubquestionId(Long subquestionId) {
+        this.subquestionId = subquestionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ConditionsDocument conditionsDocument = (ConditionsDocument) o;
+        if(conditionsDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, conditionsDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ConditionsDocument{" +
+            "id=" + id +
+            ", action='" + action + "'" +
+            ", operator='" + operator + "'" +
+            ", response='" + response + "'" +
+            ", displayedquestionId='" + displayedquestionId + "'" +
+            ", questionId='" + questionId + "'" +
+            ", questionnaireId='" + questionnaireId + "'" +
+            ", subquestionId='" + subquestionId + "'" +
+            '}';
+    }
+}
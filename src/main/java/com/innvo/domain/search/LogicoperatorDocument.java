@@ -0,0 +1,139 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Logicoperator;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A searchable Logicoperator: its operator, and the ids of the questions and subquestions it combines.
+ */
+@Document(indexName = "logicoperator", type = "logicoperator")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/logicoperator.json")
+public class LogicoperatorDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String operator;
+
+    private Long firstquestionId;
+
+    private Long secondquestionId;
+
+    private Long questionnaireId;
+
+    private Long firstsubquestionId;
+
+    private Long secondsubquestionId;
+
+    public LogicoperatorDocument() {
+    }
+
+    public LogicoperatorDocument(Logicoperator logicoperator) {
+        this.id = logicoperator.getId();
+        this.operator = logicoperator.getOperator();
+        this.firstquestionId = logicoperator.getFirstquestion() == null ? null : logicoperator.getFirstquestion().getId();
+        this.secondquestionId = logicoperator.getSecondquestion() == null ? null : logicoperator.getSecondquestion().getId();
+        this.questionnaireId = logicoperator.getQuestionnaire() == null ? null : logicoperator.getQuestionnaire().getId();
+        this.firstsubquestionId = logicoperator.getFirstsubquestion() == null ? null : logicoperator.getFirstsubquestion().getId();
+        this.secondsubquestionId = logicoperator.getSecondsubquestion() == null ? null : logicoperator.getSecondsubquestion().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public void setOperator(String operator) {
+        this.operator = operator;
+    }
+
+    public Long getFirstquestionId() {
+        return firstquestionId;
+    }
+
+    public void setFirstquestionId(Long firstquestionId) {
+        this.firstquestionId = firstquestionId;
+    }
+
+    public Long getSecondquestionId() {
+        return secondquestionId;
+    }
+
+    public void setSecondquestionId(Long secondquestionId) {
+        this.secondquestionId = secondquestionId;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(Long questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public Long getFirstsubquestionId() {
+        return firstsubquestionId;
+    }
+
+    public void setFirstsubquestionId(Long firstsubquestionId) {
+        this.firstsubquestionId = firstsubquestionId;
+    }
+
+    public Long getSecondsubquestionId() {
+        return secondsubquestionId;
+    }
+
+    public void setSecondsubquestionId(Long secondsubquestionId) {
+        this.secondsubquestionId = secondsubquestionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LogicoperatorDocument logicoperatorDocument = (LogicoperatorDocument) o;
+        if(logicoperatorDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, logicoperatorDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "LogicoperatorDocument{" +
+            "id=" + id +
+            ", operator='" + operator + "'" +
+            ", firstquestionId='" + firstquestionId + "'" +
+            ", secondquestionId='" + secondquestionId + "'" +
+            ", questionnaireId='" + questionnaireId + "'" +
+            ", firstsubquestionId='" + firstsubquestionId + "'" +
+            ", secondsubquestionId='" + secondsubquestionId + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,200 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Question;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Question: its text, help and codes, and the id of its group.
+ */
+@Document(indexName = "question", type = "question")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/question.json")
+public class QuestionDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String question;
+
+    private Boolean mandatory;
+
+    private String code;
+
+    private Integer position;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    private String type;
+
+    private String help;
+
+    private Long questiongroupId;
+
+    public QuestionDocument() {
+    }
+
+    public QuestionDocument(Question question) {
+        this.id = question.getId();
+        this.question = question.getQuestion();
+        this.mandatory = question.isMandatory();
+        this.code = question.getCode();
+        this.position = question.getPosition();
+        this.status = question.getStatus();
+        this.lastmodifiedby = question.getLastmodifiedby();
+        this.lastmodifieddatetime = question.getLastmodifieddatetime();
+        this.domain = question.getDomain();
+        this.type = question.getType();
+        this.help = question.getHelp();
+        this.questiongroupId = question.getQuestiongroup() == null ? null : question.getQuestiongroup().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(String question) {
+        this.question = question;
+    }
+
+    public Boolean getMandatory() {
+        return mandatory;
+    }
+
+    public void setMandatory(Boolean mandatory) {
+        this.mandatory = mandatory;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    public void setHelp(String help) {
+        this.help = help;
+    }
+
+    public Long getQuestiongroupId() {
+        return questiongroupId;
+    }
+
+    public void setQuestiongroupId(Long questiongroupId) {
+        this.questiongroupId = questiongroupId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QuestionDocument questionDocument = (QuestionDocument) o;
+        if(questionDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, questionDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionDocument{" +
+            "id=" + id +
+            ", question='" + question + "'" +
+            ", mandatory='" + mandatory + "'" +
+            ", code='" + code + "'" +
+            ", position='" + position + "'" +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            ", type='" + type + "'" +
+            ", help='" + help + "'" +
+            ", questiongroupId='" + questiongroupId + "'" +
+            '}';
+    }
+}
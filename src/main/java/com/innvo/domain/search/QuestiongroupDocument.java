@@ -0,0 +1,164 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Questiongroup;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Questiongroup: its title and description, and the id of its questionnaire.
+ */
+@Document(indexName = "questiongroup", type = "questiongroup")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/questiongroup.json")
+public class QuestiongroupDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private Integer position;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    private Long questionnaireId;
+
+    public QuestiongroupDocument() {
+    }
+
+    public QuestiongroupDocument(Questiongroup questiongroup) {
+        this.id = questiongroup.getId();
+        this.title = questiongroup.getTitle();
+        this.description = questiongroup.getDescription();
+        this.position = questiongroup.getPosition();
+        this.status = questiongroup.getStatus();
+        this.lastmodifiedby = questiongroup.getLastmodifiedby();
+        this.lastmodifieddatetime = questiongroup.getLastmodifieddatetime();
+        this.domain = questiongroup.getDomain();
+        this.questionnaireId = questiongroup.getQuestionnaire() == null ? null : questiongroup.getQuestionnaire().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(Long questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QuestiongroupDocument questiongroupDocument = (QuestiongroupDocument) o;
+        if(questiongroupDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, questiongroupDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "QuestiongroupDocument{" +
+            "id=" + id +
+            ", title='" + title + "'" +
+            ", description='" + description + "'" +
+            ", position='" + position + "'" +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            ", questionnaireId='" + questionnaireId + "'" +
+            '}';
+    }
+}
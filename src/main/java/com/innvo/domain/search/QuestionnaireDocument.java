@@ -0,0 +1,128 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Questionnaire;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Questionnaire: its title and status.
+ */
+@Document(indexName = "questionnaire", type = "questionnaire")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/questionnaire.json")
+public class QuestionnaireDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    public QuestionnaireDocument() {
+    }
+
+    public QuestionnaireDocument(Questionnaire questionnaire) {
+        this.id = questionnaire.getId();
+        this.title = questionnaire.getTitle();
+        this.status = questionnaire.getStatus();
+        this.lastmodifiedby = questionnaire.getLastmodifiedby();
+        this.lastmodifieddatetime = questionnaire.getLastmodifieddatetime();
+        this.domain = questionnaire.getDomain();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QuestionnaireDocument questionnaireDocument = (QuestionnaireDocument) o;
+        if(questionnaireDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, questionnaireDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionnaireDocument{" +
+            "id=" + id +
+            ", title='" + title + "'" +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,128 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Response;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Response: its status and the id of its questionnaire, without the details.
+ */
+@Document(indexName = "response", type = "response")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/response.json")
+public class ResponseDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    private Long questionnaireId;
+
+    public ResponseDocument() {
+    }
+
+    public ResponseDocument(Response response) {
+        this.id = response.getId();
+        this.status = response.getStatus();
+        this.lastmodifiedby = response.getLastmodifiedby();
+        this.lastmodifieddatetime = response.getLastmodifieddatetime();
+        this.domain = response.getDomain();
+        this.questionnaireId = response.getQuestionnaire() == null ? null : response.getQuestionnaire().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(Long questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ResponseDocument responseDocument = (ResponseDocument) o;
+        if(responseDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, responseDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseDocument{" +
+            "id=" + id +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            ", questionnaireId='" + questionnaireId + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Responsedetail;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A searchable Responsedetail: the answer given, and the ids it belongs to.
+ */
+@Document(indexName = "responsedetail", type = "responsedetail")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/responsedetail.json")
+public class ResponsedetailDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private Long responseId;
+
+    private Long questionnaireId;
+
+    private Long questiongroupId;
+
+    private Long questionId;
+
+    private Long subquestionId;
+
+    private String response;
+
+    public ResponsedetailDocument() {
+    }
+
+    public ResponsedetailDocument(Responsedetail responsedetail) {
+        this.id = responsedetail.getId();
+        this.responseId = responsedetail.getResponseId();
+        this.questionnaireId = responsedetail.getQuestionnaireId();
+        this.questiongroupId = responsedetail.getQuestiongroupId();
+        this.questionId = responsedetail.getQuestionId();
+        this.subquestionId = responsedetail.getSubquestionId();
+        this.response = responsedetail.getResponse();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(Long responseId) {
+        this.responseId = responseId;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    public void setQuestionnaireId(Long questionnaireId) {
+        this.questionnaireId = questionnaireId;
+    }
+
+    public Long getQuestiongroupId() {
+        return questiongroupId;
+    }
+
+    public void setQuestiongroupId(Long questiongroupId) {
+        this.questiongroupId = questiongroupId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public Long getSubquestionId() {
+        return subquestionId;
+    }
+
+    public void setSubquestionId(Long subquestionId) {
+        this.subquestionId = subquestionId;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ResponsedetailDocument responsedetailDocument = (ResponsedetailDocument) o;
+        if(responsedetailDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, responsedetailDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ResponsedetailDocument{" +
+            "id=" + id +
+            ", responseId='" + responseId + "'" +
+            ", questionnaireId='" + questionnaireId + "'" +
+            ", questiongroupId='" + questiongroupId + "'" +
+            ", questionId='" + questionId + "'" +
+            ", subquestionId='" + subquestionId + "'" +
+            ", response='" + response + "'" +
+            '}';
+    }
+}
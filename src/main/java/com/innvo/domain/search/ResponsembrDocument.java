@@ -0,0 +1,140 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Responsembr;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Responsembr: its status, asset and the id of its response.
+ */
+@Document(indexName = "responsembr", type = "responsembr")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/responsembr.json")
+public class ResponsembrDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    private Long assetId;
+
+    private Long responseId;
+
+    public ResponsembrDocument() {
+    }
+
+    public ResponsembrDocument(Responsembr responsembr) {
+        this.id = responsembr.getId();
+        this.status = responsembr.getStatus();
+        this.lastmodifiedby = responsembr.getLastmodifiedby();
+        this.lastmodifieddatetime = responsembr.getLastmodifieddatetime();
+        this.domain = responsembr.getDomain();
+        this.assetId = responsembr.getAssetId();
+        this.responseId = responsembr.getResponse() == null ? null : responsembr.getResponse().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public Long getAssetId() {
+        return assetId;
+    }
+
+    public void setAssetId(Long assetId) {
+        this.assetId = assetId;
+    }
+
+    public Long getResponseId() {
+        return responseId;
+    }
+
+    public void setResponseId(Long responseId) {
+        this.responseId = responseId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ResponsembrDocument responsembrDocument = (ResponsembrDocument) o;
+        if(responsembrDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, responsembrDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ResponsembrDocument{" +
+            "id=" + id +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            ", assetId='" + assetId + "'" +
+            ", responseId='" + responseId + "'" +
+            '}';
+    }
+}
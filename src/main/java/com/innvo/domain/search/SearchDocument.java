@@ -0,0 +1,9 @@
+package com.innvo.domain.search;
+
+/**
+ * A document indexed in Elasticsearch, built from an entity and identified by the id of the entity.
+ */
+public interface SearchDocument {
+
+    Long getId();
+}
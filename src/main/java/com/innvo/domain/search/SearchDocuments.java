@@ -0,0 +1,91 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Answer;
+import com.innvo.domain.Conditions;
+import com.innvo.domain.Logicoperator;
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Response;
+import com.innvo.domain.Responsedetail;
+import com.innvo.domain.Responsembr;
+import com.innvo.domain.Subquestion;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The entities that are indexed in Elasticsearch, and the document each of them is indexed as.
+ */
+public final class SearchDocuments {
+
+    private static final Map<Class<?>, Registration> REGISTRATIONS = new LinkedHashMap<>();
+
+    static {
+        register(Answer.class, AnswerDocument.class, AnswerDocument::new);
+        register(Conditions.class, ConditionsDocument.class, ConditionsDocument::new);
+        register(Logicoperator.class, LogicoperatorDocument.class, LogicoperatorDocument::new);
+        register(Question.class, QuestionDocument.class, QuestionDocument::new);
+        register(Questiongroup.class, QuestiongroupDocument.class, QuestiongroupDocument::new);
+        register(Questionnaire.class, QuestionnaireDocument.class, QuestionnaireDocument::new);
+        register(Response.class, ResponseDocument.class, ResponseDocument::new);
+        register(Responsedetail.class, ResponsedetailDocument.class, ResponsedetailDocument::new);
+        register(Responsembr.class, ResponsembrDocument.class, ResponsembrDocument::new);
+        register(Subquestion.class, SubquestionDocument.class, SubquestionDocument::new);
+    }
+
+    private SearchDocuments() {
+    }
+
+    /**
+     * @return the classes of the indexed entities
+     */
+    public static Set<Class<?>> getEntityClasses() {
+        return Collections.unmodifiableSet(REGISTRATIONS.keySet());
+    }
+
+    /**
+     * @param entityClass the class of an indexed entity
+     * @return the class of the document of the entity, annotated with <code>@Document</code>
+     */
+    public static Class<? extends SearchDocument> getDocumentClass(Class<?> entityClass) {
+        return registration(entityClass).documentClass;
+    }
+
+    /**
+     * @param entityClass the class of an indexed entity
+     * @param entity the entity
+     * @return the document to index for the entity
+     */
+    public static SearchDocument toDocument(Class<?> entityClass, Object entity) {
+        return registration(entityClass).factory.apply(entity);
+    }
+
+    private static Registration registration(Class<?> entityClass) {
+        Registration registration = REGISTRATIONS.get(entityClass);
+        if (registration == null) {
+            throw new IllegalArgumentException(entityClass.getName() + " is not indexed in Elasticsearch");
+        }
+        return registration;
+    }
+
+    private static <E> void register(Class<E> entityClass, Class<? extends SearchDocument> documentClass,
+                                     Function<E, ? extends SearchDocument> factory) {
+        REGISTRATIONS.put(entityClass, new Registration(documentClass, entity -> factory.apply(entityClass.cast(entity))));
+    }
+
+    private static class Registration {
+
+        private final Class<? extends SearchDocument> documentClass;
+
+        private final Function<Object, SearchDocument> factory;
+
+        Registration(Class<? extends SearchDocument> documentClass, Function<Object, SearchDocument> factory) {
+            this.documentClass = documentClass;
+            this.factory = factory;
+        }
+    }
+}
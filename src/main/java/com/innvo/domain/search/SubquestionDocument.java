@@ -0,0 +1,164 @@
+package com.innvo.domain.search;
+
+import com.innvo.domain.Subquestion;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A searchable Subquestion: its text and code, and the id of its question.
+ */
+@Document(indexName = "subquestion", type = "subquestion")
+@Setting(settingPath = "/config/elasticsearch/settings.json")
+@Mapping(mappingPath = "/config/elasticsearch/mappings/subquestion.json")
+public class SubquestionDocument implements SearchDocument, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    private String subquestion;
+
+    private String code;
+
+    private Integer position;
+
+    private String status;
+
+    private String lastmodifiedby;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private String domain;
+
+    private Long questionId;
+
+    public SubquestionDocument() {
+    }
+
+    public SubquestionDocument(Subquestion subquestion) {
+        this.id = subquestion.getId();
+        this.subquestion = subquestion.getSubquestion();
+        this.code = subquestion.getCode();
+        this.position = subquestion.getPosition();
+        this.status = subquestion.getStatus();
+        this.lastmodifiedby = subquestion.getLastmodifiedby();
+        this.lastmodifieddatetime = subquestion.getLastmodifieddatetime();
+        this.domain = subquestion.getDomain();
+        this.questionId = subquestion.getQuestion() == null ? null : subquestion.getQuestion().getId();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSubquestion() {
+        return subquestion;
+    }
+
+    public void setSubquestion(String subquestion) {
+        this.subquestion = subquestion;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastmodifiedby() {
+        return lastmodifiedby;
+    }
+
+    public void setLastmodifiedby(String lastmodifiedby) {
+        this.lastmodifiedby = lastmodifiedby;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public void setLastmodifieddatetime(ZonedDateTime lastmodifieddatetime) {
+        this.lastmodifieddatetime = lastmodifieddatetime;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SubquestionDocument subquestionDocument = (SubquestionDocument) o;
+        if(subquestionDocument.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, subquestionDocument.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "SubquestionDocument{" +
+            "id=" + id +
+            ", subquestion='" + subquestion + "'" +
+            ", code='" + code + "'" +
+            ", position='" + position + "'" +
+            ", status='" + status + "'" +
+            ", lastmodifiedby='" + lastmodifiedby + "'" +
+            ", lastmodifieddatetime='" + lastmodifieddatetime + "'" +
+            ", domain='" + domain + "'" +
+            ", questionId='" + questionId + "'" +
+            '}';
+    }
+}
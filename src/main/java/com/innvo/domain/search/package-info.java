@@ -0,0 +1,4 @@
+/**
+ * Elasticsearch documents, built from the JPA domain objects.
+ */
+package com.innvo.domain.search;
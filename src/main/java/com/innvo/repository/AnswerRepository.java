@@ -6,14 +6,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Answer entity.
  */
 @SuppressWarnings("unused")
-public interface AnswerRepository extends JpaRepository<Answer,Long> {
+public interface AnswerRepository extends JpaRepository<Answer,Long>, KeysetRepository<Answer> {
 
 	Page<Answer> findByQuestionId(long id,Pageable pageable);
 
+	List<Answer> findByQuestionIdIn(Collection<Long> questionIds);
 }
@@ -0,0 +1,22 @@
+package com.innvo.repository;
+
+import com.innvo.domain.Assetsummary;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+
+import java.util.Collection;
+
+/**
+ * Spring Data JPA repository for the Assetsummary entity.
+ */
+@SuppressWarnings("unused")
+public interface AssetsummaryRepository extends JpaRepository<Assetsummary,Long> {
+
+	Assetsummary findByAssetIdAndQuestionnaireId(Long assetId, Long questionnaireId);
+
+	Page<Assetsummary> findByAssetId(Long assetId, Pageable pageable);
+
+	Page<Assetsummary> findByAssetIdIn(Collection<Long> assetIds, Pageable pageable);
+}
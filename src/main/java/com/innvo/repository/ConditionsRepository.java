@@ -10,9 +10,11 @@ import java.util.List;
  * Spring Data JPA repository for the Conditions entity.
  */
 @SuppressWarnings("unused")
-public interface ConditionsRepository extends JpaRepository<Conditions,Long> {
+public interface ConditionsRepository extends JpaRepository<Conditions,Long>, KeysetRepository<Conditions> {
 
 	Conditions findByQuestionId(long id);
 	
 	Conditions findBySubquestionId(long id);
+
+	List<Conditions> findByQuestionnaireId(long id);
 }
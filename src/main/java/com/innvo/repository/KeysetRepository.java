@@ -0,0 +1,25 @@
+package com.innvo.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * The finders of a repository whose entities are listed with keyset pagination, see
+ * {@link com.innvo.web.rest.util.PaginationUtil#keysetPage}.
+ *
+ * @param <T> the entity
+ */
+@NoRepositoryBean
+public interface KeysetRepository<T> {
+
+	/**
+	 * The entities after the given id, in the order of the ids, for keyset pagination: no count is run.
+	 */
+	Slice<T> findByIdGreaterThan(Long id, Pageable pageable);
+
+	/**
+	 * @return the number of entities, only counted when it is asked for
+	 */
+	long count();
+}
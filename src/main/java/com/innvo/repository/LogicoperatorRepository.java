@@ -1,18 +1,23 @@
 package com.innvo.repository;
 
+import com.innvo.config.Constants;
 import com.innvo.domain.Logicoperator;
 
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
+
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Logicoperator entity.
  */
 @SuppressWarnings("unused")
-public interface LogicoperatorRepository extends JpaRepository<Logicoperator,Long> {
+public interface LogicoperatorRepository extends JpaRepository<Logicoperator,Long>, KeysetRepository<Logicoperator> {
 
 	List<Logicoperator> findByFirstquestionIdOrSecondquestionId(long fId,long sId);
 	
+	@QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+	    @QueryHint(name = "org.hibernate.cacheRegion", value = Constants.QUERY_CACHE_LOGICOPERATORS_BY_QUESTIONNAIRE)})
 	List<Logicoperator> findByQuestionnaireId(long id);
 }
@@ -1,22 +1,41 @@
 package com.innvo.repository;
 
+import com.innvo.config.Constants;
 import com.innvo.domain.Question;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Question entity.
  */
 @SuppressWarnings("unused")
-public interface QuestionRepository extends JpaRepository<Question,Long> {
+public interface QuestionRepository extends JpaRepository<Question,Long>, KeysetRepository<Question> {
 
 	    Question  findByQuestiongroupIdAndId(long groupId,long questionId);
 
+	 	@QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+	 	    @QueryHint(name = "org.hibernate.cacheRegion", value = Constants.QUERY_CACHE_QUESTIONS_BY_QUESTIONGROUP)})
 	 	List<Question> findByQuestiongroupId(long groupId);
-	 	
 
+	    List<Question> findByQuestiongroupIdIn(Collection<Long> groupIds);
+
+	    @Query("SELECT q.id FROM Question q WHERE q.questiongroup.questionnaire.id = :questionnaireId")
+	    List<Long> findIdsByQuestionnaireId(@Param("questionnaireId") long questionnaireId);
+
+	    @Query("SELECT COUNT(q) FROM Question q WHERE q.questiongroup.questionnaire.id = :questionnaireId")
+	    long countByQuestionnaireId(@Param("questionnaireId") long questionnaireId);
+
+	    /**
+	     * The questions of a group that are not displayed by a condition, cached by the SkipLogicService.
+	     */
+	    @Query("SELECT q FROM Question q WHERE q.questiongroup.id = :groupId " +
+	        "AND NOT EXISTS (SELECT c.id FROM Conditions c WHERE c.displayedquestion = q)")
+	    List<Question> findByQuestiongroupIdWithoutCondition(@Param("groupId") long groupId);
 }
@@ -1,19 +1,23 @@
 package com.innvo.repository;
 
+import com.innvo.config.Constants;
 import com.innvo.domain.Questiongroup;
 import com.innvo.domain.Response;
 
 import org.springframework.data.jpa.repository.*;
 
+import javax.persistence.QueryHint;
+
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Questiongroup entity.
  */
 @SuppressWarnings("unused")
-public interface QuestiongroupRepository extends JpaRepository<Questiongroup,Long> {
+public interface QuestiongroupRepository extends JpaRepository<Questiongroup,Long>, KeysetRepository<Questiongroup> {
 
 	
+	@QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+	    @QueryHint(name = "org.hibernate.cacheRegion", value = Constants.QUERY_CACHE_QUESTIONGROUPS_BY_QUESTIONNAIRE)})
 	List<Questiongroup> findByQuestionnaireId(long id);
-
 }
@@ -10,6 +10,5 @@ import java.util.List;
  * Spring Data JPA repository for the Questionnaire entity.
  */
 @SuppressWarnings("unused")
-public interface QuestionnaireRepository extends JpaRepository<Questionnaire,Long> {
-
+public interface QuestionnaireRepository extends JpaRepository<Questionnaire,Long>, KeysetRepository<Questionnaire> {
 }
@@ -3,13 +3,21 @@ package com.innvo.repository;
 import com.innvo.domain.Response;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
 import java.util.List;
 
 /**
  * Spring Data JPA repository for the Response entity.
  */
 @SuppressWarnings("unused")
-public interface ResponseRepository extends JpaRepository<Response,Long> {
+public interface ResponseRepository extends JpaRepository<Response,Long>, KeysetRepository<Response> {
 
+	/**
+	 * The response, locked until the end of the transaction, so concurrent changes are applied one after the other.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT r FROM Response r WHERE r.id = :id")
+	Response findOneForUpdate(@Param("id") Long id);
 }
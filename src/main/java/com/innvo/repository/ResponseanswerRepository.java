@@ -0,0 +1,52 @@
+package com.innvo.repository;
+
+import com.innvo.domain.Responseanswer;
+import com.innvo.web.rest.dto.AnswerCountDTO;
+import com.innvo.web.rest.dto.NumericSummaryDTO;
+
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the Responseanswer entity.
+ */
+@SuppressWarnings("unused")
+public interface ResponseanswerRepository extends JpaRepository<Responseanswer,Long> {
+
+	List<Responseanswer> findByResponseIdOrderById(Long responseId);
+
+	List<Responseanswer> findByResponseIdInOrderByResponseIdAscIdAsc(Collection<Long> responseIds);
+
+	long countByResponseId(Long responseId);
+
+	@Query("SELECT COUNT(DISTINCT a.questionId) FROM Responseanswer a WHERE a.responseId = :responseId")
+	long countQuestionsByResponseId(@Param("responseId") Long responseId);
+
+	/**
+	 * Count the chosen answers of a question, over every response.
+	 */
+	@Query("SELECT new com.innvo.web.rest.dto.AnswerCountDTO(a.questionId, a.subquestionId, a.answerId, COUNT(a)) " +
+		"FROM Responseanswer a WHERE a.questionId = :questionId AND a.answerId IS NOT NULL " +
+		"GROUP BY a.questionId, a.subquestionId, a.answerId")
+	List<AnswerCountDTO> countAnswersByQuestionId(@Param("questionId") Long questionId);
+
+	/**
+	 * Count the chosen answers of the questions of a questionnaire, over every response.
+	 */
+	@Query("SELECT new com.innvo.web.rest.dto.AnswerCountDTO(a.questionId, a.subquestionId, a.answerId, COUNT(a)) " +
+		"FROM Responseanswer a WHERE a.questionId IN " +
+		"(SELECT q.id FROM Question q WHERE q.questiongroup.questionnaire.id = :questionnaireId) " +
+		"AND a.answerId IS NOT NULL GROUP BY a.questionId, a.subquestionId, a.answerId")
+	List<AnswerCountDTO> countAnswersByQuestionnaireId(@Param("questionnaireId") Long questionnaireId);
+
+	/**
+	 * Summarize the numeric answers of a question, over every response.
+	 */
+	@Query("SELECT new com.innvo.web.rest.dto.NumericSummaryDTO(a.questionId, COUNT(a), MIN(a.numericValue), MAX(a.numericValue), AVG(a.numericValue)) " +
+		"FROM Responseanswer a WHERE a.questionId = :questionId AND a.numericValue IS NOT NULL GROUP BY a.questionId")
+	NumericSummaryDTO summarizeNumbersByQuestionId(@Param("questionId") Long questionId);
+
+}
@@ -5,14 +5,36 @@ import com.innvo.domain.Responsedetail;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Spring Data JPA repository for the Responsedetail entity.
  */
 @SuppressWarnings("unused")
-public interface ResponsedetailRepository extends JpaRepository<Responsedetail,Long> {
+public interface ResponsedetailRepository extends JpaRepository<Responsedetail,Long>, KeysetRepository<Responsedetail> {
 
 	@Query("SELECT d FROM Responsedetail d WHERE d.responseId=:responseId")
 	public List<Responsedetail> findByResponseId(@Param("responseId") long responseId);
+
+	/**
+	 * Stream the details of the memberships of an asset, as rows of the membership id and the detail, ordered by
+	 * membership id so they can be grouped on the fly: the details of a response with two memberships of the asset
+	 * are read twice. Must be consumed inside a transaction.
+	 */
+	@Query("SELECT m.id, d FROM Responsembr m, Responsedetail d " +
+		"WHERE m.assetId=:assetId AND d.responseId = m.response.id ORDER BY m.id, d.id")
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	Stream<Object[]> streamByAssetId(@Param("assetId") long assetId);
+
+	/**
+	 * Stream the details of the given memberships, as rows of the membership id and the detail, ordered by
+	 * membership id. Must be consumed inside a transaction.
+	 */
+	@Query("SELECT m.id, d FROM Responsembr m, Responsedetail d " +
+		"WHERE m.id IN :membershipIds AND d.responseId = m.response.id ORDER BY m.id, d.id")
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	Stream<Object[]> streamByMembershipIdIn(@Param("membershipIds") Collection<Long> membershipIds);
 }
@@ -3,7 +3,10 @@ package com.innvo.repository;
 import com.innvo.domain.Response;
 import com.innvo.domain.Responsembr;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -11,7 +14,40 @@ import java.util.List;
  * Spring Data JPA repository for the Responsembr entity.
  */
 @SuppressWarnings("unused")
-public interface ResponsembrRepository extends JpaRepository<Responsembr,Long> {
+public interface ResponsembrRepository extends JpaRepository<Responsembr,Long>, KeysetRepository<Responsembr> {
 
 	List<Responsembr> findByAssetId(long id);
+
+	@Query("SELECT DISTINCT m.assetId FROM Responsembr m WHERE m.response.id = :responseId AND m.assetId IS NOT NULL")
+	List<Long> findAssetIdsByResponseId(@Param("responseId") Long responseId);
+
+	/**
+	 * The ids of the responses of an asset to a questionnaire, latest first.
+	 */
+	@Query("SELECT DISTINCT m.response.id FROM Responsembr m " +
+		"WHERE m.assetId = :assetId AND m.response.questionnaire.id = :questionnaireId ORDER BY m.response.id DESC")
+	List<Long> findResponseIdsByAssetIdAndQuestionnaireId(@Param("assetId") Long assetId,
+		@Param("questionnaireId") Long questionnaireId, Pageable pageable);
+
+	/**
+	 * The memberships of an asset with their responses, in the order of the page: as they are joined to
+	 * their responses, the memberships without one are neither read nor counted.
+	 */
+	@Query(value = "SELECT m FROM Responsembr m JOIN FETCH m.response r LEFT JOIN FETCH r.questionnaire WHERE m.assetId=:assetId",
+		countQuery = "SELECT count(m) FROM Responsembr m JOIN m.response r WHERE m.assetId=:assetId")
+	Page<Responsembr> findWithResponseByAssetId(@Param("assetId") long assetId, Pageable pageable);
+
+	/**
+	 * The ids of the memberships of an asset that have a response, in the order of their ids.
+	 */
+	@Query("SELECT m.id FROM Responsembr m WHERE m.assetId=:assetId AND m.response IS NOT NULL ORDER BY m.id")
+	List<Long> findIdsWithResponseByAssetId(@Param("assetId") long assetId);
+
+	/**
+	 * A page of the ids of the memberships of an asset that have a response, in the order of their ids: the
+	 * page must not be sorted.
+	 */
+	@Query(value = "SELECT m.id FROM Responsembr m WHERE m.assetId=:assetId AND m.response IS NOT NULL ORDER BY m.id",
+		countQuery = "SELECT count(m) FROM Responsembr m WHERE m.assetId=:assetId AND m.response IS NOT NULL")
+	Page<Long> findIdsWithResponseByAssetId(@Param("assetId") long assetId, Pageable pageable);
 }
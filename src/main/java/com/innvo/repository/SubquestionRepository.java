@@ -7,13 +7,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 
+import java.util.Collection;
+import java.util.List;
+
 
 /**
  * Spring Data JPA repository for the Subquestion entity.
  */
 @SuppressWarnings("unused")
-public interface SubquestionRepository extends JpaRepository<Subquestion,Long> {
+public interface SubquestionRepository extends JpaRepository<Subquestion,Long>, KeysetRepository<Subquestion> {
 
 	Page<Subquestion> findByQuestionId(long id,Pageable pageable);
 
+	List<Subquestion> findByQuestionIdIn(Collection<Long> questionIds);
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Answer;
+import com.innvo.domain.search.AnswerDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Answer entity.
+ * Spring Data ElasticSearch repository for the Answer documents.
  */
-public interface AnswerSearchRepository extends ElasticsearchRepository<Answer, Long> {
+public interface AnswerSearchRepository extends ElasticsearchRepository<AnswerDocument, Long> {
 }
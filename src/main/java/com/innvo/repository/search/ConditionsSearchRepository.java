@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Conditions;
+import com.innvo.domain.search.ConditionsDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Conditions entity.
+ * Spring Data ElasticSearch repository for the Conditions documents.
  */
-public interface ConditionsSearchRepository extends ElasticsearchRepository<Conditions, Long> {
+public interface ConditionsSearchRepository extends ElasticsearchRepository<ConditionsDocument, Long> {
 }
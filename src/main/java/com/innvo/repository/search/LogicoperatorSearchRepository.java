@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Logicoperator;
+import com.innvo.domain.search.LogicoperatorDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Logicoperator entity.
+ * Spring Data ElasticSearch repository for the Logicoperator documents.
  */
-public interface LogicoperatorSearchRepository extends ElasticsearchRepository<Logicoperator, Long> {
+public interface LogicoperatorSearchRepository extends ElasticsearchRepository<LogicoperatorDocument, Long> {
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Question;
+import com.innvo.domain.search.QuestionDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Question entity.
+ * Spring Data ElasticSearch repository for the Question documents.
  */
-public interface QuestionSearchRepository extends ElasticsearchRepository<Question, Long> {
+public interface QuestionSearchRepository extends ElasticsearchRepository<QuestionDocument, Long> {
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Questiongroup;
+import com.innvo.domain.search.QuestiongroupDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Questiongroup entity.
+ * Spring Data ElasticSearch repository for the Questiongroup documents.
  */
-public interface QuestiongroupSearchRepository extends ElasticsearchRepository<Questiongroup, Long> {
+public interface QuestiongroupSearchRepository extends ElasticsearchRepository<QuestiongroupDocument, Long> {
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Questionnaire;
+import com.innvo.domain.search.QuestionnaireDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Questionnaire entity.
+ * Spring Data ElasticSearch repository for the Questionnaire documents.
  */
-public interface QuestionnaireSearchRepository extends ElasticsearchRepository<Questionnaire, Long> {
+public interface QuestionnaireSearchRepository extends ElasticsearchRepository<QuestionnaireDocument, Long> {
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Response;
+import com.innvo.domain.search.ResponseDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Response entity.
+ * Spring Data ElasticSearch repository for the Response documents.
  */
-public interface ResponseSearchRepository extends ElasticsearchRepository<Response, Long> {
+public interface ResponseSearchRepository extends ElasticsearchRepository<ResponseDocument, Long> {
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Responsedetail;
+import com.innvo.domain.search.ResponsedetailDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Responsedetail entity.
+ * Spring Data ElasticSearch repository for the Responsedetail documents.
  */
-public interface ResponsedetailSearchRepository extends ElasticsearchRepository<Responsedetail, Long> {
+public interface ResponsedetailSearchRepository extends ElasticsearchRepository<ResponsedetailDocument, Long> {
 }
@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Responsembr;
+import com.innvo.domain.search.ResponsembrDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Responsembr entity.
+ * Spring Data ElasticSearch repository for the Responsembr documents.
  */
-public interface ResponsembrSearchRepository extends ElasticsearchRepository<Responsembr, Long> {
+public interface ResponsembrSearchRepository extends ElasticsearchRepository<ResponsembrDocument, Long> {
 }
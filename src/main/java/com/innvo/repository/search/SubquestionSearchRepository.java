@@ -1,10 +1,10 @@
 package com.innvo.repository.search;
 
-import com.innvo.domain.Subquestion;
+import com.innvo.domain.search.SubquestionDocument;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 
 /**
- * Spring Data ElasticSearch repository for the Subquestion entity.
+ * Spring Data ElasticSearch repository for the Subquestion documents.
  */
-public interface SubquestionSearchRepository extends ElasticsearchRepository<Subquestion, Long> {
+public interface SubquestionSearchRepository extends ElasticsearchRepository<SubquestionDocument, Long> {
 }
@@ -2,11 +2,20 @@ package com.innvo.security.jwt;
 
 import com.innvo.config.JHipsterProperties;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,6 +27,17 @@ import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.*;
 
+/**
+ * Creates and reads the JWT tokens.
+ *
+ * <p>
+ * The claims read from a valid token are kept in a bounded concurrent cache until the token expires, so
+ * the requests sent with the same token only verify and parse it once. Each request still gets its own
+ * authentication, built from the cached claims. Entries are keyed by the SHA-256 digest of the token, so
+ * the cache never holds the tokens themselves. When the cache is full, the expired entries are dropped,
+ * then those expiring first.
+ * </p>
+ */
 @Component
 public class TokenProvider {
 
@@ -31,13 +51,29 @@ public class TokenProvider {
 
     private long tokenValidityInSecondsForRememberMe;
 
+    private final ConcurrentMap<String, CachedClaims> claimsCache = new ConcurrentHashMap<>();
+
+    private int cacheSize;
+
+    private Meter cacheHits;
+
+    private Meter cacheMisses;
+
     @Inject
     private JHipsterProperties jHipsterProperties;
 
+    @Inject
+    private MetricRegistry metricRegistry;
+
     @PostConstruct
     public void init() {
         this.secretKey =
             jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
+        this.cacheSize = jHipsterProperties.getSecurity().getAuthentication().getJwt().getCacheSize();
+        this.cacheHits = metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "hits"));
+        this.cacheMisses = metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "misses"));
+        metricRegistry.register(MetricRegistry.name(TokenProvider.class, "cache", "size"),
+            (Gauge<Integer>) claimsCache::size);
 
         this.tokenValidityInSeconds =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
@@ -66,12 +102,63 @@ public class TokenProvider {
             .compact();
     }
 
+    /**
+     * Read the authentication of a token, verifying and parsing it only if its claims are not cached yet.
+     *
+     * @param token the JWT token
+     * @return the authentication, or null if the signature of the token is invalid
+     * @throws ExpiredJwtException if the token has expired
+     */
+    public Authentication resolveAuthentication(String token) {
+        String key = digest(token);
+        CachedClaims cached = claimsCache.get(key);
+        if (cached != null) {
+            if (cached.expiration > System.currentTimeMillis()) {
+                cacheHits.mark();
+                return toAuthentication(cached.claims);
+            }
+            // parse the token again below, so an expired token is rejected as before
+            claimsCache.remove(key, cached);
+        }
+        cacheMisses.mark();
+        Claims claims;
+        try {
+            claims = parseClaims(token);
+        } catch (SignatureException e) {
+            log.info("Invalid JWT signature: " + e.getMessage());
+            return null;
+        }
+        if (claims.getExpiration() != null) {
+            claimsCache.put(key, new CachedClaims(claims, claims.getExpiration().getTime()));
+            if (claimsCache.size() > cacheSize) {
+                evict();
+            }
+        }
+        return toAuthentication(claims);
+    }
+
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parser()
+        return toAuthentication(parseClaims(token));
+    }
+
+    public boolean validateToken(String authToken) {
+        try {
+            parseClaims(authToken);
+            return true;
+        } catch (SignatureException e) {
+            log.info("Invalid JWT signature: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private Claims parseClaims(String token) {
+        return Jwts.parser()
             .setSigningKey(secretKey)
             .parseClaimsJws(token)
             .getBody();
+    }
 
+    private Authentication toAuthentication(Claims claims) {
         Collection<? extends GrantedAuthority> authorities =
             Arrays.asList(claims.get(AUTHORITIES_KEY).toString().split(",")).stream()
                 .map(authority -> new SimpleGrantedAuthority(authority))
@@ -83,13 +170,45 @@ public class TokenProvider {
         return new UsernamePasswordAuthenticationToken(principal, "", authorities);
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Drop the expired entries, then those expiring first, down to nine tenths of the cache size, so the
+     * next evictions are not run on every miss. One thread evicts at a time; the others keep reading.
+     */
+    private synchronized void evict() {
+        if (claimsCache.size() <= cacheSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        claimsCache.values().removeIf(cached -> cached.expiration <= now);
+        int excess = claimsCache.size() - cacheSize * 9 / 10;
+        if (excess > 0) {
+            claimsCache.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().expiration))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(claimsCache::remove);
+        }
+    }
+
+    private static String digest(String token) {
         try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException e) {
-            log.info("Invalid JWT signature: " + e.getMessage());
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedClaims {
+
+        private final Claims claims;
+
+        private final long expiration;
+
+        private CachedClaims(Claims claims, long expiration) {
+            this.claims = claims;
+            this.expiration = expiration;
         }
     }
 }
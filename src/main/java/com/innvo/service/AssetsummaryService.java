@@ -0,0 +1,151 @@
+package com.innvo.service;
+
+import com.innvo.domain.Assetsummary;
+import com.innvo.domain.Response;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.repository.ResponsembrRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Service for maintaining the Assetsummaries, see {@link Assetsummary}.
+ *
+ * <p>
+ * A summary is recomputed from the latest response of its asset to its questionnaire, in the transaction
+ * that saved the response, its Responsembrs or its Responsedetails. It is recomputed and written by one
+ * SQL statement, so two transactions refreshing the same summary do not race on its unique index.
+ * </p>
+ */
+@Service
+@Transactional
+public class AssetsummaryService {
+
+    private final Logger log = LoggerFactory.getLogger(AssetsummaryService.class);
+
+    private static final String COLUMNS = "asset_id, questionnaire_id, response_id, status, lastmodifieddatetime, " +
+        "question_count, answered_count, answer_count, completion";
+
+    /**
+     * The summary of an asset for a questionnaire, from its latest response, or no row if it has none.
+     */
+    private static final String SUMMARY_SQL =
+        "SELECT s.asset_id, s.questionnaire_id, s.response_id, s.status, s.lastmodifieddatetime, " +
+        "s.question_count, s.answered_count, s.answer_count, " +
+        "CASE WHEN s.question_count = 0 THEN 0 WHEN s.answered_count >= s.question_count THEN 100 " +
+        "ELSE s.answered_count * 100 / s.question_count END " +
+        "FROM (SELECT CAST(? AS bigint) AS asset_id, r.questionnaire_id, r.id AS response_id, r.status, r.lastmodifieddatetime, " +
+        "(SELECT COUNT(*) FROM question q JOIN questiongroup g ON g.id = q.questiongroup_id " +
+        "WHERE g.questionnaire_id = r.questionnaire_id) AS question_count, " +
+        "(SELECT COUNT(DISTINCT a.question_id) FROM responseanswer a WHERE a.response_id = r.id) AS answered_count, " +
+        "(SELECT COUNT(*) FROM responseanswer a WHERE a.response_id = r.id) AS answer_count " +
+        "FROM response r WHERE r.id = (SELECT MAX(p.id) FROM responsembr m JOIN response p ON p.id = m.response_id " +
+        "WHERE m.asset_id = ? AND p.questionnaire_id = ?)) s";
+
+    private static final String INSERT_SQL = "INSERT INTO assetsummary (id, " + COLUMNS + ") " +
+        "SELECT nextval('assetsummary_seq'), summary.* FROM (" + SUMMARY_SQL + ") summary";
+
+    /**
+     * One statement, so concurrent refreshes of the same summary wait for each other on the unique index
+     * ux_assetsummary_asset_id_questionnaire_id, instead of both inserting it.
+     */
+    private static final String UPSERT_SQL = INSERT_SQL + " ON CONFLICT (asset_id, questionnaire_id) DO UPDATE SET " +
+        "response_id = EXCLUDED.response_id, status = EXCLUDED.status, lastmodifieddatetime = EXCLUDED.lastmodifieddatetime, " +
+        "question_count = EXCLUDED.question_count, answered_count = EXCLUDED.answered_count, " +
+        "answer_count = EXCLUDED.answer_count, completion = EXCLUDED.completion";
+
+    /**
+     * Without ON CONFLICT (H2, in the tests), the summary is updated, and inserted if there was none.
+     */
+    private static final String UPDATE_SQL = "UPDATE assetsummary SET (" + COLUMNS + ") = (" + SUMMARY_SQL + ") " +
+        "WHERE asset_id = ? AND questionnaire_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM assetsummary WHERE asset_id = ? AND questionnaire_id = ? " +
+        "AND NOT EXISTS (SELECT m.id FROM responsembr m JOIN response p ON p.id = m.response_id " +
+        "WHERE m.asset_id = ? AND p.questionnaire_id = ?)";
+
+    @Inject
+    private ResponsembrRepository responsembrRepository;
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private String upsertSql;
+
+    @PostConstruct
+    public void init() {
+        upsertSql = isPostgreSQL() ? UPSERT_SQL : null;
+    }
+
+    /**
+     * Refresh the summaries of the assets of a response.
+     *
+     * @param responseId the id of the saved response
+     */
+    public void refreshByResponse(Long responseId) {
+        if (responseId == null) {
+            return;
+        }
+        Response response = responseRepository.findOne(responseId);
+        if (response == null || response.getQuestionnaire() == null) {
+            return;
+        }
+        for (Long assetId : responsembrRepository.findAssetIdsByResponseId(responseId)) {
+            refresh(assetId, response.getQuestionnaire().getId());
+        }
+    }
+
+    /**
+     * Refresh the summary of an asset for the questionnaire of a response.
+     *
+     * @param assetId the id of the asset
+     * @param responseId the id of a response of the asset
+     */
+    public void refreshByAsset(Long assetId, Long responseId) {
+        if (assetId == null || responseId == null) {
+            return;
+        }
+        Response response = responseRepository.findOne(responseId);
+        if (response != null && response.getQuestionnaire() != null) {
+            refresh(assetId, response.getQuestionnaire().getId());
+        }
+    }
+
+    /**
+     * Refresh the summary of an asset for a questionnaire, deleting it when the asset has no response left.
+     *
+     * @param assetId the id of the asset
+     * @param questionnaireId the id of the questionnaire
+     */
+    public void refresh(Long assetId, Long questionnaireId) {
+        log.debug("Request to refresh the Assetsummary of asset {} for Questionnaire : {}", assetId, questionnaireId);
+        // the counts are read with SQL, from the rows written so far in the transaction
+        entityManager.flush();
+        jdbcTemplate.update(DELETE_SQL, assetId, questionnaireId, assetId, questionnaireId);
+        if (upsertSql != null) {
+            jdbcTemplate.update(upsertSql, assetId, assetId, questionnaireId);
+        } else if (jdbcTemplate.update(UPDATE_SQL, assetId, assetId, questionnaireId, assetId, questionnaireId) == 0) {
+            jdbcTemplate.update(INSERT_SQL, assetId, assetId, questionnaireId);
+        }
+    }
+
+    private boolean isPostgreSQL() {
+        return "PostgreSQL".equals(jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+}
@@ -0,0 +1,254 @@
+package com.innvo.service;
+
+import com.innvo.config.Constants;
+import com.innvo.domain.Answer;
+import com.innvo.domain.Conditions;
+import com.innvo.domain.Logicoperator;
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Subquestion;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service clearing the Spring caches built from entities, once the transactions writing them are committed.
+ *
+ * <p>
+ * Every insert, update and delete flushed by Hibernate is seen, whatever the repository method or service
+ * that made it, so the caches do not depend on each write path remembering to evict them. The writes made
+ * behind Hibernate, with plain SQL, must call {@link #evictAfterCommit(Class)} themselves, and
+ * {@link #evictEntitiesAfterCommit(Class, Collection)} for the rows they update or delete.
+ * </p>
+ * <p>
+ * The caches are cleared after the commit, and not when the entity is written, as a reader filling a cache in
+ * the meantime still sees the rows the transaction is replacing. Such a reader could still put what it built
+ * after the clear, so the values are put with {@link #put(String, Object, Object, long)}: every clear first
+ * moves a cluster-wide version of the cache, and a value built from an older version is not kept.
+ * </p>
+ */
+@Service
+public class CacheEvictionService {
+
+    private final Logger log = LoggerFactory.getLogger(CacheEvictionService.class);
+
+    private final Map<Class<?>, Set<String>> cacheNamesByEntity = new HashMap<>();
+
+    private final Map<String, IAtomicLong> versions = new HashMap<>();
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private HazelcastInstance hazelcastInstance;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void init() {
+        evictOnWrite(Constants.CACHE_QUESTIONNAIRE_TREE, Questionnaire.class, Questiongroup.class, Question.class,
+            Answer.class, Subquestion.class);
+        evictOnWrite(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION, Question.class, Conditions.class);
+        evictOnWrite(Constants.CACHE_SKIP_LOGIC, Question.class, Answer.class, Subquestion.class, Conditions.class,
+            Logicoperator.class);
+
+        EntityWriteListener listener = new EntityWriteListener();
+        EventListenerRegistry registry = ((SessionFactoryImplementor) entityManagerFactory.unwrap(SessionFactory.class))
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * @param cacheName the name of the cache
+     * @return the version of the cache, to read before building a value that is to be put in it
+     */
+    public long getVersion(String cacheName) {
+        return versions.get(cacheName).get();
+    }
+
+    /**
+     * Put a value in a cache, unless the cache was cleared since its version was read, or the current
+     * transaction wrote an entity it is built from: the value may then show rows that are no longer, or not
+     * yet, committed.
+     *
+     * @param cacheName the name of the cache
+     * @param key the key of the value
+     * @param value the value
+     * @param version the version of the cache read before the value was built
+     */
+    public void put(String cacheName, Object key, Object value, long version) {
+        if (isPendingEviction(cacheName) || getVersion(cacheName) != version) {
+            log.debug("Not caching {} in the {} cache, cleared while it was built", key, cacheName);
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        cache.put(key, value);
+        // a clear moves the version before it runs: if it ran before the put, the value is removed again
+        if (getVersion(cacheName) != version) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Clear the caches built from an entity once the current transaction is committed, or at once outside of
+     * a transaction.
+     *
+     * @param entityClass the class of the entity written
+     */
+    public void evictAfterCommit(Class<?> entityClass) {
+        Set<String> cacheNames = cacheNamesByEntity.get(entityClass);
+        if (cacheNames != null) {
+            evictAfterCommit(cacheNames);
+        }
+    }
+
+    /**
+     * Evict entities updated or deleted behind Hibernate from its second level cache, at once and again once the
+     * current transaction is committed, as a reader may cache the rows they replace in the meantime.
+     *
+     * @param entityClass the class of the entities
+     * @param ids the ids of the entities
+     */
+    public void evictEntitiesAfterCommit(Class<?> entityClass, Collection<? extends Serializable> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        evictEntities(entityClass, ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEviction().entityIds.computeIfAbsent(entityClass, key -> ConcurrentHashMap.newKeySet()).addAll(ids);
+        }
+    }
+
+    private void evictOnWrite(String cacheName, Class<?>... entityClasses) {
+        for (Class<?> entityClass : entityClasses) {
+            cacheNamesByEntity.computeIfAbsent(entityClass, key -> new LinkedHashSet<>()).add(cacheName);
+        }
+        versions.put(cacheName, hazelcastInstance.getAtomicLong(cacheName));
+    }
+
+    private boolean isPendingEviction(String cacheName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEviction) {
+                return ((PendingEviction) synchronization).cacheNames.contains(cacheName);
+            }
+        }
+        return false;
+    }
+
+    private void evictAfterCommit(Collection<String> cacheNames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheNames.forEach(this::evict);
+            return;
+        }
+        pendingEviction().cacheNames.addAll(cacheNames);
+    }
+
+    /**
+     * @return the evictions of the current transaction: one per transaction, however many entities it writes
+     */
+    private PendingEviction pendingEviction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEviction) {
+                return (PendingEviction) synchronization;
+            }
+        }
+        PendingEviction pending = new PendingEviction();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void evict(String cacheName) {
+        log.debug("Clearing the {} cache", cacheName);
+        versions.get(cacheName).incrementAndGet();
+        cacheManager.getCache(cacheName).clear();
+    }
+
+    private void evictEntities(Class<?> entityClass, Collection<? extends Serializable> ids) {
+        log.debug("Evicting {} {} from the second level cache", ids.size(), entityClass.getSimpleName());
+        javax.persistence.Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(entityClass, id));
+    }
+
+    /**
+     * The caches to clear and the entities to evict once the transaction is committed.
+     */
+    private class PendingEviction extends TransactionSynchronizationAdapter {
+
+        private final Set<String> cacheNames = Collections.synchronizedSet(new LinkedHashSet<>());
+
+        private final Map<Class<?>, Set<Serializable>> entityIds = new ConcurrentHashMap<>();
+
+        @Override
+        public void afterCommit() {
+            cacheNames.forEach(CacheEvictionService.this::evict);
+            entityIds.forEach(CacheEvictionService.this::evictEntities);
+        }
+    }
+
+    /**
+     * Records the caches to clear for every entity flushed.
+     */
+    private class EntityWriteListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            evictAfterCommit(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            evictAfterCommit(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            evictAfterCommit(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
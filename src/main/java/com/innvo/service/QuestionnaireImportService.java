@@ -0,0 +1,296 @@
+package com.innvo.service;
+
+import com.innvo.config.Constants;
+import com.innvo.domain.Answer;
+import com.innvo.domain.Conditions;
+import com.innvo.domain.Logicoperator;
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Subquestion;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.security.SpringSecurityAuditorAware;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO.AnswerImport;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO.ConditionImport;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO.LogicoperatorImport;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO.QuestionImport;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO.QuestiongroupImport;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO.SubquestionImport;
+import com.innvo.web.rest.errors.CustomParameterizedException;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for importing a whole questionnaire tree at once, see {@link QuestionnaireImportDTO}.
+ *
+ * <p>
+ * The references of the document are all checked before anything is written. The rows are then
+ * inserted with one JDBC batch per table, in one transaction, with ids drawn from the identifier
+ * generators of the entities. The imported entities are queued for indexing in the search outbox,
+ * which indexes them with the bulk API.
+ * </p>
+ */
+@Service
+@Transactional
+public class QuestionnaireImportService {
+
+    private final Logger log = LoggerFactory.getLogger(QuestionnaireImportService.class);
+
+    private static final String INSERT_QUESTIONNAIRE_SQL = "INSERT INTO questionnaire " +
+        "(id, title, status, lastmodifiedby, lastmodifieddatetime, domain) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_QUESTIONGROUP_SQL = "INSERT INTO questiongroup " +
+        "(id, title, description, position, status, lastmodifiedby, lastmodifieddatetime, domain, questionnaire_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // the questiongroup, answer and subquestion rows have the same column types
+    private static final int[] LABEL_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+        Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.BIGINT};
+
+    private static final String INSERT_QUESTION_SQL = "INSERT INTO question " +
+        "(id, question, mandatory, code, position, status, lastmodifiedby, lastmodifieddatetime, domain, type, help, questiongroup_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] QUESTION_TYPES = {Types.BIGINT, Types.VARCHAR, Types.BOOLEAN, Types.VARCHAR, Types.INTEGER,
+        Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT};
+
+    private static final String INSERT_ANSWER_SQL = "INSERT INTO answer " +
+        "(id, code, answeroption, position, status, lastmodifiedby, lastmodifieddatetime, domain, question_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SUBQUESTION_SQL = "INSERT INTO subquestion " +
+        "(id, subquestion, code, position, status, lastmodifiedby, lastmodifieddatetime, domain, question_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CONDITIONS_SQL = "INSERT INTO conditions " +
+        "(id, action, operator, response, displayedquestion_id, question_id, questionnaire_id, subquestion_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] CONDITIONS_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+        Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT};
+
+    private static final String INSERT_LOGICOPERATOR_SQL = "INSERT INTO logicoperator " +
+        "(id, operator, firstquestion_id, secondquestion_id, questionnaire_id, firstsubquestion_id, secondsubquestion_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] LOGICOPERATOR_TYPES = {Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.BIGINT,
+        Types.BIGINT, Types.BIGINT, Types.BIGINT};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private CacheEvictionService cacheEvictionService;
+
+    @Inject
+    private SpringSecurityAuditorAware springSecurityAuditorAware;
+
+    /**
+     * Import a questionnaire tree.
+     *
+     * @param document the questionnaire tree
+     * @return the imported questionnaire
+     * @throws CustomParameterizedException if the document has unknown, duplicated or conflicting references
+     */
+    public Questionnaire importQuestionnaire(QuestionnaireImportDTO document) {
+        log.debug("Request to import Questionnaire : {}", document);
+        validate(document);
+
+        SessionImplementor session = (SessionImplementor) entityManager.unwrap(Session.class);
+        String lastmodifiedby = springSecurityAuditorAware.getCurrentAuditor();
+        Timestamp lastmodifieddatetime = Timestamp.from(ZonedDateTime.now().toInstant());
+        String domain = document.getDomain();
+
+        Long questionnaireId = nextId(session, Questionnaire.class);
+        jdbcTemplate.update(INSERT_QUESTIONNAIRE_SQL, questionnaireId, document.getTitle(), document.getStatus(),
+            lastmodifiedby, lastmodifieddatetime, domain);
+
+        Map<String, Long> questionIds = new HashMap<>();
+        Map<String, Long> subquestionIds = new HashMap<>();
+        List<Object[]> questiongroups = new ArrayList<>();
+        List<Object[]> questions = new ArrayList<>();
+        List<Object[]> answers = new ArrayList<>();
+        List<Object[]> subquestions = new ArrayList<>();
+        for (QuestiongroupImport questiongroup : document.getQuestiongroups()) {
+            Long questiongroupId = nextId(session, Questiongroup.class);
+            questiongroups.add(new Object[]{questiongroupId, questiongroup.getTitle(), questiongroup.getDescription(),
+                questiongroup.getPosition(), status(questiongroup.getStatus(), document), lastmodifiedby,
+                lastmodifieddatetime, domain, questionnaireId});
+            for (QuestionImport question : questiongroup.getQuestions()) {
+                Long questionId = nextId(session, Question.class);
+                if (question.getRef() != null) {
+                    questionIds.put(question.getRef(), questionId);
+                }
+                questions.add(new Object[]{questionId, question.getQuestion(), question.getMandatory(), question.getCode(),
+                    question.getPosition(), status(question.getStatus(), document), lastmodifiedby, lastmodifieddatetime,
+                    domain, question.getType(), question.getHelp(), questiongroupId});
+                for (AnswerImport answer : question.getAnswers()) {
+                    answers.add(new Object[]{nextId(session, Answer.class), answer.getCode(), answer.getAnsweroption(),
+                        answer.getPosition(), status(answer.getStatus(), document), lastmodifiedby, lastmodifieddatetime,
+                        domain, questionId});
+                }
+                for (SubquestionImport subquestion : question.getSubquestions()) {
+                    Long subquestionId = nextId(session, Subquestion.class);
+                    if (subquestion.getRef() != null) {
+                        subquestionIds.put(subquestion.getRef(), subquestionId);
+                    }
+                    subquestions.add(new Object[]{subquestionId, subquestion.getSubquestion(), subquestion.getCode(),
+                        subquestion.getPosition(), status(subquestion.getStatus(), document), lastmodifiedby,
+                        lastmodifieddatetime, domain, questionId});
+                }
+            }
+        }
+        List<Object[]> conditions = new ArrayList<>();
+        for (ConditionImport condition : document.getConditions()) {
+            conditions.add(new Object[]{nextId(session, Conditions.class), condition.getAction(), condition.getOperator(),
+                condition.getResponse(), questionIds.get(condition.getDisplayedquestion()),
+                questionIds.get(condition.getQuestion()), questionnaireId, subquestionIds.get(condition.getSubquestion())});
+        }
+        List<Object[]> logicoperators = new ArrayList<>();
+        for (LogicoperatorImport logicoperator : document.getLogicoperators()) {
+            logicoperators.add(new Object[]{nextId(session, Logicoperator.class), logicoperator.getOperator(),
+                questionIds.get(logicoperator.getFirstquestion()), questionIds.get(logicoperator.getSecondquestion()),
+                questionnaireId, subquestionIds.get(logicoperator.getFirstsubquestion()),
+                subquestionIds.get(logicoperator.getSecondsubquestion())});
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_QUESTIONGROUP_SQL, questiongroups, LABEL_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_QUESTION_SQL, questions, QUESTION_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, answers, LABEL_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_SUBQUESTION_SQL, subquestions, LABEL_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_CONDITIONS_SQL, conditions, CONDITIONS_TYPES);
+        jdbcTemplate.batchUpdate(INSERT_LOGICOPERATOR_SQL, logicoperators, LOGICOPERATOR_TYPES);
+        log.info("Imported Questionnaire {}: {} questiongroups, {} questions, {} answers, {} subquestions, " +
+            "{} conditions, {} logicoperators", questionnaireId, questiongroups.size(), questions.size(),
+            answers.size(), subquestions.size(), conditions.size(), logicoperators.size());
+
+        // the rows were inserted behind Hibernate, so its cached finder results are stale
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(Constants.QUERY_CACHE_QUESTIONGROUPS_BY_QUESTIONNAIRE);
+        cache.evictQueryRegion(Constants.QUERY_CACHE_QUESTIONS_BY_QUESTIONGROUP);
+        cache.evictQueryRegion(Constants.QUERY_CACHE_LOGICOPERATORS_BY_QUESTIONNAIRE);
+        for (Class<?> entityClass : Arrays.asList(Questionnaire.class, Questiongroup.class, Question.class, Answer.class,
+            Subquestion.class, Conditions.class, Logicoperator.class)) {
+            cacheEvictionService.evictAfterCommit(entityClass);
+        }
+
+        searchOutboxService.index(Questionnaire.class, Collections.singleton(questionnaireId));
+        searchOutboxService.index(Questiongroup.class, ids(questiongroups));
+        searchOutboxService.index(Question.class, ids(questions));
+        searchOutboxService.index(Answer.class, ids(answers));
+        searchOutboxService.index(Subquestion.class, ids(subquestions));
+        searchOutboxService.index(Conditions.class, ids(conditions));
+        searchOutboxService.index(Logicoperator.class, ids(logicoperators));
+        return questionnaireRepository.findOne(questionnaireId);
+    }
+
+    /**
+     * Check the references of a document, and fail with all the errors found.
+     */
+    private void validate(QuestionnaireImportDTO document) {
+        List<String> errors = new ArrayList<>();
+        Set<String> questionRefs = new HashSet<>();
+        Set<String> subquestionRefs = new HashSet<>();
+        for (QuestiongroupImport questiongroup : document.getQuestiongroups()) {
+            for (QuestionImport question : questiongroup.getQuestions()) {
+                if (question.getRef() != null && !questionRefs.add(question.getRef())) {
+                    errors.add("Duplicated question ref: " + question.getRef());
+                }
+                for (SubquestionImport subquestion : question.getSubquestions()) {
+                    if (subquestion.getRef() != null && !subquestionRefs.add(subquestion.getRef())) {
+                        errors.add("Duplicated subquestion ref: " + subquestion.getRef());
+                    }
+                }
+            }
+        }
+
+        Set<String> conditionedQuestions = new HashSet<>();
+        for (ConditionImport condition : document.getConditions()) {
+            checkRef(errors, "condition displayedquestion", condition.getDisplayedquestion(), questionRefs);
+            checkRef(errors, "condition question", condition.getQuestion(), questionRefs);
+            checkRef(errors, "condition subquestion", condition.getSubquestion(), subquestionRefs);
+            if (condition.getQuestion() != null && !conditionedQuestions.add(condition.getQuestion())) {
+                errors.add("Question " + condition.getQuestion() + " has more than one condition");
+            }
+        }
+        Set<String> firstquestions = new HashSet<>();
+        Set<String> secondquestions = new HashSet<>();
+        for (LogicoperatorImport logicoperator : document.getLogicoperators()) {
+            checkRef(errors, "logicoperator firstquestion", logicoperator.getFirstquestion(), questionRefs);
+            checkRef(errors, "logicoperator secondquestion", logicoperator.getSecondquestion(), questionRefs);
+            checkRef(errors, "logicoperator firstsubquestion", logicoperator.getFirstsubquestion(), subquestionRefs);
+            checkRef(errors, "logicoperator secondsubquestion", logicoperator.getSecondsubquestion(), subquestionRefs);
+            if (logicoperator.getFirstquestion() != null && !firstquestions.add(logicoperator.getFirstquestion())) {
+                errors.add("Question " + logicoperator.getFirstquestion() + " is the first question of more than one logicoperator");
+            }
+            if (logicoperator.getSecondquestion() != null && !secondquestions.add(logicoperator.getSecondquestion())) {
+                errors.add("Question " + logicoperator.getSecondquestion() + " is the second question of more than one logicoperator");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new CustomParameterizedException("error.questionnaireImport", errors.toArray(new String[errors.size()]));
+        }
+    }
+
+    private static void checkRef(List<String> errors, String field, String ref, Set<String> refs) {
+        if (ref != null && !refs.contains(ref)) {
+            errors.add("Unknown " + field + " ref: " + ref);
+        }
+    }
+
+    private static String status(String status, QuestionnaireImportDTO document) {
+        return status != null ? status : document.getStatus();
+    }
+
+    private static Long nextId(SessionImplementor session, Class<?> entityClass) {
+        IdentifierGenerator generator = session.getFactory().getIdentifierGenerator(entityClass.getName());
+        return (Long) generator.generate(session, null);
+    }
+
+    private static List<Long> ids(List<Object[]> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,190 @@
+package com.innvo.service;
+
+import com.innvo.config.Constants;
+import com.innvo.domain.Answer;
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Subquestion;
+import com.innvo.repository.AnswerRepository;
+import com.innvo.repository.QuestionRepository;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.repository.QuestiongroupRepository;
+import com.innvo.repository.SubquestionRepository;
+import com.innvo.web.rest.dto.QuestionnaireTreeDTO;
+import com.innvo.web.rest.dto.QuestionnaireTreeDTO.AnswerNode;
+import com.innvo.web.rest.dto.QuestionnaireTreeDTO.QuestionNode;
+import com.innvo.web.rest.dto.QuestionnaireTreeDTO.QuestiongroupNode;
+import com.innvo.web.rest.dto.QuestionnaireTreeDTO.SubquestionNode;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for assembling a whole questionnaire, from its groups down to the answers and subquestions.
+ *
+ * <p>
+ * The tree is read with one query per level, each level being fetched with an "IN" on the ids of
+ * the level above. The serialized JSON is cached by questionnaire id, with an ETag computed from its
+ * content, so any change to the rows of the tree changes the ETag. The cache is cleared by the
+ * {@link CacheEvictionService} once a transaction writing a questionnaire, group, question, answer or
+ * subquestion is committed, and the trees read from the rows it replaced are not put back.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class QuestionnaireTreeService {
+
+    private final Logger log = LoggerFactory.getLogger(QuestionnaireTreeService.class);
+
+    private static final Comparator<Integer> POSITION_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private QuestiongroupRepository questiongroupRepository;
+
+    @Inject
+    private QuestionRepository questionRepository;
+
+    @Inject
+    private AnswerRepository answerRepository;
+
+    @Inject
+    private SubquestionRepository subquestionRepository;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private CacheEvictionService cacheEvictionService;
+
+    private Cache cache;
+
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(Constants.CACHE_QUESTIONNAIRE_TREE);
+    }
+
+    /**
+     * Get the serialized tree of a questionnaire.
+     *
+     * @param questionnaireId the id of the questionnaire
+     * @return the JSON of the tree and its ETag, or null if there is no such questionnaire
+     * @throws JsonProcessingException if the tree cannot be serialized
+     */
+    public SerializedTree getSerializedTree(Long questionnaireId) throws JsonProcessingException {
+        SerializedTree tree = cache.get(questionnaireId, SerializedTree.class);
+        if (tree == null) {
+            // the questionnaire is read after the version too, as its own fields are part of the tree
+            long version = cacheEvictionService.getVersion(Constants.CACHE_QUESTIONNAIRE_TREE);
+            Questionnaire questionnaire = questionnaireRepository.findOne(questionnaireId);
+            if (questionnaire == null) {
+                return null;
+            }
+            byte[] json = objectMapper.writeValueAsBytes(getTree(questionnaire));
+            tree = new SerializedTree(json, '"' + DigestUtils.md5DigestAsHex(json) + '"');
+            cacheEvictionService.put(Constants.CACHE_QUESTIONNAIRE_TREE, questionnaireId, tree, version);
+        }
+        return tree;
+    }
+
+    /**
+     * Assemble the tree of a questionnaire.
+     *
+     * @param questionnaire the questionnaire
+     * @return the tree
+     */
+    public QuestionnaireTreeDTO getTree(Questionnaire questionnaire) {
+        log.debug("Request to assemble the tree of Questionnaire : {}", questionnaire.getId());
+        QuestionnaireTreeDTO tree = new QuestionnaireTreeDTO(questionnaire);
+
+        List<Questiongroup> questiongroups = new ArrayList<>(questiongroupRepository.findByQuestionnaireId(questionnaire.getId()));
+        questiongroups.sort(Comparator.comparing(Questiongroup::getPosition, POSITION_ORDER).thenComparing(Questiongroup::getId));
+        if (questiongroups.isEmpty()) {
+            return tree;
+        }
+        List<Question> questions = new ArrayList<>(questionRepository.findByQuestiongroupIdIn(ids(questiongroups, Questiongroup::getId)));
+        questions.sort(Comparator.comparing(Question::getPosition, POSITION_ORDER).thenComparing(Question::getId));
+
+        Map<Long, List<Answer>> answers = Collections.emptyMap();
+        Map<Long, List<Subquestion>> subquestions = Collections.emptyMap();
+        if (!questions.isEmpty()) {
+            List<Long> questionIds = ids(questions, Question::getId);
+            answers = answerRepository.findByQuestionIdIn(questionIds).stream()
+                .sorted(Comparator.comparing(Answer::getPosition, POSITION_ORDER).thenComparing(Answer::getId))
+                .collect(Collectors.groupingBy(answer -> answer.getQuestion().getId()));
+            subquestions = subquestionRepository.findByQuestionIdIn(questionIds).stream()
+                .sorted(Comparator.comparing(Subquestion::getPosition, POSITION_ORDER).thenComparing(Subquestion::getId))
+                .collect(Collectors.groupingBy(subquestion -> subquestion.getQuestion().getId()));
+        }
+
+        Map<Long, QuestiongroupNode> groupNodes = new HashMap<>();
+        for (Questiongroup questiongroup : questiongroups) {
+            QuestiongroupNode groupNode = new QuestiongroupNode(questiongroup);
+            groupNodes.put(questiongroup.getId(), groupNode);
+            tree.getQuestiongroups().add(groupNode);
+        }
+        for (Question question : questions) {
+            QuestionNode questionNode = new QuestionNode(question);
+            answers.getOrDefault(question.getId(), Collections.emptyList())
+                .forEach(answer -> questionNode.getAnswers().add(new AnswerNode(answer)));
+            subquestions.getOrDefault(question.getId(), Collections.emptyList())
+                .forEach(subquestion -> questionNode.getSubquestions().add(new SubquestionNode(subquestion)));
+            groupNodes.get(question.getQuestiongroup().getId()).getQuestions().add(questionNode);
+        }
+        return tree;
+    }
+
+    private static <T> List<Long> ids(List<T> entities, Function<T, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toList());
+    }
+
+    /**
+     * The JSON of a questionnaire tree, with the ETag computed from its content.
+     */
+    public static class SerializedTree implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] json;
+
+        private final String etag;
+
+        public SerializedTree(byte[] json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
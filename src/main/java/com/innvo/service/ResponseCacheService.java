@@ -0,0 +1,344 @@
+package com.innvo.service;
+
+import com.innvo.config.Constants;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.IMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.Entity;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service keeping the serialized bodies of the cached GET responses, and invalidating them by tag.
+ *
+ * <p>
+ * A tag names an entity, for instance "Questionnaire:1051". A response is tagged with the entities it
+ * shows, and with the entities named by its path. Writing an entity invalidates its tag and the tags of
+ * the entities it belongs to, so the lists of their children are read again.
+ * </p>
+ * <p>
+ * Invalidating a tag records the next value of a cluster-wide sequence for it, and a response remembers
+ * the sequence read before it was built: a response is stale as soon as one of its tags was invalidated
+ * after that, even if the write committed while the response was being built. The tags are kept as long
+ * as the responses, so the stale responses expire before their tags.
+ * </p>
+ */
+@Service
+public class ResponseCacheService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponseCacheService.class);
+
+    @Inject
+    private HazelcastInstance hazelcastInstance;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private IMap<String, CachedResponse> responses;
+
+    private IMap<String, Long> tags;
+
+    private IAtomicLong sequence;
+
+    private Meter hitMeter;
+
+    private Meter missMeter;
+
+    private Meter staleMeter;
+
+    private Meter invalidationMeter;
+
+    private Histogram bytesHistogram;
+
+    @PostConstruct
+    public void init() {
+        responses = hazelcastInstance.getMap(Constants.CACHE_RESPONSES);
+        tags = hazelcastInstance.getMap(Constants.CACHE_RESPONSE_TAGS);
+        sequence = hazelcastInstance.getAtomicLong(Constants.CACHE_RESPONSE_TAGS);
+        hitMeter = metricRegistry.meter(MetricRegistry.name(ResponseCacheService.class, "hits"));
+        missMeter = metricRegistry.meter(MetricRegistry.name(ResponseCacheService.class, "misses"));
+        staleMeter = metricRegistry.meter(MetricRegistry.name(ResponseCacheService.class, "stale"));
+        invalidationMeter = metricRegistry.meter(MetricRegistry.name(ResponseCacheService.class, "invalidations"));
+        bytesHistogram = metricRegistry.histogram(MetricRegistry.name(ResponseCacheService.class, "bytes"));
+        metricRegistry.register(MetricRegistry.name(ResponseCacheService.class, "hit-ratio"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(hitMeter.getCount(), hitMeter.getCount() + missMeter.getCount());
+            }
+        });
+        metricRegistry.register(MetricRegistry.name(ResponseCacheService.class, "owned-bytes"),
+            (Gauge<Long>) () -> responses.getLocalMapStats().getOwnedEntryMemoryCost());
+    }
+
+    /**
+     * @param key the key of the response: its path and parameters
+     * @return the cached response, or null if there is none or it is stale
+     */
+    public CachedResponse get(String key) {
+        CachedResponse cached = responses.get(key);
+        if (cached != null && isStale(cached)) {
+            log.debug("Stale cached response {}", key);
+            staleMeter.mark();
+            responses.delete(key);
+            cached = null;
+        }
+        if (cached == null) {
+            missMeter.mark();
+        } else {
+            hitMeter.mark();
+        }
+        return cached;
+    }
+
+    /**
+     * @return the sequence to read before building a response that is to be cached
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Cache a response, unless one of its tags was invalidated while it was built.
+     *
+     * @param key the key of the response: its path and parameters
+     * @param sequence the sequence read before the response was built
+     * @param responseTags the tags of the response
+     * @param json the serialized body
+     * @param headers the headers to send with the body, besides the content headers
+     */
+    public void put(String key, long sequence, Set<String> responseTags, byte[] json, Map<String, List<String>> headers) {
+        CachedResponse cached = new CachedResponse(json, gzip(json), headers, responseTags, sequence);
+        if (isStale(cached)) {
+            log.debug("Not caching response {}, invalidated while it was built", key);
+            return;
+        }
+        bytesHistogram.update(json.length);
+        responses.set(key, cached);
+    }
+
+    /**
+     * Invalidate the responses showing an entity, or a list it belongs to.
+     *
+     * @param entity the entity created, or as it is after an update
+     */
+    public void invalidate(Object entity) {
+        invalidateTags(getWrittenTags(entity));
+    }
+
+    /**
+     * Update or delete an entity, and invalidate the responses showing it as it was and as it is, so the
+     * lists it is moved out of are invalidated too. The tags of the entity as it was are read before the
+     * write: saving merges the entity into the instance loaded, which no longer shows where it was.
+     *
+     * @param before the entity as it is before the write, or null if there is none
+     * @param write the write, returning the entity as it is after it, or null for a delete
+     * @return the entity returned by the write
+     */
+    public <T> T invalidateWrite(Object before, Supplier<T> write) {
+        Set<String> written = getWrittenTags(before);
+        T after = write.get();
+        written.addAll(getWrittenTags(after));
+        invalidateTags(written);
+        return after;
+    }
+
+    /**
+     * The tags to invalidate when an entity is written: its own, and those of the entities it belongs to.
+     *
+     * @param entity the entity, or null
+     * @return the tags
+     */
+    private Set<String> getWrittenTags(Object entity) {
+        Set<String> written = new LinkedHashSet<>();
+        if (entity == null) {
+            return written;
+        }
+        written.add(tagOf(entity));
+        ReflectionUtils.doWithFields(ClassUtils.getUserClass(entity), field -> {
+            Object parent = propertyValue(entity, field);
+            if (parent != null) {
+                written.add(tagOf(parent));
+            }
+        }, ResponseCacheService::isRelation);
+        return written;
+    }
+
+    /**
+     * Invalidate tags, for instance "Questionnaire:1051". In a transaction, they are invalidated again once
+     * it is committed, so the responses built from the rows it replaced in the meantime are not kept.
+     *
+     * @param invalidated the tags to invalidate
+     */
+    public void invalidateTags(Collection<String> invalidated) {
+        if (invalidated.isEmpty()) {
+            return;
+        }
+        log.debug("Invalidating the cached responses tagged {}", invalidated);
+        Set<String> copy = new HashSet<>(invalidated);
+        doInvalidateTags(copy);
+        invalidationMeter.mark(copy.size());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    doInvalidateTags(copy);
+                }
+            });
+        }
+    }
+
+    private void doInvalidateTags(Set<String> invalidated) {
+        long invalidatedSequence = sequence.incrementAndGet();
+        Map<String, Long> entries = new HashMap<>();
+        for (String tag : invalidated) {
+            entries.put(tag, invalidatedSequence);
+        }
+        tags.putAll(entries);
+    }
+
+    /**
+     * @param body a response body: an entity, or a collection of entities
+     * @return the tags of the entities shown in the body, including the related entities that are serialized
+     */
+    public Set<String> getTags(Object body) {
+        Set<String> bodyTags = new HashSet<>();
+        if (body instanceof Iterable) {
+            for (Object element : (Iterable<?>) body) {
+                collectTags(element, bodyTags);
+            }
+        } else {
+            collectTags(body, bodyTags);
+        }
+        return bodyTags;
+    }
+
+    /**
+     * @param type the class of an entity
+     * @param id the id of the entity
+     * @return the tag of the entity
+     */
+    public static String tag(Class<?> type, Object id) {
+        return type.getSimpleName() + ":" + id;
+    }
+
+    private void collectTags(Object entity, Set<String> collected) {
+        if (entity == null || !ClassUtils.getUserClass(entity).isAnnotationPresent(Entity.class) || !collected.add(tagOf(entity))) {
+            return;
+        }
+        ReflectionUtils.doWithFields(ClassUtils.getUserClass(entity), field -> collectTags(propertyValue(entity, field), collected),
+            field -> isRelation(field) && !field.isAnnotationPresent(JsonIgnore.class));
+    }
+
+    private boolean isStale(CachedResponse cached) {
+        for (Long invalidated : tags.getAll(cached.getTags()).values()) {
+            if (invalidated != null && invalidated > cached.getSequence()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRelation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class);
+    }
+
+    // through the getters, which are also proxied for the lazy relations
+    private static Object propertyValue(Object entity, Field field) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        return wrapper.isReadableProperty(field.getName()) ? wrapper.getPropertyValue(field.getName()) : null;
+    }
+
+    private static String tagOf(Object entity) {
+        return tag(ClassUtils.getUserClass(entity), PropertyAccessorFactory.forBeanPropertyAccess(entity).getPropertyValue("id"));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A cached response: its body, plain and gzipped, and its headers.
+     */
+    public static class CachedResponse implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] json;
+
+        private final byte[] gzippedJson;
+
+        private final HashMap<String, ArrayList<String>> headers = new HashMap<>();
+
+        private final HashSet<String> tags;
+
+        private final long sequence;
+
+        CachedResponse(byte[] json, byte[] gzippedJson, Map<String, List<String>> headers, Set<String> tags, long sequence) {
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+            headers.forEach((name, values) -> this.headers.put(name, new ArrayList<>(values)));
+            this.tags = new HashSet<>(tags);
+            this.sequence = sequence;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+
+        public Map<String, ? extends List<String>> getHeaders() {
+            return headers;
+        }
+
+        public Set<String> getTags() {
+            return tags;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+}
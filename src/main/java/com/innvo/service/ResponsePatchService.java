@@ -0,0 +1,194 @@
+package com.innvo.service;
+
+import com.innvo.domain.Question;
+import com.innvo.domain.Response;
+import com.innvo.repository.QuestionRepository;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.security.SpringSecurityAuditorAware;
+import com.innvo.web.rest.dto.AnswerChangeDTO;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for applying the answers changed by an autosave to a Response.
+ *
+ * <p>
+ * The changed answers are merged into the "details" JSON of the response and written to its
+ * Responsedetail rows in the same transaction, so the cost of an autosave follows the number of
+ * changed answers rather than the size of the questionnaire.
+ * </p>
+ */
+@Service
+@Transactional
+public class ResponsePatchService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponsePatchService.class);
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private QuestionRepository questionRepository;
+
+    @Inject
+    private ResponsedetailIngestionService responsedetailIngestionService;
+
+    @Inject
+    private SpringSecurityAuditorAware springSecurityAuditorAware;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    /**
+     * Apply changed answers to a response.
+     *
+     * @param response the response, locked for the transaction, see {@link ResponseRepository#findOneForUpdate}
+     * @param answers the changed answers, with numeric ids; an answer without response is removed
+     * @return the saved response
+     * @throws IOException if the details of the response are not a valid JSON object of questiongroups
+     */
+    public Response patchAnswers(Response response, List<AnswerChangeDTO> answers) throws IOException {
+        log.debug("Request to patch {} answers of Response : {}", answers.size(), response.getId());
+        resolveQuestiongroups(answers);
+        response.setDetails(patchDetails(response.getDetails(), answers));
+        response.setLastmodifiedby(springSecurityAuditorAware.getCurrentAuditor());
+        response.setLastmodifieddatetime(ZonedDateTime.now());
+        Response result = responseRepository.save(response);
+        responsedetailIngestionService.patch(result.getId(), answers);
+        return result;
+    }
+
+    /**
+     * Fill in the questiongroup of the answers that were sent without it.
+     */
+    private void resolveQuestiongroups(List<AnswerChangeDTO> answers) {
+        Set<Long> questionIds = new HashSet<>();
+        for (AnswerChangeDTO answer : answers) {
+            if (isBlank(answer.getQuestiongroup()) && !isBlank(answer.getQuestion())) {
+                questionIds.add(Long.valueOf(answer.getQuestion()));
+            }
+        }
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        Map<String, String> questiongroups = new HashMap<>();
+        for (Question question : questionRepository.findAll(questionIds)) {
+            if (question.getQuestiongroup() != null) {
+                questiongroups.put(question.getId().toString(), question.getQuestiongroup().getId().toString());
+            }
+        }
+        for (AnswerChangeDTO answer : answers) {
+            if (isBlank(answer.getQuestiongroup())) {
+                answer.setQuestiongroup(questiongroups.get(answer.getQuestion()));
+            }
+        }
+    }
+
+    /**
+     * Merge the changed answers into the "details" JSON of a response.
+     */
+    private String patchDetails(String details, List<AnswerChangeDTO> answers) throws IOException {
+        JsonNode tree = isBlank(details) ? objectMapper.createObjectNode() : objectMapper.readTree(details);
+        if (!tree.isObject()) {
+            throw new JsonMappingException("The details are not a JSON object");
+        }
+        ObjectNode root = (ObjectNode) tree;
+        ArrayNode questiongroups = array(root, "questiongroups");
+        Map<String, ArrayNode> questionsByQuestiongroup = new HashMap<>();
+        Map<String, ObjectNode> answersByKey = new HashMap<>();
+        Map<String, ArrayNode> parentsByKey = new HashMap<>();
+        for (JsonNode questiongroup : questiongroups) {
+            if (!questiongroup.isObject()) {
+                throw new JsonMappingException("A questiongroup of the details is not a JSON object");
+            }
+            ArrayNode questions = array((ObjectNode) questiongroup, "questions");
+            questionsByQuestiongroup.putIfAbsent(text(questiongroup.get("questiongroup")), questions);
+            for (JsonNode question : questions) {
+                if (!question.isObject()) {
+                    throw new JsonMappingException("A question of the details is not a JSON object");
+                }
+                String key = key(text(question.get("question")), text(question.get("subquestion")));
+                answersByKey.put(key, (ObjectNode) question);
+                parentsByKey.put(key, questions);
+            }
+        }
+
+        for (AnswerChangeDTO answer : answers) {
+            String key = key(answer.getQuestion(), answer.getSubquestion());
+            ObjectNode stored = answersByKey.get(key);
+            if (answer.getResponse() == null) {
+                if (stored != null) {
+                    remove(parentsByKey.get(key), stored);
+                    answersByKey.remove(key);
+                    parentsByKey.remove(key);
+                }
+            } else if (stored != null) {
+                stored.put("response", answer.getResponse());
+            } else {
+                String questiongroupId = answer.getQuestiongroup() == null ? "" : answer.getQuestiongroup();
+                ArrayNode questions = questionsByQuestiongroup.get(questiongroupId);
+                if (questions == null) {
+                    ObjectNode questiongroup = questiongroups.addObject();
+                    questiongroup.put("questiongroup", questiongroupId);
+                    questions = questiongroup.putArray("questions");
+                    questionsByQuestiongroup.put(questiongroupId, questions);
+                }
+                ObjectNode question = questions.addObject();
+                question.put("question", answer.getQuestion());
+                if (!isBlank(answer.getSubquestion())) {
+                    question.put("subquestion", answer.getSubquestion());
+                }
+                question.put("response", answer.getResponse());
+                answersByKey.put(key, question);
+                parentsByKey.put(key, questions);
+            }
+        }
+        return objectMapper.writeValueAsString(root);
+    }
+
+    private static ArrayNode array(ObjectNode node, String field) throws JsonMappingException {
+        JsonNode array = node.get(field);
+        if (array != null && !array.isArray()) {
+            throw new JsonMappingException("The " + field + " of the details are not a JSON array");
+        }
+        return node.withArray(field);
+    }
+
+    private static void remove(ArrayNode array, JsonNode node) {
+        for (int i = 0; i < array.size(); i++) {
+            if (array.get(i) == node) {
+                array.remove(i);
+                return;
+            }
+        }
+    }
+
+    private static String key(String question, String subquestion) {
+        return (question == null ? "" : question) + "/" + (subquestion == null ? "" : subquestion);
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? "" : node.asText();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
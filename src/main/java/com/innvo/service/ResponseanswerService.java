@@ -0,0 +1,180 @@
+package com.innvo.service;
+
+import com.innvo.domain.Answer;
+import com.innvo.domain.Responseanswer;
+import com.innvo.domain.Responsedetail;
+import com.innvo.repository.AnswerRepository;
+import com.innvo.repository.ResponseanswerRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for keeping the typed form of the Responsedetails, see {@link Responseanswer}.
+ *
+ * <p>
+ * Every write of a Responsedetail writes its Responseanswer in the same transaction. The responsedetail
+ * table no longer repeats the questionnaire and questiongroup ids, but keeps the "response" text, which the
+ * REST resource, the grouped streaming, the export and the response patches return as it was sent.
+ * </p>
+ */
+@Service
+@Transactional
+public class ResponseanswerService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponseanswerService.class);
+
+    private static final String DELETE_SQL = "DELETE FROM responseanswer WHERE id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO responseanswer " +
+        "(id, response_id, question_id, subquestion_id, answer_id, numeric_value, text_value) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Inject
+    private ResponseanswerRepository responseanswerRepository;
+
+    @Inject
+    private AnswerRepository answerRepository;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Load the ids of the answers of some questions, by code, adding them to a map of already loaded questions.
+     *
+     * @param questionIds the ids of the questions
+     * @param answerIdsByCode the ids of the answers by code, by question id; the missing questions are added to it
+     * @return the given map
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, Long>> loadAnswerIds(Collection<Long> questionIds, Map<Long, Map<String, Long>> answerIdsByCode) {
+        Set<Long> missing = new HashSet<>();
+        for (Long questionId : questionIds) {
+            if (questionId != null && !answerIdsByCode.containsKey(questionId)) {
+                missing.add(questionId);
+                answerIdsByCode.put(questionId, new HashMap<>());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Answer answer : answerRepository.findByQuestionIdIn(missing)) {
+                // the first answer wins when a question repeats a code
+                answerIdsByCode.get(answer.getQuestion().getId()).putIfAbsent(answer.getCode(), answer.getId());
+            }
+        }
+        return answerIdsByCode;
+    }
+
+    /**
+     * Type a Responsedetail.
+     *
+     * @param responsedetail the responsedetail
+     * @param answerIdsByCode the ids of the answers by code, by question id, as loaded by {@link #loadAnswerIds}
+     * @return the typed responsedetail
+     */
+    public Responseanswer toResponseanswer(Responsedetail responsedetail, Map<Long, Map<String, Long>> answerIdsByCode) {
+        return Responseanswer.of(responsedetail.getId(), responsedetail.getResponseId(), responsedetail.getQuestionId(),
+            responsedetail.getSubquestionId(), responsedetail.getResponse(), answerIdsByCode.get(responsedetail.getQuestionId()));
+    }
+
+    /**
+     * Save the typed form of a Responsedetail.
+     *
+     * @param responsedetail the saved responsedetail
+     * @return the typed responsedetail
+     */
+    public Responseanswer save(Responsedetail responsedetail) {
+        log.debug("Request to save the Responseanswer of Responsedetail : {}", responsedetail.getId());
+        Map<Long, Map<String, Long>> answerIdsByCode = loadAnswerIds(
+            Collections.singleton(responsedetail.getQuestionId()), new HashMap<>());
+        return responseanswerRepository.save(toResponseanswer(responsedetail, answerIdsByCode));
+    }
+
+    /**
+     * Delete the typed form of a Responsedetail.
+     *
+     * @param id the id of the responsedetail
+     */
+    public void delete(Long id) {
+        log.debug("Request to delete the Responseanswer of Responsedetail : {}", id);
+        if (responseanswerRepository.exists(id)) {
+            responseanswerRepository.delete(id);
+        }
+    }
+
+    /**
+     * Delete the typed form of some Responsedetails with one JDBC batch.
+     *
+     * @param ids the ids of the responsedetails
+     */
+    public void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids.stream().map(id -> new Object[] {id}).collect(Collectors.toList()));
+    }
+
+    /**
+     * Replace the typed form of some Responsedetails, whether it was already stored or not.
+     *
+     * @param responseanswers the new typed responsedetails, with the ids of their responsedetails
+     */
+    public void replace(List<Responseanswer> responseanswers) {
+        delete(responseanswers.stream().map(Responseanswer::getId).collect(Collectors.toList()));
+        insert(responseanswers);
+    }
+
+    /**
+     * Insert typed responsedetails with one JDBC batch.
+     *
+     * @param responseanswers the typed responsedetails, with the ids of their responsedetails
+     */
+    public void insert(List<Responseanswer> responseanswers) {
+        if (responseanswers.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Responseanswer responseanswer = responseanswers.get(i);
+                ps.setLong(1, responseanswer.getId());
+                setLong(ps, 2, responseanswer.getResponseId());
+                setLong(ps, 3, responseanswer.getQuestionId());
+                setLong(ps, 4, responseanswer.getSubquestionId());
+                setLong(ps, 5, responseanswer.getAnswerId());
+                ps.setBigDecimal(6, responseanswer.getNumericValue());
+                ps.setString(7, responseanswer.getTextValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return responseanswers.size();
+            }
+        });
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.innvo.service;
+
+import com.innvo.domain.Responsedetail;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Service for deleting the duplicated Responsedetail rows left by the full re-inserts of the
+ * former updateResponse.
+ *
+ * <p>
+ * For every response, only the row with the highest id is kept for each question and subquestion.
+ * Responses are compacted in batches, one transaction per batch, so the job can be stopped and run again.
+ * </p>
+ */
+@Service
+public class ResponsedetailCompactionService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponsedetailCompactionService.class);
+
+    private static final int RESPONSES_PER_TRANSACTION = 100;
+
+    private static final String SELECT_DUPLICATED_SQL = "SELECT response_id FROM responsedetail " +
+        "WHERE response_id IS NOT NULL GROUP BY response_id, question_id, subquestion_id HAVING COUNT(*) > 1";
+
+    private static final String LATEST_SQL = "SELECT MAX(k.id) FROM responsedetail k " +
+        "WHERE k.response_id = ? GROUP BY k.question_id, k.subquestion_id";
+
+    private static final String DELETE_RESPONSEANSWERS_SQL = "DELETE FROM responseanswer WHERE id IN " +
+        "(SELECT d.id FROM responsedetail d WHERE d.response_id = ? AND d.id NOT IN (" + LATEST_SQL + "))";
+
+    private static final String DELETE_RESPONSEDETAILS_SQL = "DELETE FROM responsedetail " +
+        "WHERE response_id = ? AND id NOT IN (" + LATEST_SQL + ")";
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Delete the duplicated Responsedetails of every response.
+     *
+     * @return the number of deleted Responsedetails
+     */
+    public int compact() {
+        List<Long> responseIds = new ArrayList<>(new LinkedHashSet<>(
+            jdbcTemplate.queryForList(SELECT_DUPLICATED_SQL, Long.class)));
+        log.info("Compacting the responsedetails of {} responses", responseIds.size());
+        int deleted = 0;
+        for (int from = 0; from < responseIds.size(); from += RESPONSES_PER_TRANSACTION) {
+            List<Long> batch = responseIds.subList(from, Math.min(from + RESPONSES_PER_TRANSACTION, responseIds.size()));
+            deleted += transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Long responseId : batch) {
+                    jdbcTemplate.update(DELETE_RESPONSEANSWERS_SQL, responseId, responseId);
+                    count += jdbcTemplate.update(DELETE_RESPONSEDETAILS_SQL, responseId, responseId);
+                }
+                return count;
+            });
+        }
+        // the rows were deleted behind Hibernate
+        entityManagerFactory.getCache().evict(Responsedetail.class);
+        log.info("Deleted {} duplicated responsedetails", deleted);
+        return deleted;
+    }
+}
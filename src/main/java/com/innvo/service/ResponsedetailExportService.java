@@ -0,0 +1,216 @@
+package com.innvo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Service for exporting the Responsedetail rows of a questionnaire, straight from a forward-only JDBC cursor.
+ *
+ * <p>
+ * Rows are fetched by chunks of {@link #FETCH_SIZE} and written as they are read, without going through the
+ * persistence context, so the heap does not grow with the size of the export.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class ResponsedetailExportService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponsedetailExportService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    // the questionnaire is the one of the response, and the questiongroup the one of the question
+    private static final String SELECT_BY_QUESTIONNAIRE_SQL = "SELECT d.id, d.response_id, r.questionnaire_id, " +
+        "q.questiongroup_id, d.question_id, d.subquestion_id, d.response FROM response r " +
+        "JOIN responsedetail d ON d.response_id = r.id LEFT JOIN question q ON q.id = d.question_id " +
+        "WHERE r.questionnaire_id = ? ORDER BY d.response_id, d.id";
+
+    private static final String[] COLUMNS = {"id", "responseId", "questionnaireId", "questiongroupId",
+        "questionId", "subquestionId", "response"};
+
+    /**
+     * Format of an export.
+     */
+    public enum Format {
+
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @param name the name of the format, in any case
+         * @return the format, or null if unknown
+         */
+        public static Format fromName(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate cursorTemplate;
+
+    @PostConstruct
+    public void init() {
+        // the fetch size only opens a cursor inside a transaction, hence the class-level @Transactional
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Write the Responsedetails of a questionnaire, ordered by response.
+     *
+     * @param questionnaireId the id of the questionnaire
+     * @param format the format of the export
+     * @param out the stream to write the export to
+     * @return the number of exported rows
+     * @throws IOException if the stream cannot be written
+     */
+    public long export(Long questionnaireId, Format format, OutputStream out) throws IOException {
+        log.debug("Request to export the Responsedetails of Questionnaire {} as {}", questionnaireId, format);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] count = {0};
+        try {
+            cursorTemplate.query(SELECT_BY_QUESTIONNAIRE_SQL, rs -> {
+                try {
+                    rowWriter.write(rs);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, questionnaireId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rowWriter.flush();
+        log.debug("Exported {} Responsedetails of Questionnaire {}", count[0], questionnaireId);
+        return count[0];
+    }
+
+    private interface RowWriter {
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * One JSON object per line.
+     */
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out);
+            // lines are separated by hand, not by the default space between root values
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length - 1; i++) {
+                long value = rs.getLong(i + 1);
+                if (rs.wasNull()) {
+                    generator.writeNullField(COLUMNS[i]);
+                } else {
+                    generator.writeNumberField(COLUMNS[i], value);
+                }
+            }
+            generator.writeStringField(COLUMNS[COLUMNS.length - 1], rs.getString(COLUMNS.length));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV, with a header line.
+     */
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length - 1; i++) {
+                long value = rs.getLong(i + 1);
+                if (!rs.wasNull()) {
+                    writer.write(Long.toString(value));
+                }
+                writer.write(',');
+            }
+            String response = rs.getString(COLUMNS.length);
+            if (response != null) {
+                writer.write(quote(response));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
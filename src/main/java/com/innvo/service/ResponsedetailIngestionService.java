@@ -0,0 +1,545 @@
+package com.innvo.service;
+
+import com.innvo.config.JHipsterProperties;
+import com.innvo.domain.Responseanswer;
+import com.innvo.domain.Responsedetail;
+import com.innvo.web.rest.dto.AnswerChangeDTO;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service for ingesting the "details" JSON of a Response into Responsedetail rows.
+ *
+ * <p>
+ * The JSON is read with a streaming parser and the rows are written with JDBC batch
+ * inserts, one batch per chunk of <code>jhipster.ingestion.chunkSize</code> rows, so the
+ * cost of an assessment does not depend on one round trip per question.
+ * </p>
+ * <p>
+ * Ids are taken from the pooled identifier generator of the Responsedetail entity, so rows
+ * inserted here never collide with rows persisted through JPA.
+ * </p>
+ * <p>
+ * The typed form of every row is inserted in the same chunk, see {@link ResponseanswerService}.
+ * </p>
+ * <p>
+ * When a response is saved again, {@link #update} writes only the answers that changed.
+ * </p>
+ */
+@Service
+@Transactional
+public class ResponsedetailIngestionService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponsedetailIngestionService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO responsedetail " +
+        "(id, response_id, question_id, subquestion_id, response) " +
+        "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_BY_RESPONSE_SQL = "SELECT id, response_id, question_id, subquestion_id, " +
+        "response FROM responsedetail WHERE response_id = ?";
+
+    private static final String UPDATE_SQL = "UPDATE responsedetail SET response = ? WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM responsedetail WHERE id = ?";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private ResponseanswerService responseanswerService;
+
+    @Inject
+    private CacheEvictionService cacheEvictionService;
+
+    private Meter rowsMeter;
+
+    private Meter updatedMeter;
+
+    private Meter deletedMeter;
+
+    private Timer chunkTimer;
+
+    @PostConstruct
+    public void init() {
+        rowsMeter = metricRegistry.meter(MetricRegistry.name(ResponsedetailIngestionService.class, "rows"));
+        updatedMeter = metricRegistry.meter(MetricRegistry.name(ResponsedetailIngestionService.class, "updated"));
+        deletedMeter = metricRegistry.meter(MetricRegistry.name(ResponsedetailIngestionService.class, "deleted"));
+        chunkTimer = metricRegistry.timer(MetricRegistry.name(ResponsedetailIngestionService.class, "chunk"));
+    }
+
+    /**
+     * Parse the details of a response and insert one Responsedetail row per question.
+     *
+     * @param responseId the id of the response owning the details
+     * @param details the raw "details" JSON of the response
+     * @return the number of inserted rows
+     * @throws IOException if the details are not valid JSON
+     */
+    public int ingest(Long responseId, String details) throws IOException {
+        int chunkSize = jHipsterProperties.getIngestion().getChunkSize();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Map<Long, Map<String, Long>> answerIdsByCode = new HashMap<>();
+        int total = parse(details, responseId, row -> {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                flush(chunk, answerIdsByCode);
+            }
+        });
+        flush(chunk, answerIdsByCode);
+        log.debug("Ingested {} responsedetails for Response : {}", total, responseId);
+        return total;
+    }
+
+    /**
+     * Bring the Responsedetail rows of a response in line with its details.
+     *
+     * <p>
+     * The details are compared with the stored rows by question and subquestion: only new answers are
+     * inserted and only changed answers are updated, in batches, and the answers no longer in the details
+     * are deleted. When an answer is stored more than once, the row with the highest id is kept.
+     * </p>
+     *
+     * @param responseId the id of the response owning the details
+     * @param details the raw "details" JSON of the response
+     * @return the number of inserted, updated and deleted rows
+     * @throws IOException if the details are not valid JSON
+     */
+    public Changes update(Long responseId, String details) throws IOException {
+        Map<AnswerKey, Row> incoming = new LinkedHashMap<>();
+        parse(details, responseId, row -> incoming.put(new AnswerKey(row.questionId, row.subquestionId), row));
+        List<Row> stored = jdbcTemplate.query(SELECT_BY_RESPONSE_SQL, (rs, i) -> toRow(rs), responseId);
+        Changes changes = synchronize(incoming, Collections.emptySet(), stored, true);
+        log.debug("Updated the responsedetails of Response {} : {}", responseId, changes);
+        return changes;
+    }
+
+    /**
+     * Apply a set of changed answers to the Responsedetail rows of a response, leaving the other answers alone.
+     *
+     * @param responseId the id of the response owning the details
+     * @param answers the changed answers; an answer without response is deleted
+     * @return the number of inserted, updated and deleted rows
+     */
+    public Changes patch(Long responseId, List<AnswerChangeDTO> answers) {
+        Map<AnswerKey, Row> incoming = new LinkedHashMap<>();
+        Set<AnswerKey> removed = new HashSet<>();
+        for (AnswerChangeDTO answer : answers) {
+            Row row = new Row();
+            row.responseId = responseId;
+            row.questionId = toLong(answer.getQuestion());
+            row.subquestionId = toLong(answer.getSubquestion());
+            row.response = answer.getResponse();
+            AnswerKey key = new AnswerKey(row.questionId, row.subquestionId);
+            if (row.response == null) {
+                incoming.remove(key);
+                removed.add(key);
+            } else {
+                removed.remove(key);
+                incoming.put(key, row);
+            }
+        }
+        Set<Long> questionIds = new HashSet<>();
+        for (AnswerKey key : incoming.keySet()) {
+            questionIds.add(key.questionId);
+        }
+        for (AnswerKey key : removed) {
+            questionIds.add(key.questionId);
+        }
+        questionIds.remove(null);
+        List<Row> stored = new ArrayList<>();
+        if (!questionIds.isEmpty()) {
+            String sql = SELECT_BY_RESPONSE_SQL + " AND question_id IN (" +
+                questionIds.stream().map(id -> "?").collect(Collectors.joining(", ")) + ")";
+            List<Object> parameters = new ArrayList<>();
+            parameters.add(responseId);
+            parameters.addAll(questionIds);
+            stored = jdbcTemplate.query(sql, parameters.toArray(), (rs, i) -> toRow(rs));
+        }
+        Changes changes = synchronize(incoming, removed, stored, false);
+        log.debug("Patched the responsedetails of Response {} : {}", responseId, changes);
+        return changes;
+    }
+
+    /**
+     * Write the difference between the incoming and the stored rows.
+     *
+     * @param incoming the incoming rows by answer
+     * @param removed the answers to delete
+     * @param storedRows the stored rows of the response, at least those of the incoming and removed answers
+     * @param deleteMissing whether the stored answers missing from the incoming rows are deleted
+     */
+    private Changes synchronize(Map<AnswerKey, Row> incoming, Set<AnswerKey> removed, List<Row> storedRows, boolean deleteMissing) {
+        Map<AnswerKey, Row> stored = new HashMap<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Row row : storedRows) {
+            AnswerKey key = new AnswerKey(row.questionId, row.subquestionId);
+            Row previous = stored.put(key, row);
+            if (previous != null) {
+                Row kept = previous.id > row.id ? previous : row;
+                stored.put(key, kept);
+                deleted.add(kept == row ? previous.id : row.id);
+            }
+        }
+
+        List<Row> inserted = new ArrayList<>();
+        List<Row> updated = new ArrayList<>();
+        for (Map.Entry<AnswerKey, Row> entry : incoming.entrySet()) {
+            Row row = entry.getValue();
+            Row previous = stored.remove(entry.getKey());
+            if (previous == null) {
+                inserted.add(row);
+                continue;
+            }
+            if (!Objects.equals(previous.response, row.response)) {
+                row.id = previous.id;
+                updated.add(row);
+            }
+        }
+        for (Map.Entry<AnswerKey, Row> entry : stored.entrySet()) {
+            if (deleteMissing || removed.contains(entry.getKey())) {
+                deleted.add(entry.getValue().id);
+            }
+        }
+
+        Map<Long, Map<String, Long>> answerIdsByCode = new HashMap<>();
+        int chunkSize = jHipsterProperties.getIngestion().getChunkSize();
+        for (int from = 0; from < inserted.size(); from += chunkSize) {
+            flush(new ArrayList<>(inserted.subList(from, Math.min(from + chunkSize, inserted.size()))), answerIdsByCode);
+        }
+        if (!updated.isEmpty() || !deleted.isEmpty()) {
+            try (Timer.Context ignored = chunkTimer.time()) {
+                updateRows(updated, answerIdsByCode);
+                deleteRows(deleted);
+            }
+            // the rows were changed behind Hibernate
+            List<Long> changedIds = updated.stream().map(row -> row.id).collect(Collectors.toList());
+            changedIds.addAll(deleted);
+            cacheEvictionService.evictEntitiesAfterCommit(Responsedetail.class, changedIds);
+        }
+        return new Changes(inserted.size(), updated.size(), deleted.size());
+    }
+
+    /**
+     * Parse the details of a response, handing every question to the consumer.
+     *
+     * @return the number of questions
+     */
+    private int parse(String details, Long responseId, Consumer<Row> consumer) throws IOException {
+        int total = 0;
+        try (JsonParser parser = jsonFactory.createParser(details)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (!"questiongroups".equals(field) || token == JsonToken.VALUE_NULL) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(parser, token, JsonToken.START_ARRAY);
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    for (Row row : readQuestiongroup(parser, responseId)) {
+                        consumer.accept(row);
+                        total++;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Read one questiongroup object. The "questiongroup" id is checked but not stored, as the
+     * questiongroup of a Responsedetail is the one of its question.
+     */
+    private List<Row> readQuestiongroup(JsonParser parser, Long responseId) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        List<Row> rows = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("questiongroup".equals(field)) {
+                // rejected if it is not an id, like the question and subquestion ids
+                toLong(scalarValue(parser));
+            } else if ("questions".equals(field) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    rows.add(readQuestion(parser, responseId));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return rows;
+    }
+
+    private Row readQuestion(JsonParser parser, Long responseId) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        Row row = new Row();
+        row.responseId = responseId;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("question".equals(field)) {
+                row.questionId = toLong(scalarValue(parser));
+            } else if ("subquestion".equals(field)) {
+                row.subquestionId = toLong(scalarValue(parser));
+            } else if ("response".equals(field)) {
+                row.response = scalarValue(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return row;
+    }
+
+    private void flush(List<Row> chunk, Map<Long, Map<String, Long>> answerIdsByCode) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        final List<Row> rows = chunk;
+        SessionImplementor session = (SessionImplementor) entityManager.unwrap(Session.class);
+        IdentifierGenerator generator = session.getFactory().getIdentifierGenerator(Responsedetail.class.getName());
+        for (Row row : rows) {
+            row.id = (Long) generator.generate(session, null);
+        }
+        try (Timer.Context ignored = chunkTimer.time()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Row row = rows.get(i);
+                    ps.setLong(1, row.id);
+                    setLong(ps, 2, row.responseId);
+                    setLong(ps, 3, row.questionId);
+                    setLong(ps, 4, row.subquestionId);
+                    ps.setString(5, row.response);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+            responseanswerService.loadAnswerIds(rows.stream().map(row -> row.questionId).collect(Collectors.toSet()), answerIdsByCode);
+            responseanswerService.insert(rows.stream()
+                .map(row -> Responseanswer.of(row.id, row.responseId, row.questionId, row.subquestionId, row.response,
+                    answerIdsByCode.get(row.questionId)))
+                .collect(Collectors.toList()));
+        }
+        rowsMeter.mark(chunk.size());
+        chunk.clear();
+    }
+
+    private void updateRows(List<Row> rows, Map<Long, Map<String, Long>> answerIdsByCode) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Row row = rows.get(i);
+                ps.setString(1, row.response);
+                ps.setLong(2, row.id);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        responseanswerService.loadAnswerIds(rows.stream().map(row -> row.questionId).collect(Collectors.toSet()), answerIdsByCode);
+        responseanswerService.replace(rows.stream()
+            .map(row -> Responseanswer.of(row.id, row.responseId, row.questionId, row.subquestionId, row.response,
+                answerIdsByCode.get(row.questionId)))
+            .collect(Collectors.toList()));
+        updatedMeter.mark(rows.size());
+    }
+
+    private void deleteRows(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        responseanswerService.delete(ids);
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids.stream().map(id -> new Object[] {id}).collect(Collectors.toList()));
+        deletedMeter.mark(ids.size());
+    }
+
+    private static Row toRow(ResultSet rs) throws SQLException {
+        Row row = new Row();
+        row.id = rs.getLong("id");
+        row.responseId = getLong(rs, "response_id");
+        row.questionId = getLong(rs, "question_id");
+        row.subquestionId = getLong(rs, "subquestion_id");
+        row.response = rs.getString("response");
+        return row;
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static Long toLong(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return Long.parseLong(value);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException("Expected " + expected + " but was " + actual, parser.getCurrentLocation());
+        }
+    }
+
+    /**
+     * The text of the current value, which must be a scalar: an array or an object, such as several responses to
+     * one question, is rejected, as reading it as text would leave the parser inside it.
+     */
+    private static String scalarValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+            throw new JsonMappingException("Expected a scalar value for " + parser.getCurrentName() + " but was " + token,
+                parser.getCurrentLocation());
+        }
+        return parser.getValueAsString();
+    }
+
+    private static class Row {
+
+        private Long id;
+
+        private Long responseId;
+
+        private Long questionId;
+
+        private Long subquestionId;
+
+        private String response;
+    }
+
+    /**
+     * The question and subquestion a Responsedetail answers.
+     */
+    private static final class AnswerKey {
+
+        private final Long questionId;
+
+        private final Long subquestionId;
+
+        private AnswerKey(Long questionId, Long subquestionId) {
+            this.questionId = questionId;
+            this.subquestionId = subquestionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AnswerKey)) {
+                return false;
+            }
+            AnswerKey key = (AnswerKey) o;
+            return Objects.equals(questionId, key.questionId) && Objects.equals(subquestionId, key.subquestionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(questionId, subquestionId);
+        }
+    }
+
+    /**
+     * The rows written by an update.
+     */
+    public static class Changes {
+
+        private final int inserted;
+
+        private final int updated;
+
+        private final int deleted;
+
+        public Changes(int inserted, int updated, int deleted) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.deleted = deleted;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        @Override
+        public String toString() {
+            return "Changes{" +
+                "inserted=" + inserted +
+                ", updated=" + updated +
+                ", deleted=" + deleted +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.innvo.service;
+
+import com.innvo.domain.Responsedetail;
+import com.innvo.repository.ResponsedetailRepository;
+import com.innvo.repository.ResponsembrRepository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service for writing Responsedetail rows grouped by response, straight from a database cursor.
+ *
+ * <p>
+ * The output is a JSON array holding one array of details per membership of the asset that has a response,
+ * in the order of the memberships: a response without details gives an empty array, and a response with two
+ * memberships gives two arrays. Rows are serialized as they are read and detached from the persistence
+ * context, so the heap does not grow with the number of details.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class ResponsedetailStreamService {
+
+    private final Logger log = LoggerFactory.getLogger(ResponsedetailStreamService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private ResponsedetailRepository responsedetailRepository;
+
+    @Inject
+    private ResponsembrRepository responsembrRepository;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    /**
+     * Write the details of every response of an asset, grouped by membership.
+     *
+     * @param assetId the id of the asset
+     * @param out the stream to write the JSON to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeGroupedByAsset(Long assetId, OutputStream out) throws IOException {
+        log.debug("Request to stream Responsedetails of asset : {}", assetId);
+        List<Long> membershipIds = responsembrRepository.findIdsWithResponseByAssetId(assetId);
+        try (Stream<Object[]> rows = responsedetailRepository.streamByAssetId(assetId)) {
+            writeGrouped(membershipIds, rows.iterator(), out);
+        }
+    }
+
+    /**
+     * Write the details of the responses of the given memberships, grouped by membership.
+     *
+     * @param membershipIds the ids of the memberships, in ascending order
+     * @param out the stream to write the JSON to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeGroupedByMemberships(List<Long> membershipIds, OutputStream out) throws IOException {
+        log.debug("Request to stream Responsedetails of memberships : {}", membershipIds);
+        if (membershipIds.isEmpty()) {
+            writeGrouped(membershipIds, Collections.<Object[]>emptyIterator(), out);
+            return;
+        }
+        try (Stream<Object[]> rows = responsedetailRepository.streamByMembershipIdIn(membershipIds)) {
+            writeGrouped(membershipIds, rows.iterator(), out);
+        }
+    }
+
+    /**
+     * Write one array per membership, with the rows of its id. The rows are ordered by membership id like the
+     * memberships, so the rows of a membership read after the list of memberships are skipped.
+     */
+    private void writeGrouped(List<Long> membershipIds, Iterator<Object[]> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartArray();
+        Object[] row = rows.hasNext() ? rows.next() : null;
+        for (Long membershipId : membershipIds) {
+            while (row != null && (Long) row[0] < membershipId) {
+                row = rows.hasNext() ? rows.next() : null;
+            }
+            generator.writeStartArray();
+            while (row != null && membershipId.equals(row[0])) {
+                Responsedetail detail = (Responsedetail) row[1];
+                writer.writeValue(generator, detail);
+                entityManager.detach(detail);
+                row = rows.hasNext() ? rows.next() : null;
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+}
@@ -0,0 +1,161 @@
+package com.innvo.service;
+
+import com.innvo.domain.search.SearchDocuments;
+import com.innvo.web.rest.errors.CustomParameterizedException;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.index.query.FilterBuilders.rangeFilter;
+import static org.elasticsearch.index.query.QueryBuilders.filteredQuery;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+
+/**
+ * Service walking the search results of an entity type page by page, with a cursor.
+ *
+ * <p>
+ * The hits are sorted by id, and each page only asks for the hits after the last id of the previous page,
+ * with a range filter: every page is the first page of its own search, so its cost does not depend on how
+ * deep it is, and no page is limited by the result window of <code>from/size</code> paging. The cursor
+ * handed to the client is the last id, encoded so that clients do not build it themselves.
+ * </p>
+ */
+@Service
+public class SearchCursorService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchCursorService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    /**
+     * @return the entity types whose search results can be walked
+     */
+    public Collection<String> getEntityTypes() {
+        return searchOutboxService.getEntityClasses().keySet();
+    }
+
+    /**
+     * Search for a page of documents of an entity type.
+     *
+     * @param entityType the entity type, as returned by {@link #getEntityTypes()}
+     * @param query the query string
+     * @param cursor the cursor of the page, as returned with the previous page, or null for the first page
+     * @param size the number of documents of the page, at most {@link #MAX_PAGE_SIZE}
+     * @param fields the fields of the documents to return besides the id, or an empty array for all of them
+     * @return the page of documents
+     * @throws CustomParameterizedException if the cursor is not one returned by this service
+     */
+    public SearchCursorPage search(String entityType, String query, String cursor, int size, String[] fields) {
+        log.debug("Request to search for the {} documents of query {} after cursor {}", entityType, query, cursor);
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchTemplate.getPersistentEntityFor(
+            SearchDocuments.getDocumentClass(searchOutboxService.getEntityClasses().get(entityType)));
+        QueryBuilder queryBuilder = queryStringQuery(query);
+        if (cursor != null) {
+            queryBuilder = filteredQuery(queryBuilder, rangeFilter("id").gt(decodeCursor(cursor)));
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        SearchRequestBuilder request = elasticsearchTemplate.getClient().prepareSearch(persistentEntity.getIndexName())
+            .setTypes(persistentEntity.getIndexType())
+            .setQuery(queryBuilder)
+            .addSort(SortBuilders.fieldSort("id").order(SortOrder.ASC))
+            .setSize(pageSize);
+        if (fields.length > 0) {
+            String[] includes = Arrays.copyOf(fields, fields.length + 1);
+            includes[fields.length] = "id";
+            request.setFetchSource(includes, null);
+        }
+        SearchResponse response = request.get();
+
+        SearchHit[] hits = response.getHits().getHits();
+        List<Map<String, Object>> documents = new ArrayList<>(hits.length);
+        for (SearchHit hit : hits) {
+            Map<String, Object> source = hit.getSource();
+            documents.add(source != null ? source : Collections.emptyMap());
+        }
+        String nextCursor = null;
+        if (hits.length > 0 && response.getHits().getTotalHits() > hits.length) {
+            Object[] sortValues = hits[hits.length - 1].getSortValues();
+            nextCursor = encodeCursor(((Number) sortValues[0]).longValue());
+        }
+        return new SearchCursorPage(documents, pageSize, nextCursor);
+    }
+
+    private String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.matches(CURSOR_PREFIX + "\\d+")) {
+                return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid search cursor {}: {}", cursor, e.getMessage());
+        }
+        throw new CustomParameterizedException("error.searchCursor", cursor);
+    }
+
+    /**
+     * A page of documents, and the cursor of the next page.
+     */
+    public static class SearchCursorPage {
+
+        private final List<Map<String, Object>> documents;
+
+        private final int size;
+
+        private final String nextCursor;
+
+        SearchCursorPage(List<Map<String, Object>> documents, int size, String nextCursor) {
+            this.documents = documents;
+            this.size = size;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Map<String, Object>> getDocuments() {
+            return documents;
+        }
+
+        /**
+         * @return the size of the page that was asked, once bounded by {@link #MAX_PAGE_SIZE}
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return the cursor of the next page, or null if this page is the last one
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
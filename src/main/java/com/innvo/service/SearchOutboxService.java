@@ -0,0 +1,436 @@
+package com.innvo.service;
+
+import com.innvo.config.JHipsterProperties;
+import com.innvo.domain.search.SearchDocuments;
+
+import com.codahale.metrics.CachedGauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for keeping Elasticsearch in sync with the database through a write-behind outbox.
+ *
+ * <p>
+ * Writes only record the operation in the "search_outbox" table, in the transaction of the entity,
+ * so a slow or unavailable cluster never delays nor fails a request. The outbox is drained in the
+ * background with the bulk API, <code>jhipster.searchOutbox.batchSize</code> rows at a time.
+ * Operations that fail are retried with an exponential backoff.
+ * </p>
+ * <p>
+ * Index operations are idempotent: a document is always rebuilt from the current row, and an entity
+ * deleted in the meantime is removed from its index.
+ * </p>
+ * <p>
+ * The operations of an entity type whose index is being rebuilt by {@link SearchReindexService} are
+ * held in the outbox until the new index is swapped in, and are then applied to it.
+ * </p>
+ */
+@Service
+@Transactional
+public class SearchOutboxService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchOutboxService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO search_outbox " +
+        "(entity_type, entity_id, operation, attempts, created_date, next_attempt) VALUES (?, ?, ?, 0, ?, ?)";
+
+    // the due rows, but none of an entity another node has claimed a row of, so an entity is applied in order
+    private static final String SELECT_SQL = "SELECT id, entity_type, entity_id, operation, attempts FROM search_outbox o " +
+        "WHERE next_attempt <= ? AND entity_type NOT IN (SELECT entity_type FROM search_reindex) " +
+        "AND NOT EXISTS (SELECT c.id FROM search_outbox c WHERE c.entity_type = o.entity_type " +
+        "AND c.entity_id = o.entity_id AND c.claimed_until > ?) ORDER BY id LIMIT ?";
+
+    private static final String CLAIM_SQL = "UPDATE search_outbox SET claimed_until = ? WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM search_outbox WHERE id = ?";
+
+    private static final String RETRY_SQL = "UPDATE search_outbox SET attempts = ?, next_attempt = ?, claimed_until = NULL WHERE id = ?";
+
+    public enum Operation {
+        INDEX, DELETE
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private EntityMapper entityMapper;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private final Map<String, Class<?>> entityClasses = new TreeMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    private String claimSql;
+
+    private Meter indexedMeter;
+
+    private Meter failedMeter;
+
+    private Timer bulkTimer;
+
+    @PostConstruct
+    public void init() {
+        for (Class<?> entityClass : SearchDocuments.getEntityClasses()) {
+            entityClasses.put(entityClass.getSimpleName(), entityClass);
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        // PostgreSQL skips the rows another node is claiming, instead of waiting for its claim to commit
+        claimSql = isPostgreSQL() ? SELECT_SQL + " FOR UPDATE OF o SKIP LOCKED" : SELECT_SQL;
+        indexedMeter = metricRegistry.meter(MetricRegistry.name(SearchOutboxService.class, "indexed"));
+        failedMeter = metricRegistry.meter(MetricRegistry.name(SearchOutboxService.class, "failed"));
+        bulkTimer = metricRegistry.timer(MetricRegistry.name(SearchOutboxService.class, "bulk"));
+        metricRegistry.register(MetricRegistry.name(SearchOutboxService.class, "depth"), new CachedGauge<Long>(5, TimeUnit.SECONDS) {
+
+            @Override
+            protected Long loadValue() {
+                return getDepth();
+            }
+        });
+        metricRegistry.register(MetricRegistry.name(SearchOutboxService.class, "lag"), new CachedGauge<Long>(5, TimeUnit.SECONDS) {
+
+            @Override
+            protected Long loadValue() {
+                Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(created_date) FROM search_outbox", Timestamp.class);
+                return oldest == null ? 0L : Math.max(0L, System.currentTimeMillis() - oldest.getTime());
+            }
+        });
+    }
+
+    /**
+     * The classes of the entities that are indexed in Elasticsearch, by entity type.
+     *
+     * @return the classes registered in {@link SearchDocuments}, by simple name
+     */
+    public Map<String, Class<?>> getEntityClasses() {
+        return Collections.unmodifiableMap(entityClasses);
+    }
+
+    /**
+     * @return the number of operations waiting in the outbox
+     */
+    public long getDepth() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM search_outbox", Long.class);
+    }
+
+    /**
+     * Record that an entity must be (re)indexed.
+     *
+     * @param entityClass the class of the entity, registered in {@link SearchDocuments}
+     * @param id the id of the entity
+     */
+    public void index(Class<?> entityClass, Long id) {
+        enqueue(entityClass, id, Operation.INDEX);
+    }
+
+    /**
+     * Record that some entities must be (re)indexed, with one JDBC batch.
+     *
+     * @param entityClass the class of the entities, registered in {@link SearchDocuments}
+     * @param ids the ids of the entities
+     */
+    public void index(Class<?> entityClass, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.debug("Request to INDEX {} {} in Elasticsearch", ids.size(), entityClass.getSimpleName());
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[]{entityClass.getSimpleName(), id, Operation.INDEX.name(), now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    /**
+     * Record that an entity must be removed from its index.
+     *
+     * @param entityClass the class of the entity, registered in {@link SearchDocuments}
+     * @param id the id of the entity
+     */
+    public void delete(Class<?> entityClass, Long id) {
+        enqueue(entityClass, id, Operation.DELETE);
+    }
+
+    private void enqueue(Class<?> entityClass, Long id, Operation operation) {
+        log.debug("Request to {} {} : {} in Elasticsearch", operation, entityClass.getSimpleName(), id);
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update(INSERT_SQL, entityClass.getSimpleName(), id, operation.name(), now, now);
+    }
+
+    /**
+     * Drain the outbox in the background, batch after batch, until a batch is not fully applied.
+     */
+    @Scheduled(fixedDelayString = "${jhipster.searchOutbox.pollDelay:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void drainOutbox() {
+        int batchSize = jHipsterProperties.getSearchOutbox().getBatchSize();
+        try {
+            while (drain() == batchSize) {
+                log.debug("Search outbox batch of {} applied, draining the next one", batchSize);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not drain the search outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply one batch of due outbox operations to Elasticsearch.
+     *
+     * <p>
+     * The batch is claimed, and the claim committed, before the bulk request is sent, so no row lock is held
+     * while Elasticsearch answers. A claim lasts <code>jhipster.searchOutbox.claimTimeout</code>: the rows of a
+     * node that dies while applying them are claimed again once it is over. Called in a transaction, the
+     * batch is applied in it instead, which lets the tests see the operations they have not committed.
+     * </p>
+     *
+     * @return the number of operations that were applied
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int drain() {
+        JHipsterProperties.SearchOutbox properties = jHipsterProperties.getSearchOutbox();
+        List<Entry> entries = transactionTemplate.execute(status -> claim(properties));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // Only the last operation on a document matters
+        Map<String, PendingDocument> documents = new LinkedHashMap<>();
+        List<Entry> unknown = new ArrayList<>();
+        for (Entry entry : entries) {
+            Class<?> entityClass = entityClasses.get(entry.entityType);
+            if (entityClass == null) {
+                log.warn("Dropping search outbox row {} of unknown type {}", entry.id, entry.entityType);
+                unknown.add(entry);
+                continue;
+            }
+            PendingDocument document = documents.computeIfAbsent(entry.entityType + "#" + entry.entityId,
+                key -> new PendingDocument(entityClass, entry.entityId));
+            document.operation = entry.operation;
+            document.entries.add(entry);
+        }
+
+        List<PendingDocument> applied = new ArrayList<>();
+        List<PendingDocument> failed = new ArrayList<>();
+        if (!documents.isEmpty()) {
+            try (Timer.Context ignored = bulkTimer.time()) {
+                bulk(documents.values(), applied, failed);
+            } catch (RuntimeException e) {
+                log.warn("Elasticsearch bulk request of {} documents failed: {}", documents.size(), e.getMessage());
+                applied.clear();
+                failed.clear();
+                failed.addAll(documents.values());
+            }
+        }
+
+        List<Object[]> deletes = new ArrayList<>();
+        for (Entry entry : unknown) {
+            deletes.add(new Object[]{entry.id});
+        }
+        for (PendingDocument document : applied) {
+            for (Entry entry : document.entries) {
+                deletes.add(new Object[]{entry.id});
+            }
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> retries = new ArrayList<>();
+        for (PendingDocument document : failed) {
+            for (Entry entry : document.entries) {
+                int attempts = entry.attempts + 1;
+                long backoff = Math.min(properties.getMaxBackoff(), properties.getInitialBackoff() << Math.min(attempts - 1, 30));
+                retries.add(new Object[]{attempts, new Timestamp(now.getTime() + backoff), entry.id});
+            }
+        }
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+            jdbcTemplate.batchUpdate(RETRY_SQL, retries);
+            return null;
+        });
+
+        indexedMeter.mark(applied.size());
+        failedMeter.mark(failed.size());
+        log.debug("Search outbox batch: {} documents applied, {} failed", applied.size(), failed.size());
+        return deletes.size();
+    }
+
+    /**
+     * Claim the due rows of the entities that no other node is applying.
+     */
+    private List<Entry> claim(JHipsterProperties.SearchOutbox properties) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Entry> entries = jdbcTemplate.query(claimSql, (rs, rowNum) -> new Entry(
+            rs.getLong("id"), rs.getString("entity_type"), rs.getLong("entity_id"),
+            Operation.valueOf(rs.getString("operation")), rs.getInt("attempts")), now, now, properties.getBatchSize());
+        Timestamp claimedUntil = new Timestamp(now.getTime() + properties.getClaimTimeout());
+        List<Object[]> claims = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            claims.add(new Object[]{claimedUntil, entry.id});
+        }
+        jdbcTemplate.batchUpdate(CLAIM_SQL, claims);
+        return entries;
+    }
+
+    private void bulk(Collection<PendingDocument> documents, List<PendingDocument> applied, List<PendingDocument> failed) {
+        List<PendingDocument> requests = new ArrayList<>();
+        BulkRequestBuilder bulk = readOnlyTransactionTemplate.execute(status -> prepareBulk(documents, requests));
+        BulkResponse response = bulk.execute().actionGet();
+        for (BulkItemResponse item : response.getItems()) {
+            PendingDocument document = requests.get(item.getItemId());
+            if (item.isFailed()) {
+                log.warn("Could not apply {} of {} {}: {}", document.operation, document.entityClass.getSimpleName(),
+                    document.id, item.getFailureMessage());
+                failed.add(document);
+            } else {
+                applied.add(document);
+            }
+        }
+    }
+
+    /**
+     * Build the bulk request from the current rows, in a read-only transaction so the lazy relations the
+     * documents copy can be loaded.
+     */
+    private BulkRequestBuilder prepareBulk(Collection<PendingDocument> documents, List<PendingDocument> requests) {
+        Map<Class<?>, List<Long>> idsToIndex = new HashMap<>();
+        for (PendingDocument document : documents) {
+            if (document.operation == Operation.INDEX) {
+                idsToIndex.computeIfAbsent(document.entityClass, c -> new ArrayList<>()).add(document.id);
+            }
+        }
+        Map<Class<?>, Map<Long, Object>> entities = new HashMap<>();
+        for (Map.Entry<Class<?>, List<Long>> ids : idsToIndex.entrySet()) {
+            entities.put(ids.getKey(), load(ids.getKey(), ids.getValue()));
+        }
+
+        Client client = elasticsearchTemplate.getClient();
+        BulkRequestBuilder bulk = client.prepareBulk();
+        for (PendingDocument document : documents) {
+            ElasticsearchPersistentEntity<?> persistentEntity =
+                elasticsearchTemplate.getPersistentEntityFor(SearchDocuments.getDocumentClass(document.entityClass));
+            String index = persistentEntity.getIndexName();
+            String type = persistentEntity.getIndexType();
+            Object entity = document.operation == Operation.INDEX
+                ? entities.get(document.entityClass).get(document.id) : null;
+            if (entity != null) {
+                try {
+                    bulk.add(client.prepareIndex(index, type, document.id.toString())
+                        .setSource(entityMapper.mapToString(SearchDocuments.toDocument(document.entityClass, entity))));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                bulk.add(client.prepareDelete(index, type, document.id.toString()));
+            }
+            requests.add(document);
+        }
+        return bulk;
+    }
+
+    private boolean isPostgreSQL() {
+        return "PostgreSQL".equals(jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    private Map<Long, Object> load(Class<?> entityClass, List<Long> ids) {
+        Map<Long, Object> entities = new HashMap<>();
+        List<?> rows = entityManager.createQuery(
+            "SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e.id IN :ids", entityClass)
+            .setParameter("ids", ids)
+            .getResultList();
+        for (Object row : rows) {
+            entities.put((Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(row), row);
+        }
+        return entities;
+    }
+
+    private static class Entry {
+
+        private final long id;
+
+        private final String entityType;
+
+        private final long entityId;
+
+        private final Operation operation;
+
+        private final int attempts;
+
+        Entry(long id, String entityType, long entityId, Operation operation, int attempts) {
+            this.id = id;
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.operation = operation;
+            this.attempts = attempts;
+        }
+    }
+
+    private static class PendingDocument {
+
+        private final Class<?> entityClass;
+
+        private final Long id;
+
+        private Operation operation;
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        PendingDocument(Class<?> entityClass, Long id) {
+            this.entityClass = entityClass;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.innvo.service;
+
+import com.innvo.config.JHipsterProperties;
+import com.innvo.domain.search.SearchDocuments;
+import com.innvo.web.rest.dto.SearchReindexDTO;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.IndicesAdminClient;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.elasticsearch.annotations.Mapping;
+import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Service for rebuilding the Elasticsearch indices from the database, without search downtime.
+ *
+ * <p>
+ * An entity type is loaded into a new versioned index, "&lt;index&gt;_&lt;timestamp&gt;", created with the
+ * settings and the mapping of its document (see {@link SearchDocuments}), by
+ * <code>jhipster.searchReindex.parallelism</code> threads reading slices of
+ * <code>jhipster.searchReindex.sliceSize</code> ids, with the bulk API and with refresh and replicas
+ * disabled during the load. The index name used by the search repositories is then moved to the new
+ * index as an alias, atomically, and the previous index is deleted.
+ * </p>
+ * <p>
+ * While a type is rebuilt, the previous index keeps answering the searches, and the search outbox holds
+ * the operations of that type; they are applied to the new index once it is swapped in. The types being
+ * rebuilt are recorded in the "search_reindex" table, which also prevents two nodes from rebuilding the
+ * same type at the same time.
+ * </p>
+ */
+@Service
+public class SearchReindexService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private static final String CLAIM_SQL = "INSERT INTO search_reindex (entity_type, index_name, started_date) VALUES (?, ?, ?)";
+
+    private static final String RELEASE_SQL = "DELETE FROM search_reindex WHERE entity_type = ?";
+
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+
+    private static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+    private static final String NUMBER_OF_SHARDS = "index.number_of_shards";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private EntityMapper entityMapper;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    @Qualifier("taskExecutor")
+    private TaskExecutor taskExecutor;
+
+    /** The last job of each entity type started on this node. */
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final Map<String, Meter> indexedMeters = new HashMap<>();
+
+    private final Map<String, Timer> durationTimers = new HashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        for (String entityType : searchOutboxService.getEntityClasses().keySet()) {
+            indexedMeters.put(entityType, metricRegistry.meter(MetricRegistry.name(SearchReindexService.class, entityType, "indexed")));
+            durationTimers.put(entityType, metricRegistry.timer(MetricRegistry.name(SearchReindexService.class, entityType, "duration")));
+            metricRegistry.register(MetricRegistry.name(SearchReindexService.class, entityType, "progress"), (Gauge<Double>) () -> {
+                Job job = jobs.get(entityType);
+                return job == null ? 0d : job.getProgress();
+            });
+        }
+    }
+
+    /**
+     * The entity types that are indexed in Elasticsearch.
+     *
+     * @return the entity types, sorted
+     */
+    public Collection<String> getEntityTypes() {
+        return searchOutboxService.getEntityClasses().keySet();
+    }
+
+    /**
+     * The progress of the last rebuild of each entity type started on this node.
+     *
+     * @return the jobs, by entity type
+     */
+    public List<SearchReindexDTO> getJobs() {
+        return jobs.values().stream()
+            .map(Job::toDTO)
+            .sorted((a, b) -> a.getEntityType().compareTo(b.getEntityType()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Start rebuilding the indices of some entity types, one type after the other, in the background.
+     *
+     * @param entityTypes the entity types, as returned by {@link #getEntityTypes()}
+     * @return the jobs that were started
+     * @throws DuplicateKeyException if one of the types is already being rebuilt, in which case none is started
+     */
+    public List<SearchReindexDTO> reindex(Collection<String> entityTypes) {
+        log.debug("Request to rebuild the Elasticsearch indices of {}", entityTypes);
+        Map<String, Class<?>> entityClasses = searchOutboxService.getEntityClasses();
+        long version = System.currentTimeMillis();
+        List<Job> started = transactionTemplate.execute(status -> {
+            List<Job> claimed = new ArrayList<>();
+            for (String entityType : entityTypes) {
+                Class<?> entityClass = entityClasses.get(entityType);
+                if (entityClass == null) {
+                    throw new IllegalArgumentException("Unknown entity type " + entityType);
+                }
+                Class<?> documentClass = SearchDocuments.getDocumentClass(entityClass);
+                String indexName = elasticsearchTemplate.getPersistentEntityFor(documentClass).getIndexName() + "_" + version;
+                jdbcTemplate.update(CLAIM_SQL, entityType, indexName, Timestamp.from(Instant.now()));
+                claimed.add(new Job(entityType, entityClass, documentClass, indexName));
+            }
+            return claimed;
+        });
+        for (Job job : started) {
+            jobs.put(job.entityType, job);
+        }
+        taskExecutor.execute(() -> started.forEach(this::run));
+        return started.stream().map(Job::toDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Release an entity type whose rebuild was interrupted, for instance by the crash of its node, so the
+     * search outbox applies its operations again.
+     *
+     * @param entityType the entity type
+     * @return true if the type was being rebuilt
+     */
+    public boolean release(String entityType) {
+        log.debug("Request to release the Elasticsearch index rebuild of {}", entityType);
+        return jdbcTemplate.update(RELEASE_SQL, entityType) > 0;
+    }
+
+    private void run(Job job) {
+        Timer.Context context = durationTimers.get(job.entityType).time();
+        try {
+            rebuild(job);
+            job.finish(SearchReindexDTO.Status.DONE, null);
+            log.info("Rebuilt the Elasticsearch index of {}: {} documents in {}", job.entityType, job.indexed.get(), job.indexName);
+        } catch (RuntimeException | IOException | InterruptedException | ExecutionException e) {
+            log.error("Could not rebuild the Elasticsearch index of {}: {}", job.entityType, e.getMessage(), e);
+            job.finish(SearchReindexDTO.Status.FAILED, e.getMessage());
+            deleteQuietly(job.indexName);
+        } finally {
+            release(job.entityType);
+            context.stop();
+        }
+    }
+
+    private void rebuild(Job job) throws IOException, InterruptedException, ExecutionException {
+        IndicesAdminClient indices = elasticsearchTemplate.getClient().admin().indices();
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchTemplate.getPersistentEntityFor(job.documentClass);
+        String alias = persistentEntity.getIndexName();
+        String type = persistentEntity.getIndexType();
+        List<String> previousIndices = currentIndices(indices, alias);
+
+        // The new index gets the settings and the mapping of the document, the shards of the previous index,
+        // and refresh and replicas disabled
+        Map<String, Object> settings = new HashMap<>();
+        Setting setting = job.documentClass.getAnnotation(Setting.class);
+        if (setting != null) {
+            settings.putAll(objectMapper.readValue(readClasspath(setting.settingPath()), Map.class));
+        }
+        String refreshInterval = "1s";
+        String replicas = "1";
+        if (!previousIndices.isEmpty()) {
+            String previous = previousIndices.get(0);
+            GetSettingsResponse previousSettings = indices.prepareGetSettings(previous).get();
+            if (previousSettings.getSetting(previous, NUMBER_OF_SHARDS) != null) {
+                settings.put(NUMBER_OF_SHARDS, previousSettings.getSetting(previous, NUMBER_OF_SHARDS));
+            }
+            if (previousSettings.getSetting(previous, REFRESH_INTERVAL) != null) {
+                refreshInterval = previousSettings.getSetting(previous, REFRESH_INTERVAL);
+            }
+            if (previousSettings.getSetting(previous, NUMBER_OF_REPLICAS) != null) {
+                replicas = previousSettings.getSetting(previous, NUMBER_OF_REPLICAS);
+            }
+        }
+        settings.put(REFRESH_INTERVAL, "-1");
+        settings.put(NUMBER_OF_REPLICAS, "0");
+        CreateIndexRequestBuilder create = indices.prepareCreate(job.indexName).setSettings(settings);
+        Mapping mapping = job.documentClass.getAnnotation(Mapping.class);
+        if (mapping != null) {
+            create.addMapping(type, readClasspath(mapping.mappingPath()));
+        }
+        create.get();
+
+        load(job, type);
+
+        Map<String, Object> restored = new HashMap<>();
+        restored.put(REFRESH_INTERVAL, refreshInterval);
+        restored.put(NUMBER_OF_REPLICAS, replicas);
+        indices.prepareUpdateSettings(job.indexName).setSettings(restored).get();
+        indices.prepareRefresh(job.indexName).get();
+        elasticsearchTemplate.getClient().admin().cluster().prepareHealth(job.indexName).setWaitForYellowStatus().get();
+
+        if (previousIndices.contains(alias)) {
+            // The index was created by the repositories under the name of the alias: it has to be deleted first
+            log.warn("Replacing the index {} by an alias, it is briefly unavailable", alias);
+            indices.prepareDelete(alias).get();
+            indices.prepareAliases().addAlias(job.indexName, alias).get();
+        } else {
+            IndicesAliasesRequestBuilder aliases = indices.prepareAliases().addAlias(job.indexName, alias);
+            for (String previous : previousIndices) {
+                aliases.removeAlias(previous, alias);
+            }
+            aliases.get();
+            if (!previousIndices.isEmpty()) {
+                indices.prepareDelete(previousIndices.toArray(new String[previousIndices.size()])).get();
+            }
+        }
+    }
+
+    private String readClasspath(String path) throws IOException {
+        return StreamUtils.copyToString(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The indices behind an index name: the indices of the alias, or the index itself if it is not an alias.
+     */
+    private List<String> currentIndices(IndicesAdminClient indices, String alias) {
+        List<String> names = new ArrayList<>();
+        if (indices.prepareAliasesExist(alias).get().exists()) {
+            Iterator<String> keys = indices.prepareGetAliases(alias).get().getAliases().keysIt();
+            while (keys.hasNext()) {
+                names.add(keys.next());
+            }
+        } else if (indices.prepareExists(alias).get().isExists()) {
+            names.add(alias);
+        }
+        return names;
+    }
+
+    private void load(Job job, String type) throws InterruptedException, ExecutionException {
+        Object[] range = readOnlyTransactionTemplate.execute(status -> (Object[]) entityManager.createQuery(
+            "SELECT MIN(e.id), MAX(e.id), COUNT(e) FROM " + job.entityType + " e").getSingleResult());
+        job.total = (Long) range[2];
+        if (range[0] == null) {
+            return;
+        }
+        long min = (Long) range[0];
+        long max = (Long) range[1];
+        JHipsterProperties.SearchReindex properties = jHipsterProperties.getSearchReindex();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(),
+            new CustomizableThreadFactory("adap-assessment-Reindex-"));
+        try {
+            List<Future<?>> slices = new ArrayList<>();
+            for (long from = min; from <= max; from += properties.getSliceSize()) {
+                long sliceFrom = from;
+                long sliceTo = Math.min(from + properties.getSliceSize(), max + 1);
+                slices.add(executor.submit(() -> loadSlice(job, type, sliceFrom, sliceTo)));
+            }
+            for (Future<?> slice : slices) {
+                slice.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Index the entities whose id is in [from, to), one batch per transaction.
+     */
+    private void loadSlice(Job job, String type, long from, long to) {
+        int batchSize = jHipsterProperties.getSearchReindex().getBatchSize();
+        long next = from;
+        while (next < to) {
+            long batchFrom = next;
+            next = readOnlyTransactionTemplate.execute(status -> {
+                // the entities of a whole table must neither evict the second level cache nor be read from it
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                List<?> rows = entityManager.createQuery("SELECT e FROM " + job.entityType + " e " +
+                    "WHERE e.id >= :from AND e.id < :to ORDER BY e.id", job.entityClass)
+                    .setParameter("from", batchFrom)
+                    .setParameter("to", to)
+                    .setMaxResults(batchSize)
+                    .getResultList();
+                if (rows.isEmpty()) {
+                    return to;
+                }
+                long lastId = bulk(job, type, rows);
+                entityManager.clear();
+                return rows.size() < batchSize ? to : lastId + 1;
+            });
+        }
+    }
+
+    private long bulk(Job job, String type, List<?> rows) {
+        Client client = elasticsearchTemplate.getClient();
+        BulkRequestBuilder bulk = client.prepareBulk();
+        long lastId = 0;
+        for (Object row : rows) {
+            lastId = (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(row);
+            try {
+                bulk.add(client.prepareIndex(job.indexName, type, Long.toString(lastId))
+                    .setSource(entityMapper.mapToString(SearchDocuments.toDocument(job.entityClass, row))));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        BulkResponse response = bulk.execute().actionGet();
+        if (response.hasFailures()) {
+            throw new IllegalStateException("Bulk request to " + job.indexName + " failed: " + response.buildFailureMessage());
+        }
+        job.indexed.addAndGet(rows.size());
+        indexedMeters.get(job.entityType).mark(rows.size());
+        return lastId;
+    }
+
+    private void deleteQuietly(String indexName) {
+        try {
+            IndicesAdminClient indices = elasticsearchTemplate.getClient().admin().indices();
+            if (indices.prepareExists(indexName).get().isExists()) {
+                indices.prepareDelete(indexName).get();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not delete the index {}: {}", indexName, e.getMessage());
+        }
+    }
+
+    private static class Job {
+
+        private final String entityType;
+
+        private final Class<?> entityClass;
+
+        private final Class<?> documentClass;
+
+        private final String indexName;
+
+        private final ZonedDateTime startedDate = ZonedDateTime.now(ZoneId.systemDefault());
+
+        private final AtomicLong indexed = new AtomicLong();
+
+        private volatile long total;
+
+        private volatile SearchReindexDTO.Status status = SearchReindexDTO.Status.RUNNING;
+
+        private volatile ZonedDateTime finishedDate;
+
+        private volatile String error;
+
+        Job(String entityType, Class<?> entityClass, Class<?> documentClass, String indexName) {
+            this.entityType = entityType;
+            this.entityClass = entityClass;
+            this.documentClass = documentClass;
+            this.indexName = indexName;
+        }
+
+        void finish(SearchReindexDTO.Status status, String error) {
+            this.finishedDate = ZonedDateTime.now(ZoneId.systemDefault());
+            this.error = error;
+            this.status = status;
+        }
+
+        double getProgress() {
+            if (status == SearchReindexDTO.Status.DONE) {
+                return 100d;
+            }
+            return total == 0 ? 0d : Math.min(100d, indexed.get() * 100d / total);
+        }
+
+        SearchReindexDTO toDTO() {
+            SearchReindexDTO dto = new SearchReindexDTO();
+            dto.setEntityType(entityType);
+            dto.setIndexName(indexName);
+            dto.setStatus(status);
+            dto.setTotal(total);
+            dto.setIndexed(indexed.get());
+            dto.setStartedDate(startedDate);
+            dto.setFinishedDate(finishedDate);
+            dto.setError(error);
+            ZonedDateTime end = finishedDate == null ? ZonedDateTime.now(ZoneId.systemDefault()) : finishedDate;
+            long millis = Math.max(1L, end.toInstant().toEpochMilli() - startedDate.toInstant().toEpochMilli());
+            dto.setDocumentsPerSecond(indexed.get() * 1000d / millis);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.innvo.service;
+
+import com.innvo.domain.Conditions;
+import com.innvo.domain.Logicoperator;
+import com.innvo.domain.Question;
+import com.innvo.domain.Subquestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The display logic of one questionnaire, compiled into an immutable predicate graph.
+ *
+ * <p>
+ * A question without a "display question" condition is always visible. A question with conditions
+ * is visible when at least one of its clauses holds. Conditions are OR-ed by default; conditions whose
+ * sources are linked by an "AND" Logicoperator end up in the same clause and must all hold.
+ * A condition on the answer of a hidden question never holds, so hiding cascades down the graph.
+ * </p>
+ * <p>
+ * Instances are thread safe and are meant to be cached, see {@link SkipLogicService}.
+ * </p>
+ */
+public final class SkipLogic implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(SkipLogic.class);
+
+    private static final String DISPLAY_QUESTION = "display question";
+
+    private static final String AND = "AND";
+
+    private static final int VISITING = 1;
+
+    private static final int VISIBLE = 2;
+
+    private static final int HIDDEN = 3;
+
+    private final Long questionnaireId;
+
+    /** Sorted ids of the questions of the questionnaire. */
+    private final long[] questionIds;
+
+    /** Clauses per question index, null when the question is always visible. */
+    private final Predicate[][][] rules;
+
+    private SkipLogic(Long questionnaireId, long[] questionIds, Predicate[][][] rules) {
+        this.questionnaireId = questionnaireId;
+        this.questionIds = questionIds;
+        this.rules = rules;
+    }
+
+    public Long getQuestionnaireId() {
+        return questionnaireId;
+    }
+
+    /**
+     * Compile the conditions and logic operators of a questionnaire.
+     *
+     * @param questionnaireId the id of the questionnaire
+     * @param questionIds the ids of every question of the questionnaire
+     * @param conditions the conditions of the questionnaire
+     * @param logicoperators the logic operators of the questionnaire
+     * @return the compiled display logic
+     */
+    public static SkipLogic compile(Long questionnaireId, Collection<Long> questionIds,
+                                    Collection<Conditions> conditions, Collection<Logicoperator> logicoperators) {
+        long[] ids = questionIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        Set<Link> andLinks = new HashSet<>();
+        for (Logicoperator logicoperator : logicoperators) {
+            if (!AND.equalsIgnoreCase(trim(logicoperator.getOperator()))) {
+                continue;
+            }
+            Source first = Source.of(logicoperator.getFirstquestion(), logicoperator.getFirstsubquestion());
+            Source second = Source.of(logicoperator.getSecondquestion(), logicoperator.getSecondsubquestion());
+            if (first != null && second != null) {
+                andLinks.add(new Link(first, second));
+            }
+        }
+
+        Map<Integer, List<Conditions>> conditionsByQuestion = new HashMap<>();
+        for (Conditions condition : conditions) {
+            if (!DISPLAY_QUESTION.equalsIgnoreCase(trim(condition.getAction()))) {
+                log.debug("Ignoring Conditions {} with action '{}'", condition.getId(), condition.getAction());
+                continue;
+            }
+            int index = condition.getDisplayedquestion() == null
+                ? -1 : Arrays.binarySearch(ids, condition.getDisplayedquestion().getId());
+            if (index < 0 || Source.of(condition.getQuestion(), condition.getSubquestion()) == null) {
+                continue;
+            }
+            conditionsByQuestion.computeIfAbsent(index, i -> new ArrayList<>()).add(condition);
+        }
+
+        Predicate[][][] rules = new Predicate[ids.length][][];
+        for (Map.Entry<Integer, List<Conditions>> entry : conditionsByQuestion.entrySet()) {
+            rules[entry.getKey()] = clauses(entry.getValue(), andLinks, ids);
+        }
+        return new SkipLogic(questionnaireId, ids, rules);
+    }
+
+    /**
+     * Group the conditions of one displayed question into AND-clauses, joining the conditions
+     * whose sources are linked by an "AND" Logicoperator.
+     */
+    private static Predicate[][] clauses(List<Conditions> conditions, Set<Link> andLinks, long[] ids) {
+        int size = conditions.size();
+        int[] parent = new int[size];
+        Source[] sources = new Source[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            sources[i] = Source.of(conditions.get(i).getQuestion(), conditions.get(i).getSubquestion());
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (andLinks.contains(new Link(sources[i], sources[j]))) {
+                    parent[root(parent, i)] = root(parent, j);
+                }
+            }
+        }
+        Map<Integer, List<Predicate>> clauses = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Conditions condition = conditions.get(i);
+            Operator operator = Operator.of(condition.getOperator());
+            if (operator == null) {
+                log.warn("Ignoring Conditions {} with unknown operator '{}'", condition.getId(), condition.getOperator());
+                continue;
+            }
+            int ownerIndex = sources[i].questionId == null ? -1 : Arrays.binarySearch(ids, sources[i].questionId);
+            clauses.computeIfAbsent(root(parent, i), r -> new ArrayList<>())
+                .add(new Predicate(sources[i], Math.max(ownerIndex, -1), operator, condition.getResponse()));
+        }
+        return clauses.values().stream()
+            .map(clause -> clause.toArray(new Predicate[clause.size()]))
+            .toArray(Predicate[][]::new);
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Evaluate the visible questions for a partial set of answers.
+     *
+     * @param questionAnswers the answers by question id
+     * @param subquestionAnswers the answers by subquestion id
+     * @return the ids of the visible questions, in ascending order
+     */
+    public List<Long> visibleQuestions(Map<Long, String> questionAnswers, Map<Long, String> subquestionAnswers) {
+        Map<Long, String> answers = questionAnswers == null ? Collections.<Long, String>emptyMap() : questionAnswers;
+        Map<Long, String> subanswers = subquestionAnswers == null ? Collections.<Long, String>emptyMap() : subquestionAnswers;
+        int[] states = new int[questionIds.length];
+        List<Long> visible = new ArrayList<>();
+        for (int i = 0; i < questionIds.length; i++) {
+            if (isVisible(i, states, answers, subanswers)) {
+                visible.add(questionIds[i]);
+            }
+        }
+        return visible;
+    }
+
+    private boolean isVisible(int index, int[] states, Map<Long, String> answers, Map<Long, String> subanswers) {
+        if (states[index] == VISIBLE || states[index] == HIDDEN) {
+            return states[index] == VISIBLE;
+        }
+        if (states[index] == VISITING) {
+            // a cycle in the display logic: the question depends on itself and is never shown
+            return false;
+        }
+        Predicate[][] clauses = rules[index];
+        if (clauses == null) {
+            states[index] = VISIBLE;
+            return true;
+        }
+        states[index] = VISITING;
+        boolean visible = false;
+        for (Predicate[] clause : clauses) {
+            boolean holds = true;
+            for (Predicate predicate : clause) {
+                if (predicate.ownerIndex >= 0 && !isVisible(predicate.ownerIndex, states, answers, subanswers)) {
+                    holds = false;
+                    break;
+                }
+                String answer = predicate.source.subquestionId != null
+                    ? subanswers.get(predicate.source.subquestionId) : answers.get(predicate.source.questionId);
+                if (!predicate.test(answer)) {
+                    holds = false;
+                    break;
+                }
+            }
+            if (holds) {
+                visible = true;
+                break;
+            }
+        }
+        states[index] = visible ? VISIBLE : HIDDEN;
+        return visible;
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static Double toNumber(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private enum Operator {
+        EQ, NE, GT, GE, LT, LE;
+
+        static Operator of(String operator) {
+            switch (operator == null ? "" : operator.trim()) {
+                case "=":
+                case "==":
+                    return EQ;
+                case "!=":
+                case "<>":
+                    return NE;
+                case ">":
+                    return GT;
+                case ">=":
+                    return GE;
+                case "<":
+                    return LT;
+                case "<=":
+                    return LE;
+                default:
+                    return null;
+            }
+        }
+
+        boolean matches(int comparison) {
+            switch (this) {
+                case EQ:
+                    return comparison == 0;
+                case NE:
+                    return comparison != 0;
+                case GT:
+                    return comparison > 0;
+                case GE:
+                    return comparison >= 0;
+                case LT:
+                    return comparison < 0;
+                default:
+                    return comparison <= 0;
+            }
+        }
+    }
+
+    /**
+     * The answer a condition or logic operator refers to: a question, or a subquestion of a question.
+     */
+    private static final class Source implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Long questionId;
+
+        private final Long subquestionId;
+
+        private Source(Long questionId, Long subquestionId) {
+            this.questionId = questionId;
+            this.subquestionId = subquestionId;
+        }
+
+        static Source of(Question question, Subquestion subquestion) {
+            if (subquestion != null) {
+                return new Source(subquestion.getQuestion() == null ? null : subquestion.getQuestion().getId(), subquestion.getId());
+            }
+            return question == null ? null : new Source(question.getId(), null);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Source)) {
+                return false;
+            }
+            Source source = (Source) o;
+            return subquestionId != null
+                ? subquestionId.equals(source.subquestionId)
+                : source.subquestionId == null && questionId != null && questionId.equals(source.questionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return subquestionId != null ? 31 * subquestionId.hashCode() + 1 : (questionId == null ? 0 : questionId.hashCode());
+        }
+    }
+
+    /**
+     * An unordered pair of sources.
+     */
+    private static final class Link {
+
+        private final Source first;
+
+        private final Source second;
+
+        private Link(Source first, Source second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Link)) {
+                return false;
+            }
+            Link link = (Link) o;
+            return (first.equals(link.first) && second.equals(link.second))
+                || (first.equals(link.second) && second.equals(link.first));
+        }
+
+        @Override
+        public int hashCode() {
+            return first.hashCode() + second.hashCode();
+        }
+    }
+
+    /**
+     * One compiled condition. The expected response is parsed once, at compile time.
+     */
+    private static final class Predicate implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Source source;
+
+        private final int ownerIndex;
+
+        private final Operator operator;
+
+        private final String expected;
+
+        private final Double expectedNumber;
+
+        private Predicate(Source source, int ownerIndex, Operator operator, String expected) {
+            this.source = source;
+            this.ownerIndex = ownerIndex;
+            this.operator = operator;
+            this.expected = trim(expected);
+            this.expectedNumber = toNumber(expected);
+        }
+
+        boolean test(String answer) {
+            if (answer == null || expected == null) {
+                return false;
+            }
+            if (expectedNumber != null) {
+                Double number = toNumber(answer);
+                if (number != null) {
+                    return operator.matches(Double.compare(number, expectedNumber));
+                }
+            }
+            return operator.matches(answer.trim().compareTo(expected));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.innvo.service;
+
+import com.innvo.config.Constants;
+import com.innvo.domain.Question;
+import com.innvo.repository.ConditionsRepository;
+import com.innvo.repository.LogicoperatorRepository;
+import com.innvo.repository.QuestionRepository;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for evaluating the display logic of a questionnaire.
+ *
+ * <p>
+ * The Conditions and Logicoperators of a questionnaire are compiled once into a {@link SkipLogic}
+ * and kept in the Spring cache by questionnaire id. The cache is cleared by the {@link CacheEvictionService}
+ * once a transaction writing a question, an answer, a subquestion, a condition or a logic operator is committed,
+ * and the rules compiled from the rows it replaced are not put back.
+ * </p>
+ */
+@Service
+@Transactional(readOnly = true)
+public class SkipLogicService {
+
+    private final Logger log = LoggerFactory.getLogger(SkipLogicService.class);
+
+    @Inject
+    private QuestionRepository questionRepository;
+
+    @Inject
+    private ConditionsRepository conditionsRepository;
+
+    @Inject
+    private LogicoperatorRepository logicoperatorRepository;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private CacheEvictionService cacheEvictionService;
+
+    private Cache cache;
+
+    private Cache questionsWithoutConditionCache;
+
+    private Timer compileTimer;
+
+    @PostConstruct
+    public void init() {
+        cache = cacheManager.getCache(Constants.CACHE_SKIP_LOGIC);
+        questionsWithoutConditionCache = cacheManager.getCache(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION);
+        compileTimer = metricRegistry.timer(MetricRegistry.name(SkipLogicService.class, "compile"));
+    }
+
+    /**
+     * Get the compiled display logic of a questionnaire, compiling it on first use.
+     *
+     * @param questionnaireId the id of the questionnaire
+     * @return the compiled display logic
+     */
+    public SkipLogic getSkipLogic(Long questionnaireId) {
+        SkipLogic skipLogic = cache.get(questionnaireId, SkipLogic.class);
+        if (skipLogic == null) {
+            // compiled outside of any lock: concurrent misses compile the same rules, and the last one is kept
+            long version = cacheEvictionService.getVersion(Constants.CACHE_SKIP_LOGIC);
+            skipLogic = compile(questionnaireId);
+            cacheEvictionService.put(Constants.CACHE_SKIP_LOGIC, questionnaireId, skipLogic, version);
+        }
+        return skipLogic;
+    }
+
+    /**
+     * Get the questions of a group that are not displayed by a condition, cached by group id.
+     *
+     * @param questiongroupId the id of the group
+     * @return the questions
+     */
+    @SuppressWarnings("unchecked")
+    public List<Question> findQuestionsWithoutCondition(Long questiongroupId) {
+        List<Question> questions = questionsWithoutConditionCache.get(questiongroupId, List.class);
+        if (questions == null) {
+            long version = cacheEvictionService.getVersion(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION);
+            questions = questionRepository.findByQuestiongroupIdWithoutCondition(questiongroupId);
+            cacheEvictionService.put(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION, questiongroupId, questions, version);
+        }
+        return questions;
+    }
+
+    /**
+     * Evaluate the visible questions of a questionnaire for a partial set of answers.
+     *
+     * @param questionnaireId the id of the questionnaire
+     * @param questionAnswers the answers by question id
+     * @param subquestionAnswers the answers by subquestion id
+     * @return the ids of the visible questions, in ascending order
+     */
+    public List<Long> findVisibleQuestions(Long questionnaireId, Map<Long, String> questionAnswers,
+                                           Map<Long, String> subquestionAnswers) {
+        return getSkipLogic(questionnaireId).visibleQuestions(questionAnswers, subquestionAnswers);
+    }
+
+    private SkipLogic compile(Long questionnaireId) {
+        log.debug("Compiling the display logic of Questionnaire : {}", questionnaireId);
+        try (Timer.Context ignored = compileTimer.time()) {
+            return SkipLogic.compile(questionnaireId,
+                questionRepository.findIdsByQuestionnaireId(questionnaireId),
+                conditionsRepository.findByQuestionnaireId(questionnaireId),
+                logicoperatorRepository.findByQuestionnaireId(questionnaireId));
+        }
+    }
+}
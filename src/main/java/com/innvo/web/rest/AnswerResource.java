@@ -4,8 +4,12 @@ import com.codahale.metrics.annotation.Timed;
 import com.innvo.domain.Answer;
 import com.innvo.repository.AnswerRepository;
 import com.innvo.repository.search.AnswerSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.web.rest.cache.ResponseCached;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,6 +18,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
@@ -41,6 +46,12 @@ public class AnswerResource {
     
     @Inject
     private AnswerSearchRepository answerSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
     
     /**
      * POST  /answers : Create a new answer.
@@ -53,13 +64,15 @@ public class AnswerResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Answer> createAnswer(@Valid @RequestBody Answer answer) throws URISyntaxException {
         log.debug("REST request to save Answer : {}", answer);
         if (answer.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("answer", "idexists", "A new answer cannot already have an ID")).body(null);
         }
         Answer result = answerRepository.save(answer);
-        answerSearchRepository.save(result);
+        searchOutboxService.index(Answer.class, result.getId());
+        responseCacheService.invalidate(result);
         return ResponseEntity.created(new URI("/api/answers/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("answer", result.getId().toString()))
             .body(result);
@@ -78,13 +91,15 @@ public class AnswerResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Answer> updateAnswer(@Valid @RequestBody Answer answer) throws URISyntaxException {
         log.debug("REST request to update Answer : {}", answer);
         if (answer.getId() == null) {
             return createAnswer(answer);
         }
-        Answer result = answerRepository.save(answer);
-        answerSearchRepository.save(result);
+        Answer result = responseCacheService.invalidateWrite(answerRepository.findOne(answer.getId()),
+            () -> answerRepository.save(answer));
+        searchOutboxService.index(Answer.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("answer", answer.getId().toString()))
             .body(result);
@@ -94,6 +109,8 @@ public class AnswerResource {
      * GET  /answers : get all the answers.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the answers, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of answers in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -101,8 +118,14 @@ public class AnswerResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Answer>> getAllAnswers(Pageable pageable)
+    public ResponseEntity<List<Answer>> getAllAnswers(Pageable pageable,
+                                                      @RequestParam(value = "after", required = false) Long after,
+                                                      @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Answers after : {}", after);
+            return PaginationUtil.keysetPage(answerRepository, Answer::getId, after, pageable, count, "/api/answers");
+        }
         log.debug("REST request to get a page of Answers");
         Page<Answer> page = answerRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/answers");
@@ -139,10 +162,14 @@ public class AnswerResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteAnswer(@PathVariable Long id) {
         log.debug("REST request to delete Answer : {}", id);
-        answerRepository.delete(id);
-        answerSearchRepository.delete(id);
+        responseCacheService.invalidateWrite(answerRepository.findOne(id), () -> {
+            answerRepository.delete(id);
+            return null;
+        });
+        searchOutboxService.delete(Answer.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("answer", id.toString())).build();
     }
 
@@ -160,7 +187,8 @@ public class AnswerResource {
     public ResponseEntity<List<Answer>> searchAnswers(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Answers for query {}", query);
-        Page<Answer> page = answerSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Answer> page = SearchUtil.toEntityPage(answerSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            answerRepository::findAll, Answer::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/answers");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -176,6 +204,7 @@ public class AnswerResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @ResponseCached(tags = "Question:{id}")
     public ResponseEntity<List<Answer>> getAnswerByQuestion(@PathVariable Long id,Pageable pageable) throws URISyntaxException {
         log.debug("REST request to get Answer by Question : {}", id);
         Page<Answer> page = answerRepository.findByQuestionId(id, pageable);
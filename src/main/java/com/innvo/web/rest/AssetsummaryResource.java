@@ -0,0 +1,81 @@
+package com.innvo.web.rest;
+
+import com.codahale.metrics.annotation.Timed;
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.domain.Assetsummary;
+import com.innvo.repository.AssetsummaryRepository;
+import com.innvo.web.rest.util.PaginationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * REST controller for reading the Assetsummaries: the latest assessment of each asset, by questionnaire.
+ */
+@RestController
+@RequestMapping("/api")
+public class AssetsummaryResource {
+
+    private final Logger log = LoggerFactory.getLogger(AssetsummaryResource.class);
+
+    @Inject
+    private AssetsummaryRepository assetsummaryRepository;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
+    /**
+     * GET  /assets/:id/summary : get a page of the summaries of the "id" asset, one by questionnaire.
+     *
+     * @param id the id of the asset
+     * @param pageable the pagination information
+     * @return the task reading the summaries, run on the {@link RestTaskExecutor}, with status 200 (OK)
+     * and the list of summaries in body
+     */
+    @RequestMapping(value = "/assets/{id}/summary",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public WebAsyncTask<ResponseEntity<List<Assetsummary>>> getAssetSummary(@PathVariable Long id, Pageable pageable) {
+        log.debug("REST request to get a page of Assetsummaries of asset : {}", id);
+        return restTaskExecutor.submit(() -> {
+            Page<Assetsummary> page = assetsummaryRepository.findByAssetId(id, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/assets/" + id + "/summary");
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * GET  /assets/summary : get a page of the summaries of some assets, or of every asset.
+     *
+     * @param ids the ids of the assets, every asset if missing
+     * @param pageable the pagination information
+     * @return the task reading the summaries, run on the {@link RestTaskExecutor}, with status 200 (OK)
+     * and the list of summaries in body
+     */
+    @RequestMapping(value = "/assets/summary",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public WebAsyncTask<ResponseEntity<List<Assetsummary>>> getAssetSummaries(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                                                             Pageable pageable) {
+        log.debug("REST request to get a page of Assetsummaries of assets : {}", ids);
+        return restTaskExecutor.submit(() -> {
+            Page<Assetsummary> page = ids == null || ids.isEmpty()
+                ? assetsummaryRepository.findAll(pageable)
+                : assetsummaryRepository.findByAssetIdIn(ids, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/assets/summary");
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        });
+    }
+}
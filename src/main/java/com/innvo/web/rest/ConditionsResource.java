@@ -4,8 +4,10 @@ import com.codahale.metrics.annotation.Timed;
 import com.innvo.domain.Conditions;
 import com.innvo.repository.ConditionsRepository;
 import com.innvo.repository.search.ConditionsSearchRepository;
+import com.innvo.service.SearchOutboxService;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,6 +16,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
@@ -41,6 +44,9 @@ public class ConditionsResource {
     
     @Inject
     private ConditionsSearchRepository conditionsSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
     
     /**
      * POST  /conditions : Create a new conditions.
@@ -53,13 +59,14 @@ public class ConditionsResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Conditions> createConditions(@Valid @RequestBody Conditions conditions) throws URISyntaxException {
         log.debug("REST request to save Conditions : {}", conditions);
         if (conditions.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("conditions", "idexists", "A new conditions cannot already have an ID")).body(null);
         }
         Conditions result = conditionsRepository.save(conditions);
-        conditionsSearchRepository.save(result);
+        searchOutboxService.index(Conditions.class, result.getId());
         return ResponseEntity.created(new URI("/api/conditions/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("conditions", result.getId().toString()))
             .body(result);
@@ -78,13 +85,14 @@ public class ConditionsResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Conditions> updateConditions(@Valid @RequestBody Conditions conditions) throws URISyntaxException {
         log.debug("REST request to update Conditions : {}", conditions);
         if (conditions.getId() == null) {
             return createConditions(conditions);
         }
         Conditions result = conditionsRepository.save(conditions);
-        conditionsSearchRepository.save(result);
+        searchOutboxService.index(Conditions.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("conditions", conditions.getId().toString()))
             .body(result);
@@ -94,6 +102,8 @@ public class ConditionsResource {
      * GET  /conditions : get all the conditions.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the conditions, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of conditions in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -101,8 +111,14 @@ public class ConditionsResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Conditions>> getAllConditions(Pageable pageable)
+    public ResponseEntity<List<Conditions>> getAllConditions(Pageable pageable,
+                                                             @RequestParam(value = "after", required = false) Long after,
+                                                             @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Conditions after : {}", after);
+            return PaginationUtil.keysetPage(conditionsRepository, Conditions::getId, after, pageable, count, "/api/conditions");
+        }
         log.debug("REST request to get a page of Conditions");
         Page<Conditions> page = conditionsRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/conditions");
@@ -139,10 +155,11 @@ public class ConditionsResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteConditions(@PathVariable Long id) {
         log.debug("REST request to delete Conditions : {}", id);
         conditionsRepository.delete(id);
-        conditionsSearchRepository.delete(id);
+        searchOutboxService.delete(Conditions.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("conditions", id.toString())).build();
     }
 
@@ -160,7 +177,8 @@ public class ConditionsResource {
     public ResponseEntity<List<Conditions>> searchConditions(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Conditions for query {}", query);
-        Page<Conditions> page = conditionsSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Conditions> page = SearchUtil.toEntityPage(conditionsSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            conditionsRepository::findAll, Conditions::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/conditions");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -4,8 +4,12 @@ import com.codahale.metrics.annotation.Timed;
 import com.innvo.domain.Logicoperator;
 import com.innvo.repository.LogicoperatorRepository;
 import com.innvo.repository.search.LogicoperatorSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.web.rest.cache.ResponseCached;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,6 +18,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
@@ -40,6 +45,12 @@ public class LogicoperatorResource {
     
     @Inject
     private LogicoperatorSearchRepository logicoperatorSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
     
     /**
      * POST  /logicoperators : Create a new logicoperator.
@@ -52,13 +63,15 @@ public class LogicoperatorResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Logicoperator> createLogicoperator(@RequestBody Logicoperator logicoperator) throws URISyntaxException {
         log.debug("REST request to save Logicoperator : {}", logicoperator);
         if (logicoperator.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("logicoperator", "idexists", "A new logicoperator cannot already have an ID")).body(null);
         }
         Logicoperator result = logicoperatorRepository.save(logicoperator);
-        logicoperatorSearchRepository.save(result);
+        searchOutboxService.index(Logicoperator.class, result.getId());
+        responseCacheService.invalidate(result);
         return ResponseEntity.created(new URI("/api/logicoperators/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("logicoperator", result.getId().toString()))
             .body(result);
@@ -77,13 +90,15 @@ public class LogicoperatorResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Logicoperator> updateLogicoperator(@RequestBody Logicoperator logicoperator) throws URISyntaxException {
         log.debug("REST request to update Logicoperator : {}", logicoperator);
         if (logicoperator.getId() == null) {
             return createLogicoperator(logicoperator);
         }
-        Logicoperator result = logicoperatorRepository.save(logicoperator);
-        logicoperatorSearchRepository.save(result);
+        Logicoperator result = responseCacheService.invalidateWrite(logicoperatorRepository.findOne(logicoperator.getId()),
+            () -> logicoperatorRepository.save(logicoperator));
+        searchOutboxService.index(Logicoperator.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("logicoperator", logicoperator.getId().toString()))
             .body(result);
@@ -93,6 +108,8 @@ public class LogicoperatorResource {
      * GET  /logicoperators : get all the logicoperators.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the logicoperators, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of logicoperators in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -100,8 +117,14 @@ public class LogicoperatorResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Logicoperator>> getAllLogicoperators(Pageable pageable)
+    public ResponseEntity<List<Logicoperator>> getAllLogicoperators(Pageable pageable,
+                                                                    @RequestParam(value = "after", required = false) Long after,
+                                                                    @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Logicoperators after : {}", after);
+            return PaginationUtil.keysetPage(logicoperatorRepository, Logicoperator::getId, after, pageable, count, "/api/logicoperators");
+        }
         log.debug("REST request to get a page of Logicoperators");
         Page<Logicoperator> page = logicoperatorRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/logicoperators");
@@ -138,10 +161,14 @@ public class LogicoperatorResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteLogicoperator(@PathVariable Long id) {
         log.debug("REST request to delete Logicoperator : {}", id);
-        logicoperatorRepository.delete(id);
-        logicoperatorSearchRepository.delete(id);
+        responseCacheService.invalidateWrite(logicoperatorRepository.findOne(id), () -> {
+            logicoperatorRepository.delete(id);
+            return null;
+        });
+        searchOutboxService.delete(Logicoperator.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("logicoperator", id.toString())).build();
     }
 
@@ -159,7 +186,8 @@ public class LogicoperatorResource {
     public ResponseEntity<List<Logicoperator>> searchLogicoperators(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Logicoperators for query {}", query);
-        Page<Logicoperator> page = logicoperatorSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Logicoperator> page = SearchUtil.toEntityPage(logicoperatorSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            logicoperatorRepository::findAll, Logicoperator::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/logicoperators");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -168,6 +196,7 @@ public class LogicoperatorResource {
  	       method = RequestMethod.GET,
  	       produces = MediaType.APPLICATION_JSON_VALUE)
  	     @Timed
+ 	     @ResponseCached(tags = "Questionnaire:{id}")
  	     public ResponseEntity<List<Logicoperator>> logicoperatorByQuestionnaire(@PathVariable Long id) {
  	        log.debug("REST request to get Logicoperator : {}", id);
  	        List<Logicoperator> logicoperators = logicoperatorRepository.findByQuestionnaireId(id);
@@ -1,13 +1,15 @@
 package com.innvo.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
-import com.innvo.domain.Conditions;
 import com.innvo.domain.Question;
-import com.innvo.repository.ConditionsRepository;
 import com.innvo.repository.QuestionRepository;
 import com.innvo.repository.search.QuestionSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.SkipLogicService;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 
 import scala.collection.concurrent.CNode;
 
@@ -20,6 +22,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
@@ -48,9 +51,16 @@ public class QuestionResource {
     
     @Inject
     private QuestionSearchRepository questionSearchRepository;
-    
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
     @Inject
-    private ConditionsRepository conditionsRepository; 
+    private SkipLogicService skipLogicService;
+    
     /**
      * POST  /questions : Create a new question.
      *
@@ -62,13 +72,15 @@ public class QuestionResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Question> createQuestion(@Valid @RequestBody Question question) throws URISyntaxException {
         log.debug("REST request to save Question : {}", question);
         if (question.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("question", "idexists", "A new question cannot already have an ID")).body(null);
         }
         Question result = questionRepository.save(question);
-        questionSearchRepository.save(result);
+        searchOutboxService.index(Question.class, result.getId());
+        responseCacheService.invalidate(result);
         return ResponseEntity.created(new URI("/api/questions/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("question", result.getId().toString()))
             .body(result);
@@ -87,13 +99,15 @@ public class QuestionResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Question> updateQuestion(@Valid @RequestBody Question question) throws URISyntaxException {
         log.debug("REST request to update Question : {}", question);
         if (question.getId() == null) {
             return createQuestion(question);
         }
-        Question result = questionRepository.save(question);
-        questionSearchRepository.save(result);
+        Question result = responseCacheService.invalidateWrite(questionRepository.findOne(question.getId()),
+            () -> questionRepository.save(question));
+        searchOutboxService.index(Question.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("question", question.getId().toString()))
             .body(result);
@@ -104,6 +118,8 @@ public class QuestionResource {
      *
      * @param pageable the pagination information
      * @param filter the filter of the request
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the questions, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of questions in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -111,7 +127,9 @@ public class QuestionResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Question>> getAllQuestions(Pageable pageable, @RequestParam(required = false) String filter)
+    public ResponseEntity<List<Question>> getAllQuestions(Pageable pageable, @RequestParam(required = false) String filter,
+                                                          @RequestParam(value = "after", required = false) Long after,
+                                                          @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
         if ("conditions-is-null".equals(filter)) {
             log.debug("REST request to get all Questions where conditions is null");
@@ -120,6 +138,10 @@ public class QuestionResource {
                 .filter(question -> question.getConditions() == null)
                 .collect(Collectors.toList()), HttpStatus.OK);
         }
+        if (after != null) {
+            log.debug("REST request to get the Questions after : {}", after);
+            return PaginationUtil.keysetPage(questionRepository, Question::getId, after, pageable, count, "/api/questions");
+        }
         log.debug("REST request to get a page of Questions");
         Page<Question> page = questionRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/questions");
@@ -156,10 +178,14 @@ public class QuestionResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteQuestion(@PathVariable Long id) {
         log.debug("REST request to delete Question : {}", id);
-        questionRepository.delete(id);
-        questionSearchRepository.delete(id);
+        responseCacheService.invalidateWrite(questionRepository.findOne(id), () -> {
+            questionRepository.delete(id);
+            return null;
+        });
+        searchOutboxService.delete(Question.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("question", id.toString())).build();
     }
 
@@ -177,7 +203,8 @@ public class QuestionResource {
     public ResponseEntity<List<Question>> searchQuestions(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Questions for query {}", query);
-        Page<Question> page = questionSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Question> page = SearchUtil.toEntityPage(questionSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            questionRepository::findAll, Question::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/questions");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -208,14 +235,7 @@ public class QuestionResource {
     public ResponseEntity<List<Question>> questionsByQuestionGroupAndQuestionId(@PathVariable("id") Long id,Pageable pageable
     		 ) throws URISyntaxException {
         log.debug("REST request to get Question By Question Group: {}", id);
-        List<Question> questions=questionRepository.findByQuestiongroupId(id);        
-        List<Conditions> conditions=conditionsRepository.findAll();
-        for(Conditions condition:conditions){
-         Question question=questionRepository.findByQuestiongroupIdAndId(id,condition.getDisplayedquestion().getId());
-          if(question!=null){
-            questions.remove(question);
-          }
-        }
+        List<Question> questions=skipLogicService.findQuestionsWithoutCondition(id);
         return new ResponseEntity<>(questions, HttpStatus.OK);
    }
     
@@ -4,8 +4,12 @@ import com.codahale.metrics.annotation.Timed;
 import com.innvo.domain.Questiongroup;
 import com.innvo.repository.QuestiongroupRepository;
 import com.innvo.repository.search.QuestiongroupSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.web.rest.cache.ResponseCached;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,6 +18,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
@@ -41,6 +46,12 @@ public class QuestiongroupResource {
     
     @Inject
     private QuestiongroupSearchRepository questiongroupSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
     
     /**
      * POST  /questiongroups : Create a new questiongroup.
@@ -53,13 +64,15 @@ public class QuestiongroupResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Questiongroup> createQuestiongroup(@Valid @RequestBody Questiongroup questiongroup) throws URISyntaxException {
         log.debug("REST request to save Questiongroup : {}", questiongroup);
         if (questiongroup.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("questiongroup", "idexists", "A new questiongroup cannot already have an ID")).body(null);
         }
         Questiongroup result = questiongroupRepository.save(questiongroup);
-        questiongroupSearchRepository.save(result);
+        searchOutboxService.index(Questiongroup.class, result.getId());
+        responseCacheService.invalidate(result);
         return ResponseEntity.created(new URI("/api/questiongroups/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("questiongroup", result.getId().toString()))
             .body(result);
@@ -78,13 +91,15 @@ public class QuestiongroupResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Questiongroup> updateQuestiongroup(@Valid @RequestBody Questiongroup questiongroup) throws URISyntaxException {
         log.debug("REST request to update Questiongroup : {}", questiongroup);
         if (questiongroup.getId() == null) {
             return createQuestiongroup(questiongroup);
         }
-        Questiongroup result = questiongroupRepository.save(questiongroup);
-        questiongroupSearchRepository.save(result);
+        Questiongroup result = responseCacheService.invalidateWrite(questiongroupRepository.findOne(questiongroup.getId()),
+            () -> questiongroupRepository.save(questiongroup));
+        searchOutboxService.index(Questiongroup.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("questiongroup", questiongroup.getId().toString()))
             .body(result);
@@ -94,6 +109,8 @@ public class QuestiongroupResource {
      * GET  /questiongroups : get all the questiongroups.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the questiongroups, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of questiongroups in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -101,8 +118,14 @@ public class QuestiongroupResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Questiongroup>> getAllQuestiongroups(Pageable pageable)
+    public ResponseEntity<List<Questiongroup>> getAllQuestiongroups(Pageable pageable,
+                                                                    @RequestParam(value = "after", required = false) Long after,
+                                                                    @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Questiongroups after : {}", after);
+            return PaginationUtil.keysetPage(questiongroupRepository, Questiongroup::getId, after, pageable, count, "/api/questiongroups");
+        }
         log.debug("REST request to get a page of Questiongroups");
         Page<Questiongroup> page = questiongroupRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/questiongroups");
@@ -139,10 +162,14 @@ public class QuestiongroupResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteQuestiongroup(@PathVariable Long id) {
         log.debug("REST request to delete Questiongroup : {}", id);
-        questiongroupRepository.delete(id);
-        questiongroupSearchRepository.delete(id);
+        responseCacheService.invalidateWrite(questiongroupRepository.findOne(id), () -> {
+            questiongroupRepository.delete(id);
+            return null;
+        });
+        searchOutboxService.delete(Questiongroup.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("questiongroup", id.toString())).build();
     }
 
@@ -160,7 +187,8 @@ public class QuestiongroupResource {
     public ResponseEntity<List<Questiongroup>> searchQuestiongroups(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Questiongroups for query {}", query);
-        Page<Questiongroup> page = questiongroupSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Questiongroup> page = SearchUtil.toEntityPage(questiongroupSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            questiongroupRepository::findAll, Questiongroup::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/questiongroups");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -176,6 +204,7 @@ public class QuestiongroupResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @ResponseCached(tags = "Questionnaire:{id}")
     public ResponseEntity<List<Questiongroup>> getAllQuestiongroupsByQuestionnaire(@PathVariable Long id)
         throws URISyntaxException {
         log.debug("REST request to get Questiongroups by questionnaire");
@@ -1,11 +1,22 @@
 package com.innvo.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.innvo.async.RestTaskExecutor;
 import com.innvo.domain.Questionnaire;
 import com.innvo.repository.QuestionnaireRepository;
 import com.innvo.repository.search.QuestionnaireSearchRepository;
+import com.innvo.security.AuthoritiesConstants;
+import com.innvo.service.QuestionnaireImportService;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.QuestionnaireTreeService;
+import com.innvo.service.ResponsedetailExportService;
+import com.innvo.service.SkipLogicService;
+import com.innvo.web.rest.dto.AnswerMapDTO;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,16 +25,24 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
@@ -41,6 +60,27 @@ public class QuestionnaireResource {
     
     @Inject
     private QuestionnaireSearchRepository questionnaireSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
+    @Inject
+    private SkipLogicService skipLogicService;
+
+    @Inject
+    private QuestionnaireTreeService questionnaireTreeService;
+
+    @Inject
+    private ResponsedetailExportService responsedetailExportService;
+
+    @Inject
+    private QuestionnaireImportService questionnaireImportService;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
     
     /**
      * POST  /questionnaires : Create a new questionnaire.
@@ -53,13 +93,37 @@ public class QuestionnaireResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Questionnaire> createQuestionnaire(@Valid @RequestBody Questionnaire questionnaire) throws URISyntaxException {
         log.debug("REST request to save Questionnaire : {}", questionnaire);
         if (questionnaire.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("questionnaire", "idexists", "A new questionnaire cannot already have an ID")).body(null);
         }
         Questionnaire result = questionnaireRepository.save(questionnaire);
-        questionnaireSearchRepository.save(result);
+        searchOutboxService.index(Questionnaire.class, result.getId());
+        responseCacheService.invalidate(result);
+        return ResponseEntity.created(new URI("/api/questionnaires/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert("questionnaire", result.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * POST  /questionnaires/import : Import a whole questionnaire, with its groups, questions, answers,
+     * subquestions, conditions and logic operators.
+     *
+     * @param document the questionnaire tree to import
+     * @return the ResponseEntity with status 201 (Created) and with body the new questionnaire,
+     * or with status 400 (Bad Request) if the document is not valid or has unknown references
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     */
+    @RequestMapping(value = "/questionnaires/import",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Questionnaire> importQuestionnaire(@Valid @RequestBody QuestionnaireImportDTO document) throws URISyntaxException {
+        log.debug("REST request to import Questionnaire : {}", document);
+        Questionnaire result = questionnaireImportService.importQuestionnaire(document);
         return ResponseEntity.created(new URI("/api/questionnaires/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("questionnaire", result.getId().toString()))
             .body(result);
@@ -78,13 +142,15 @@ public class QuestionnaireResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Questionnaire> updateQuestionnaire(@Valid @RequestBody Questionnaire questionnaire) throws URISyntaxException {
         log.debug("REST request to update Questionnaire : {}", questionnaire);
         if (questionnaire.getId() == null) {
             return createQuestionnaire(questionnaire);
         }
-        Questionnaire result = questionnaireRepository.save(questionnaire);
-        questionnaireSearchRepository.save(result);
+        Questionnaire result = responseCacheService.invalidateWrite(questionnaireRepository.findOne(questionnaire.getId()),
+            () -> questionnaireRepository.save(questionnaire));
+        searchOutboxService.index(Questionnaire.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("questionnaire", questionnaire.getId().toString()))
             .body(result);
@@ -94,6 +160,8 @@ public class QuestionnaireResource {
      * GET  /questionnaires : get all the questionnaires.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the questionnaires, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of questionnaires in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -101,8 +169,14 @@ public class QuestionnaireResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Questionnaire>> getAllQuestionnaires(Pageable pageable)
+    public ResponseEntity<List<Questionnaire>> getAllQuestionnaires(Pageable pageable,
+                                                                    @RequestParam(value = "after", required = false) Long after,
+                                                                    @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Questionnaires after : {}", after);
+            return PaginationUtil.keysetPage(questionnaireRepository, Questionnaire::getId, after, pageable, count, "/api/questionnaires");
+        }
         log.debug("REST request to get a page of Questionnaires");
         Page<Questionnaire> page = questionnaireRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/questionnaires");
@@ -139,10 +213,14 @@ public class QuestionnaireResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteQuestionnaire(@PathVariable Long id) {
         log.debug("REST request to delete Questionnaire : {}", id);
-        questionnaireRepository.delete(id);
-        questionnaireSearchRepository.delete(id);
+        responseCacheService.invalidateWrite(questionnaireRepository.findOne(id), () -> {
+            questionnaireRepository.delete(id);
+            return null;
+        });
+        searchOutboxService.delete(Questionnaire.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("questionnaire", id.toString())).build();
     }
 
@@ -160,10 +238,106 @@ public class QuestionnaireResource {
     public ResponseEntity<List<Questionnaire>> searchQuestionnaires(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Questionnaires for query {}", query);
-        Page<Questionnaire> page = questionnaireSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Questionnaire> page = SearchUtil.toEntityPage(questionnaireSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            questionnaireRepository::findAll, Questionnaire::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/questionnaires");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * POST  /questionnaires/:id/visible : get the questions of the "id" questionnaire that are visible
+     * for a partial set of answers, according to its conditions and logic operators.
+     *
+     * @param id the id of the questionnaire
+     * @param answers the answers given so far
+     * @return the ResponseEntity with status 200 (OK) and the ids of the visible questions in body,
+     * or with status 404 (Not Found)
+     */
+    @RequestMapping(value = "/questionnaires/{id}/visible",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<Long>> getVisibleQuestions(@PathVariable Long id, @RequestBody AnswerMapDTO answers) {
+        log.debug("REST request to get the visible questions of Questionnaire {} for {}", id, answers);
+        if (!questionnaireRepository.exists(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        List<Long> visible = skipLogicService.findVisibleQuestions(id, answers.getQuestions(), answers.getSubquestions());
+        return new ResponseEntity<>(visible, HttpStatus.OK);
+    }
 
+    /**
+     * GET  /questionnaires/:id/tree : get the "id" questionnaire with its groups, questions, answers and subquestions.
+     * The response carries an ETag, and a request with a matching "If-None-Match" gets a 304 (Not Modified).
+     *
+     * @param id the id of the questionnaire
+     * @param request the HTTP request
+     * @param response the HTTP response the tree is written to
+     * @throws IOException if the tree cannot be written
+     */
+    @RequestMapping(value = "/questionnaires/{id}/tree",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public void getQuestionnaireTree(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to get the tree of Questionnaire : {}", id);
+        QuestionnaireTreeService.SerializedTree tree = questionnaireTreeService.getSerializedTree(id);
+        if (tree == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(tree.getEtag())) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(tree.getJson().length);
+        response.getOutputStream().write(tree.getJson());
+    }
+
+    /**
+     * GET  /questionnaires/:id/responses/export : export the responsedetails of the "id" questionnaire, ordered by response.
+     * The export is streamed as it is read, and gzipped when the client accepts it.
+     *
+     * @param id the id of the questionnaire
+     * @param format the format of the export: "ndjson", the default, or "csv"
+     * @param request the HTTP request
+     * @param response the HTTP response the export is written to
+     * @return the task writing the export, run on the {@link RestTaskExecutor} without its timeout, with
+     * status 400 (Bad Request) if the format is unknown, or with status 404 (Not Found)
+     */
+    @RequestMapping(value = "/questionnaires/{id}/responses/export",
+        method = RequestMethod.GET)
+    @Timed
+    public WebAsyncTask<ResponseEntity<Void>> exportResponses(@PathVariable Long id,
+                                                              @RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                              HttpServletRequest request, HttpServletResponse response) {
+        log.debug("REST request to export the responses of Questionnaire {} as {}", id, format);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return restTaskExecutor.submitWithoutTimeout(() -> {
+            ResponsedetailExportService.Format exportFormat = ResponsedetailExportService.Format.fromName(format);
+            if (exportFormat == null) {
+                return ResponseEntity.badRequest()
+                    .headers(HeaderUtil.createFailureAlert("questionnaire", "unknownformat", "Unknown export format: " + format))
+                    .build();
+            }
+            if (!questionnaireRepository.exists(id)) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"questionnaire-" + id + "-responses." + exportFormat.getExtension() + "\"");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+                responsedetailExportService.export(id, exportFormat, response.getOutputStream());
+            } else {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192);
+                responsedetailExportService.export(id, exportFormat, out);
+                out.finish();
+            }
+            // the export is already written, there is no entity left to write
+            return null;
+        });
+    }
 }
@@ -1,24 +1,26 @@
 package com.innvo.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.innvo.async.RestTaskExecutor;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.innvo.domain.Questionnaire;
 import com.innvo.domain.Response;
-import com.innvo.domain.Responsedetail;
 import com.innvo.domain.Responsembr;
 import com.innvo.repository.QuestionnaireRepository;
 import com.innvo.repository.ResponseRepository;
 import com.innvo.repository.ResponsedetailRepository;
 import com.innvo.repository.ResponsembrRepository;
 import com.innvo.repository.search.ResponseSearchRepository;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.SearchOutboxService;
 import com.innvo.security.SpringSecurityAuditorAware;
-import com.innvo.web.rest.dto.Question;
-import com.innvo.web.rest.dto.Questiongroup;
-import com.innvo.web.rest.dto.ResponsedetailJson;
+import com.innvo.service.ResponsePatchService;
+import com.innvo.service.ResponsedetailIngestionService;
+import com.innvo.web.rest.dto.AnswerChangeDTO;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 
 import org.boon.core.Sys;
 import org.json.JSONException;
@@ -27,12 +29,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
@@ -42,7 +45,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +66,9 @@ public class ResponseResource {
     
     @Inject
     private ResponseSearchRepository responseSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
    
     @Inject
     private QuestionnaireRepository questionnaireRepository;
@@ -77,6 +82,18 @@ public class ResponseResource {
     @Inject
     ResponsedetailRepository responsedetailRepository;
     
+    @Inject
+    ResponsedetailIngestionService responsedetailIngestionService;
+
+    @Inject
+    private ResponsePatchService responsePatchService;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+    
     
     /**
      * POST  /responses : Create a new response.
@@ -89,13 +106,14 @@ public class ResponseResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Response> createResponse(@Valid @RequestBody Response response) throws URISyntaxException {
         log.debug("REST request to save Response : {}", response);
         if (response.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("response", "idexists", "A new response cannot already have an ID")).body(null);
         }
         Response result = responseRepository.save(response);
-        responseSearchRepository.save(result);
+        searchOutboxService.index(Response.class, result.getId());
         return ResponseEntity.created(new URI("/api/responses/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("response", result.getId().toString()))
             .body(result);
@@ -114,13 +132,14 @@ public class ResponseResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Response> updateResponse(@Valid @RequestBody Response response) throws URISyntaxException {
         log.debug("REST request to update Response : {}", response);
         if (response.getId() == null) {
             return createResponse(response);
         }
         Response result = responseRepository.save(response);
-        responseSearchRepository.save(result);
+        searchOutboxService.index(Response.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("response", response.getId().toString()))
             .body(result);
@@ -130,6 +149,8 @@ public class ResponseResource {
      * GET  /responses : get all the responses.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the responses, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of responses in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -137,8 +158,14 @@ public class ResponseResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Response>> getAllResponses(Pageable pageable)
+    public ResponseEntity<List<Response>> getAllResponses(Pageable pageable,
+                                                          @RequestParam(value = "after", required = false) Long after,
+                                                          @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Responses after : {}", after);
+            return PaginationUtil.keysetPage(responseRepository, Response::getId, after, pageable, count, "/api/responses");
+        }
         log.debug("REST request to get a page of Responses");
         Page<Response> page = responseRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/responses");
@@ -179,83 +206,111 @@ public class ResponseResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteResponse(@PathVariable Long id) {
         log.debug("REST request to delete Response : {}", id);
         responseRepository.delete(id);
-        responseSearchRepository.delete(id);
+        searchOutboxService.delete(Response.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("response", id.toString())).build();
     }
 
+    /**
+     * PATCH  /responses/:id/answers : apply changed answers to the "id" response.
+     *
+     * <p>
+     * The response is locked until the changes are committed, so concurrent autosaves of the same response
+     * are applied one after the other, and none of them is lost.
+     * </p>
+     *
+     * @param id the id of the response to update
+     * @param answers the changed answers; an answer without response is removed
+     * @return the ResponseEntity with status 200 (OK), or with status 400 (Bad Request) if an answer has no
+     * question, if an id of an answer is not a number or if the details of the response are not a JSON object of questiongroups,
+     * or with status 404 (Not Found)
+     */
+    @RequestMapping(value = "/responses/{id}/answers",
+        method = RequestMethod.PATCH,
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Transactional
+    public ResponseEntity<Void> patchResponseAnswers(@PathVariable Long id, @RequestBody List<AnswerChangeDTO> answers) {
+        log.debug("REST request to patch the answers of Response : {}", id);
+        for (AnswerChangeDTO answer : answers) {
+            if (answer.getQuestion() == null || answer.getQuestion().isEmpty()
+                || !isId(answer.getQuestiongroup()) || !isId(answer.getQuestion()) || !isId(answer.getSubquestion())) {
+                return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("response", "invalidanswerid",
+                    "The question of an answer is required, and its questiongroup, question and subquestion must be numeric ids")).build();
+            }
+        }
+        Response response = responseRepository.findOneForUpdate(id);
+        if (response == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        try {
+            responsePatchService.patchAnswers(response, answers);
+        } catch (IOException e) {
+            log.warn("Could not patch the answers of Response {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("response", "invaliddetails",
+                "The details of the response are not a JSON object of questiongroups")).build();
+        }
+        assetsummaryService.refreshByResponse(id);
+        searchOutboxService.index(Response.class, id);
+        return ResponseEntity.ok().headers(HeaderUtil.createEntityUpdateAlert("response", id.toString())).build();
+    }
+
     /**
      * SEARCH  /_search/responses?query=:query : search for the response corresponding
      * to the query.
      *
      * @param query the query of the response search
-     * @return the result of the search
+     * @return the task searching, run on the {@link RestTaskExecutor}
      */
     @RequestMapping(value = "/_search/responses",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Response>> searchResponses(@RequestParam String query, Pageable pageable)
-        throws URISyntaxException {
+    public WebAsyncTask<ResponseEntity<List<Response>>> searchResponses(@RequestParam String query, Pageable pageable) {
         log.debug("REST request to search for a page of Responses for query {}", query);
-        Page<Response> page = responseSearchRepository.search(queryStringQuery(query), pageable);
-        HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/responses");
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        return restTaskExecutor.submit(() -> {
+            Page<Response> page = SearchUtil.toEntityPage(responseSearchRepository.search(queryStringQuery(query), pageable), pageable,
+                responseRepository::findAll, Response::getId);
+            HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/responses");
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        });
     }
   
     /**
      * GET  /save response
      *
      * @param id the id of the questionnaire
-     * @throws IOException 
-     * @throws JsonMappingException 
-     * @throws JsonParseException 
+     * @return the task saving the response, run on the {@link RestTaskExecutor}
      */
     @RequestMapping(value = "/saveResponse/{id}/{details}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public void saveResponse(@PathVariable("id") Long id,
-    		                 @PathVariable("details") String details) throws JsonParseException, JsonMappingException, IOException {
+    public WebAsyncTask<ResponseEntity<Void>> saveResponse(@PathVariable("id") Long id,
+    		                 @PathVariable("details") String details) {
         log.debug("REST request to save Response : {}", id);
-        String login=springSecurityAuditorAware.getCurrentAuditor();
-        Response response = new Response();
-        Questionnaire questionnaire=questionnaireRepository.getOne(id);
-        response.setQuestionnaire(questionnaire);
-        response.setDetails(details);
-        response.setDomain("DEMO");
-        response.setLastmodifiedby(login);
-        response.setStatus("Active");
-        //response.setUsername(login);
-        Date date=new Date();
-        ZonedDateTime lastmodifieddatetime = ZonedDateTime.ofInstant(date.toInstant(),
-                ZoneId.systemDefault());
-        response.setLastmodifieddatetime(lastmodifieddatetime);
-        Response saveResponse=responseRepository.save(response);
-        
-        ObjectMapper mapper = new ObjectMapper();
-        
-        ResponsedetailJson responsedetailJson = mapper.readValue(saveResponse.getDetails(), ResponsedetailJson.class);
-
-        for(Questiongroup questiongroup:responsedetailJson.questiongroups){
-        System.out.println(questiongroup.getQuestiongroup());
-        for(Question question:questiongroup.getQuestions()){
-        	Responsedetail responsedetail=new Responsedetail();
-        	System.out.println(question.getQuestion());
-        	System.out.println(question.getSubquestion());
-        	System.out.println(question.getResponse());
-        	responsedetail.setQuestiongroupId(Long.parseLong(questiongroup.getQuestiongroup()));
-        	responsedetail.setQuestionId(Long.parseLong(question.getQuestion()));
-        	if(question.getSubquestion()!=null){
-        	responsedetail.setSubquestionId(Long.parseLong(question.getSubquestion()));
-        	}
-        	responsedetail.setResponseId(id);
-        	responsedetail.setResponse(question.getResponse());
-        	responsedetailRepository.save(responsedetail);
-         }	
-       }
+        return restTaskExecutor.submitInTransaction(() -> {
+            String login=springSecurityAuditorAware.getCurrentAuditor();
+            Response response = new Response();
+            Questionnaire questionnaire=questionnaireRepository.getOne(id);
+            response.setQuestionnaire(questionnaire);
+            response.setDetails(details);
+            response.setDomain("DEMO");
+            response.setLastmodifiedby(login);
+            response.setStatus("Active");
+            //response.setUsername(login);
+            Date date=new Date();
+            ZonedDateTime lastmodifieddatetime = ZonedDateTime.ofInstant(date.toInstant(),
+                    ZoneId.systemDefault());
+            response.setLastmodifieddatetime(lastmodifieddatetime);
+            Response saveResponse=responseRepository.save(response);
+            responsedetailIngestionService.ingest(saveResponse.getId(), saveResponse.getDetails());
+            return ResponseEntity.ok().build();
+        });
     }
     
     
@@ -263,80 +318,65 @@ public class ResponseResource {
      * GET  /save response
      *
      * @param id the id of the questionnaire
-     * @throws IOException 
-     * @throws JsonMappingException 
-     * @throws JsonParseException 
+     * @return the task saving the response, run on the {@link RestTaskExecutor}
      */
     @RequestMapping(value = "/updateResponse/{id}/{rId}/{details}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public void updateResponse(@PathVariable("id") Long id,
+    public WebAsyncTask<ResponseEntity<Void>> updateResponse(@PathVariable("id") Long id,
     		                   @PathVariable("rId") Long rId,
-    		                   @PathVariable("details") String details) throws JsonParseException, JsonMappingException, IOException {
+    		                   @PathVariable("details") String details) {
     	   log.debug("REST request to save Response : {}", id);
-           String login=springSecurityAuditorAware.getCurrentAuditor();
-           Response response = responseRepository.findOne(rId);
-           Questionnaire questionnaire=questionnaireRepository.getOne(id);
-           response.setQuestionnaire(questionnaire);
-           response.setDetails(details);
-           response.setDomain("DEMO");
-           response.setLastmodifiedby("echasin");
-           response.setStatus("Active");
-           //response.setUsername(login);
-           Date date=new Date();
-           ZonedDateTime lastmodifieddatetime = ZonedDateTime.ofInstant(date.toInstant(),
-                   ZoneId.systemDefault());
-           response.setLastmodifieddatetime(lastmodifieddatetime);
-           Response saveResponse=responseRepository.save(response);
-           
-           ObjectMapper mapper = new ObjectMapper();
-           
-           ResponsedetailJson responsedetailJson = mapper.readValue(saveResponse.getDetails(), ResponsedetailJson.class);
-
-           for(Questiongroup questiongroup:responsedetailJson.questiongroups){
-           System.out.println(questiongroup.getQuestiongroup());
-           for(Question question:questiongroup.getQuestions()){
-           	Responsedetail responsedetail=new Responsedetail();
-           	System.out.println(question.getQuestion());
-           	System.out.println(question.getSubquestion());
-           	System.out.println(question.getResponse());
-           	responsedetail.setQuestiongroupId(Long.parseLong(questiongroup.getQuestiongroup()));
-           	responsedetail.setQuestionId(Long.parseLong(question.getQuestion()));
-           	if(question.getSubquestion()!=null){
-           	responsedetail.setSubquestionId(Long.parseLong(question.getSubquestion()));
-           	}
-           	responsedetail.setResponseId(id);
-           	responsedetail.setResponse(question.getResponse());
-           	responsedetailRepository.save(responsedetail);
-            }	
-          }
+           return restTaskExecutor.submitInTransaction(() -> {
+               String login=springSecurityAuditorAware.getCurrentAuditor();
+               Response response = responseRepository.findOne(rId);
+               Questionnaire questionnaire=questionnaireRepository.getOne(id);
+               response.setQuestionnaire(questionnaire);
+               response.setDetails(details);
+               response.setDomain("DEMO");
+               response.setLastmodifiedby("echasin");
+               response.setStatus("Active");
+               //response.setUsername(login);
+               Date date=new Date();
+               ZonedDateTime lastmodifieddatetime = ZonedDateTime.ofInstant(date.toInstant(),
+                       ZoneId.systemDefault());
+               response.setLastmodifieddatetime(lastmodifieddatetime);
+               Response saveResponse=responseRepository.save(response);
+               responsedetailIngestionService.update(saveResponse.getId(), saveResponse.getDetails());
+               assetsummaryService.refreshByResponse(saveResponse.getId());
+               return ResponseEntity.ok().build();
+           });
        }
 
     /**
      * 
      * @param response
-     * @throws URISyntaxException
+     * @return the task saving the response, run on the {@link RestTaskExecutor}
      */
     @RequestMapping(value = "/saveResponseAndResponsembr/{id}",
             method = RequestMethod.POST,
             produces = MediaType.APPLICATION_JSON_VALUE)
         @Timed
-        public void saveResponseAndResponsembr(@Valid @RequestBody Response response,@PathVariable("id") Long id) throws URISyntaxException {
+        public WebAsyncTask<ResponseEntity<Void>> saveResponseAndResponsembr(@Valid @RequestBody Response response,@PathVariable("id") Long id) {
     	    log.debug("REST request to save Response : {}", response);
-            Responsembr responsembr=new Responsembr();
-            Date date=new Date();
-            ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(date.toInstant(),
-                    ZoneId.systemDefault());
-            response.setLastmodifieddatetime(zonedDateTime);
-            responsembr.setResponse(response);
-            responsembr.setDomain(response.getDomain());
-            responsembr.setLastmodifiedby(response.getLastmodifiedby());
-            responsembr.setStatus(response.getStatus());
-            responsembr.setLastmodifieddatetime(zonedDateTime);
-            responsembr.setAssetId(id);
-            Response savedResponse = responseRepository.save(response);
-            Responsembr savedResponsembr=responsembrRepository.save(responsembr);
+            return restTaskExecutor.submitInTransaction(() -> {
+                Responsembr responsembr=new Responsembr();
+                Date date=new Date();
+                ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(date.toInstant(),
+                        ZoneId.systemDefault());
+                response.setLastmodifieddatetime(zonedDateTime);
+                responsembr.setResponse(response);
+                responsembr.setDomain(response.getDomain());
+                responsembr.setLastmodifiedby(response.getLastmodifiedby());
+                responsembr.setStatus(response.getStatus());
+                responsembr.setLastmodifieddatetime(zonedDateTime);
+                responsembr.setAssetId(id);
+                Response savedResponse = responseRepository.save(response);
+                Responsembr savedResponsembr=responsembrRepository.save(responsembr);
+                assetsummaryService.refreshByResponse(savedResponse.getId());
+                return ResponseEntity.ok().build();
+            });
         }
  
     
@@ -344,49 +384,58 @@ public class ResponseResource {
     /**
      * 
      * @param response
-     * @throws URISyntaxException
+     * @return the task saving the response, run on the {@link RestTaskExecutor}
      */
     @RequestMapping(value = "/updateResponseAndResponsembr/{id}",
             method = RequestMethod.POST,
             produces = MediaType.APPLICATION_JSON_VALUE)
         @Timed
-        public void updateResponseAndResponsembr(@Valid @RequestBody Response response,@PathVariable("id") Long id) throws URISyntaxException {
+        public WebAsyncTask<ResponseEntity<Void>> updateResponseAndResponsembr(@Valid @RequestBody Response response,@PathVariable("id") Long id) {
             log.debug("REST request to save Response : {}", response);
-            Responsembr responsembr=new Responsembr();
-            responsembr.setResponse(response);
-            responsembr.setDomain(response.getDomain());
-            responsembr.setLastmodifiedby(response.getLastmodifiedby());
-            responsembr.setStatus(response.getStatus());
-            responsembr.setAssetId(id);
-            Response savedResponse = responseRepository.save(response);
-            Responsembr savedResponsembr=responsembrRepository.save(responsembr);
-            
+            return restTaskExecutor.submitInTransaction(() -> {
+                Responsembr responsembr=new Responsembr();
+                responsembr.setResponse(response);
+                responsembr.setDomain(response.getDomain());
+                responsembr.setLastmodifiedby(response.getLastmodifiedby());
+                responsembr.setStatus(response.getStatus());
+                responsembr.setAssetId(id);
+                Response savedResponse = responseRepository.save(response);
+                Responsembr savedResponsembr=responsembrRepository.save(responsembr);
+                assetsummaryService.refreshByResponse(savedResponse.getId());
+                return ResponseEntity.ok().build();
+            });
         }
     
     /**
-     * 
-     * @param id
-     * @return
-     * @throws IOException
-     * @throws URISyntaxException 
+     * GET  /responseByAsset/:id : get a page of the responses of the "id" asset, in the requested order and then
+     * in the order of their memberships.
+     *
+     * @param id the id of the asset
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of responses in body
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @RequestMapping(value = "/responseByAsset/{id}",
             method = RequestMethod.GET,
             produces = MediaType.APPLICATION_JSON_VALUE)
         @Timed
-       // public ResponseEntity<List<Response>> getResponseByAsset(@PathVariable Long id) throws  IOException {
-    	public ResponseEntity<List<Response>> getResponseByAsset(@PathVariable Long id,Pageable pageable) throws  IOException, URISyntaxException {
-            log.debug("REST request to get Response : {}", id);
-            List<Response> responses=new ArrayList<Response>();
-            List<Responsembr> responsembrs = responsembrRepository.findByAssetId(id);
-            for(Responsembr responsembr:responsembrs){
-                Response response = responseRepository.findOne(responsembr.getResponse().getId());
-                responses.add(response);
-         //   }
-         //   return new ResponseEntity<>(responses, HttpStatus.OK);
-            } 
-            Page<Response> usersPage = new PageImpl<Response>(responses,pageable, responses.size()); 
-            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(usersPage, "/api/responses");
-            return new ResponseEntity<>(responses,headers,HttpStatus.OK);
+    	public ResponseEntity<List<Response>> getResponseByAsset(@PathVariable Long id,Pageable pageable) throws URISyntaxException {
+            log.debug("REST request to get a page of Responses by asset : {}", id);
+            Page<Response> page = responsembrRepository.findWithResponseByAssetId(id, PaginationUtil.sortedThenById(pageable))
+                .map(responsembr -> responsembr.getResponse());
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/responseByAsset/" + id);
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
+
+    private static boolean isId(String value) {
+        if (value == null || value.isEmpty()) {
+            return true;
+        }
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
         }
-}
\ No newline at end of file
+    }
+}
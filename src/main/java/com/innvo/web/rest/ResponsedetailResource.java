@@ -1,19 +1,23 @@
 package com.innvo.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.innvo.async.RestTaskExecutor;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.innvo.domain.Response;
 import com.innvo.domain.Responsedetail;
 import com.innvo.repository.ResponseRepository;
 import com.innvo.repository.ResponsedetailRepository;
 import com.innvo.repository.search.ResponsedetailSearchRepository;
-import com.innvo.web.rest.dto.Question;
-import com.innvo.web.rest.dto.Questiongroup;
-import com.innvo.web.rest.dto.ResponsedetailJson;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.security.AuthoritiesConstants;
+import com.innvo.service.ResponseanswerService;
+import com.innvo.service.ResponsedetailCompactionService;
+import com.innvo.service.ResponsedetailIngestionService;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 
 import org.json.JSONException;
 import org.slf4j.Logger;
@@ -24,7 +28,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.inject.Inject;
 
@@ -52,10 +59,28 @@ public class ResponsedetailResource {
     
     @Inject
     private ResponsedetailSearchRepository responsedetailSearchRepository;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseanswerService responseanswerService;
+
+    @Inject
+    private ResponsedetailCompactionService responsedetailCompactionService;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
     
     @Inject
     ResponseRepository responseRepository;
     
+    @Inject
+    ResponsedetailIngestionService responsedetailIngestionService;
+    
     /**
      * POST  /responsedetails : Create a new responsedetail.
      *
@@ -67,13 +92,16 @@ public class ResponsedetailResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Responsedetail> createResponsedetail(@RequestBody Responsedetail responsedetail) throws URISyntaxException {
         log.debug("REST request to save Responsedetail : {}", responsedetail);
         if (responsedetail.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("responsedetail", "idexists", "A new responsedetail cannot already have an ID")).body(null);
         }
         Responsedetail result = responsedetailRepository.save(responsedetail);
-        responsedetailSearchRepository.save(result);
+        responseanswerService.save(result);
+        assetsummaryService.refreshByResponse(result.getResponseId());
+        searchOutboxService.index(Responsedetail.class, result.getId());
         return ResponseEntity.created(new URI("/api/responsedetails/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("responsedetail", result.getId().toString()))
             .body(result);
@@ -92,13 +120,16 @@ public class ResponsedetailResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Responsedetail> updateResponsedetail(@RequestBody Responsedetail responsedetail) throws URISyntaxException {
         log.debug("REST request to update Responsedetail : {}", responsedetail);
         if (responsedetail.getId() == null) {
             return createResponsedetail(responsedetail);
         }
         Responsedetail result = responsedetailRepository.save(responsedetail);
-        responsedetailSearchRepository.save(result);
+        responseanswerService.save(result);
+        assetsummaryService.refreshByResponse(result.getResponseId());
+        searchOutboxService.index(Responsedetail.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("responsedetail", responsedetail.getId().toString()))
             .body(result);
@@ -108,6 +139,8 @@ public class ResponsedetailResource {
      * GET  /responsedetails : get all the responsedetails.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the responsedetails, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of responsedetails in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -115,8 +148,14 @@ public class ResponsedetailResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Responsedetail>> getAllResponsedetails(Pageable pageable)
+    public ResponseEntity<List<Responsedetail>> getAllResponsedetails(Pageable pageable,
+                                                                      @RequestParam(value = "after", required = false) Long after,
+                                                                      @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Responsedetails after : {}", after);
+            return PaginationUtil.keysetPage(responsedetailRepository, Responsedetail::getId, after, pageable, count, "/api/responsedetails");
+        }
         log.debug("REST request to get a page of Responsedetails");
         Page<Responsedetail> page = responsedetailRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/responsedetails");
@@ -153,10 +192,16 @@ public class ResponsedetailResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteResponsedetail(@PathVariable Long id) {
         log.debug("REST request to delete Responsedetail : {}", id);
+        Responsedetail responsedetail = responsedetailRepository.findOne(id);
         responsedetailRepository.delete(id);
-        responsedetailSearchRepository.delete(id);
+        responseanswerService.delete(id);
+        if (responsedetail != null) {
+            assetsummaryService.refreshByResponse(responsedetail.getResponseId());
+        }
+        searchOutboxService.delete(Responsedetail.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("responsedetail", id.toString())).build();
     }
 
@@ -165,18 +210,38 @@ public class ResponsedetailResource {
      * to the query.
      *
      * @param query the query of the responsedetail search
-     * @return the result of the search
+     * @return the task searching, run on the {@link RestTaskExecutor}
      */
     @RequestMapping(value = "/_search/responsedetails",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Responsedetail>> searchResponsedetails(@RequestParam String query, Pageable pageable)
-        throws URISyntaxException {
+    public WebAsyncTask<ResponseEntity<List<Responsedetail>>> searchResponsedetails(@RequestParam String query, Pageable pageable) {
         log.debug("REST request to search for a page of Responsedetails for query {}", query);
-        Page<Responsedetail> page = responsedetailSearchRepository.search(queryStringQuery(query), pageable);
-        HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/responsedetails");
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        return restTaskExecutor.submit(() -> {
+            Page<Responsedetail> page = SearchUtil.toEntityPage(responsedetailSearchRepository.search(queryStringQuery(query), pageable), pageable,
+                responsedetailRepository::findAll, Responsedetail::getId);
+            HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/responsedetails");
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * POST  /responsedetails/compact : delete the duplicated responsedetails of every response.
+     *
+     * @return the ResponseEntity with status 200 (OK) and with body the number of deleted responsedetails
+     */
+    @RequestMapping(value = "/responsedetails/compact",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<Integer> compactResponsedetails() {
+        log.debug("REST request to compact Responsedetails");
+        int deleted = responsedetailCompactionService.compact();
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createAlert("adapAssessmentApp.responsedetail.compacted", String.valueOf(deleted)))
+            .body(deleted);
     }
 
     /**
@@ -191,31 +256,12 @@ public class ResponsedetailResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public void saveResponseDetail(@PathVariable Long id) throws JsonParseException, JsonMappingException, IOException, JSONException {
         log.debug("REST request to  save ResponseDetail : {}", id);
         Response response = responseRepository.findOne(id);
-    
-        ObjectMapper mapper = new ObjectMapper();
-        
-        ResponsedetailJson responsedetailJson = mapper.readValue(response.getDetails(), ResponsedetailJson.class);
-
-        for(Questiongroup questiongroup:responsedetailJson.questiongroups){
-        System.out.println(questiongroup.getQuestiongroup());
-        for(Question question:questiongroup.getQuestions()){
-        	Responsedetail responsedetail=new Responsedetail();
-        	System.out.println(question.getQuestion());
-        	System.out.println(question.getSubquestion());
-        	System.out.println(question.getResponse());
-        	responsedetail.setQuestiongroupId(Long.parseLong(questiongroup.getQuestiongroup()));
-        	responsedetail.setQuestionId(Long.parseLong(question.getQuestion()));
-        	if(question.getSubquestion()!=null){
-        	responsedetail.setSubquestionId(Long.parseLong(question.getSubquestion()));
-        	}
-        	responsedetail.setResponseId(id);
-        	responsedetail.setResponse(question.getResponse());
-        	responsedetailRepository.save(responsedetail);
-         }	
-       }
+        responsedetailIngestionService.update(id, response.getDetails());
+        assetsummaryService.refreshByResponse(id);
      }
 
 
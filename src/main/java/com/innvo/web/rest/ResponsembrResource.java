@@ -1,28 +1,33 @@
 package com.innvo.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
-import com.innvo.domain.Responsedetail;
 import com.innvo.domain.Responsembr;
-import com.innvo.repository.ResponsedetailRepository;
 import com.innvo.repository.ResponsembrRepository;
 import com.innvo.repository.search.ResponsembrSearchRepository;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.ResponsedetailStreamService;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,9 +47,15 @@ public class ResponsembrResource {
     
     @Inject
     private ResponsembrSearchRepository responsembrSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
     
     @Inject
-    private ResponsedetailRepository responseDetailRepository;
+    private ResponsedetailStreamService responsedetailStreamService;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
     
     /**
      * POST  /responsembrs : Create a new responsembr.
@@ -57,13 +68,15 @@ public class ResponsembrResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Responsembr> createResponsembr(@Valid @RequestBody Responsembr responsembr) throws URISyntaxException {
         log.debug("REST request to save Responsembr : {}", responsembr);
         if (responsembr.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("responsembr", "idexists", "A new responsembr cannot already have an ID")).body(null);
         }
         Responsembr result = responsembrRepository.save(responsembr);
-        responsembrSearchRepository.save(result);
+        assetsummaryService.refreshByAsset(result.getAssetId(), responseId(result));
+        searchOutboxService.index(Responsembr.class, result.getId());
         return ResponseEntity.created(new URI("/api/responsembrs/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("responsembr", result.getId().toString()))
             .body(result);
@@ -82,13 +95,19 @@ public class ResponsembrResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Responsembr> updateResponsembr(@Valid @RequestBody Responsembr responsembr) throws URISyntaxException {
         log.debug("REST request to update Responsembr : {}", responsembr);
         if (responsembr.getId() == null) {
             return createResponsembr(responsembr);
         }
+        Responsembr previous = responsembrRepository.findOne(responsembr.getId());
+        Long previousAssetId = previous != null ? previous.getAssetId() : null;
+        Long previousResponseId = previous != null ? responseId(previous) : null;
         Responsembr result = responsembrRepository.save(responsembr);
-        responsembrSearchRepository.save(result);
+        assetsummaryService.refreshByAsset(previousAssetId, previousResponseId);
+        assetsummaryService.refreshByAsset(result.getAssetId(), responseId(result));
+        searchOutboxService.index(Responsembr.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("responsembr", responsembr.getId().toString()))
             .body(result);
@@ -98,6 +117,8 @@ public class ResponsembrResource {
      * GET  /responsembrs : get all the responsembrs.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the responsembrs, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of responsembrs in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -105,8 +126,14 @@ public class ResponsembrResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Responsembr>> getAllResponsembrs(Pageable pageable)
+    public ResponseEntity<List<Responsembr>> getAllResponsembrs(Pageable pageable,
+                                                                @RequestParam(value = "after", required = false) Long after,
+                                                                @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Responsembrs after : {}", after);
+            return PaginationUtil.keysetPage(responsembrRepository, Responsembr::getId, after, pageable, count, "/api/responsembrs");
+        }
         log.debug("REST request to get a page of Responsembrs");
         Page<Responsembr> page = responsembrRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/responsembrs");
@@ -143,10 +170,15 @@ public class ResponsembrResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteResponsembr(@PathVariable Long id) {
         log.debug("REST request to delete Responsembr : {}", id);
+        Responsembr responsembr = responsembrRepository.findOne(id);
         responsembrRepository.delete(id);
-        responsembrSearchRepository.delete(id);
+        if (responsembr != null) {
+            assetsummaryService.refreshByAsset(responsembr.getAssetId(), responseId(responsembr));
+        }
+        searchOutboxService.delete(Responsembr.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("responsembr", id.toString())).build();
     }
 
@@ -164,28 +196,48 @@ public class ResponsembrResource {
     public ResponseEntity<List<Responsembr>> searchResponsembrs(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Responsembrs for query {}", query);
-        Page<Responsembr> page = responsembrSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Responsembr> page = SearchUtil.toEntityPage(responsembrSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            responsembrRepository::findAll, Responsembr::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/responsembrs");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /responsembrsobject/:assetId : get the responsedetails of every response of the "assetId" asset,
+     * grouped by response.
+     * <p>
+     * The details are streamed from a single query, one array per membership of the asset, in the order of the
+     * memberships. When a "page" parameter is given, the page applies to the memberships of the asset and the
+     * pagination headers are set; a requested sort is ignored, as the memberships are always in that order.
+     *
+     * @param assetId the id of the asset
+     * @param page the page of memberships to retrieve, all memberships if missing
+     * @param pageable the pagination information
+     * @param response the servlet response the details are written to
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     * @throws IOException if the details cannot be written
+     */
     @RequestMapping(value = "/responsembrsobject/{assetId}",
             method = RequestMethod.GET,
             produces = MediaType.APPLICATION_JSON_VALUE)
         @Timed
-	public ResponseEntity<List<List<Responsedetail>>> getResponsembrAssetId(@PathVariable Long assetId,
-			Pageable pageable) throws URISyntaxException {
-		log.debug("REST request to get Responsembr : {}", assetId);
-		List<Responsembr> responsembr = responsembrRepository.findByAssetId(assetId);
-		List<List<Responsedetail>> responseDetailValue = new ArrayList<List<Responsedetail>>();
-		List<Responsedetail> list = null;
-		for (Responsembr responsembrValue : responsembr) {
-			list = responseDetailRepository.findByResponseId(responsembrValue.getResponse().getId());
-			responseDetailValue.add(list);
+	public void getResponsembrAssetId(@PathVariable Long assetId,
+			@RequestParam(value = "page", required = false) Integer page,
+			Pageable pageable, HttpServletResponse response) throws URISyntaxException, IOException {
+		log.debug("REST request to get Responsedetails by asset : {}", assetId);
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		if (page == null) {
+			responsedetailStreamService.writeGroupedByAsset(assetId, response.getOutputStream());
+			return;
 		}
-		log.debug("Getting responsedetails based on responseid :" + responseDetailValue);
-		return Optional.ofNullable(responseDetailValue).map(result -> new ResponseEntity<>(result, HttpStatus.OK))
-				.orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+		Page<Long> membershipIds = responsembrRepository.findIdsWithResponseByAssetId(assetId,
+			new PageRequest(pageable.getPageNumber(), pageable.getPageSize()));
+		HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(membershipIds, "/api/responsembrsobject/" + assetId);
+		headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+		responsedetailStreamService.writeGroupedByMemberships(membershipIds.getContent(), response.getOutputStream());
 	}
 
+    private static Long responseId(Responsembr responsembr) {
+        return responsembr.getResponse() != null ? responsembr.getResponse().getId() : null;
+    }
 }
@@ -0,0 +1,70 @@
+package com.innvo.web.rest;
+
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.service.SearchCursorService;
+import com.innvo.service.SearchCursorService.SearchCursorPage;
+import com.innvo.web.rest.util.PaginationUtil;
+
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for walking whole search results with a cursor.
+ */
+@RestController
+@RequestMapping("/api")
+public class SearchCursorResource {
+
+    private final Logger log = LoggerFactory.getLogger(SearchCursorResource.class);
+
+    @Inject
+    private SearchCursorService searchCursorService;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
+    /**
+     * SEARCH  /_search/cursor/:entityType?query=:query : search for a page of the documents of an entity type
+     * corresponding to the query, in the order of their ids.
+     *
+     * @param entityType the entity type, for instance "Responsedetail"
+     * @param query the query of the search
+     * @param cursor the cursor of the page, from the "next" link of the previous page; none for the first page
+     * @param size the number of documents of the page
+     * @param fields the fields of the documents to return besides the id; all of them if none are given
+     * @return the task searching, run on the {@link RestTaskExecutor}, with status 200 (OK) and the documents
+     * in body, or with status 404 (Not Found) if the type is not indexed
+     */
+    @RequestMapping(value = "/_search/cursor/{entityType}",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public WebAsyncTask<ResponseEntity<List<Map<String, Object>>>> searchWithCursor(@PathVariable String entityType,
+                                                                                   @RequestParam String query,
+                                                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                   @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                                   @RequestParam(value = "fields", required = false) String[] fields) {
+        log.debug("REST request to search for the {} documents of query {} after cursor {}", entityType, query, cursor);
+        String[] includes = fields != null ? fields : new String[0];
+        return restTaskExecutor.submit(() -> {
+            if (!searchCursorService.getEntityTypes().contains(entityType)) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            SearchCursorPage page = searchCursorService.search(entityType, query, cursor, size, includes);
+            HttpHeaders headers = PaginationUtil.generateSearchCursorHttpHeaders(query, page.getNextCursor(), page.getSize(),
+                includes, "/api/_search/cursor/" + entityType);
+            return new ResponseEntity<>(page.getDocuments(), headers, HttpStatus.OK);
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.innvo.web.rest;
+
+import com.innvo.service.SearchReindexService;
+import com.innvo.web.rest.dto.SearchReindexDTO;
+import com.innvo.web.rest.util.HeaderUtil;
+
+import com.codahale.metrics.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Controller for rebuilding the Elasticsearch indices from the database.
+ */
+@RestController
+@RequestMapping("/management/jhipster")
+public class SearchReindexResource {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexResource.class);
+
+    @Inject
+    private SearchReindexService searchReindexService;
+
+    /**
+     * GET  /reindex : get the progress of the index rebuilds started on this node.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the list of rebuilds in body
+     */
+    @RequestMapping(value = "/reindex",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<SearchReindexDTO> getReindexJobs() {
+        log.debug("REST request to get the Elasticsearch index rebuilds");
+        return searchReindexService.getJobs();
+    }
+
+    /**
+     * POST  /reindex : rebuild the indices of all the entity types, in the background.
+     *
+     * @return the ResponseEntity with status 202 (Accepted) and the started rebuilds in body,
+     * or with status 409 (Conflict) if an index is already being rebuilt
+     */
+    @RequestMapping(value = "/reindex",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<SearchReindexDTO>> reindexAll() {
+        log.debug("REST request to rebuild all the Elasticsearch indices");
+        return reindex(searchReindexService.getEntityTypes(), "all");
+    }
+
+    /**
+     * POST  /reindex/:entityType : rebuild the index of an entity type, in the background.
+     *
+     * @param entityType the entity type, for instance "Responsedetail"
+     * @return the ResponseEntity with status 202 (Accepted) and the started rebuild in body,
+     * with status 404 (Not Found) if the type is not indexed,
+     * or with status 409 (Conflict) if its index is already being rebuilt
+     */
+    @RequestMapping(value = "/reindex/{entityType}",
+        method = RequestMethod.POST,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<SearchReindexDTO>> reindexEntityType(@PathVariable String entityType) {
+        log.debug("REST request to rebuild the Elasticsearch index of : {}", entityType);
+        if (!searchReindexService.getEntityTypes().contains(entityType)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return reindex(Collections.singletonList(entityType), entityType);
+    }
+
+    /**
+     * DELETE  /reindex/:entityType : release an entity type whose rebuild was interrupted, so its
+     * search outbox operations are applied again.
+     *
+     * @param entityType the entity type
+     * @return the ResponseEntity with status 200 (OK), or with status 404 (Not Found) if the type was not being rebuilt
+     */
+    @RequestMapping(value = "/reindex/{entityType}",
+        method = RequestMethod.DELETE)
+    @Timed
+    public ResponseEntity<Void> releaseEntityType(@PathVariable String entityType) {
+        log.debug("REST request to release the Elasticsearch index rebuild of : {}", entityType);
+        if (!searchReindexService.release(entityType)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok().headers(HeaderUtil.createAlert("adapAssessmentApp.searchReindex.released", entityType)).build();
+    }
+
+    private ResponseEntity<List<SearchReindexDTO>> reindex(Collection<String> entityTypes, String param) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .headers(HeaderUtil.createAlert("adapAssessmentApp.searchReindex.started", param))
+                .body(searchReindexService.reindex(entityTypes));
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .headers(HeaderUtil.createFailureAlert("searchReindex", "reindexrunning", "An index is already being rebuilt"))
+                .body(null);
+        }
+    }
+}
@@ -4,8 +4,12 @@ import com.codahale.metrics.annotation.Timed;
 import com.innvo.domain.Subquestion;
 import com.innvo.repository.SubquestionRepository;
 import com.innvo.repository.search.SubquestionSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.web.rest.cache.ResponseCached;
 import com.innvo.web.rest.util.HeaderUtil;
 import com.innvo.web.rest.util.PaginationUtil;
+import com.innvo.web.rest.util.SearchUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,6 +18,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
@@ -41,6 +46,12 @@ public class SubquestionResource {
     
     @Inject
     private SubquestionSearchRepository subquestionSearchRepository;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
     
     /**
      * POST  /subquestions : Create a new subquestion.
@@ -53,13 +64,15 @@ public class SubquestionResource {
         method = RequestMethod.POST,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Subquestion> createSubquestion(@Valid @RequestBody Subquestion subquestion) throws URISyntaxException {
         log.debug("REST request to save Subquestion : {}", subquestion);
         if (subquestion.getId() != null) {
             return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("subquestion", "idexists", "A new subquestion cannot already have an ID")).body(null);
         }
         Subquestion result = subquestionRepository.save(subquestion);
-        subquestionSearchRepository.save(result);
+        searchOutboxService.index(Subquestion.class, result.getId());
+        responseCacheService.invalidate(result);
         return ResponseEntity.created(new URI("/api/subquestions/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert("subquestion", result.getId().toString()))
             .body(result);
@@ -78,13 +91,15 @@ public class SubquestionResource {
         method = RequestMethod.PUT,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Subquestion> updateSubquestion(@Valid @RequestBody Subquestion subquestion) throws URISyntaxException {
         log.debug("REST request to update Subquestion : {}", subquestion);
         if (subquestion.getId() == null) {
             return createSubquestion(subquestion);
         }
-        Subquestion result = subquestionRepository.save(subquestion);
-        subquestionSearchRepository.save(result);
+        Subquestion result = responseCacheService.invalidateWrite(subquestionRepository.findOne(subquestion.getId()),
+            () -> subquestionRepository.save(subquestion));
+        searchOutboxService.index(Subquestion.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert("subquestion", subquestion.getId().toString()))
             .body(result);
@@ -94,6 +109,8 @@ public class SubquestionResource {
      * GET  /subquestions : get all the subquestions.
      *
      * @param pageable the pagination information
+     * @param after the id after which to read the page, for keyset pagination
+     * @param count whether to count the subquestions, for keyset pagination
      * @return the ResponseEntity with status 200 (OK) and the list of subquestions in body
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
@@ -101,8 +118,14 @@ public class SubquestionResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Subquestion>> getAllSubquestions(Pageable pageable)
+    public ResponseEntity<List<Subquestion>> getAllSubquestions(Pageable pageable,
+                                                                @RequestParam(value = "after", required = false) Long after,
+                                                                @RequestParam(value = "count", defaultValue = "false") boolean count)
         throws URISyntaxException {
+        if (after != null) {
+            log.debug("REST request to get the Subquestions after : {}", after);
+            return PaginationUtil.keysetPage(subquestionRepository, Subquestion::getId, after, pageable, count, "/api/subquestions");
+        }
         log.debug("REST request to get a page of Subquestions");
         Page<Subquestion> page = subquestionRepository.findAll(pageable); 
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/subquestions");
@@ -139,10 +162,14 @@ public class SubquestionResource {
         method = RequestMethod.DELETE,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @Transactional
     public ResponseEntity<Void> deleteSubquestion(@PathVariable Long id) {
         log.debug("REST request to delete Subquestion : {}", id);
-        subquestionRepository.delete(id);
-        subquestionSearchRepository.delete(id);
+        responseCacheService.invalidateWrite(subquestionRepository.findOne(id), () -> {
+            subquestionRepository.delete(id);
+            return null;
+        });
+        searchOutboxService.delete(Subquestion.class, id);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert("subquestion", id.toString())).build();
     }
 
@@ -160,7 +187,8 @@ public class SubquestionResource {
     public ResponseEntity<List<Subquestion>> searchSubquestions(@RequestParam String query, Pageable pageable)
         throws URISyntaxException {
         log.debug("REST request to search for a page of Subquestions for query {}", query);
-        Page<Subquestion> page = subquestionSearchRepository.search(queryStringQuery(query), pageable);
+        Page<Subquestion> page = SearchUtil.toEntityPage(subquestionSearchRepository.search(queryStringQuery(query), pageable), pageable,
+            subquestionRepository::findAll, Subquestion::getId);
         HttpHeaders headers = PaginationUtil.generateSearchPaginationHttpHeaders(query, page, "/api/_search/subquestions");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -176,6 +204,7 @@ public class SubquestionResource {
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
+    @ResponseCached(tags = "Question:{id}")
     public ResponseEntity<List<Subquestion>> getSubquestionByQuestion(@PathVariable Long id,Pageable pageable) throws URISyntaxException {
         log.debug("REST request to get Subquestion By Question: {}", id);
         Page<Subquestion> page = subquestionRepository.findByQuestionId(id,pageable); 
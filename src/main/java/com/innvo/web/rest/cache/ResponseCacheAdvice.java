@@ -0,0 +1,71 @@
+package com.innvo.web.rest.cache;
+
+import com.innvo.service.ResponseCacheService;
+import com.innvo.web.rest.cache.ResponseCacheInterceptor.PendingResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the body of the {@link ResponseCached} endpoints whose response was not found in the cache by the
+ * {@link ResponseCacheInterceptor}, tagged with the entities it shows.
+ */
+@ControllerAdvice
+public class ResponseCacheAdvice implements ResponseBodyAdvice<Object> {
+
+    private final Logger log = LoggerFactory.getLogger(ResponseCacheAdvice.class);
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.getMethodAnnotation(ResponseCached.class) != null;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        PendingResponse pending = (PendingResponse) ((ServletServerHttpRequest) request).getServletRequest()
+            .getAttribute(ResponseCacheInterceptor.PENDING_RESPONSE_ATTRIBUTE);
+        HttpServletResponse servletResponse = ((ServletServerHttpResponse) response).getServletResponse();
+        if (pending == null || body == null || servletResponse.getStatus() != HttpServletResponse.SC_OK) {
+            return body;
+        }
+        Map<String, List<String>> headers = new HashMap<>(response.getHeaders());
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        Set<String> tags = new HashSet<>(pending.tags);
+        tags.addAll(responseCacheService.getTags(body));
+        try {
+            responseCacheService.put(pending.key, pending.sequence, tags, objectMapper.writeValueAsBytes(body), headers);
+        } catch (IOException e) {
+            log.warn("Could not cache the response {}: {}", pending.key, e.getMessage());
+        }
+        return body;
+    }
+}
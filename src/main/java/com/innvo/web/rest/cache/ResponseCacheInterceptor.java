@@ -0,0 +1,96 @@
+package com.innvo.web.rest.cache;
+
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.ResponseCacheService.CachedResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.PropertyPlaceholderHelper;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers the GET requests of the {@link ResponseCached} endpoints from the cache, and otherwise leaves
+ * what the {@link ResponseCacheAdvice} needs to cache their response in the request.
+ */
+@Component
+public class ResponseCacheInterceptor extends HandlerInterceptorAdapter {
+
+    static final String PENDING_RESPONSE_ATTRIBUTE = ResponseCacheInterceptor.class.getName() + ".PENDING_RESPONSE";
+
+    private static final PropertyPlaceholderHelper PATH_VARIABLES = new PropertyPlaceholderHelper("{", "}");
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!"GET".equals(request.getMethod()) || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        ResponseCached responseCached = ((HandlerMethod) handler).getMethodAnnotation(ResponseCached.class);
+        if (responseCached == null) {
+            return true;
+        }
+        String key = request.getQueryString() != null ? request.getRequestURI() + "?" + request.getQueryString() : request.getRequestURI();
+        CachedResponse cached = responseCacheService.get(key);
+        if (cached == null) {
+            request.setAttribute(PENDING_RESPONSE_ATTRIBUTE,
+                new PendingResponse(key, responseCacheService.getSequence(), resolveTags(responseCached, request)));
+            return true;
+        }
+
+        cached.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] body = cached.getJson();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = cached.getGzippedJson();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> resolveTags(ResponseCached responseCached, HttpServletRequest request) {
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Map<String, String> variables = pathVariables != null ? pathVariables : Collections.emptyMap();
+        Set<String> tags = new HashSet<>();
+        for (String tag : responseCached.tags()) {
+            tags.add(PATH_VARIABLES.replacePlaceholders(tag, variables::get));
+        }
+        return tags;
+    }
+
+    /**
+     * A response to cache once it is serialized.
+     */
+    static class PendingResponse {
+
+        final String key;
+
+        final long sequence;
+
+        final Set<String> tags;
+
+        PendingResponse(String key, long sequence, Set<String> tags) {
+            this.key = key;
+            this.sequence = sequence;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.innvo.web.rest.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the serialized body of a GET endpoint, by path and parameters, for every user.
+ *
+ * <p>
+ * The response is tagged with the entities it shows, and with the given tags, in which the path
+ * variables are replaced: <code>@ResponseCached(tags = "Questionnaire:{id}")</code>. The tags name the
+ * entity whose children are listed, so the response is invalidated when a child is added.
+ * </p>
+ *
+ * @see com.innvo.service.ResponseCacheService
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ResponseCached {
+
+    /**
+     * @return the tags of the response, besides the entities it shows
+     */
+    String[] tags() default {};
+}
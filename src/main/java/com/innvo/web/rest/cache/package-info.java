@@ -0,0 +1,4 @@
+/**
+ * Server-side cache of the GET responses.
+ */
+package com.innvo.web.rest.cache;
@@ -0,0 +1,58 @@
+package com.innvo.web.rest.dto;
+
+/**
+ * One changed answer of a response: the question, optionally the subquestion, and the new response,
+ * or no response to remove the answer. The questiongroup may be left out, it is then read from the question.
+ */
+public class AnswerChangeDTO {
+
+    private String questiongroup;
+
+    private String question;
+
+    private String subquestion;
+
+    private String response;
+
+    public String getQuestiongroup() {
+        return questiongroup;
+    }
+
+    public void setQuestiongroup(String questiongroup) {
+        this.questiongroup = questiongroup;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(String question) {
+        this.question = question;
+    }
+
+    public String getSubquestion() {
+        return subquestion;
+    }
+
+    public void setSubquestion(String subquestion) {
+        this.subquestion = subquestion;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    @Override
+    public String toString() {
+        return "AnswerChangeDTO{" +
+            "questiongroup='" + questiongroup + "'" +
+            ", question='" + question + "'" +
+            ", subquestion='" + subquestion + "'" +
+            ", response='" + response + "'" +
+            '}';
+    }
+}
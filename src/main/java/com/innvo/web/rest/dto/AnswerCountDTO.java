@@ -0,0 +1,51 @@
+package com.innvo.web.rest.dto;
+
+/**
+ * The number of times an answer was chosen for a question, or for one of its subquestions.
+ */
+public class AnswerCountDTO {
+
+    private Long questionId;
+
+    private Long subquestionId;
+
+    private Long answerId;
+
+    private long count;
+
+    public AnswerCountDTO() {
+    }
+
+    public AnswerCountDTO(Long questionId, Long subquestionId, Long answerId, long count) {
+        this.questionId = questionId;
+        this.subquestionId = subquestionId;
+        this.answerId = answerId;
+        this.count = count;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public Long getSubquestionId() {
+        return subquestionId;
+    }
+
+    public Long getAnswerId() {
+        return answerId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "AnswerCountDTO{" +
+            "questionId=" + questionId +
+            ", subquestionId=" + subquestionId +
+            ", answerId=" + answerId +
+            ", count=" + count +
+            '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.innvo.web.rest.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A partial set of answers, by question id and by subquestion id.
+ */
+public class AnswerMapDTO {
+
+    private Map<Long, String> questions = new HashMap<>();
+
+    private Map<Long, String> subquestions = new HashMap<>();
+
+    public Map<Long, String> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(Map<Long, String> questions) {
+        this.questions = questions;
+    }
+
+    public Map<Long, String> getSubquestions() {
+        return subquestions;
+    }
+
+    public void setSubquestions(Map<Long, String> subquestions) {
+        this.subquestions = subquestions;
+    }
+
+    @Override
+    public String toString() {
+        return "AnswerMapDTO{" +
+            "questions=" + questions +
+            ", subquestions=" + subquestions +
+            '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.innvo.web.rest.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The count, minimum, maximum and average of the numeric answers to a question.
+ */
+public class NumericSummaryDTO {
+
+    private Long questionId;
+
+    private long count;
+
+    private BigDecimal min;
+
+    private BigDecimal max;
+
+    private Double average;
+
+    public NumericSummaryDTO() {
+    }
+
+    public NumericSummaryDTO(Long questionId, long count, BigDecimal min, BigDecimal max, Double average) {
+        this.questionId = questionId;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.average = average;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    @Override
+    public String toString() {
+        return "NumericSummaryDTO{" +
+            "questionId=" + questionId +
+            ", count=" + count +
+            ", min=" + min +
+            ", max=" + max +
+            ", average=" + average +
+            '}';
+    }
+}
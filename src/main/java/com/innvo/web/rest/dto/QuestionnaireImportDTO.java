@@ -0,0 +1,508 @@
+package com.innvo.web.rest.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A whole questionnaire to import: its groups, their questions, and the answers and subquestions
+ * of each question, with the conditions and logic operators between them.
+ *
+ * <p>
+ * Conditions and logic operators reference questions and subquestions by the "ref" given to them
+ * in the document. The status of a group, question, answer or subquestion defaults to the status
+ * of the questionnaire, and all of them get the domain of the questionnaire.
+ * </p>
+ */
+public class QuestionnaireImportDTO {
+
+    @Size(max = 100)
+    private String title;
+
+    @NotNull
+    @Size(max = 25)
+    private String status;
+
+    @NotNull
+    @Size(max = 25)
+    private String domain;
+
+    @Valid
+    private List<QuestiongroupImport> questiongroups = new ArrayList<>();
+
+    @Valid
+    private List<ConditionImport> conditions = new ArrayList<>();
+
+    @Valid
+    private List<LogicoperatorImport> logicoperators = new ArrayList<>();
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public List<QuestiongroupImport> getQuestiongroups() {
+        return questiongroups;
+    }
+
+    public void setQuestiongroups(List<QuestiongroupImport> questiongroups) {
+        this.questiongroups = questiongroups;
+    }
+
+    public List<ConditionImport> getConditions() {
+        return conditions;
+    }
+
+    public void setConditions(List<ConditionImport> conditions) {
+        this.conditions = conditions;
+    }
+
+    public List<LogicoperatorImport> getLogicoperators() {
+        return logicoperators;
+    }
+
+    public void setLogicoperators(List<LogicoperatorImport> logicoperators) {
+        this.logicoperators = logicoperators;
+    }
+
+    @Override
+    public String toString() {
+        return "QuestionnaireImportDTO{" +
+            "title='" + title + "'" +
+            ", status='" + status + "'" +
+            ", domain='" + domain + "'" +
+            ", questiongroups=" + questiongroups.size() +
+            ", conditions=" + conditions.size() +
+            ", logicoperators=" + logicoperators.size() +
+            '}';
+    }
+
+    public static class QuestiongroupImport {
+
+        @NotNull
+        @Size(max = 50)
+        private String title;
+
+        @NotNull
+        @Size(max = 255)
+        private String description;
+
+        @NotNull
+        private Integer position;
+
+        @Size(max = 25)
+        private String status;
+
+        @Valid
+        private List<QuestionImport> questions = new ArrayList<>();
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public void setPosition(Integer position) {
+            this.position = position;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public List<QuestionImport> getQuestions() {
+            return questions;
+        }
+
+        public void setQuestions(List<QuestionImport> questions) {
+            this.questions = questions;
+        }
+    }
+
+    public static class QuestionImport {
+
+        private String ref;
+
+        @NotNull
+        @Size(max = 255)
+        private String question;
+
+        private Boolean mandatory;
+
+        @NotNull
+        @Size(max = 50)
+        private String code;
+
+        @NotNull
+        private Integer position;
+
+        @Size(max = 25)
+        private String status;
+
+        @NotNull
+        private String type;
+
+        @Size(max = 1000)
+        private String help;
+
+        @Valid
+        private List<AnswerImport> answers = new ArrayList<>();
+
+        @Valid
+        private List<SubquestionImport> subquestions = new ArrayList<>();
+
+        public String getRef() {
+            return ref;
+        }
+
+        public void setRef(String ref) {
+            this.ref = ref;
+        }
+
+        public String getQuestion() {
+            return question;
+        }
+
+        public void setQuestion(String question) {
+            this.question = question;
+        }
+
+        public Boolean getMandatory() {
+            return mandatory;
+        }
+
+        public void setMandatory(Boolean mandatory) {
+            this.mandatory = mandatory;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public void setPosition(Integer position) {
+            this.position = position;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+
+        public void setHelp(String help) {
+            this.help = help;
+        }
+
+        public List<AnswerImport> getAnswers() {
+            return answers;
+        }
+
+        public void setAnswers(List<AnswerImport> answers) {
+            this.answers = answers;
+        }
+
+        public List<SubquestionImport> getSubquestions() {
+            return subquestions;
+        }
+
+        public void setSubquestions(List<SubquestionImport> subquestions) {
+            this.subquestions = subquestions;
+        }
+    }
+
+    public static class AnswerImport {
+
+        @NotNull
+        @Size(max = 50)
+        private String code;
+
+        @NotNull
+        @Size(max = 100)
+        private String answeroption;
+
+        @NotNull
+        private Integer position;
+
+        @Size(max = 25)
+        private String status;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getAnsweroption() {
+            return answeroption;
+        }
+
+        public void setAnsweroption(String answeroption) {
+            this.answeroption = answeroption;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public void setPosition(Integer position) {
+            this.position = position;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    public static class SubquestionImport {
+
+        private String ref;
+
+        @NotNull
+        @Size(max = 100)
+        private String subquestion;
+
+        @NotNull
+        @Size(max = 25)
+        private String code;
+
+        @NotNull
+        private Integer position;
+
+        @Size(max = 25)
+        private String status;
+
+        public String getRef() {
+            return ref;
+        }
+
+        public void setRef(String ref) {
+            this.ref = ref;
+        }
+
+        public String getSubquestion() {
+            return subquestion;
+        }
+
+        public void setSubquestion(String subquestion) {
+            this.subquestion = subquestion;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public void setPosition(Integer position) {
+            this.position = position;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+
+    /**
+     * A condition: the displayed question is shown when the response to the question,
+     * or to one of its subquestions, matches.
+     */
+    public static class ConditionImport {
+
+        @NotNull
+        private String action;
+
+        @NotNull
+        private String operator;
+
+        @NotNull
+        private String response;
+
+        @NotNull
+        private String displayedquestion;
+
+        private String question;
+
+        private String subquestion;
+
+        public String getAction() {
+            return action;
+        }
+
+        public void setAction(String action) {
+            this.action = action;
+        }
+
+        public String getOperator() {
+            return operator;
+        }
+
+        public void setOperator(String operator) {
+            this.operator = operator;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+
+        public void setResponse(String response) {
+            this.response = response;
+        }
+
+        public String getDisplayedquestion() {
+            return displayedquestion;
+        }
+
+        public void setDisplayedquestion(String displayedquestion) {
+            this.displayedquestion = displayedquestion;
+        }
+
+        public String getQuestion() {
+            return question;
+        }
+
+        public void setQuestion(String question) {
+            this.question = question;
+        }
+
+        public String getSubquestion() {
+            return subquestion;
+        }
+
+        public void setSubquestion(String subquestion) {
+            this.subquestion = subquestion;
+        }
+    }
+
+    /**
+     * A logic operator combining the conditions of two questions, or of two subquestions.
+     */
+    public static class LogicoperatorImport {
+
+        private String operator;
+
+        private String firstquestion;
+
+        private String secondquestion;
+
+        private String firstsubquestion;
+
+        private String secondsubquestion;
+
+        public String getOperator() {
+            return operator;
+        }
+
+        public void setOperator(String operator) {
+            this.operator = operator;
+        }
+
+        public String getFirstquestion() {
+            return firstquestion;
+        }
+
+        public void setFirstquestion(String firstquestion) {
+            this.firstquestion = firstquestion;
+        }
+
+        public String getSecondquestion() {
+            return secondquestion;
+        }
+
+        public void setSecondquestion(String secondquestion) {
+            this.secondquestion = secondquestion;
+        }
+
+        public String getFirstsubquestion() {
+            return firstsubquestion;
+        }
+
+        public void setFirstsubquestion(String firstsubquestion) {
+            this.firstsubquestion = firstsubquestion;
+        }
+
+        public String getSecondsubquestion() {
+            return secondsubquestion;
+        }
+
+        public void setSecondsubquestion(String secondsubquestion) {
+            this.secondsubquestion = secondsubquestion;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.innvo.web.rest.dto;
+
+import com.innvo.domain.Answer;
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Subquestion;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A whole questionnaire, as needed to render an assessment: its groups, their questions,
+ * and the answers and subquestions of each question. Audit fields are left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuestionnaireTreeDTO {
+
+    private Long id;
+
+    private String title;
+
+    private String status;
+
+    private String domain;
+
+    private ZonedDateTime lastmodifieddatetime;
+
+    private List<QuestiongroupNode> questiongroups = new ArrayList<>();
+
+    public QuestionnaireTreeDTO() {
+    }
+
+    public QuestionnaireTreeDTO(Questionnaire questionnaire) {
+        this.id = questionnaire.getId();
+        this.title = questionnaire.getTitle();
+        this.status = questionnaire.getStatus();
+        this.domain = questionnaire.getDomain();
+        this.lastmodifieddatetime = questionnaire.getLastmodifieddatetime();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public ZonedDateTime getLastmodifieddatetime() {
+        return lastmodifieddatetime;
+    }
+
+    public List<QuestiongroupNode> getQuestiongroups() {
+        return questiongroups;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class QuestiongroupNode {
+
+        private Long id;
+
+        private String title;
+
+        private String description;
+
+        private Integer position;
+
+        private String status;
+
+        private List<QuestionNode> questions = new ArrayList<>();
+
+        public QuestiongroupNode() {
+        }
+
+        public QuestiongroupNode(Questiongroup questiongroup) {
+            this.id = questiongroup.getId();
+            this.title = questiongroup.getTitle();
+            this.description = questiongroup.getDescription();
+            this.position = questiongroup.getPosition();
+            this.status = questiongroup.getStatus();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public List<QuestionNode> getQuestions() {
+            return questions;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class QuestionNode {
+
+        private Long id;
+
+        private String question;
+
+        private String code;
+
+        private Integer position;
+
+        private Boolean mandatory;
+
+        private String type;
+
+        private String help;
+
+        private String status;
+
+        private List<AnswerNode> answers = new ArrayList<>();
+
+        private List<SubquestionNode> subquestions = new ArrayList<>();
+
+        public QuestionNode() {
+        }
+
+        public QuestionNode(Question question) {
+            this.id = question.getId();
+            this.question = question.getQuestion();
+            this.code = question.getCode();
+            this.position = question.getPosition();
+            this.mandatory = question.isMandatory();
+            this.type = question.getType();
+            this.help = question.getHelp();
+            this.status = question.getStatus();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getQuestion() {
+            return question;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+
+        public Boolean getMandatory() {
+            return mandatory;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public List<AnswerNode> getAnswers() {
+            return answers;
+        }
+
+        public List<SubquestionNode> getSubquestions() {
+            return subquestions;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class AnswerNode {
+
+        private Long id;
+
+        private String code;
+
+        private String answeroption;
+
+        private Integer position;
+
+        public AnswerNode() {
+        }
+
+        public AnswerNode(Answer answer) {
+            this.id = answer.getId();
+            this.code = answer.getCode();
+            this.answeroption = answer.getAnsweroption();
+            this.position = answer.getPosition();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getAnsweroption() {
+            return answeroption;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class SubquestionNode {
+
+        private Long id;
+
+        private String subquestion;
+
+        private String code;
+
+        private Integer position;
+
+        public SubquestionNode() {
+        }
+
+        public SubquestionNode(Subquestion subquestion) {
+            this.id = subquestion.getId();
+            this.subquestion = subquestion.getSubquestion();
+            this.code = subquestion.getCode();
+            this.position = subquestion.getPosition();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getSubquestion() {
+            return subquestion;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public Integer getPosition() {
+            return position;
+        }
+    }
+}
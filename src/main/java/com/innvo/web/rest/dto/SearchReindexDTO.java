@@ -0,0 +1,114 @@
+package com.innvo.web.rest.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The progress of the rebuild of the Elasticsearch index of an entity type.
+ */
+public class SearchReindexDTO {
+
+    public enum Status {
+        RUNNING, DONE, FAILED
+    }
+
+    private String entityType;
+
+    private String indexName;
+
+    private Status status;
+
+    private long total;
+
+    private long indexed;
+
+    private double documentsPerSecond;
+
+    private ZonedDateTime startedDate;
+
+    private ZonedDateTime finishedDate;
+
+    private String error;
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    public double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    public void setDocumentsPerSecond(double documentsPerSecond) {
+        this.documentsPerSecond = documentsPerSecond;
+    }
+
+    public ZonedDateTime getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(ZonedDateTime startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public ZonedDateTime getFinishedDate() {
+        return finishedDate;
+    }
+
+    public void setFinishedDate(ZonedDateTime finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchReindexDTO{" +
+            "entityType='" + entityType + "'" +
+            ", indexName='" + indexName + "'" +
+            ", status='" + status + "'" +
+            ", total='" + total + "'" +
+            ", indexed='" + indexed + "'" +
+            '}';
+    }
+}
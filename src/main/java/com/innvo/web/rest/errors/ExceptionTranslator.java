@@ -3,6 +3,7 @@ package com.innvo.web.rest.errors;
 import java.util.List;
 
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -68,6 +69,13 @@ public class ExceptionTranslator {
         return new ErrorDTO(ErrorConstants.ERR_METHOD_NOT_SUPPORTED, exception.getMessage());
     }
 
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseBody
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorDTO processTaskRejectedException(TaskRejectedException exception) {
+        return new ErrorDTO(ErrorConstants.ERR_SERVICE_UNAVAILABLE, exception.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDTO> processRuntimeException(Exception ex) throws Exception {
         BodyBuilder builder;
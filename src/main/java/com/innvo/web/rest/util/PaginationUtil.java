@@ -1,10 +1,21 @@
 package com.innvo.web.rest.util;
 
+import com.innvo.repository.KeysetRepository;
+
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Utility class for handling pagination.
@@ -12,6 +23,15 @@ import java.net.URISyntaxException;
  * <p>
  * Pagination uses the same principles as the <a href="https://developer.github.com/v3/#pagination">Github API</a>,
  * and follow <a href="http://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ *
+ * <p>
+ * Large lists can also be paged with a keyset, <code>?after=&lt;id&gt;&amp;size=</code>: each page is read
+ * from the primary key index after the last id of the previous page, so its cost does not depend on its
+ * position, and the total count is only computed when <code>count=true</code> is asked.
+ *
+ * <p>
+ * Search results are walked the same way with a cursor, <code>?query=&amp;cursor=&amp;size=</code>: the
+ * <code>next</code> link carries the cursor of the following page, and is left out on the last page.
  */
 public class PaginationUtil {
 
@@ -62,4 +82,87 @@ public class PaginationUtil {
         headers.add(HttpHeaders.LINK, link);
         return headers;
     }
+
+    /**
+     * The requested page, in the requested order and then in the order of the ids, so that rows with equal
+     * sort values, or a query without any sort, do not repeat nor skip rows across pages.
+     *
+     * @param pageable the requested page
+     * @return the page to read
+     */
+    public static Pageable sortedThenById(Pageable pageable) {
+        Sort byId = new Sort(Sort.Direction.ASC, "id");
+        return new PageRequest(pageable.getPageNumber(), pageable.getPageSize(),
+            pageable.getSort() != null ? pageable.getSort().and(byId) : byId);
+    }
+
+    /**
+     * The page to read for keyset pagination: the first <code>size</code> entities, in the order of the ids.
+     *
+     * @param pageable the requested page, of which only the size is used
+     * @return the page to pass to a <code>findByIdGreaterThan</code> finder
+     */
+    private static Pageable keysetPageable(Pageable pageable) {
+        return new PageRequest(0, pageable.getPageSize(), Sort.Direction.ASC, "id");
+    }
+
+    /**
+     * Read a page of a list with keyset pagination, with its <code>next</code> and <code>first</code> links.
+     *
+     * @param repository the repository of the entities
+     * @param idOf the id of an entity
+     * @param after the id after which to read the page
+     * @param pageable the requested page, of which only the size is used
+     * @param count whether to count the entities, in the <code>X-Total-Count</code> header
+     * @param baseUrl the url of the list
+     * @param <T> the entity
+     * @return the ResponseEntity with status 200 (OK) and the entities of the page in body
+     * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
+     */
+    public static <T> ResponseEntity<List<T>> keysetPage(KeysetRepository<T> repository, Function<T, Long> idOf, Long after,
+                                                         Pageable pageable, boolean count, String baseUrl)
+        throws URISyntaxException {
+
+        Slice<T> slice = repository.findByIdGreaterThan(after, keysetPageable(pageable));
+        HttpHeaders headers = generateKeysetPaginationHttpHeaders(slice, idOf, count ? repository.count() : null, baseUrl);
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    private static <T> HttpHeaders generateKeysetPaginationHttpHeaders(Slice<T> slice, Function<T, Long> idOf, Long totalCount,
+                                                                      String baseUrl)
+        throws URISyntaxException {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (totalCount != null) {
+            headers.add("X-Total-Count", "" + totalCount);
+        }
+        String link = "";
+        List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            Long after = idOf.apply(content.get(content.size() - 1));
+            link = "<" + (new URI(baseUrl + "?after=" + after + "&size=" + slice.getSize())).toString() + ">; rel=\"next\",";
+        }
+        link += "<" + (new URI(baseUrl + "?after=" + 0 + "&size=" + slice.getSize())).toString() + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
+
+    public static HttpHeaders generateSearchCursorHttpHeaders(String query, String nextCursor, int size, String[] fields,
+                                                              String baseUrl) {
+
+        HttpHeaders headers = new HttpHeaders();
+        UriComponentsBuilder first = UriComponentsBuilder.fromUriString(baseUrl)
+            .queryParam("query", query)
+            .queryParam("size", size);
+        if (fields.length > 0) {
+            first.queryParam("fields", String.join(",", fields));
+        }
+        String link = "";
+        if (nextCursor != null) {
+            link = "<" + first.cloneBuilder().queryParam("cursor", nextCursor).build().encode().toUriString() + ">; rel=\"next\",";
+        }
+        link += "<" + first.build().encode().toUriString() + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
 }
@@ -0,0 +1,51 @@
+package com.innvo.web.rest.util;
+
+import com.innvo.domain.search.SearchDocument;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for turning the documents found in Elasticsearch back into entities.
+ *
+ * <p>
+ * The documents only hold the searchable fields, so the entities of a page of hits are read from the
+ * database with one query, and returned in the order of the hits.
+ */
+public class SearchUtil {
+
+    /**
+     * @param documents the page of documents found
+     * @param pageable the requested page
+     * @param finder reads the entities with the given ids, for instance <code>repository::findAll</code>
+     * @param idOf the id of an entity
+     * @param <E> the type of the entities
+     * @return the page of entities; the hits whose entity was deleted in the meantime are left out
+     */
+    public static <E> Page<E> toEntityPage(Page<? extends SearchDocument> documents, Pageable pageable,
+                                           Function<List<Long>, List<E>> finder, Function<E, Long> idOf) {
+        List<Long> ids = documents.getContent().stream().map(SearchDocument::getId).collect(Collectors.toList());
+        Map<Long, E> entities = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (E entity : finder.apply(ids)) {
+                entities.put(idOf.apply(entity), entity);
+            }
+        }
+        List<E> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            E entity = entities.get(id);
+            if (entity != null) {
+                content.add(entity);
+            }
+        }
+        return new PageImpl<>(content, pageable, documents.getTotalElements());
+    }
+}
@@ -68,7 +68,7 @@ class ResponsedetailGatlingTest extends Simulation {
             .exec(http("Create new responsedetail")
             .post("/api/responsedetails")
             .headers(headers_http_authenticated)
-            .body(StringBody("""{"id":null, "responseId":null, "questionnaireId":null, "questiongroupId":null, "questionId":null, "subquestionId":null, "response":"SAMPLE_TEXT"}""")).asJSON
+            .body(StringBody("""{"id":null, "responseId":null, "questionId":null, "subquestionId":null, "response":"SAMPLE_TEXT"}""")).asJSON
             .check(status.is(201))
             .check(headerRegex("Location", "(.*)").saveAs("new_responsedetail_url"))).exitHereIfFailed
             .pause(10)
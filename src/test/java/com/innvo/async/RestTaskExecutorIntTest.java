@@ -0,0 +1,188 @@
+package com.innvo.async;
+
+import com.innvo.AdapAssessmentApp;
+import com.innvo.config.AsyncConfiguration;
+import com.innvo.config.JHipsterProperties;
+import com.innvo.domain.Response;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.security.SpringSecurityAuditorAware;
+import com.innvo.service.ResponsedetailExportService;
+import com.innvo.service.ResponsedetailIngestionService;
+import com.innvo.web.rest.QuestionnaireResource;
+import com.innvo.web.rest.ResponseResource;
+import com.innvo.web.rest.errors.ExceptionTranslator;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the RestTaskExecutor, enabled: the tasks run on its pool, outside the thread of the test,
+ * so they commit their own transactions.
+ *
+ * @see RestTaskExecutor
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = AdapAssessmentApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class RestTaskExecutorIntTest {
+
+    // The test questionnaire
+    private static final Long QUESTIONNAIRE_ID = 1000L;
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private SpringSecurityAuditorAware springSecurityAuditorAware;
+
+    @Inject
+    private ResponsedetailIngestionService responsedetailIngestionService;
+
+    @Inject
+    private ResponsedetailExportService responsedetailExportService;
+
+    @Inject
+    private ExceptionTranslator exceptionTranslator;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MetricRegistry metricRegistry;
+
+    private RestTaskExecutor restTaskExecutor;
+
+    private MockMvc restResponseMockMvc;
+
+    private MockMvc restQuestionnaireMockMvc;
+
+    @Before
+    public void setup() throws Exception {
+        // one thread and no queue, so a second task is rejected while the first runs
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getAsync().getRest().setEnabled(true);
+        jHipsterProperties.getAsync().getRest().setCorePoolSize(1);
+        jHipsterProperties.getAsync().getRest().setMaxPoolSize(1);
+        jHipsterProperties.getAsync().getRest().setQueueCapacity(0);
+        AsyncConfiguration asyncConfiguration = new AsyncConfiguration();
+        ReflectionTestUtils.setField(asyncConfiguration, "jHipsterProperties", jHipsterProperties);
+        metricRegistry = new MetricRegistry();
+        restTaskExecutor = asyncConfiguration.restTaskExecutor(transactionManager, metricRegistry);
+        restTaskExecutor.afterPropertiesSet();
+
+        ResponseResource responseResource = new ResponseResource();
+        ReflectionTestUtils.setField(responseResource, "responseRepository", responseRepository);
+        ReflectionTestUtils.setField(responseResource, "questionnaireRepository", questionnaireRepository);
+        ReflectionTestUtils.setField(responseResource, "springSecurityAuditorAware", springSecurityAuditorAware);
+        ReflectionTestUtils.setField(responseResource, "responsedetailIngestionService", responsedetailIngestionService);
+        ReflectionTestUtils.setField(responseResource, "restTaskExecutor", restTaskExecutor);
+        this.restResponseMockMvc = MockMvcBuilders.standaloneSetup(responseResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setMessageConverters(jacksonMessageConverter).build();
+
+        QuestionnaireResource questionnaireResource = new QuestionnaireResource();
+        ReflectionTestUtils.setField(questionnaireResource, "questionnaireRepository", questionnaireRepository);
+        ReflectionTestUtils.setField(questionnaireResource, "responsedetailExportService", responsedetailExportService);
+        ReflectionTestUtils.setField(questionnaireResource, "restTaskExecutor", restTaskExecutor);
+        this.restQuestionnaireMockMvc = MockMvcBuilders.standaloneSetup(questionnaireResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @After
+    public void destroy() throws Exception {
+        restTaskExecutor.destroy();
+    }
+
+    @Test
+    public void submitInTransaction() throws Exception {
+        Long lastId = lastResponseId();
+
+        MvcResult result = restResponseMockMvc.perform(get("/api/saveResponse/{id}/{details}", QUESTIONNAIRE_ID, "{}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restResponseMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+
+        // The response was committed by the task, on the thread of the executor
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Response> responses = transactionTemplate.execute(status ->
+            responseRepository.findByIdGreaterThan(lastId, new PageRequest(0, 10)).getContent());
+        try {
+            assertThat(responses).hasSize(1);
+            assertThat(responses.get(0).getDetails()).isEqualTo("{}");
+            assertThat(responses.get(0).getQuestionnaire().getId()).isEqualTo(QUESTIONNAIRE_ID);
+        } finally {
+            transactionTemplate.execute(status -> {
+                responseRepository.delete(responses);
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void exportWithoutTimeout() throws Exception {
+        MvcResult result = restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/responses/export", QUESTIONNAIRE_ID))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restQuestionnaireMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isLessThanOrEqualTo(0);
+    }
+
+    @Test
+    public void saturatedExecutorIsUnavailable() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        restTaskExecutor.getExecutor().submit(() -> {
+            started.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        });
+        try {
+            assertThat(started.await(30, TimeUnit.SECONDS)).isTrue();
+
+            restResponseMockMvc.perform(get("/api/saveResponse/{id}/{details}", QUESTIONNAIRE_ID, "{}"))
+                .andExpect(status().isServiceUnavailable());
+            assertThat(metricRegistry.meter(MetricRegistry.name(RestTaskExecutor.class, "rejected")).getCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private Long lastResponseId() {
+        List<Response> last = responseRepository.findAll(new PageRequest(0, 1, Sort.Direction.DESC, "id")).getContent();
+        return last.isEmpty() ? 0L : last.get(0).getId();
+    }
+}
@@ -0,0 +1,87 @@
+package com.innvo.config.liquibase;
+
+import com.innvo.AdapAssessmentApp;
+import com.innvo.domain.Question;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the RepositoryIndexChecker, against the schema created by Liquibase.
+ *
+ * @see RepositoryIndexChecker
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = AdapAssessmentApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class RepositoryIndexCheckerIntTest {
+
+    /**
+     * A repository with one finder on an indexed column, question.questiongroup_id, and one on an unindexed
+     * column, question.code.
+     */
+    public interface QuestionFinders extends JpaRepository<Question, Long> {
+
+        List<Question> findByQuestiongroupId(Long questiongroupId);
+
+        List<Question> findByCode(String code);
+    }
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private RepositoryIndexChecker repositoryIndexChecker;
+
+    @Before
+    @SuppressWarnings("rawtypes")
+    public void setup() throws Exception {
+        JpaRepositoryFactoryBean<QuestionFinders, Question, Long> factory = new JpaRepositoryFactoryBean<>();
+        factory.setRepositoryInterface(QuestionFinders.class);
+        factory.setEntityManager(entityManager);
+        factory.afterPropertiesSet();
+        // only the repository above is checked
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBeansOfType(JpaRepositoryFactoryBean.class))
+            .thenReturn(Collections.<String, JpaRepositoryFactoryBean>singletonMap("questionFinders", factory));
+
+        repositoryIndexChecker = new RepositoryIndexChecker();
+        ReflectionTestUtils.setField(repositoryIndexChecker, "applicationContext", applicationContext);
+        ReflectionTestUtils.setField(repositoryIndexChecker, "dataSource", dataSource);
+        ReflectionTestUtils.setField(repositoryIndexChecker, "entityManagerFactory", entityManagerFactory);
+    }
+
+    @Test
+    public void reportsOnlyTheUnindexedFinder() throws Exception {
+        List<String> unindexed = repositoryIndexChecker.check();
+
+        assertThat(unindexed).containsExactly("QuestionFinders.findByCode on question[code]");
+    }
+}
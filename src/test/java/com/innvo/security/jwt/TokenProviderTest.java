@@ -0,0 +1,129 @@
+package com.innvo.security.jwt;
+
+import com.innvo.config.JHipsterProperties;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Test class for the claims cache of the TokenProvider.
+ *
+ * @see TokenProvider
+ */
+public class TokenProviderTest {
+
+    private static final String SECRET_KEY = "tokenProviderTestSecret";
+
+    private static final int CACHE_SIZE = 10;
+
+    private MetricRegistry metricRegistry;
+
+    private TokenProvider tokenProvider;
+
+    @Before
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(SECRET_KEY);
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setCacheSize(CACHE_SIZE);
+        metricRegistry = new MetricRegistry();
+        tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jHipsterProperties", jHipsterProperties);
+        ReflectionTestUtils.setField(tokenProvider, "metricRegistry", metricRegistry);
+        tokenProvider.init();
+    }
+
+    @Test
+    public void resolveCachedAuthentication() {
+        String token = createToken("user", SECRET_KEY, 60000);
+
+        Authentication first = tokenProvider.resolveAuthentication(token);
+        Authentication second = tokenProvider.resolveAuthentication(token);
+
+        assertThat(second.getName()).isEqualTo("user");
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        // the claims are cached, but every request gets its own authentication
+        assertThat(second).isNotSameAs(first);
+        assertThat(metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "hits")).getCount()).isEqualTo(1);
+        assertThat(getCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void resolveExpiredCachedAuthentication() throws Exception {
+        // the expiration of a token is in seconds
+        String token = createToken("user", SECRET_KEY, 2000);
+        assertThat(tokenProvider.resolveAuthentication(token)).isNotNull();
+        assertThat(getCacheSize()).isEqualTo(1);
+
+        Thread.sleep(2100);
+
+        try {
+            tokenProvider.resolveAuthentication(token);
+            fail("An expired token must be rejected, even if it was cached");
+        } catch (ExpiredJwtException e) {
+            assertThat(getCacheSize()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void resolveAuthenticationWithInvalidSignature() {
+        String token = createToken("user", "anotherSecret", 60000);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isNull();
+        assertThat(tokenProvider.resolveAuthentication(token)).isNull();
+        assertThat(getCacheSize()).isEqualTo(0);
+        assertThat(metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "hits")).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void resolveExpiredAuthentication() {
+        String token = createToken("user", SECRET_KEY, -60000);
+
+        try {
+            tokenProvider.resolveAuthentication(token);
+            fail("An expired token must be rejected");
+        } catch (ExpiredJwtException e) {
+            assertThat(getCacheSize()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        String last = null;
+        for (int i = 0; i < CACHE_SIZE * 3; i++) {
+            last = createToken("user" + i, SECRET_KEY, 60000 + i * 1000);
+            assertThat(tokenProvider.resolveAuthentication(last)).isNotNull();
+            assertThat(getCacheSize()).isLessThanOrEqualTo(CACHE_SIZE);
+        }
+
+        // the entries expiring last are kept
+        long hits = metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "hits")).getCount();
+        tokenProvider.resolveAuthentication(last);
+        assertThat(metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "hits")).getCount()).isEqualTo(hits + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int getCacheSize() {
+        return ((Gauge<Integer>) metricRegistry.getGauges().get(MetricRegistry.name(TokenProvider.class, "cache", "size"))).getValue();
+    }
+
+    private static String createToken(String subject, String secretKey, long validity) {
+        return Jwts.builder()
+            .setSubject(subject)
+            .claim("auth", "ROLE_USER")
+            .signWith(SignatureAlgorithm.HS512, secretKey)
+            .setExpiration(new Date(System.currentTimeMillis() + validity))
+            .compact();
+    }
+}
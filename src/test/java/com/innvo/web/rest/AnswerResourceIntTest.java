@@ -2,8 +2,11 @@ package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
 import com.innvo.domain.Answer;
+import com.innvo.domain.search.AnswerDocument;
 import com.innvo.repository.AnswerRepository;
 import com.innvo.repository.search.AnswerSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +15,7 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -72,6 +76,12 @@ public class AnswerResourceIntTest {
     @Inject
     private AnswerSearchRepository answerSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -88,6 +98,8 @@ public class AnswerResourceIntTest {
         AnswerResource answerResource = new AnswerResource();
         ReflectionTestUtils.setField(answerResource, "answerSearchRepository", answerSearchRepository);
         ReflectionTestUtils.setField(answerResource, "answerRepository", answerRepository);
+        ReflectionTestUtils.setField(answerResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(answerResource, "responseCacheService", responseCacheService);
         this.restAnswerMockMvc = MockMvcBuilders.standaloneSetup(answerResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -130,9 +142,11 @@ public class AnswerResourceIntTest {
         assertThat(testAnswer.getLastmodifieddatetime()).isEqualTo(DEFAULT_LASTMODIFIEDDATETIME);
         assertThat(testAnswer.getDomain()).isEqualTo(DEFAULT_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Answer in ElasticSearch
-        Answer answerEs = answerSearchRepository.findOne(testAnswer.getId());
-        assertThat(answerEs).isEqualToComparingFieldByField(testAnswer);
+        AnswerDocument answerEs = answerSearchRepository.findOne(testAnswer.getId());
+        assertThat(answerEs).isEqualToComparingFieldByField(new AnswerDocument(testAnswer));
     }
 
     @Test
@@ -281,6 +295,28 @@ public class AnswerResourceIntTest {
                 .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllAnswersAfterId() throws Exception {
+        // Initialize the database
+        answerRepository.saveAndFlush(answer);
+
+        // Get the page from the answer, without counting
+        restAnswerMockMvc.perform(get("/api/answers?after={after}&size=1", answer.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(answer.getId().intValue()));
+
+        // Nothing is after the last answer: no link to a next page, and the count only when it is asked for
+        restAnswerMockMvc.perform(get("/api/answers?after={after}&size=1&count=true", answer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", answerRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/answers?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getAnswer() throws Exception {
@@ -314,7 +350,7 @@ public class AnswerResourceIntTest {
     public void updateAnswer() throws Exception {
         // Initialize the database
         answerRepository.saveAndFlush(answer);
-        answerSearchRepository.save(answer);
+        answerSearchRepository.save(new AnswerDocument(answer));
         int databaseSizeBeforeUpdate = answerRepository.findAll().size();
 
         // Update the answer
@@ -345,9 +381,11 @@ public class AnswerResourceIntTest {
         assertThat(testAnswer.getLastmodifieddatetime()).isEqualTo(UPDATED_LASTMODIFIEDDATETIME);
         assertThat(testAnswer.getDomain()).isEqualTo(UPDATED_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Answer in ElasticSearch
-        Answer answerEs = answerSearchRepository.findOne(testAnswer.getId());
-        assertThat(answerEs).isEqualToComparingFieldByField(testAnswer);
+        AnswerDocument answerEs = answerSearchRepository.findOne(testAnswer.getId());
+        assertThat(answerEs).isEqualToComparingFieldByField(new AnswerDocument(testAnswer));
     }
 
     @Test
@@ -355,7 +393,7 @@ public class AnswerResourceIntTest {
     public void deleteAnswer() throws Exception {
         // Initialize the database
         answerRepository.saveAndFlush(answer);
-        answerSearchRepository.save(answer);
+        answerSearchRepository.save(new AnswerDocument(answer));
         int databaseSizeBeforeDelete = answerRepository.findAll().size();
 
         // Get the answer
@@ -363,6 +401,8 @@ public class AnswerResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean answerExistsInEs = answerSearchRepository.exists(answer.getId());
         assertThat(answerExistsInEs).isFalse();
@@ -377,7 +417,7 @@ public class AnswerResourceIntTest {
     public void searchAnswer() throws Exception {
         // Initialize the database
         answerRepository.saveAndFlush(answer);
-        answerSearchRepository.save(answer);
+        answerSearchRepository.save(new AnswerDocument(answer));
 
         // Search the answer
         restAnswerMockMvc.perform(get("/api/_search/answers?query=id:" + answer.getId()))
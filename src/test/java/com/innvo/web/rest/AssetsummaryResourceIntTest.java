@@ -0,0 +1,206 @@
+package com.innvo.web.rest;
+
+import com.innvo.AdapAssessmentApp;
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.domain.Assetsummary;
+import com.innvo.domain.Response;
+import com.innvo.domain.Responsembr;
+import com.innvo.repository.AssetsummaryRepository;
+import com.innvo.repository.QuestionRepository;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.repository.ResponsembrRepository;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.ResponsedetailIngestionService;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+/**
+ * Test class for the AssetsummaryResource REST controller.
+ *
+ * @see AssetsummaryResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = AdapAssessmentApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class AssetsummaryResourceIntTest {
+
+    private static final Long ASSET_ID = 900001L;
+    private static final Long OTHER_ASSET_ID = 900002L;
+
+    // The test questionnaire, whose question 1001 is answered by the details below
+    private static final Long QUESTIONNAIRE_ID = 1000L;
+    private static final String DETAILS = "{\"questiongroups\":[{\"questiongroup\":\"1000\",\"questions\":[" +
+        "{\"question\":\"1001\",\"subquestion\":\"\",\"response\":\"5\"}]}]}";
+
+    @Inject
+    private AssetsummaryRepository assetsummaryRepository;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private ResponsembrRepository responsembrRepository;
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private QuestionRepository questionRepository;
+
+    @Inject
+    private ResponsedetailIngestionService responsedetailIngestionService;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Inject
+    private PageableHandlerMethodArgumentResolver pageableArgumentResolver;
+
+    private MockMvc restAssetsummaryMockMvc;
+
+    @PostConstruct
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        AssetsummaryResource assetsummaryResource = new AssetsummaryResource();
+        ReflectionTestUtils.setField(assetsummaryResource, "assetsummaryRepository", assetsummaryRepository);
+        ReflectionTestUtils.setField(assetsummaryResource, "restTaskExecutor", restTaskExecutor);
+        this.restAssetsummaryMockMvc = MockMvcBuilders.standaloneSetup(assetsummaryResource)
+            .setCustomArgumentResolvers(pageableArgumentResolver)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    private Response createAssessment(Long assetId, String details) throws Exception {
+        Response response = new Response();
+        response.setDetails(details);
+        response.setStatus("Active");
+        response.setLastmodifiedby("system");
+        response.setLastmodifieddatetime(ZonedDateTime.now());
+        response.setDomain("DEMO");
+        response.setQuestionnaire(questionnaireRepository.findOne(QUESTIONNAIRE_ID));
+        responseRepository.saveAndFlush(response);
+        Responsembr responsembr = new Responsembr();
+        responsembr.setStatus("Active");
+        responsembr.setLastmodifiedby("system");
+        responsembr.setLastmodifieddatetime(ZonedDateTime.now());
+        responsembr.setDomain("DEMO");
+        responsembr.setAssetId(assetId);
+        responsembr.setResponse(response);
+        responsembrRepository.saveAndFlush(responsembr);
+        responsedetailIngestionService.ingest(response.getId(), details);
+        assetsummaryService.refreshByResponse(response.getId());
+        return response;
+    }
+
+    @Test
+    @Transactional
+    public void getAssetSummary() throws Exception {
+        // Initialize the database
+        Response response = createAssessment(ASSET_ID, DETAILS);
+        int completion = (int) (100 / questionRepository.countByQuestionnaireId(QUESTIONNAIRE_ID));
+
+        // Get the summary of the asset
+        MvcResult result = restAssetsummaryMockMvc.perform(get("/api/assets/{id}/summary", ASSET_ID))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restAssetsummaryMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.[*].assetId").value(hasItem(ASSET_ID.intValue())))
+            .andExpect(jsonPath("$.[*].questionnaireId").value(hasItem(QUESTIONNAIRE_ID.intValue())))
+            .andExpect(jsonPath("$.[*].responseId").value(hasItem(response.getId().intValue())))
+            .andExpect(jsonPath("$.[*].status").value(hasItem("Active")))
+            .andExpect(jsonPath("$.[*].answeredCount").value(hasItem(1)))
+            .andExpect(jsonPath("$.[*].answerCount").value(hasItem(1)))
+            .andExpect(jsonPath("$.[*].completion").value(hasItem(completion)));
+    }
+
+    @Test
+    @Transactional
+    public void getAssetSummariesKeepsTheLatestResponse() throws Exception {
+        // Initialize the database
+        Response first = createAssessment(ASSET_ID, DETAILS);
+        Response latest = createAssessment(ASSET_ID, "{}");
+        Response other = createAssessment(OTHER_ASSET_ID, DETAILS);
+
+        // Get the summaries of both assets
+        MvcResult result = restAssetsummaryMockMvc.perform(get("/api/assets/summary?ids={first},{second}&sort=assetId,asc", ASSET_ID, OTHER_ASSET_ID))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restAssetsummaryMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].responseId").value(latest.getId().intValue()))
+            .andExpect(jsonPath("$.[0].answeredCount").value(0))
+            .andExpect(jsonPath("$.[1].responseId").value(other.getId().intValue()))
+            .andExpect(jsonPath("$.[*].responseId").value(not(hasItem(first.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    public void refreshUpdatesTheSummary() throws Exception {
+        // Initialize the database
+        createAssessment(ASSET_ID, DETAILS);
+        Response latest = createAssessment(ASSET_ID, "{}");
+
+        // The summary is updated in place, one per asset and questionnaire
+        List<Assetsummary> assetsummaries = assetsummaryRepository.findByAssetId(ASSET_ID, new PageRequest(0, 10)).getContent();
+        assertThat(assetsummaries).hasSize(1);
+        assertThat(assetsummaries.get(0).getResponseId()).isEqualTo(latest.getId());
+        assertThat(assetsummaries.get(0).getAnsweredCount()).isEqualTo(0);
+        assertThat(assetsummaries.get(0).getCompletion()).isEqualTo(0);
+
+        // The summary is deleted with the last response of the asset
+        responsembrRepository.delete(responsembrRepository.findByAssetId(ASSET_ID));
+        assetsummaryService.refresh(ASSET_ID, QUESTIONNAIRE_ID);
+        assertThat(assetsummaryRepository.findByAssetIdAndQuestionnaireId(ASSET_ID, QUESTIONNAIRE_ID)).isNull();
+    }
+
+    @Test
+    @Transactional
+    public void getMigratedAssetSummary() throws Exception {
+        // Asset 2000 is assessed by the loaded response 1000
+        MvcResult result = restAssetsummaryMockMvc.perform(get("/api/assets/{id}/summary", 2000L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restAssetsummaryMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].responseId").value(hasItem(1000)));
+    }
+}
@@ -2,8 +2,10 @@ package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
 import com.innvo.domain.Conditions;
+import com.innvo.domain.search.ConditionsDocument;
 import com.innvo.repository.ConditionsRepository;
 import com.innvo.repository.search.ConditionsSearchRepository;
+import com.innvo.service.SearchOutboxService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +14,7 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -55,6 +58,9 @@ public class ConditionsResourceIntTest {
     @Inject
     private ConditionsSearchRepository conditionsSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -71,6 +77,7 @@ public class ConditionsResourceIntTest {
         ConditionsResource conditionsResource = new ConditionsResource();
         ReflectionTestUtils.setField(conditionsResource, "conditionsSearchRepository", conditionsSearchRepository);
         ReflectionTestUtils.setField(conditionsResource, "conditionsRepository", conditionsRepository);
+        ReflectionTestUtils.setField(conditionsResource, "searchOutboxService", searchOutboxService);
         this.restConditionsMockMvc = MockMvcBuilders.standaloneSetup(conditionsResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -105,9 +112,11 @@ public class ConditionsResourceIntTest {
         assertThat(testConditions.getOperator()).isEqualTo(DEFAULT_OPERATOR);
         assertThat(testConditions.getResponse()).isEqualTo(DEFAULT_RESPONSE);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Conditions in ElasticSearch
-        Conditions conditionsEs = conditionsSearchRepository.findOne(testConditions.getId());
-        assertThat(conditionsEs).isEqualToComparingFieldByField(testConditions);
+        ConditionsDocument conditionsEs = conditionsSearchRepository.findOne(testConditions.getId());
+        assertThat(conditionsEs).isEqualToComparingFieldByField(new ConditionsDocument(testConditions));
     }
 
     @Test
@@ -180,6 +189,28 @@ public class ConditionsResourceIntTest {
                 .andExpect(jsonPath("$.[*].response").value(hasItem(DEFAULT_RESPONSE.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllConditionsAfterId() throws Exception {
+        // Initialize the database
+        conditionsRepository.saveAndFlush(conditions);
+
+        // Get the page from the conditions, without counting
+        restConditionsMockMvc.perform(get("/api/conditions?after={after}&size=1", conditions.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(conditions.getId().intValue()));
+
+        // Nothing is after the last conditions: no link to a next page, and the count only when it is asked for
+        restConditionsMockMvc.perform(get("/api/conditions?after={after}&size=1&count=true", conditions.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", conditionsRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/conditions?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getConditions() throws Exception {
@@ -209,7 +240,7 @@ public class ConditionsResourceIntTest {
     public void updateConditions() throws Exception {
         // Initialize the database
         conditionsRepository.saveAndFlush(conditions);
-        conditionsSearchRepository.save(conditions);
+        conditionsSearchRepository.save(new ConditionsDocument(conditions));
         int databaseSizeBeforeUpdate = conditionsRepository.findAll().size();
 
         // Update the conditions
@@ -232,9 +263,11 @@ public class ConditionsResourceIntTest {
         assertThat(testConditions.getOperator()).isEqualTo(UPDATED_OPERATOR);
         assertThat(testConditions.getResponse()).isEqualTo(UPDATED_RESPONSE);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Conditions in ElasticSearch
-        Conditions conditionsEs = conditionsSearchRepository.findOne(testConditions.getId());
-        assertThat(conditionsEs).isEqualToComparingFieldByField(testConditions);
+        ConditionsDocument conditionsEs = conditionsSearchRepository.findOne(testConditions.getId());
+        assertThat(conditionsEs).isEqualToComparingFieldByField(new ConditionsDocument(testConditions));
     }
 
     @Test
@@ -242,7 +275,7 @@ public class ConditionsResourceIntTest {
     public void deleteConditions() throws Exception {
         // Initialize the database
         conditionsRepository.saveAndFlush(conditions);
-        conditionsSearchRepository.save(conditions);
+        conditionsSearchRepository.save(new ConditionsDocument(conditions));
         int databaseSizeBeforeDelete = conditionsRepository.findAll().size();
 
         // Get the conditions
@@ -250,6 +283,8 @@ public class ConditionsResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean conditionsExistsInEs = conditionsSearchRepository.exists(conditions.getId());
         assertThat(conditionsExistsInEs).isFalse();
@@ -264,7 +299,7 @@ public class ConditionsResourceIntTest {
     public void searchConditions() throws Exception {
         // Initialize the database
         conditionsRepository.saveAndFlush(conditions);
-        conditionsSearchRepository.save(conditions);
+        conditionsSearchRepository.save(new ConditionsDocument(conditions));
 
         // Search the conditions
         restConditionsMockMvc.perform(get("/api/_search/conditions?query=id:" + conditions.getId()))
@@ -2,8 +2,11 @@ package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
 import com.innvo.domain.Logicoperator;
+import com.innvo.domain.search.LogicoperatorDocument;
 import com.innvo.repository.LogicoperatorRepository;
 import com.innvo.repository.search.LogicoperatorSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +15,7 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -51,6 +55,12 @@ public class LogicoperatorResourceIntTest {
     @Inject
     private LogicoperatorSearchRepository logicoperatorSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -67,6 +77,8 @@ public class LogicoperatorResourceIntTest {
         LogicoperatorResource logicoperatorResource = new LogicoperatorResource();
         ReflectionTestUtils.setField(logicoperatorResource, "logicoperatorSearchRepository", logicoperatorSearchRepository);
         ReflectionTestUtils.setField(logicoperatorResource, "logicoperatorRepository", logicoperatorRepository);
+        ReflectionTestUtils.setField(logicoperatorResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(logicoperatorResource, "responseCacheService", responseCacheService);
         this.restLogicoperatorMockMvc = MockMvcBuilders.standaloneSetup(logicoperatorResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -97,9 +109,11 @@ public class LogicoperatorResourceIntTest {
         Logicoperator testLogicoperator = logicoperators.get(logicoperators.size() - 1);
         assertThat(testLogicoperator.getOperator()).isEqualTo(DEFAULT_OPERATOR);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Logicoperator in ElasticSearch
-        Logicoperator logicoperatorEs = logicoperatorSearchRepository.findOne(testLogicoperator.getId());
-        assertThat(logicoperatorEs).isEqualToComparingFieldByField(testLogicoperator);
+        LogicoperatorDocument logicoperatorEs = logicoperatorSearchRepository.findOne(testLogicoperator.getId());
+        assertThat(logicoperatorEs).isEqualToComparingFieldByField(new LogicoperatorDocument(testLogicoperator));
     }
 
     @Test
@@ -116,6 +130,28 @@ public class LogicoperatorResourceIntTest {
                 .andExpect(jsonPath("$.[*].operator").value(hasItem(DEFAULT_OPERATOR.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllLogicoperatorsAfterId() throws Exception {
+        // Initialize the database
+        logicoperatorRepository.saveAndFlush(logicoperator);
+
+        // Get the page from the logicoperator, without counting
+        restLogicoperatorMockMvc.perform(get("/api/logicoperators?after={after}&size=1", logicoperator.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(logicoperator.getId().intValue()));
+
+        // Nothing is after the last logicoperator: no link to a next page, and the count only when it is asked for
+        restLogicoperatorMockMvc.perform(get("/api/logicoperators?after={after}&size=1&count=true", logicoperator.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", logicoperatorRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/logicoperators?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getLogicoperator() throws Exception {
@@ -143,7 +179,7 @@ public class LogicoperatorResourceIntTest {
     public void updateLogicoperator() throws Exception {
         // Initialize the database
         logicoperatorRepository.saveAndFlush(logicoperator);
-        logicoperatorSearchRepository.save(logicoperator);
+        logicoperatorSearchRepository.save(new LogicoperatorDocument(logicoperator));
         int databaseSizeBeforeUpdate = logicoperatorRepository.findAll().size();
 
         // Update the logicoperator
@@ -162,9 +198,11 @@ public class LogicoperatorResourceIntTest {
         Logicoperator testLogicoperator = logicoperators.get(logicoperators.size() - 1);
         assertThat(testLogicoperator.getOperator()).isEqualTo(UPDATED_OPERATOR);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Logicoperator in ElasticSearch
-        Logicoperator logicoperatorEs = logicoperatorSearchRepository.findOne(testLogicoperator.getId());
-        assertThat(logicoperatorEs).isEqualToComparingFieldByField(testLogicoperator);
+        LogicoperatorDocument logicoperatorEs = logicoperatorSearchRepository.findOne(testLogicoperator.getId());
+        assertThat(logicoperatorEs).isEqualToComparingFieldByField(new LogicoperatorDocument(testLogicoperator));
     }
 
     @Test
@@ -172,7 +210,7 @@ public class LogicoperatorResourceIntTest {
     public void deleteLogicoperator() throws Exception {
         // Initialize the database
         logicoperatorRepository.saveAndFlush(logicoperator);
-        logicoperatorSearchRepository.save(logicoperator);
+        logicoperatorSearchRepository.save(new LogicoperatorDocument(logicoperator));
         int databaseSizeBeforeDelete = logicoperatorRepository.findAll().size();
 
         // Get the logicoperator
@@ -180,6 +218,8 @@ public class LogicoperatorResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean logicoperatorExistsInEs = logicoperatorSearchRepository.exists(logicoperator.getId());
         assertThat(logicoperatorExistsInEs).isFalse();
@@ -194,7 +234,7 @@ public class LogicoperatorResourceIntTest {
     public void searchLogicoperator() throws Exception {
         // Initialize the database
         logicoperatorRepository.saveAndFlush(logicoperator);
-        logicoperatorSearchRepository.save(logicoperator);
+        logicoperatorSearchRepository.save(new LogicoperatorDocument(logicoperator));
 
         // Search the logicoperator
         restLogicoperatorMockMvc.perform(get("/api/_search/logicoperators?query=id:" + logicoperator.getId()))
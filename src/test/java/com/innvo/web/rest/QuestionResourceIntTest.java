@@ -1,21 +1,36 @@
 package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
+import com.innvo.config.Constants;
+import com.innvo.domain.Conditions;
 import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.search.QuestionDocument;
+import com.innvo.repository.ConditionsRepository;
 import com.innvo.repository.QuestionRepository;
+import com.innvo.repository.QuestiongroupRepository;
 import com.innvo.repository.search.QuestionSearchRepository;
+import com.innvo.service.CacheEvictionService;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.SkipLogicService;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
@@ -82,6 +97,27 @@ public class QuestionResourceIntTest {
     @Inject
     private QuestionSearchRepository questionSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
+    @Inject
+    private SkipLogicService skipLogicService;
+
+    @Inject
+    private CacheEvictionService cacheEvictionService;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private QuestiongroupRepository questiongroupRepository;
+
+    @Inject
+    private ConditionsRepository conditionsRepository;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -98,6 +134,9 @@ public class QuestionResourceIntTest {
         QuestionResource questionResource = new QuestionResource();
         ReflectionTestUtils.setField(questionResource, "questionSearchRepository", questionSearchRepository);
         ReflectionTestUtils.setField(questionResource, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(questionResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(questionResource, "responseCacheService", responseCacheService);
+        ReflectionTestUtils.setField(questionResource, "skipLogicService", skipLogicService);
         this.restQuestionMockMvc = MockMvcBuilders.standaloneSetup(questionResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -148,9 +187,11 @@ public class QuestionResourceIntTest {
         assertThat(testQuestion.getHelp()).isEqualTo(DEFAULT_HELP);
 //    assertThat(testQuestion.isDisplay()).isEqualTo(DEFAULT_DISPLAY);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Question in ElasticSearch
-        Question questionEs = questionSearchRepository.findOne(testQuestion.getId());
-        assertThat(questionEs).isEqualToComparingFieldByField(testQuestion);
+        QuestionDocument questionEs = questionSearchRepository.findOne(testQuestion.getId());
+        assertThat(questionEs).isEqualToComparingFieldByField(new QuestionDocument(testQuestion));
     }
 
     @Test
@@ -321,6 +362,28 @@ public class QuestionResourceIntTest {
                 .andExpect(jsonPath("$.[*].display").value(hasItem(DEFAULT_DISPLAY.booleanValue())));
     }
 
+    @Test
+    @Transactional
+    public void getAllQuestionsAfterId() throws Exception {
+        // Initialize the database
+        questionRepository.saveAndFlush(question);
+
+        // Get the page from the question, without counting
+        restQuestionMockMvc.perform(get("/api/questions?after={after}&size=1", question.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(question.getId().intValue()));
+
+        // Nothing is after the last question: no link to a next page, and the count only when it is asked for
+        restQuestionMockMvc.perform(get("/api/questions?after={after}&size=1&count=true", question.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", questionRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/questions?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getQuestion() throws Exception {
@@ -358,7 +421,7 @@ public class QuestionResourceIntTest {
     public void updateQuestion() throws Exception {
         // Initialize the database
         questionRepository.saveAndFlush(question);
-        questionSearchRepository.save(question);
+        questionSearchRepository.save(new QuestionDocument(question));
         int databaseSizeBeforeUpdate = questionRepository.findAll().size();
 
         // Update the question
@@ -397,9 +460,11 @@ public class QuestionResourceIntTest {
         assertThat(testQuestion.getHelp()).isEqualTo(UPDATED_HELP);
  //       assertThat(testQuestion.isDisplay()).isEqualTo(UPDATED_DISPLAY);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Question in ElasticSearch
-        Question questionEs = questionSearchRepository.findOne(testQuestion.getId());
-        assertThat(questionEs).isEqualToComparingFieldByField(testQuestion);
+        QuestionDocument questionEs = questionSearchRepository.findOne(testQuestion.getId());
+        assertThat(questionEs).isEqualToComparingFieldByField(new QuestionDocument(testQuestion));
     }
 
     @Test
@@ -407,7 +472,7 @@ public class QuestionResourceIntTest {
     public void deleteQuestion() throws Exception {
         // Initialize the database
         questionRepository.saveAndFlush(question);
-        questionSearchRepository.save(question);
+        questionSearchRepository.save(new QuestionDocument(question));
         int databaseSizeBeforeDelete = questionRepository.findAll().size();
 
         // Get the question
@@ -415,6 +480,8 @@ public class QuestionResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean questionExistsInEs = questionSearchRepository.exists(question.getId());
         assertThat(questionExistsInEs).isFalse();
@@ -429,7 +496,7 @@ public class QuestionResourceIntTest {
     public void searchQuestion() throws Exception {
         // Initialize the database
         questionRepository.saveAndFlush(question);
-        questionSearchRepository.save(question);
+        questionSearchRepository.save(new QuestionDocument(question));
 
         // Search the question
         restQuestionMockMvc.perform(get("/api/_search/questions?query=id:" + question.getId()))
@@ -448,4 +515,82 @@ public class QuestionResourceIntTest {
             .andExpect(jsonPath("$.[*].help").value(hasItem(DEFAULT_HELP.toString())))
             .andExpect(jsonPath("$.[*].display").value(hasItem(DEFAULT_DISPLAY.booleanValue())));
     }
+
+    @Test
+    @Transactional
+    public void getQuestionsWithoutConditionByQuestionGroup() throws Exception {
+        // Initialize the database: a group with a question that displays a second one
+        Questiongroup questiongroup = new Questiongroup();
+        questiongroup.setTitle(DEFAULT_CODE);
+        questiongroup.setDescription(DEFAULT_CODE);
+        questiongroup.setPosition(DEFAULT_POSITION);
+        questiongroup.setStatus(DEFAULT_STATUS);
+        questiongroup.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        questiongroup.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        questiongroup.setDomain(DEFAULT_DOMAIN);
+        questiongroupRepository.saveAndFlush(questiongroup);
+        question.setQuestiongroup(questiongroup);
+        questionRepository.saveAndFlush(question);
+
+        Question displayedQuestion = new Question();
+        displayedQuestion.setQuestion(UPDATED_QUESTION);
+        displayedQuestion.setCode(UPDATED_CODE);
+        displayedQuestion.setPosition(UPDATED_POSITION);
+        displayedQuestion.setStatus(DEFAULT_STATUS);
+        displayedQuestion.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        displayedQuestion.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        displayedQuestion.setDomain(DEFAULT_DOMAIN);
+        displayedQuestion.setType(DEFAULT_TYPE);
+        displayedQuestion.setQuestiongroup(questiongroup);
+        questionRepository.saveAndFlush(displayedQuestion);
+
+        restQuestionMockMvc.perform(get("/api/questionsByQuestionGroupAndQuestionId/{id}", questiongroup.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(displayedQuestion.getId().intValue())));
+
+        Conditions conditions = new Conditions();
+        conditions.setAction("display question");
+        conditions.setOperator("=");
+        conditions.setResponse("A1");
+        conditions.setQuestion(question);
+        conditions.setDisplayedquestion(displayedQuestion);
+        conditionsRepository.saveAndFlush(conditions);
+
+        // Committing the condition evicts the cached questions of the group
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            restQuestionMockMvc.perform(get("/api/questionsByQuestionGroupAndQuestionId/{id}", questiongroup.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(question.getId().intValue())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(displayedQuestion.getId().intValue()))));
+        } finally {
+            TestTransaction.start();
+            conditionsRepository.delete(conditions.getId());
+            questionRepository.delete(displayedQuestion.getId());
+            questionRepository.delete(question.getId());
+            questiongroupRepository.delete(questiongroup.getId());
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+        }
+    }
+
+    @Test
+    public void questionsBuiltBeforeAnEvictionAreNotCached() {
+        Cache cache = cacheManager.getCache(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION);
+        Long groupId = Long.MAX_VALUE;
+        List<Question> questions = questionRepository.findByQuestiongroupIdWithoutCondition(groupId);
+
+        // A write is committed while the questions are read: the questions read before it are not kept
+        long version = cacheEvictionService.getVersion(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION);
+        cacheEvictionService.evictAfterCommit(Question.class);
+        cacheEvictionService.put(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION, groupId, questions, version);
+        assertThat(cache.get(groupId)).isNull();
+
+        // The questions read after it are
+        version = cacheEvictionService.getVersion(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION);
+        cacheEvictionService.put(Constants.CACHE_QUESTIONS_WITHOUT_CONDITION, groupId, questions, version);
+        assertThat(cache.get(groupId)).isNotNull();
+        cache.evict(groupId);
+    }
 }
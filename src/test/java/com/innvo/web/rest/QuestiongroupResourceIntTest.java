@@ -2,16 +2,25 @@ package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
 import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.search.QuestiongroupDocument;
 import com.innvo.repository.QuestiongroupRepository;
+import com.innvo.repository.QuestionnaireRepository;
 import com.innvo.repository.search.QuestiongroupSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.web.rest.cache.ResponseCacheAdvice;
+import com.innvo.web.rest.cache.ResponseCacheInterceptor;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -72,6 +81,21 @@ public class QuestiongroupResourceIntTest {
     @Inject
     private QuestiongroupSearchRepository questiongroupSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private ResponseCacheInterceptor responseCacheInterceptor;
+
+    @Inject
+    private ResponseCacheAdvice responseCacheAdvice;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -88,8 +112,12 @@ public class QuestiongroupResourceIntTest {
         QuestiongroupResource questiongroupResource = new QuestiongroupResource();
         ReflectionTestUtils.setField(questiongroupResource, "questiongroupSearchRepository", questiongroupSearchRepository);
         ReflectionTestUtils.setField(questiongroupResource, "questiongroupRepository", questiongroupRepository);
+        ReflectionTestUtils.setField(questiongroupResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(questiongroupResource, "responseCacheService", responseCacheService);
         this.restQuestiongroupMockMvc = MockMvcBuilders.standaloneSetup(questiongroupResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
+            .addInterceptors(responseCacheInterceptor)
+            .setControllerAdvice(responseCacheAdvice)
             .setMessageConverters(jacksonMessageConverter).build();
     }
 
@@ -130,9 +158,11 @@ public class QuestiongroupResourceIntTest {
         assertThat(testQuestiongroup.getLastmodifieddatetime()).isEqualTo(DEFAULT_LASTMODIFIEDDATETIME);
         assertThat(testQuestiongroup.getDomain()).isEqualTo(DEFAULT_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Questiongroup in ElasticSearch
-        Questiongroup questiongroupEs = questiongroupSearchRepository.findOne(testQuestiongroup.getId());
-        assertThat(questiongroupEs).isEqualToComparingFieldByField(testQuestiongroup);
+        QuestiongroupDocument questiongroupEs = questiongroupSearchRepository.findOne(testQuestiongroup.getId());
+        assertThat(questiongroupEs).isEqualToComparingFieldByField(new QuestiongroupDocument(testQuestiongroup));
     }
 
     @Test
@@ -281,6 +311,28 @@ public class QuestiongroupResourceIntTest {
                 .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllQuestiongroupsAfterId() throws Exception {
+        // Initialize the database
+        questiongroupRepository.saveAndFlush(questiongroup);
+
+        // Get the page from the questiongroup, without counting
+        restQuestiongroupMockMvc.perform(get("/api/questiongroups?after={after}&size=1", questiongroup.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(questiongroup.getId().intValue()));
+
+        // Nothing is after the last questiongroup: no link to a next page, and the count only when it is asked for
+        restQuestiongroupMockMvc.perform(get("/api/questiongroups?after={after}&size=1&count=true", questiongroup.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", questiongroupRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/questiongroups?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getQuestiongroup() throws Exception {
@@ -314,7 +366,7 @@ public class QuestiongroupResourceIntTest {
     public void updateQuestiongroup() throws Exception {
         // Initialize the database
         questiongroupRepository.saveAndFlush(questiongroup);
-        questiongroupSearchRepository.save(questiongroup);
+        questiongroupSearchRepository.save(new QuestiongroupDocument(questiongroup));
         int databaseSizeBeforeUpdate = questiongroupRepository.findAll().size();
 
         // Update the questiongroup
@@ -345,9 +397,61 @@ public class QuestiongroupResourceIntTest {
         assertThat(testQuestiongroup.getLastmodifieddatetime()).isEqualTo(UPDATED_LASTMODIFIEDDATETIME);
         assertThat(testQuestiongroup.getDomain()).isEqualTo(UPDATED_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Questiongroup in ElasticSearch
-        Questiongroup questiongroupEs = questiongroupSearchRepository.findOne(testQuestiongroup.getId());
-        assertThat(questiongroupEs).isEqualToComparingFieldByField(testQuestiongroup);
+        QuestiongroupDocument questiongroupEs = questiongroupSearchRepository.findOne(testQuestiongroup.getId());
+        assertThat(questiongroupEs).isEqualToComparingFieldByField(new QuestiongroupDocument(testQuestiongroup));
+    }
+
+    @Test
+    @Transactional
+    public void getAllQuestiongroupsByQuestionnaireIsCached() throws Exception {
+        // Initialize the database
+        Questionnaire questionnaire = new Questionnaire();
+        questionnaire.setTitle(DEFAULT_TITLE);
+        questionnaire.setStatus(DEFAULT_STATUS);
+        questionnaire.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        questionnaire.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        questionnaire.setDomain(DEFAULT_DOMAIN);
+        questionnaireRepository.saveAndFlush(questionnaire);
+        questiongroup.setQuestionnaire(questionnaire);
+        questiongroupRepository.saveAndFlush(questiongroup);
+
+        restQuestiongroupMockMvc.perform(get("/api/questiongroupsByQuestionnaire/{id}", questionnaire.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(questiongroup.getId().intValue()));
+
+        // A questiongroup saved without the resource is not seen while the response is cached
+        Questiongroup otherQuestiongroup = new Questiongroup();
+        otherQuestiongroup.setTitle(UPDATED_TITLE);
+        otherQuestiongroup.setDescription(UPDATED_DESCRIPTION);
+        otherQuestiongroup.setPosition(UPDATED_POSITION);
+        otherQuestiongroup.setStatus(UPDATED_STATUS);
+        otherQuestiongroup.setLastmodifiedby(UPDATED_LASTMODIFIEDBY);
+        otherQuestiongroup.setLastmodifieddatetime(UPDATED_LASTMODIFIEDDATETIME);
+        otherQuestiongroup.setDomain(UPDATED_DOMAIN);
+        otherQuestiongroup.setQuestionnaire(questionnaire);
+        questiongroupRepository.saveAndFlush(otherQuestiongroup);
+
+        restQuestiongroupMockMvc.perform(get("/api/questiongroupsByQuestionnaire/{id}", questionnaire.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)));
+        restQuestiongroupMockMvc.perform(get("/api/questiongroupsByQuestionnaire/{id}", questionnaire.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        // Updating a questiongroup of the questionnaire through the resource invalidates the response
+        restQuestiongroupMockMvc.perform(put("/api/questiongroups")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(questiongroup)))
+            .andExpect(status().isOk());
+
+        restQuestiongroupMockMvc.perform(get("/api/questiongroupsByQuestionnaire/{id}", questionnaire.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)));
     }
 
     @Test
@@ -355,7 +459,7 @@ public class QuestiongroupResourceIntTest {
     public void deleteQuestiongroup() throws Exception {
         // Initialize the database
         questiongroupRepository.saveAndFlush(questiongroup);
-        questiongroupSearchRepository.save(questiongroup);
+        questiongroupSearchRepository.save(new QuestiongroupDocument(questiongroup));
         int databaseSizeBeforeDelete = questiongroupRepository.findAll().size();
 
         // Get the questiongroup
@@ -363,6 +467,8 @@ public class QuestiongroupResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean questiongroupExistsInEs = questiongroupSearchRepository.exists(questiongroup.getId());
         assertThat(questiongroupExistsInEs).isFalse();
@@ -377,7 +483,7 @@ public class QuestiongroupResourceIntTest {
     public void searchQuestiongroup() throws Exception {
         // Initialize the database
         questiongroupRepository.saveAndFlush(questiongroup);
-        questiongroupSearchRepository.save(questiongroup);
+        questiongroupSearchRepository.save(new QuestiongroupDocument(questiongroup));
 
         // Search the questiongroup
         restQuestiongroupMockMvc.perform(get("/api/_search/questiongroups?query=id:" + questiongroup.getId()))
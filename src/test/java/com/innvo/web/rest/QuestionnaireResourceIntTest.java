@@ -1,34 +1,62 @@
 package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.domain.Conditions;
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
 import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Response;
+import com.innvo.domain.Responsedetail;
+import com.innvo.domain.search.QuestionnaireDocument;
+import com.innvo.repository.ConditionsRepository;
+import com.innvo.repository.QuestionRepository;
+import com.innvo.repository.QuestiongroupRepository;
 import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.repository.ResponsedetailRepository;
 import com.innvo.repository.search.QuestionnaireSearchRepository;
+import com.innvo.service.QuestionnaireImportService;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.QuestionnaireTreeService;
+import com.innvo.service.ResponsedetailExportService;
+import com.innvo.service.SkipLogicService;
+import com.innvo.web.rest.dto.AnswerMapDTO;
+import com.innvo.web.rest.dto.QuestionnaireImportDTO;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -67,6 +95,42 @@ public class QuestionnaireResourceIntTest {
     @Inject
     private QuestionnaireSearchRepository questionnaireSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
+    @Inject
+    private QuestiongroupRepository questiongroupRepository;
+
+    @Inject
+    private QuestionRepository questionRepository;
+
+    @Inject
+    private ConditionsRepository conditionsRepository;
+
+    @Inject
+    private SkipLogicService skipLogicService;
+
+    @Inject
+    private QuestionnaireTreeService questionnaireTreeService;
+
+    @Inject
+    private ResponsedetailExportService responsedetailExportService;
+
+    @Inject
+    private QuestionnaireImportService questionnaireImportService;
+
+    @Inject
+    private ResponsedetailRepository responsedetailRepository;
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -83,6 +147,13 @@ public class QuestionnaireResourceIntTest {
         QuestionnaireResource questionnaireResource = new QuestionnaireResource();
         ReflectionTestUtils.setField(questionnaireResource, "questionnaireSearchRepository", questionnaireSearchRepository);
         ReflectionTestUtils.setField(questionnaireResource, "questionnaireRepository", questionnaireRepository);
+        ReflectionTestUtils.setField(questionnaireResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(questionnaireResource, "responseCacheService", responseCacheService);
+        ReflectionTestUtils.setField(questionnaireResource, "skipLogicService", skipLogicService);
+        ReflectionTestUtils.setField(questionnaireResource, "questionnaireTreeService", questionnaireTreeService);
+        ReflectionTestUtils.setField(questionnaireResource, "responsedetailExportService", responsedetailExportService);
+        ReflectionTestUtils.setField(questionnaireResource, "questionnaireImportService", questionnaireImportService);
+        ReflectionTestUtils.setField(questionnaireResource, "restTaskExecutor", restTaskExecutor);
         this.restQuestionnaireMockMvc = MockMvcBuilders.standaloneSetup(questionnaireResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -121,9 +192,11 @@ public class QuestionnaireResourceIntTest {
         assertThat(testQuestionnaire.getLastmodifieddatetime()).isEqualTo(DEFAULT_LASTMODIFIEDDATETIME);
         assertThat(testQuestionnaire.getDomain()).isEqualTo(DEFAULT_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Questionnaire in ElasticSearch
-        Questionnaire questionnaireEs = questionnaireSearchRepository.findOne(testQuestionnaire.getId());
-        assertThat(questionnaireEs).isEqualToComparingFieldByField(testQuestionnaire);
+        QuestionnaireDocument questionnaireEs = questionnaireSearchRepository.findOne(testQuestionnaire.getId());
+        assertThat(questionnaireEs).isEqualToComparingFieldByField(new QuestionnaireDocument(testQuestionnaire));
     }
 
     @Test
@@ -216,6 +289,28 @@ public class QuestionnaireResourceIntTest {
                 .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllQuestionnairesAfterId() throws Exception {
+        // Initialize the database
+        questionnaireRepository.saveAndFlush(questionnaire);
+
+        // Get the page from the questionnaire, without counting
+        restQuestionnaireMockMvc.perform(get("/api/questionnaires?after={after}&size=1", questionnaire.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(questionnaire.getId().intValue()));
+
+        // Nothing is after the last questionnaire: no link to a next page, and the count only when it is asked for
+        restQuestionnaireMockMvc.perform(get("/api/questionnaires?after={after}&size=1&count=true", questionnaire.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", questionnaireRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/questionnaires?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getQuestionnaire() throws Exception {
@@ -247,7 +342,7 @@ public class QuestionnaireResourceIntTest {
     public void updateQuestionnaire() throws Exception {
         // Initialize the database
         questionnaireRepository.saveAndFlush(questionnaire);
-        questionnaireSearchRepository.save(questionnaire);
+        questionnaireSearchRepository.save(new QuestionnaireDocument(questionnaire));
         int databaseSizeBeforeUpdate = questionnaireRepository.findAll().size();
 
         // Update the questionnaire
@@ -274,9 +369,11 @@ public class QuestionnaireResourceIntTest {
         assertThat(testQuestionnaire.getLastmodifieddatetime()).isEqualTo(UPDATED_LASTMODIFIEDDATETIME);
         assertThat(testQuestionnaire.getDomain()).isEqualTo(UPDATED_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Questionnaire in ElasticSearch
-        Questionnaire questionnaireEs = questionnaireSearchRepository.findOne(testQuestionnaire.getId());
-        assertThat(questionnaireEs).isEqualToComparingFieldByField(testQuestionnaire);
+        QuestionnaireDocument questionnaireEs = questionnaireSearchRepository.findOne(testQuestionnaire.getId());
+        assertThat(questionnaireEs).isEqualToComparingFieldByField(new QuestionnaireDocument(testQuestionnaire));
     }
 
     @Test
@@ -284,7 +381,7 @@ public class QuestionnaireResourceIntTest {
     public void deleteQuestionnaire() throws Exception {
         // Initialize the database
         questionnaireRepository.saveAndFlush(questionnaire);
-        questionnaireSearchRepository.save(questionnaire);
+        questionnaireSearchRepository.save(new QuestionnaireDocument(questionnaire));
         int databaseSizeBeforeDelete = questionnaireRepository.findAll().size();
 
         // Get the questionnaire
@@ -292,6 +389,8 @@ public class QuestionnaireResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean questionnaireExistsInEs = questionnaireSearchRepository.exists(questionnaire.getId());
         assertThat(questionnaireExistsInEs).isFalse();
@@ -306,7 +405,7 @@ public class QuestionnaireResourceIntTest {
     public void searchQuestionnaire() throws Exception {
         // Initialize the database
         questionnaireRepository.saveAndFlush(questionnaire);
-        questionnaireSearchRepository.save(questionnaire);
+        questionnaireSearchRepository.save(new QuestionnaireDocument(questionnaire));
 
         // Search the questionnaire
         restQuestionnaireMockMvc.perform(get("/api/_search/questionnaires?query=id:" + questionnaire.getId()))
@@ -319,4 +418,315 @@ public class QuestionnaireResourceIntTest {
             .andExpect(jsonPath("$.[*].lastmodifieddatetime").value(hasItem(DEFAULT_LASTMODIFIEDDATETIME_STR)))
             .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
+
+    @Test
+    @Transactional
+    public void getVisibleQuestions() throws Exception {
+        // Initialize the database: the second question is displayed when the first is answered above 3
+        questionnaireRepository.saveAndFlush(questionnaire);
+        Questiongroup questiongroup = questiongroupRepository.saveAndFlush(createQuestiongroup());
+        Question first = questionRepository.saveAndFlush(createQuestion(questiongroup, 0));
+        Question second = questionRepository.saveAndFlush(createQuestion(questiongroup, 1));
+        Conditions conditions = new Conditions();
+        conditions.setAction("display question");
+        conditions.setOperator(">");
+        conditions.setResponse("3");
+        conditions.setQuestion(first);
+        conditions.setDisplayedquestion(second);
+        conditions.setQuestionnaire(questionnaire);
+        conditionsRepository.saveAndFlush(conditions);
+
+        AnswerMapDTO answers = new AnswerMapDTO();
+        answers.getQuestions().put(first.getId(), "2");
+        restQuestionnaireMockMvc.perform(post("/api/questionnaires/{id}/visible", questionnaire.getId())
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(answers)))
+            .andExpect(status().isOk())
+            .andExpect(content().string("[" + first.getId() + "]"));
+
+        answers.getQuestions().put(first.getId(), "5");
+        restQuestionnaireMockMvc.perform(post("/api/questionnaires/{id}/visible", questionnaire.getId())
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(answers)))
+            .andExpect(status().isOk())
+            .andExpect(content().string("[" + first.getId() + "," + second.getId() + "]"));
+    }
+
+    @Test
+    @Transactional
+    public void getVisibleQuestionsOfNonExistingQuestionnaire() throws Exception {
+        restQuestionnaireMockMvc.perform(post("/api/questionnaires/{id}/visible", Long.MAX_VALUE)
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(new AnswerMapDTO())))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getQuestionnaireTree() throws Exception {
+        // Initialize the database
+        questionnaireRepository.saveAndFlush(questionnaire);
+        Questiongroup questiongroup = questiongroupRepository.saveAndFlush(createQuestiongroup());
+        Question second = questionRepository.saveAndFlush(createQuestion(questiongroup, 1));
+        Question first = questionRepository.saveAndFlush(createQuestion(questiongroup, 0));
+
+        // Get the tree, ordered by position
+        String etag = restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/tree", questionnaire.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("ETag", notNullValue()))
+            .andExpect(jsonPath("$.id").value(questionnaire.getId().intValue()))
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.questiongroups[0].id").value(questiongroup.getId().intValue()))
+            .andExpect(jsonPath("$.questiongroups[0].questions[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.questiongroups[0].questions[1].id").value(second.getId().intValue()))
+            .andReturn().getResponse().getHeader("ETag");
+
+        // A conditional request with the same ETag is not modified
+        restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/tree", questionnaire.getId())
+            .header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    public void getQuestionnaireTreeAfterAQuestionIsUpdated() throws Exception {
+        // Initialize the database, committed so the tree is cached
+        questionnaireRepository.saveAndFlush(questionnaire);
+        Questiongroup questiongroup = questiongroupRepository.saveAndFlush(createQuestiongroup());
+        Question question = questionRepository.saveAndFlush(createQuestion(questiongroup, 0));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            String etag = restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/tree", questionnaire.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+            // Updating a question, and not the questionnaire, changes the tree and its ETag
+            TestTransaction.start();
+            Question updatedQuestion = questionRepository.findOne(question.getId());
+            updatedQuestion.setQuestion("BBBBB");
+            questionRepository.saveAndFlush(updatedQuestion);
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+
+            restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/tree", questionnaire.getId())
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.questiongroups[0].questions[0].question").value("BBBBB"));
+        } finally {
+            TestTransaction.start();
+            questionRepository.delete(question.getId());
+            questiongroupRepository.delete(questiongroup.getId());
+            questionnaireRepository.delete(questionnaire.getId());
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingQuestionnaireTree() throws Exception {
+        restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/tree", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void exportResponsesAsCsv() throws Exception {
+        // Initialize the database
+        questionnaireRepository.saveAndFlush(questionnaire);
+        Responsedetail first = createResponsedetail("AAAAA");
+        Responsedetail second = createResponsedetail("BB,\"B\"");
+
+        // The export is written by the task, before the async dispatch
+        MvcResult result = restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/responses/export?format=csv", questionnaire.getId()))
+            .andExpect(request().asyncStarted())
+            .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(content().string(
+                "id,responseId,questionnaireId,questiongroupId,questionId,subquestionId,response\r\n" +
+                first.getId() + "," + first.getResponseId() + "," + questionnaire.getId() + ",,1,,AAAAA\r\n" +
+                second.getId() + "," + second.getResponseId() + "," + questionnaire.getId() + ",,1,,\"BB,\"\"B\"\"\"\r\n"))
+            .andReturn();
+        restQuestionnaireMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    public void exportResponsesAsGzippedNdjson() throws Exception {
+        // Initialize the database
+        questionnaireRepository.saveAndFlush(questionnaire);
+        Responsedetail detail = createResponsedetail("AAAAA");
+
+        MvcResult result = restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/responses/export", questionnaire.getId())
+            .header("Accept-Encoding", "gzip, deflate"))
+            .andExpect(request().asyncStarted())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andReturn();
+        restQuestionnaireMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+        byte[] body = result.getResponse().getContentAsByteArray();
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[1024];
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                json.write(buffer, 0, read);
+            }
+        }
+        assertThat(json.toString("UTF-8")).isEqualTo("{\"id\":" + detail.getId() + ",\"responseId\":" + detail.getResponseId() + ",\"questionnaireId\":" +
+            questionnaire.getId() + ",\"questiongroupId\":null,\"questionId\":1,\"subquestionId\":null,\"response\":\"AAAAA\"}\n");
+    }
+
+    @Test
+    @Transactional
+    public void exportResponsesInUnknownFormat() throws Exception {
+        MvcResult result = restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/responses/export?format=xml", Long.MAX_VALUE))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restQuestionnaireMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void importQuestionnaire() throws Exception {
+        QuestionnaireImportDTO document = createImportDocument();
+
+        String location = restQuestionnaireMockMvc.perform(post("/api/questionnaires/import")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(document)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.status").value(DEFAULT_STATUS))
+            .andExpect(jsonPath("$.domain").value(DEFAULT_DOMAIN))
+            .andReturn().getResponse().getHeader("Location");
+        Long id = Long.valueOf(location.substring(location.lastIndexOf('/') + 1));
+
+        // Validate the imported tree
+        List<Questiongroup> questiongroups = questiongroupRepository.findByQuestionnaireId(id);
+        assertThat(questiongroups).hasSize(1);
+        assertThat(questiongroups.get(0).getStatus()).isEqualTo(DEFAULT_STATUS);
+        assertThat(questiongroups.get(0).getDomain()).isEqualTo(DEFAULT_DOMAIN);
+        restQuestionnaireMockMvc.perform(get("/api/questionnaires/{id}/tree", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.questiongroups[0].title").value("AAAAA"))
+            .andExpect(jsonPath("$.questiongroups[0].questions[0].code").value("Q1"))
+            .andExpect(jsonPath("$.questiongroups[0].questions[0].answers[0].code").value("YES"))
+            .andExpect(jsonPath("$.questiongroups[0].questions[1].code").value("Q2"))
+            .andExpect(jsonPath("$.questiongroups[0].questions[1].subquestions[0].code").value("S1"));
+
+        // The condition references the imported questions
+        List<Conditions> conditions = conditionsRepository.findByQuestionnaireId(id);
+        assertThat(conditions).hasSize(1);
+        assertThat(conditions.get(0).getQuestion().getCode()).isEqualTo("Q1");
+        assertThat(conditions.get(0).getDisplayedquestion().getCode()).isEqualTo("Q2");
+    }
+
+    @Test
+    @Transactional
+    public void importQuestionnaireWithoutDomain() throws Exception {
+        int databaseSizeBeforeImport = questionnaireRepository.findAll().size();
+        QuestionnaireImportDTO document = createImportDocument();
+        document.setDomain(null);
+
+        restQuestionnaireMockMvc.perform(post("/api/questionnaires/import")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(document)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(questionnaireRepository.findAll()).hasSize(databaseSizeBeforeImport);
+    }
+
+    private QuestionnaireImportDTO createImportDocument() {
+        QuestionnaireImportDTO.AnswerImport answer = new QuestionnaireImportDTO.AnswerImport();
+        answer.setCode("YES");
+        answer.setAnsweroption("Yes");
+        answer.setPosition(0);
+        QuestionnaireImportDTO.QuestionImport first = new QuestionnaireImportDTO.QuestionImport();
+        first.setRef("q1");
+        first.setQuestion("AAAAA");
+        first.setCode("Q1");
+        first.setPosition(0);
+        first.setType("AAAAA");
+        first.getAnswers().add(answer);
+        QuestionnaireImportDTO.SubquestionImport subquestion = new QuestionnaireImportDTO.SubquestionImport();
+        subquestion.setRef("s1");
+        subquestion.setSubquestion("AAAAA");
+        subquestion.setCode("S1");
+        subquestion.setPosition(0);
+        QuestionnaireImportDTO.QuestionImport second = new QuestionnaireImportDTO.QuestionImport();
+        second.setRef("q2");
+        second.setQuestion("BBBBB");
+        second.setCode("Q2");
+        second.setPosition(1);
+        second.setType("AAAAA");
+        second.getSubquestions().add(subquestion);
+        QuestionnaireImportDTO.QuestiongroupImport questiongroup = new QuestionnaireImportDTO.QuestiongroupImport();
+        questiongroup.setTitle("AAAAA");
+        questiongroup.setDescription("AAAAA");
+        questiongroup.setPosition(0);
+        questiongroup.getQuestions().add(first);
+        questiongroup.getQuestions().add(second);
+        QuestionnaireImportDTO.ConditionImport condition = new QuestionnaireImportDTO.ConditionImport();
+        condition.setAction("show");
+        condition.setOperator("=");
+        condition.setResponse("YES");
+        condition.setQuestion("q1");
+        condition.setDisplayedquestion("q2");
+
+        QuestionnaireImportDTO document = new QuestionnaireImportDTO();
+        document.setTitle(DEFAULT_TITLE);
+        document.setStatus(DEFAULT_STATUS);
+        document.setDomain(DEFAULT_DOMAIN);
+        document.getQuestiongroups().add(questiongroup);
+        document.getConditions().add(condition);
+        return document;
+    }
+
+    // the questionnaire of a responsedetail is the one of its response
+    private Responsedetail createResponsedetail(String response) {
+        Response owner = new Response();
+        owner.setDetails("{}");
+        owner.setLastmodifiedby("AAAAA");
+        owner.setLastmodifieddatetime(ZonedDateTime.now());
+        owner.setDomain("AAAAA");
+        owner.setQuestionnaire(questionnaire);
+        responseRepository.saveAndFlush(owner);
+        Responsedetail responsedetail = new Responsedetail();
+        responsedetail.setResponseId(owner.getId());
+        responsedetail.setQuestionId(1L);
+        responsedetail.setResponse(response);
+        return responsedetailRepository.saveAndFlush(responsedetail);
+    }
+
+    private Questiongroup createQuestiongroup() {
+        Questiongroup questiongroup = new Questiongroup();
+        questiongroup.setTitle("AAAAA");
+        questiongroup.setDescription("AAAAA");
+        questiongroup.setPosition(0);
+        questiongroup.setStatus(DEFAULT_STATUS);
+        questiongroup.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        questiongroup.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        questiongroup.setDomain(DEFAULT_DOMAIN);
+        questiongroup.setQuestionnaire(questionnaire);
+        return questiongroup;
+    }
+
+    private Question createQuestion(Questiongroup questiongroup, int position) {
+        Question question = new Question();
+        question.setQuestion("AAAAA");
+        question.setCode("AAAAA");
+        question.setPosition(position);
+        question.setStatus(DEFAULT_STATUS);
+        question.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        question.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        question.setDomain(DEFAULT_DOMAIN);
+        question.setType("AAAAA");
+        question.setQuestiongroup(questiongroup);
+        return question;
+    }
 }
@@ -1,9 +1,20 @@
 package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
+import com.innvo.async.RestTaskExecutor;
 import com.innvo.domain.Response;
+import com.innvo.domain.Responsedetail;
+import com.innvo.domain.Responsembr;
+import com.innvo.domain.search.ResponseDocument;
 import com.innvo.repository.ResponseRepository;
+import com.innvo.repository.ResponsedetailRepository;
+import com.innvo.repository.ResponsembrRepository;
 import com.innvo.repository.search.ResponseSearchRepository;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.ResponsePatchService;
+import com.innvo.service.ResponsedetailIngestionService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.web.rest.dto.AnswerChangeDTO;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,22 +23,28 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -67,6 +84,30 @@ public class ResponseResourceIntTest {
     @Inject
     private ResponseSearchRepository responseSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponsePatchService responsePatchService;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
+
+    @Inject
+    private ResponsedetailIngestionService responsedetailIngestionService;
+
+    @Inject
+    private ResponsedetailRepository responsedetailRepository;
+
+    @Inject
+    private ResponsembrRepository responsembrRepository;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -83,6 +124,11 @@ public class ResponseResourceIntTest {
         ResponseResource responseResource = new ResponseResource();
         ReflectionTestUtils.setField(responseResource, "responseSearchRepository", responseSearchRepository);
         ReflectionTestUtils.setField(responseResource, "responseRepository", responseRepository);
+        ReflectionTestUtils.setField(responseResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(responseResource, "responsePatchService", responsePatchService);
+        ReflectionTestUtils.setField(responseResource, "assetsummaryService", assetsummaryService);
+        ReflectionTestUtils.setField(responseResource, "restTaskExecutor", restTaskExecutor);
+        ReflectionTestUtils.setField(responseResource, "responsembrRepository", responsembrRepository);
         this.restResponseMockMvc = MockMvcBuilders.standaloneSetup(responseResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -121,9 +167,11 @@ public class ResponseResourceIntTest {
         assertThat(testResponse.getLastmodifieddatetime()).isEqualTo(DEFAULT_LASTMODIFIEDDATETIME);
         assertThat(testResponse.getDomain()).isEqualTo(DEFAULT_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Response in ElasticSearch
-        Response responseEs = responseSearchRepository.findOne(testResponse.getId());
-        assertThat(responseEs).isEqualToComparingFieldByField(testResponse);
+        ResponseDocument responseEs = responseSearchRepository.findOne(testResponse.getId());
+        assertThat(responseEs).isEqualToComparingFieldByField(new ResponseDocument(testResponse));
     }
 
     @Test
@@ -234,6 +282,72 @@ public class ResponseResourceIntTest {
                 .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllResponsesAfterId() throws Exception {
+        // Initialize the database
+        responseRepository.saveAndFlush(response);
+
+        // Get the page from the response, without counting
+        restResponseMockMvc.perform(get("/api/responses?after={after}&size=1", response.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(response.getId().intValue()));
+
+        // Nothing is after the last response: no link to a next page, and the count only when it is asked for
+        restResponseMockMvc.perform(get("/api/responses?after={after}&size=1&count=true", response.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", responseRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/responses?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @Transactional
+    public void getResponsesByAsset() throws Exception {
+        // Initialize the database: three responses of the asset, one of another asset, and a membership
+        // of the asset without a response
+        Long assetId = Long.MAX_VALUE;
+        List<Response> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Response assetResponse = createResponse();
+            responses.add(responseRepository.saveAndFlush(assetResponse));
+            responsembrRepository.saveAndFlush(createResponsembr(assetResponse, assetId));
+        }
+        responseRepository.saveAndFlush(response);
+        responsembrRepository.saveAndFlush(createResponsembr(response, assetId - 1));
+        jdbcTemplate.update("INSERT INTO responsembr (id, status, lastmodifiedby, lastmodifieddatetime, domain, asset_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", Long.MAX_VALUE, DEFAULT_STATUS, DEFAULT_LASTMODIFIEDBY,
+            Timestamp.from(DEFAULT_LASTMODIFIEDDATETIME.toInstant()), DEFAULT_DOMAIN, assetId);
+        String baseUrl = "/api/responseByAsset/" + assetId;
+
+        // The first page, in the order of the memberships
+        restResponseMockMvc.perform(get("/api/responseByAsset/{id}?page=0&size=2", assetId))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(header().string(HttpHeaders.LINK,
+                "<" + baseUrl + "?page=1&size=2>; rel=\"next\"," +
+                "<" + baseUrl + "?page=1&size=2>; rel=\"last\"," +
+                "<" + baseUrl + "?page=0&size=2>; rel=\"first\""))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(responses.get(0).getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(responses.get(1).getId().intValue()));
+
+        // The last page holds the remaining response, and nothing else
+        restResponseMockMvc.perform(get("/api/responseByAsset/{id}?page=1&size=2", assetId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(header().string(HttpHeaders.LINK,
+                "<" + baseUrl + "?page=0&size=2>; rel=\"prev\"," +
+                "<" + baseUrl + "?page=1&size=2>; rel=\"last\"," +
+                "<" + baseUrl + "?page=0&size=2>; rel=\"first\""))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(responses.get(2).getId().intValue()));
+    }
+
     @Test
     @Transactional
     public void getResponse() throws Exception {
@@ -265,7 +379,7 @@ public class ResponseResourceIntTest {
     public void updateResponse() throws Exception {
         // Initialize the database
         responseRepository.saveAndFlush(response);
-        responseSearchRepository.save(response);
+        responseSearchRepository.save(new ResponseDocument(response));
         int databaseSizeBeforeUpdate = responseRepository.findAll().size();
 
         // Update the response
@@ -292,9 +406,105 @@ public class ResponseResourceIntTest {
         assertThat(testResponse.getLastmodifieddatetime()).isEqualTo(UPDATED_LASTMODIFIEDDATETIME);
         assertThat(testResponse.getDomain()).isEqualTo(UPDATED_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Response in ElasticSearch
-        Response responseEs = responseSearchRepository.findOne(testResponse.getId());
-        assertThat(responseEs).isEqualToComparingFieldByField(testResponse);
+        ResponseDocument responseEs = responseSearchRepository.findOne(testResponse.getId());
+        assertThat(responseEs).isEqualToComparingFieldByField(new ResponseDocument(testResponse));
+    }
+
+    @Test
+    @Transactional
+    public void patchResponseAnswers() throws Exception {
+        // Initialize the database
+        response.setDetails("{\"questiongroups\":[{\"questiongroup\":\"1\",\"questions\":[" +
+            "{\"question\":\"1\",\"subquestion\":\"\",\"response\":\"AAAAA\"}," +
+            "{\"question\":\"2\",\"subquestion\":\"\",\"response\":\"BBBBB\"}]}]}");
+        responseRepository.saveAndFlush(response);
+        responsedetailIngestionService.ingest(response.getId(), response.getDetails());
+
+        // Change one answer, remove one and add one
+        AnswerChangeDTO changed = new AnswerChangeDTO();
+        changed.setQuestion("1");
+        changed.setResponse("CCCCC");
+        AnswerChangeDTO removed = new AnswerChangeDTO();
+        removed.setQuestion("2");
+        AnswerChangeDTO added = new AnswerChangeDTO();
+        added.setQuestiongroup("1");
+        added.setQuestion("3");
+        added.setResponse("DDDDD");
+
+        restResponseMockMvc.perform(patch("/api/responses/{id}/answers", response.getId())
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(changed, removed, added))))
+                .andExpect(status().isOk());
+
+        // Validate the details of the Response
+        Response testResponse = responseRepository.findOne(response.getId());
+        assertThat(testResponse.getDetails()).contains("CCCCC").contains("DDDDD").doesNotContain("BBBBB");
+
+        // Validate the Responsedetails in the database
+        List<Responsedetail> responsedetails = responsedetailRepository.findByResponseId(response.getId());
+        assertThat(responsedetails).extracting("questionId").containsOnly(1L, 3L);
+        assertThat(responsedetails).extracting("response").containsOnly("CCCCC", "DDDDD");
+    }
+
+    @Test
+    @Transactional
+    public void patchAnswersWithNonNumericQuestion() throws Exception {
+        // Initialize the database
+        responseRepository.saveAndFlush(response);
+
+        AnswerChangeDTO changed = new AnswerChangeDTO();
+        changed.setQuestion("AAAAA");
+        changed.setResponse("CCCCC");
+
+        restResponseMockMvc.perform(patch("/api/responses/{id}/answers", response.getId())
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(changed))))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("X-adapAssessmentApp-error", "error.invalidanswerid"));
+
+        // An answer without a question, null or empty, is rejected too
+        for (String question : Arrays.asList(null, "")) {
+            changed.setQuestion(question);
+            restResponseMockMvc.perform(patch("/api/responses/{id}/answers", response.getId())
+                    .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                    .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(changed))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(header().string("X-adapAssessmentApp-error", "error.invalidanswerid"));
+        }
+        assertThat(responsedetailRepository.findByResponseId(response.getId())).isEmpty();
+        assertThat(responseRepository.findOne(response.getId()).getDetails()).isEqualTo(DEFAULT_DETAILS);
+    }
+
+    @Test
+    @Transactional
+    public void patchAnswersOfInvalidDetails() throws Exception {
+        AnswerChangeDTO changed = new AnswerChangeDTO();
+        changed.setQuestiongroup("1");
+        changed.setQuestion("1");
+        changed.setResponse("CCCCC");
+
+        for (String details : Arrays.asList("[]", "\"AAAAA\"", "{\"questiongroups\":{}}", "{\"questiongroups\":[1]}")) {
+            response.setDetails(details);
+            responseRepository.saveAndFlush(response);
+
+            restResponseMockMvc.perform(patch("/api/responses/{id}/answers", response.getId())
+                    .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                    .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(changed))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(header().string("X-adapAssessmentApp-error", "error.invaliddetails"));
+        }
+    }
+
+    @Test
+    @Transactional
+    public void patchAnswersOfNonExistingResponse() throws Exception {
+        restResponseMockMvc.perform(patch("/api/responses/{id}/answers", Long.MAX_VALUE)
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content("[]"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -302,7 +512,7 @@ public class ResponseResourceIntTest {
     public void deleteResponse() throws Exception {
         // Initialize the database
         responseRepository.saveAndFlush(response);
-        responseSearchRepository.save(response);
+        responseSearchRepository.save(new ResponseDocument(response));
         int databaseSizeBeforeDelete = responseRepository.findAll().size();
 
         // Get the response
@@ -310,6 +520,8 @@ public class ResponseResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean responseExistsInEs = responseSearchRepository.exists(response.getId());
         assertThat(responseExistsInEs).isFalse();
@@ -324,10 +536,13 @@ public class ResponseResourceIntTest {
     public void searchResponse() throws Exception {
         // Initialize the database
         responseRepository.saveAndFlush(response);
-        responseSearchRepository.save(response);
+        responseSearchRepository.save(new ResponseDocument(response));
 
         // Search the response
-        restResponseMockMvc.perform(get("/api/_search/responses?query=id:" + response.getId()))
+        MvcResult result = restResponseMockMvc.perform(get("/api/_search/responses?query=id:" + response.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restResponseMockMvc.perform(asyncDispatch(result))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.[*].id").value(hasItem(response.getId().intValue())))
@@ -337,4 +552,25 @@ public class ResponseResourceIntTest {
             .andExpect(jsonPath("$.[*].lastmodifieddatetime").value(hasItem(DEFAULT_LASTMODIFIEDDATETIME_STR)))
             .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
+
+    private Response createResponse() {
+        Response newResponse = new Response();
+        newResponse.setDetails(DEFAULT_DETAILS);
+        newResponse.setStatus(DEFAULT_STATUS);
+        newResponse.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        newResponse.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        newResponse.setDomain(DEFAULT_DOMAIN);
+        return newResponse;
+    }
+
+    private Responsembr createResponsembr(Response membershipResponse, Long assetId) {
+        Responsembr responsembr = new Responsembr();
+        responsembr.setStatus(DEFAULT_STATUS);
+        responsembr.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        responsembr.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        responsembr.setDomain(DEFAULT_DOMAIN);
+        responsembr.setAssetId(assetId);
+        responsembr.setResponse(membershipResponse);
+        return responsembr;
+    }
 }
@@ -1,32 +1,54 @@
 package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.domain.Response;
+import com.innvo.domain.Responseanswer;
 import com.innvo.domain.Responsedetail;
+import com.innvo.domain.search.ResponsedetailDocument;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.repository.ResponseanswerRepository;
 import com.innvo.repository.ResponsedetailRepository;
 import com.innvo.repository.search.ResponsedetailSearchRepository;
-
+import com.innvo.web.rest.dto.AnswerCountDTO;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.ResponseanswerService;
+import com.innvo.service.ResponsedetailCompactionService;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.ResponsedetailIngestionService;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,12 +68,6 @@ public class ResponsedetailResourceIntTest {
     private static final Long DEFAULT_RESPONSE_ID = 1L;
     private static final Long UPDATED_RESPONSE_ID = 2L;
 
-    private static final Long DEFAULT_QUESTIONNAIRE_ID = 1L;
-    private static final Long UPDATED_QUESTIONNAIRE_ID = 2L;
-
-    private static final Long DEFAULT_QUESTIONGROUP_ID = 1L;
-    private static final Long UPDATED_QUESTIONGROUP_ID = 2L;
-
     private static final Long DEFAULT_QUESTION_ID = 1L;
     private static final Long UPDATED_QUESTION_ID = 2L;
 
@@ -66,6 +82,36 @@ public class ResponsedetailResourceIntTest {
     @Inject
     private ResponsedetailSearchRepository responsedetailSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseanswerService responseanswerService;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
+
+    @Inject
+    private ResponseanswerRepository responseanswerRepository;
+
+    @Inject
+    private ResponsedetailCompactionService responsedetailCompactionService;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private ResponsedetailIngestionService responsedetailIngestionService;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -82,6 +128,13 @@ public class ResponsedetailResourceIntTest {
         ResponsedetailResource responsedetailResource = new ResponsedetailResource();
         ReflectionTestUtils.setField(responsedetailResource, "responsedetailSearchRepository", responsedetailSearchRepository);
         ReflectionTestUtils.setField(responsedetailResource, "responsedetailRepository", responsedetailRepository);
+        ReflectionTestUtils.setField(responsedetailResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(responsedetailResource, "responseanswerService", responseanswerService);
+        ReflectionTestUtils.setField(responsedetailResource, "responsedetailCompactionService", responsedetailCompactionService);
+        ReflectionTestUtils.setField(responsedetailResource, "responseRepository", responseRepository);
+        ReflectionTestUtils.setField(responsedetailResource, "responsedetailIngestionService", responsedetailIngestionService);
+        ReflectionTestUtils.setField(responsedetailResource, "assetsummaryService", assetsummaryService);
+        ReflectionTestUtils.setField(responsedetailResource, "restTaskExecutor", restTaskExecutor);
         this.restResponsedetailMockMvc = MockMvcBuilders.standaloneSetup(responsedetailResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -92,8 +145,6 @@ public class ResponsedetailResourceIntTest {
         responsedetailSearchRepository.deleteAll();
         responsedetail = new Responsedetail();
         responsedetail.setResponseId(DEFAULT_RESPONSE_ID);
-        responsedetail.setQuestionnaireId(DEFAULT_QUESTIONNAIRE_ID);
-        responsedetail.setQuestiongroupId(DEFAULT_QUESTIONGROUP_ID);
         responsedetail.setQuestionId(DEFAULT_QUESTION_ID);
         responsedetail.setSubquestionId(DEFAULT_SUBQUESTION_ID);
         responsedetail.setResponse(DEFAULT_RESPONSE);
@@ -116,15 +167,60 @@ public class ResponsedetailResourceIntTest {
         assertThat(responsedetails).hasSize(databaseSizeBeforeCreate + 1);
         Responsedetail testResponsedetail = responsedetails.get(responsedetails.size() - 1);
         assertThat(testResponsedetail.getResponseId()).isEqualTo(DEFAULT_RESPONSE_ID);
-        assertThat(testResponsedetail.getQuestionnaireId()).isEqualTo(DEFAULT_QUESTIONNAIRE_ID);
-        assertThat(testResponsedetail.getQuestiongroupId()).isEqualTo(DEFAULT_QUESTIONGROUP_ID);
         assertThat(testResponsedetail.getQuestionId()).isEqualTo(DEFAULT_QUESTION_ID);
         assertThat(testResponsedetail.getSubquestionId()).isEqualTo(DEFAULT_SUBQUESTION_ID);
         assertThat(testResponsedetail.getResponse()).isEqualTo(DEFAULT_RESPONSE);
 
+        // Validate the typed Responsedetail in the database
+        Responseanswer testResponseanswer = responseanswerRepository.findOne(testResponsedetail.getId());
+        assertThat(testResponseanswer.getResponseId()).isEqualTo(DEFAULT_RESPONSE_ID);
+        assertThat(testResponseanswer.getQuestionId()).isEqualTo(DEFAULT_QUESTION_ID);
+        assertThat(testResponseanswer.getSubquestionId()).isEqualTo(DEFAULT_SUBQUESTION_ID);
+        assertThat(testResponseanswer.getAnswerId()).isNull();
+        assertThat(testResponseanswer.getNumericValue()).isNull();
+        assertThat(testResponseanswer.getTextValue()).isEqualTo(DEFAULT_RESPONSE);
+
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Responsedetail in ElasticSearch
-        Responsedetail responsedetailEs = responsedetailSearchRepository.findOne(testResponsedetail.getId());
-        assertThat(responsedetailEs).isEqualToComparingFieldByField(testResponsedetail);
+        ResponsedetailDocument responsedetailEs = responsedetailSearchRepository.findOne(testResponsedetail.getId());
+        assertThat(responsedetailEs).isEqualToComparingFieldByField(new ResponsedetailDocument(testResponsedetail));
+    }
+
+    @Test
+    @Transactional
+    public void createTypedResponsedetails() throws Exception {
+        // Question 1002 of the test questionnaire has the answers A1 (1001) and A2 (1002)
+        Responsedetail choice = new Responsedetail();
+        choice.setResponseId(DEFAULT_RESPONSE_ID);
+        choice.setQuestionId(1002L);
+        choice.setResponse("A2");
+        Responsedetail number = new Responsedetail();
+        number.setResponseId(DEFAULT_RESPONSE_ID);
+        number.setQuestionId(1002L);
+        number.setResponse("3.5");
+
+        restResponsedetailMockMvc.perform(post("/api/responsedetails")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(choice)))
+                .andExpect(status().isCreated());
+        restResponsedetailMockMvc.perform(post("/api/responsedetails")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(number)))
+                .andExpect(status().isCreated());
+
+        // Validate the typed Responsedetails in the database
+        List<Responseanswer> responseanswers = responseanswerRepository.findByResponseIdOrderById(DEFAULT_RESPONSE_ID);
+        assertThat(responseanswers).hasSize(2);
+        assertThat(responseanswers.get(0).getAnswerId()).isEqualTo(1002L);
+        assertThat(responseanswers.get(0).getTextValue()).isNull();
+        assertThat(responseanswers.get(1).getAnswerId()).isNull();
+        assertThat(responseanswers.get(1).getNumericValue()).isEqualByComparingTo(new BigDecimal("3.5"));
+        assertThat(responseanswers.get(1).getTextValue()).isNull();
+
+        // Validate the answers can be counted without parsing
+        List<AnswerCountDTO> answerCounts = responseanswerRepository.countAnswersByQuestionId(1002L);
+        assertThat(answerCounts).extracting("answerId").contains(1002L);
     }
 
     @Test
@@ -139,13 +235,39 @@ public class ResponsedetailResourceIntTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.[*].id").value(hasItem(responsedetail.getId().intValue())))
                 .andExpect(jsonPath("$.[*].responseId").value(hasItem(DEFAULT_RESPONSE_ID.intValue())))
-                .andExpect(jsonPath("$.[*].questionnaireId").value(hasItem(DEFAULT_QUESTIONNAIRE_ID.intValue())))
-                .andExpect(jsonPath("$.[*].questiongroupId").value(hasItem(DEFAULT_QUESTIONGROUP_ID.intValue())))
                 .andExpect(jsonPath("$.[*].questionId").value(hasItem(DEFAULT_QUESTION_ID.intValue())))
                 .andExpect(jsonPath("$.[*].subquestionId").value(hasItem(DEFAULT_SUBQUESTION_ID.intValue())))
                 .andExpect(jsonPath("$.[*].response").value(hasItem(DEFAULT_RESPONSE.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllResponsedetailsAfterId() throws Exception {
+        // Initialize the database
+        responsedetailRepository.saveAndFlush(responsedetail);
+        Responsedetail nextResponsedetail = new Responsedetail();
+        nextResponsedetail.setResponseId(DEFAULT_RESPONSE_ID);
+        nextResponsedetail.setQuestionId(DEFAULT_QUESTION_ID);
+        nextResponsedetail.setSubquestionId(DEFAULT_SUBQUESTION_ID);
+        nextResponsedetail.setResponse(UPDATED_RESPONSE);
+        responsedetailRepository.saveAndFlush(nextResponsedetail);
+
+        // Get the page after the responsedetail, without counting
+        restResponsedetailMockMvc.perform(get("/api/responsedetails?after={after}&size=1", responsedetail.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$.[0].id").value(nextResponsedetail.getId().intValue()))
+                .andExpect(jsonPath("$.[0].response").value(UPDATED_RESPONSE.toString()));
+
+        // Get the first page, with the count and a cursor to the next page
+        restResponsedetailMockMvc.perform(get("/api/responsedetails?after=0&size=1&count=true"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", responsedetailRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+    }
+
     @Test
     @Transactional
     public void getResponsedetail() throws Exception {
@@ -158,8 +280,6 @@ public class ResponsedetailResourceIntTest {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.id").value(responsedetail.getId().intValue()))
             .andExpect(jsonPath("$.responseId").value(DEFAULT_RESPONSE_ID.intValue()))
-            .andExpect(jsonPath("$.questionnaireId").value(DEFAULT_QUESTIONNAIRE_ID.intValue()))
-            .andExpect(jsonPath("$.questiongroupId").value(DEFAULT_QUESTIONGROUP_ID.intValue()))
             .andExpect(jsonPath("$.questionId").value(DEFAULT_QUESTION_ID.intValue()))
             .andExpect(jsonPath("$.subquestionId").value(DEFAULT_SUBQUESTION_ID.intValue()))
             .andExpect(jsonPath("$.response").value(DEFAULT_RESPONSE.toString()));
@@ -178,15 +298,13 @@ public class ResponsedetailResourceIntTest {
     public void updateResponsedetail() throws Exception {
         // Initialize the database
         responsedetailRepository.saveAndFlush(responsedetail);
-        responsedetailSearchRepository.save(responsedetail);
+        responsedetailSearchRepository.save(new ResponsedetailDocument(responsedetail));
         int databaseSizeBeforeUpdate = responsedetailRepository.findAll().size();
 
         // Update the responsedetail
         Responsedetail updatedResponsedetail = new Responsedetail();
         updatedResponsedetail.setId(responsedetail.getId());
         updatedResponsedetail.setResponseId(UPDATED_RESPONSE_ID);
-        updatedResponsedetail.setQuestionnaireId(UPDATED_QUESTIONNAIRE_ID);
-        updatedResponsedetail.setQuestiongroupId(UPDATED_QUESTIONGROUP_ID);
         updatedResponsedetail.setQuestionId(UPDATED_QUESTION_ID);
         updatedResponsedetail.setSubquestionId(UPDATED_SUBQUESTION_ID);
         updatedResponsedetail.setResponse(UPDATED_RESPONSE);
@@ -201,15 +319,15 @@ public class ResponsedetailResourceIntTest {
         assertThat(responsedetails).hasSize(databaseSizeBeforeUpdate);
         Responsedetail testResponsedetail = responsedetails.get(responsedetails.size() - 1);
         assertThat(testResponsedetail.getResponseId()).isEqualTo(UPDATED_RESPONSE_ID);
-        assertThat(testResponsedetail.getQuestionnaireId()).isEqualTo(UPDATED_QUESTIONNAIRE_ID);
-        assertThat(testResponsedetail.getQuestiongroupId()).isEqualTo(UPDATED_QUESTIONGROUP_ID);
         assertThat(testResponsedetail.getQuestionId()).isEqualTo(UPDATED_QUESTION_ID);
         assertThat(testResponsedetail.getSubquestionId()).isEqualTo(UPDATED_SUBQUESTION_ID);
         assertThat(testResponsedetail.getResponse()).isEqualTo(UPDATED_RESPONSE);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Responsedetail in ElasticSearch
-        Responsedetail responsedetailEs = responsedetailSearchRepository.findOne(testResponsedetail.getId());
-        assertThat(responsedetailEs).isEqualToComparingFieldByField(testResponsedetail);
+        ResponsedetailDocument responsedetailEs = responsedetailSearchRepository.findOne(testResponsedetail.getId());
+        assertThat(responsedetailEs).isEqualToComparingFieldByField(new ResponsedetailDocument(testResponsedetail));
     }
 
     @Test
@@ -217,7 +335,7 @@ public class ResponsedetailResourceIntTest {
     public void deleteResponsedetail() throws Exception {
         // Initialize the database
         responsedetailRepository.saveAndFlush(responsedetail);
-        responsedetailSearchRepository.save(responsedetail);
+        responsedetailSearchRepository.save(new ResponsedetailDocument(responsedetail));
         int databaseSizeBeforeDelete = responsedetailRepository.findAll().size();
 
         // Get the responsedetail
@@ -225,6 +343,8 @@ public class ResponsedetailResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean responsedetailExistsInEs = responsedetailSearchRepository.exists(responsedetail.getId());
         assertThat(responsedetailExistsInEs).isFalse();
@@ -232,6 +352,7 @@ public class ResponsedetailResourceIntTest {
         // Validate the database is empty
         List<Responsedetail> responsedetails = responsedetailRepository.findAll();
         assertThat(responsedetails).hasSize(databaseSizeBeforeDelete - 1);
+        assertThat(responseanswerRepository.exists(responsedetail.getId())).isFalse();
     }
 
     @Test
@@ -239,18 +360,133 @@ public class ResponsedetailResourceIntTest {
     public void searchResponsedetail() throws Exception {
         // Initialize the database
         responsedetailRepository.saveAndFlush(responsedetail);
-        responsedetailSearchRepository.save(responsedetail);
+        responsedetailSearchRepository.save(new ResponsedetailDocument(responsedetail));
 
         // Search the responsedetail
-        restResponsedetailMockMvc.perform(get("/api/_search/responsedetails?query=id:" + responsedetail.getId()))
+        MvcResult result = restResponsedetailMockMvc.perform(get("/api/_search/responsedetails?query=id:" + responsedetail.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restResponsedetailMockMvc.perform(asyncDispatch(result))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.[*].id").value(hasItem(responsedetail.getId().intValue())))
             .andExpect(jsonPath("$.[*].responseId").value(hasItem(DEFAULT_RESPONSE_ID.intValue())))
-            .andExpect(jsonPath("$.[*].questionnaireId").value(hasItem(DEFAULT_QUESTIONNAIRE_ID.intValue())))
-            .andExpect(jsonPath("$.[*].questiongroupId").value(hasItem(DEFAULT_QUESTIONGROUP_ID.intValue())))
             .andExpect(jsonPath("$.[*].questionId").value(hasItem(DEFAULT_QUESTION_ID.intValue())))
             .andExpect(jsonPath("$.[*].subquestionId").value(hasItem(DEFAULT_SUBQUESTION_ID.intValue())))
             .andExpect(jsonPath("$.[*].response").value(hasItem(DEFAULT_RESPONSE.toString())));
     }
+
+    @Test
+    @Transactional
+    public void saveResponseDetail() throws Exception {
+        // Initialize the database: questions 1001 and 1002 of the test questionnaire are in questiongroup 1000,
+        // and question 1003 in questiongroup 1101
+        Response response = new Response();
+        response.setDetails("{\"questiongroups\":[" +
+            "{\"questiongroup\":\"1000\",\"questions\":[{\"question\":\"1001\",\"response\":\"AAAAA\"}," +
+            "{\"question\":\"1002\",\"subquestion\":\"1\",\"response\":\"BBBBB\"}]}," +
+            "{\"questions\":[{\"question\":\"1003\",\"response\":\"CCCCC\"}],\"questiongroup\":\"1101\"}]}");
+        response.setLastmodifiedby("AAAAA");
+        response.setLastmodifieddatetime(ZonedDateTime.now());
+        response.setDomain("AAAAA");
+        response.setQuestionnaire(questionnaireRepository.findOne(1000L));
+        responseRepository.saveAndFlush(response);
+
+        // Save the responsedetails of the response
+        restResponsedetailMockMvc.perform(get("/api/saveResponseDetail/{id}", response.getId()))
+            .andExpect(status().isOk());
+
+        // Validate the Responsedetails in the database
+        List<Responsedetail> responsedetails = responsedetailRepository.findByResponseId(response.getId());
+        assertThat(responsedetails).hasSize(3);
+        assertThat(responsedetails).extracting("questionId").containsOnly(1001L, 1002L, 1003L);
+        assertThat(responsedetails).extracting("response").containsOnly("AAAAA", "BBBBB", "CCCCC");
+        // the questionnaire and questiongroup ids are read from the response and the questions
+        assertThat(responsedetails).extracting("questionnaireId").containsOnly(1000L);
+        assertThat(responsedetails).extracting("questiongroupId").containsOnly(1000L, 1101L);
+    }
+
+    @Test
+    @Transactional
+    public void saveResponseDetailWithNonScalarResponse() throws Exception {
+        // Initialize the database: a question answered with an array, followed by another question
+        Response response = new Response();
+        response.setDetails("{\"questiongroups\":[" +
+            "{\"questiongroup\":\"1\",\"questions\":[{\"question\":\"1\",\"response\":[\"a\"]}," +
+            "{\"question\":\"2\",\"response\":\"BBBBB\"}]}]}");
+        response.setLastmodifiedby("AAAAA");
+        response.setLastmodifieddatetime(ZonedDateTime.now());
+        response.setDomain("AAAAA");
+        responseRepository.saveAndFlush(response);
+
+        // The details are rejected, and nothing is saved
+        try {
+            responsedetailIngestionService.update(response.getId(), response.getDetails());
+            fail("A response that is not a scalar value must be rejected");
+        } catch (JsonMappingException e) {
+            assertThat(e.getMessage()).contains("response");
+        }
+        assertThat(responsedetailRepository.findByResponseId(response.getId())).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void saveResponseDetailAgain() throws Exception {
+        // Initialize the database
+        Response response = new Response();
+        response.setDetails("{\"questiongroups\":[" +
+            "{\"questiongroup\":\"1\",\"questions\":[{\"question\":\"1\",\"response\":\"AAAAA\"}," +
+            "{\"question\":\"2\",\"subquestion\":\"1\",\"response\":\"BBBBB\"}," +
+            "{\"question\":\"3\",\"response\":\"CCCCC\"}]}]}");
+        response.setLastmodifiedby("AAAAA");
+        response.setLastmodifieddatetime(ZonedDateTime.now());
+        response.setDomain("AAAAA");
+        responseRepository.saveAndFlush(response);
+        restResponsedetailMockMvc.perform(get("/api/saveResponseDetail/{id}", response.getId()))
+            .andExpect(status().isOk());
+        // Read with JDBC, so no Responsedetail is loaded before it is updated behind Hibernate
+        Long unchangedId = jdbcTemplate.queryForObject(
+            "SELECT id FROM responsedetail WHERE response_id = ? AND question_id = 2", Long.class, response.getId());
+
+        // Change one answer, drop one and add one
+        response.setDetails("{\"questiongroups\":[" +
+            "{\"questiongroup\":\"1\",\"questions\":[{\"question\":\"1\",\"response\":\"DDDDD\"}," +
+            "{\"question\":\"2\",\"subquestion\":\"1\",\"response\":\"BBBBB\"}," +
+            "{\"question\":\"4\",\"response\":\"EEEEE\"}]}]}");
+        responseRepository.saveAndFlush(response);
+        restResponsedetailMockMvc.perform(get("/api/saveResponseDetail/{id}", response.getId()))
+            .andExpect(status().isOk());
+
+        // Validate the Responsedetails in the database
+        List<Responsedetail> responsedetails = responsedetailRepository.findByResponseId(response.getId());
+        assertThat(responsedetails).hasSize(3);
+        assertThat(responsedetails).extracting("questionId").containsOnly(1L, 2L, 4L);
+        assertThat(responsedetails).extracting("response").containsOnly("DDDDD", "BBBBB", "EEEEE");
+        assertThat(responsedetails).extracting("id").contains(unchangedId);
+        assertThat(responseanswerRepository.findByResponseIdOrderById(response.getId()))
+            .extracting("textValue").containsOnly("DDDDD", "BBBBB", "EEEEE");
+    }
+
+    @Test
+    @Transactional
+    public void compactResponsedetails() throws Exception {
+        // Initialize the database with the same answer stored three times
+        for (String answer : new String[] {DEFAULT_RESPONSE, UPDATED_RESPONSE, UPDATED_RESPONSE}) {
+            Responsedetail duplicate = new Responsedetail();
+            duplicate.setResponseId(DEFAULT_RESPONSE_ID);
+            duplicate.setQuestionId(DEFAULT_QUESTION_ID);
+            duplicate.setSubquestionId(DEFAULT_SUBQUESTION_ID);
+            duplicate.setResponse(answer);
+            responsedetailRepository.saveAndFlush(duplicate);
+        }
+
+        // Compact the responsedetails
+        restResponsedetailMockMvc.perform(post("/api/responsedetails/compact"))
+            .andExpect(status().isOk());
+
+        // Validate only the latest Responsedetail is kept
+        List<Responsedetail> responsedetails = responsedetailRepository.findByResponseId(DEFAULT_RESPONSE_ID);
+        assertThat(responsedetails).hasSize(1);
+        assertThat(responsedetails.get(0).getResponse()).isEqualTo(UPDATED_RESPONSE);
+    }
 }
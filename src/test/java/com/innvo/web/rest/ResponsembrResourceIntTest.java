@@ -1,9 +1,17 @@
 package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
+import com.innvo.domain.Response;
+import com.innvo.domain.Responsedetail;
 import com.innvo.domain.Responsembr;
+import com.innvo.domain.search.ResponsembrDocument;
+import com.innvo.repository.ResponseRepository;
+import com.innvo.repository.ResponsedetailRepository;
 import com.innvo.repository.ResponsembrRepository;
 import com.innvo.repository.search.ResponsembrSearchRepository;
+import com.innvo.service.AssetsummaryService;
+import com.innvo.service.ResponsedetailStreamService;
+import com.innvo.service.SearchOutboxService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +20,7 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -68,6 +77,21 @@ public class ResponsembrResourceIntTest {
     @Inject
     private ResponsembrSearchRepository responsembrSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private AssetsummaryService assetsummaryService;
+
+    @Inject
+    private ResponsedetailStreamService responsedetailStreamService;
+
+    @Inject
+    private ResponseRepository responseRepository;
+
+    @Inject
+    private ResponsedetailRepository responsedetailRepository;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -84,6 +108,9 @@ public class ResponsembrResourceIntTest {
         ResponsembrResource responsembrResource = new ResponsembrResource();
         ReflectionTestUtils.setField(responsembrResource, "responsembrSearchRepository", responsembrSearchRepository);
         ReflectionTestUtils.setField(responsembrResource, "responsembrRepository", responsembrRepository);
+        ReflectionTestUtils.setField(responsembrResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(responsembrResource, "assetsummaryService", assetsummaryService);
+        ReflectionTestUtils.setField(responsembrResource, "responsedetailStreamService", responsedetailStreamService);
         this.restResponsembrMockMvc = MockMvcBuilders.standaloneSetup(responsembrResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -122,9 +149,11 @@ public class ResponsembrResourceIntTest {
         assertThat(testResponsembr.getDomain()).isEqualTo(DEFAULT_DOMAIN);
         assertThat(testResponsembr.getAssetId()).isEqualTo(DEFAULT_ASSET_ID);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Responsembr in ElasticSearch
-        Responsembr responsembrEs = responsembrSearchRepository.findOne(testResponsembr.getId());
-        assertThat(responsembrEs).isEqualToComparingFieldByField(testResponsembr);
+        ResponsembrDocument responsembrEs = responsembrSearchRepository.findOne(testResponsembr.getId());
+        assertThat(responsembrEs).isEqualToComparingFieldByField(new ResponsembrDocument(testResponsembr));
     }
 
     @Test
@@ -217,6 +246,28 @@ public class ResponsembrResourceIntTest {
                 .andExpect(jsonPath("$.[*].assetId").value(hasItem(DEFAULT_ASSET_ID.intValue())));
     }
 
+    @Test
+    @Transactional
+    public void getAllResponsembrsAfterId() throws Exception {
+        // Initialize the database
+        responsembrRepository.saveAndFlush(responsembr);
+
+        // Get the page from the responsembr, without counting
+        restResponsembrMockMvc.perform(get("/api/responsembrs?after={after}&size=1", responsembr.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(responsembr.getId().intValue()));
+
+        // Nothing is after the last responsembr: no link to a next page, and the count only when it is asked for
+        restResponsembrMockMvc.perform(get("/api/responsembrs?after={after}&size=1&count=true", responsembr.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", responsembrRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/responsembrs?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getResponsembr() throws Exception {
@@ -248,7 +299,7 @@ public class ResponsembrResourceIntTest {
     public void updateResponsembr() throws Exception {
         // Initialize the database
         responsembrRepository.saveAndFlush(responsembr);
-        responsembrSearchRepository.save(responsembr);
+        responsembrSearchRepository.save(new ResponsembrDocument(responsembr));
         int databaseSizeBeforeUpdate = responsembrRepository.findAll().size();
 
         // Update the responsembr
@@ -275,9 +326,11 @@ public class ResponsembrResourceIntTest {
         assertThat(testResponsembr.getDomain()).isEqualTo(UPDATED_DOMAIN);
         assertThat(testResponsembr.getAssetId()).isEqualTo(UPDATED_ASSET_ID);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Responsembr in ElasticSearch
-        Responsembr responsembrEs = responsembrSearchRepository.findOne(testResponsembr.getId());
-        assertThat(responsembrEs).isEqualToComparingFieldByField(testResponsembr);
+        ResponsembrDocument responsembrEs = responsembrSearchRepository.findOne(testResponsembr.getId());
+        assertThat(responsembrEs).isEqualToComparingFieldByField(new ResponsembrDocument(testResponsembr));
     }
 
     @Test
@@ -285,7 +338,7 @@ public class ResponsembrResourceIntTest {
     public void deleteResponsembr() throws Exception {
         // Initialize the database
         responsembrRepository.saveAndFlush(responsembr);
-        responsembrSearchRepository.save(responsembr);
+        responsembrSearchRepository.save(new ResponsembrDocument(responsembr));
         int databaseSizeBeforeDelete = responsembrRepository.findAll().size();
 
         // Get the responsembr
@@ -293,6 +346,8 @@ public class ResponsembrResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean responsembrExistsInEs = responsembrSearchRepository.exists(responsembr.getId());
         assertThat(responsembrExistsInEs).isFalse();
@@ -307,7 +362,7 @@ public class ResponsembrResourceIntTest {
     public void searchResponsembr() throws Exception {
         // Initialize the database
         responsembrRepository.saveAndFlush(responsembr);
-        responsembrSearchRepository.save(responsembr);
+        responsembrSearchRepository.save(new ResponsembrDocument(responsembr));
 
         // Search the responsembr
         restResponsembrMockMvc.perform(get("/api/_search/responsembrs?query=id:" + responsembr.getId()))
@@ -320,4 +375,97 @@ public class ResponsembrResourceIntTest {
             .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())))
             .andExpect(jsonPath("$.[*].assetId").value(hasItem(DEFAULT_ASSET_ID.intValue())));
     }
+
+    @Test
+    @Transactional
+    public void getResponsedetailsByAsset() throws Exception {
+        Long assetId = Long.MAX_VALUE;
+        Responsedetail[] details = initResponsesOfAsset(assetId);
+
+        // One array per membership, in their order: the details of a response with two memberships are
+        // repeated, and a response without details gives an empty array
+        restResponsembrMockMvc.perform(get("/api/responsembrsobject/{assetId}", assetId))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$[0].length()").value(2))
+            .andExpect(jsonPath("$[0][0].id").value(details[0].getId().intValue()))
+            .andExpect(jsonPath("$[0][1].id").value(details[1].getId().intValue()))
+            .andExpect(jsonPath("$[1].length()").value(0))
+            .andExpect(jsonPath("$[2].length()").value(2))
+            .andExpect(jsonPath("$[2][0].id").value(details[0].getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getPageOfResponsedetailsByAsset() throws Exception {
+        Long assetId = Long.MAX_VALUE;
+        Responsedetail[] details = initResponsesOfAsset(assetId);
+        String baseUrl = "/api/responsembrsobject/" + assetId;
+
+        // The page applies to the memberships, and a requested sort is ignored
+        restResponsembrMockMvc.perform(get("/api/responsembrsobject/{assetId}?page=0&size=2&sort=id,desc", assetId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(header().string(HttpHeaders.LINK,
+                "<" + baseUrl + "?page=1&size=2>; rel=\"next\"," +
+                "<" + baseUrl + "?page=1&size=2>; rel=\"last\"," +
+                "<" + baseUrl + "?page=0&size=2>; rel=\"first\""))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].length()").value(2))
+            .andExpect(jsonPath("$[0][0].id").value(details[0].getId().intValue()))
+            .andExpect(jsonPath("$[1].length()").value(0));
+
+        restResponsembrMockMvc.perform(get("/api/responsembrsobject/{assetId}?page=1&size=2", assetId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].length()").value(2))
+            .andExpect(jsonPath("$[0][1].id").value(details[1].getId().intValue()));
+    }
+
+    /**
+     * Initialize the database: a response with two details, a response without details, a second membership
+     * of the first response, and a membership of the first response to another asset.
+     *
+     * @return the details of the first response
+     */
+    private Responsedetail[] initResponsesOfAsset(Long assetId) {
+        Response answered = responseRepository.saveAndFlush(createResponse());
+        Response unanswered = responseRepository.saveAndFlush(createResponse());
+        Responsedetail[] details = new Responsedetail[2];
+        for (int i = 0; i < details.length; i++) {
+            Responsedetail detail = new Responsedetail();
+            detail.setResponseId(answered.getId());
+            detail.setResponse("A" + i);
+            details[i] = responsedetailRepository.saveAndFlush(detail);
+        }
+        responsembrRepository.saveAndFlush(createResponsembr(answered, assetId));
+        responsembrRepository.saveAndFlush(createResponsembr(unanswered, assetId));
+        responsembrRepository.saveAndFlush(createResponsembr(answered, assetId));
+        responsembrRepository.saveAndFlush(createResponsembr(answered, assetId - 1));
+        return details;
+    }
+
+    private Response createResponse() {
+        Response response = new Response();
+        response.setDetails("{}");
+        response.setStatus(DEFAULT_STATUS);
+        response.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        response.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        response.setDomain(DEFAULT_DOMAIN);
+        return response;
+    }
+
+    private Responsembr createResponsembr(Response response, Long assetId) {
+        Responsembr membership = new Responsembr();
+        membership.setStatus(DEFAULT_STATUS);
+        membership.setLastmodifiedby(DEFAULT_LASTMODIFIEDBY);
+        membership.setLastmodifieddatetime(DEFAULT_LASTMODIFIEDDATETIME);
+        membership.setDomain(DEFAULT_DOMAIN);
+        membership.setAssetId(assetId);
+        membership.setResponse(response);
+        return membership;
+    }
 }
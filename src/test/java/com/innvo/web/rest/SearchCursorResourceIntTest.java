@@ -0,0 +1,142 @@
+package com.innvo.web.rest;
+
+import com.innvo.AdapAssessmentApp;
+import com.innvo.async.RestTaskExecutor;
+import com.innvo.domain.search.ResponsedetailDocument;
+import com.innvo.repository.search.ResponsedetailSearchRepository;
+import com.innvo.service.SearchCursorService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+
+/**
+ * Test class for the SearchCursorResource REST controller.
+ *
+ * @see SearchCursorResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = AdapAssessmentApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class SearchCursorResourceIntTest {
+
+    private static final Long RESPONSE_ID = 1L;
+    private static final String RESPONSE = "AAAAA";
+
+    private static final Pattern NEXT_CURSOR = Pattern.compile("cursor=([^&>]+)>; rel=\"next\"");
+
+    @Inject
+    private ResponsedetailSearchRepository responsedetailSearchRepository;
+
+    @Inject
+    private SearchCursorService searchCursorService;
+
+    @Inject
+    private RestTaskExecutor restTaskExecutor;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restSearchCursorMockMvc;
+
+    @PostConstruct
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        SearchCursorResource searchCursorResource = new SearchCursorResource();
+        ReflectionTestUtils.setField(searchCursorResource, "searchCursorService", searchCursorService);
+        ReflectionTestUtils.setField(searchCursorResource, "restTaskExecutor", restTaskExecutor);
+        this.restSearchCursorMockMvc = MockMvcBuilders.standaloneSetup(searchCursorResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Before
+    public void initTest() {
+        responsedetailSearchRepository.deleteAll();
+        for (long id = 1; id <= 3; id++) {
+            ResponsedetailDocument document = new ResponsedetailDocument();
+            document.setId(id);
+            document.setResponseId(RESPONSE_ID);
+            document.setResponse(RESPONSE);
+            responsedetailSearchRepository.save(document);
+        }
+    }
+
+    @Test
+    public void searchWithCursor() throws Exception {
+        // First page
+        MvcResult result = restSearchCursorMockMvc.perform(get("/api/_search/cursor/Responsedetail?query=responseId:" + RESPONSE_ID + "&size=2"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result = restSearchCursorMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[0].id").value(1))
+            .andExpect(jsonPath("$.[1].id").value(2))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn();
+        Matcher next = NEXT_CURSOR.matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+        assertThat(next.find()).isTrue();
+
+        // Last page, from the cursor of the first one
+        result = restSearchCursorMockMvc.perform(get("/api/_search/cursor/Responsedetail?query=responseId:" + RESPONSE_ID
+            + "&size=2&cursor=" + next.group(1)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restSearchCursorMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(3))
+            .andExpect(jsonPath("$.[0].response").value(RESPONSE))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"next\""))));
+    }
+
+    @Test
+    public void searchWithCursorAndFields() throws Exception {
+        MvcResult result = restSearchCursorMockMvc.perform(get("/api/_search/cursor/Responsedetail?query=responseId:" + RESPONSE_ID
+            + "&fields=response"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restSearchCursorMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$.[0].id").value(1))
+            .andExpect(jsonPath("$.[0].response").value(RESPONSE))
+            .andExpect(jsonPath("$.[0].responseId").doesNotExist());
+    }
+
+    @Test
+    public void searchWithCursorOfUnknownType() throws Exception {
+        MvcResult result = restSearchCursorMockMvc.perform(get("/api/_search/cursor/Unknown?query=id:1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restSearchCursorMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isNotFound());
+    }
+}
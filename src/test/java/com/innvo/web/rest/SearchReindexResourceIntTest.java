@@ -0,0 +1,293 @@
+package com.innvo.web.rest;
+
+import com.innvo.AdapAssessmentApp;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.search.QuestionnaireDocument;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.repository.search.QuestionnaireSearchRepository;
+import com.innvo.service.SearchOutboxService;
+import com.innvo.service.SearchReindexService;
+import com.innvo.web.rest.dto.SearchReindexDTO;
+
+import org.elasticsearch.client.IndicesAdminClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the SearchReindexResource REST controller.
+ *
+ * <p>
+ * The rebuilds are not run in the background: the tests hold them, and run them once the database is
+ * set up, outside of any transaction, as the rebuild reads the committed rows.
+ * </p>
+ *
+ * @see SearchReindexResource
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = AdapAssessmentApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class SearchReindexResourceIntTest {
+
+    private static final String ENTITY_TYPE = "Questionnaire";
+
+    private static final String ALIAS = "questionnaire";
+
+    private static final String DEFAULT_TITLE = "AAAAAAAAAA";
+    private static final String UPDATED_TITLE = "BBBBBBBBBB";
+
+    @Inject
+    private SearchReindexService searchReindexService;
+
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private QuestionnaireRepository questionnaireRepository;
+
+    @Inject
+    private QuestionnaireSearchRepository questionnaireSearchRepository;
+
+    @Inject
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Inject
+    private EntityMapper entityMapper;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private TaskExecutor taskExecutor;
+
+    private final List<Runnable> heldRebuilds = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private MockMvc restSearchReindexMockMvc;
+
+    @Before
+    public void setup() {
+        taskExecutor = (TaskExecutor) ReflectionTestUtils.getField(searchReindexService, "taskExecutor");
+        ReflectionTestUtils.setField(searchReindexService, "taskExecutor", (TaskExecutor) heldRebuilds::add);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        SearchReindexResource searchReindexResource = new SearchReindexResource();
+        ReflectionTestUtils.setField(searchReindexResource, "searchReindexService", searchReindexService);
+        this.restSearchReindexMockMvc = MockMvcBuilders.standaloneSetup(searchReindexResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @After
+    public void destroy() {
+        ReflectionTestUtils.setField(searchReindexService, "taskExecutor", taskExecutor);
+        ReflectionTestUtils.setField(searchReindexService, "entityMapper", entityMapper);
+        searchReindexService.release(ENTITY_TYPE);
+    }
+
+    @Test
+    public void reindexReplaysTheHeldOperations() throws Exception {
+        Questionnaire questionnaire = transactionTemplate.execute(status -> questionnaireRepository.save(createEntity()));
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            restSearchReindexMockMvc.perform(post("/management/jhipster/reindex/{entityType}", ENTITY_TYPE))
+                .andExpect(status().isAccepted());
+            assertThat(heldRebuilds).hasSize(1);
+
+            // The questionnaire is updated while the rebuild is loading it, in a transaction of its own,
+            // and its operation is held in the outbox
+            AtomicBoolean updated = new AtomicBoolean();
+            AtomicLong held = new AtomicLong();
+            ReflectionTestUtils.setField(searchReindexService, "entityMapper", new DelegatingEntityMapper(entityMapper) {
+                @Override
+                public String mapToString(Object object) throws IOException {
+                    if (updated.compareAndSet(false, true)) {
+                        try {
+                            writer.submit(() -> transactionTemplate.execute(status -> {
+                                Questionnaire loaded = questionnaireRepository.findOne(questionnaire.getId());
+                                loaded.setTitle(UPDATED_TITLE);
+                                questionnaireRepository.save(loaded);
+                                searchOutboxService.index(Questionnaire.class, loaded.getId());
+                                return null;
+                            })).get();
+                            writer.submit(() -> searchOutboxService.drain()).get();
+                            held.set(countOutboxRows(questionnaire.getId()));
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    return super.mapToString(object);
+                }
+            });
+            heldRebuilds.get(0).run();
+            assertThat(updated.get()).isTrue();
+            assertThat(held.get()).isEqualTo(1);
+
+            // The alias is moved to the new index, and the previous indices are deleted
+            SearchReindexDTO job = getJob();
+            assertThat(job.getStatus()).isEqualTo(SearchReindexDTO.Status.DONE);
+            assertThat(job.getIndexed()).isEqualTo(job.getTotal());
+            assertThat(currentIndices()).containsExactly(job.getIndexName());
+
+            // The held operation is applied to the new index once the type is released
+            TestUtil.drainSearchOutbox(searchOutboxService);
+            assertThat(countOutboxRows(questionnaire.getId())).isEqualTo(0);
+            assertThat(questionnaireSearchRepository.findOne(questionnaire.getId()).getTitle()).isEqualTo(UPDATED_TITLE);
+        } finally {
+            writer.shutdownNow();
+            transactionTemplate.execute(status -> {
+                questionnaireRepository.delete(questionnaire.getId());
+                return null;
+            });
+            questionnaireSearchRepository.delete(questionnaire.getId());
+        }
+    }
+
+    @Test
+    public void reindexWhileRunningIsRefused() throws Exception {
+        restSearchReindexMockMvc.perform(post("/management/jhipster/reindex/{entityType}", ENTITY_TYPE))
+            .andExpect(status().isAccepted());
+
+        // A second claim of the type is refused until the first is released
+        restSearchReindexMockMvc.perform(post("/management/jhipster/reindex/{entityType}", ENTITY_TYPE))
+            .andExpect(status().isConflict())
+            .andExpect(header().string("X-adapAssessmentApp-error", "error.reindexrunning"));
+        restSearchReindexMockMvc.perform(post("/management/jhipster/reindex"))
+            .andExpect(status().isConflict());
+        assertThat(heldRebuilds).hasSize(1);
+
+        restSearchReindexMockMvc.perform(delete("/management/jhipster/reindex/{entityType}", ENTITY_TYPE))
+            .andExpect(status().isOk());
+        restSearchReindexMockMvc.perform(delete("/management/jhipster/reindex/{entityType}", ENTITY_TYPE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void failedReindexKeepsThePreviousIndex() throws Exception {
+        Questionnaire questionnaire = transactionTemplate.execute(status -> questionnaireRepository.save(createEntity()));
+        try {
+            questionnaireSearchRepository.save(new QuestionnaireDocument(questionnaire));
+            List<String> previousIndices = currentIndices();
+
+            restSearchReindexMockMvc.perform(post("/management/jhipster/reindex/{entityType}", ENTITY_TYPE))
+                .andExpect(status().isAccepted());
+            ReflectionTestUtils.setField(searchReindexService, "entityMapper", new DelegatingEntityMapper(entityMapper) {
+                @Override
+                public String mapToString(Object object) throws IOException {
+                    throw new IOException("Mapping failure");
+                }
+            });
+            heldRebuilds.get(0).run();
+
+            // The new index is deleted, and the searches still use the previous one
+            SearchReindexDTO job = getJob();
+            assertThat(job.getStatus()).isEqualTo(SearchReindexDTO.Status.FAILED);
+            assertThat(job.getError()).contains("Mapping failure");
+            assertThat(elasticsearchTemplate.getClient().admin().indices().prepareExists(job.getIndexName()).get().isExists()).isFalse();
+            assertThat(currentIndices()).isEqualTo(previousIndices);
+            assertThat(questionnaireSearchRepository.findOne(questionnaire.getId()).getTitle()).isEqualTo(DEFAULT_TITLE);
+
+            // The type is released
+            assertThat(searchReindexService.release(ENTITY_TYPE)).isFalse();
+        } finally {
+            transactionTemplate.execute(status -> {
+                questionnaireRepository.delete(questionnaire.getId());
+                return null;
+            });
+            questionnaireSearchRepository.delete(questionnaire.getId());
+        }
+    }
+
+    private static Questionnaire createEntity() {
+        Questionnaire questionnaire = new Questionnaire();
+        questionnaire.setTitle(DEFAULT_TITLE);
+        questionnaire.setStatus("AAAAA");
+        questionnaire.setLastmodifiedby("AAAAA");
+        questionnaire.setLastmodifieddatetime(ZonedDateTime.now());
+        questionnaire.setDomain("AAAAA");
+        return questionnaire;
+    }
+
+    private SearchReindexDTO getJob() {
+        return searchReindexService.getJobs().stream()
+            .filter(job -> ENTITY_TYPE.equals(job.getEntityType()))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No rebuild of " + ENTITY_TYPE));
+    }
+
+    /**
+     * The indices the searches use: the indices of the alias, or the index named like it.
+     */
+    private List<String> currentIndices() {
+        IndicesAdminClient indices = elasticsearchTemplate.getClient().admin().indices();
+        List<String> names = new ArrayList<>();
+        if (indices.prepareAliasesExist(ALIAS).get().exists()) {
+            Iterator<String> keys = indices.prepareGetAliases(ALIAS).get().getAliases().keysIt();
+            while (keys.hasNext()) {
+                names.add(keys.next());
+            }
+        } else if (indices.prepareExists(ALIAS).get().isExists()) {
+            names.add(ALIAS);
+        }
+        return names;
+    }
+
+    private long countOutboxRows(Long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM search_outbox WHERE entity_type = ? AND entity_id = ?",
+            Long.class, ENTITY_TYPE, id);
+    }
+
+    private static class DelegatingEntityMapper implements EntityMapper {
+
+        private final EntityMapper delegate;
+
+        DelegatingEntityMapper(EntityMapper delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String mapToString(Object object) throws IOException {
+            return delegate.mapToString(object);
+        }
+
+        @Override
+        public <T> T mapToObject(String source, Class<T> clazz) throws IOException {
+            return delegate.mapToObject(source, clazz);
+        }
+    }
+}
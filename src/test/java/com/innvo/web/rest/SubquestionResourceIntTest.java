@@ -2,8 +2,11 @@ package com.innvo.web.rest;
 
 import com.innvo.AdapAssessmentApp;
 import com.innvo.domain.Subquestion;
+import com.innvo.domain.search.SubquestionDocument;
 import com.innvo.repository.SubquestionRepository;
 import com.innvo.repository.search.SubquestionSearchRepository;
+import com.innvo.service.ResponseCacheService;
+import com.innvo.service.SearchOutboxService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,6 +15,7 @@ import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
@@ -72,6 +76,12 @@ public class SubquestionResourceIntTest {
     @Inject
     private SubquestionSearchRepository subquestionSearchRepository;
 
+    @Inject
+    private SearchOutboxService searchOutboxService;
+
+    @Inject
+    private ResponseCacheService responseCacheService;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -88,6 +98,8 @@ public class SubquestionResourceIntTest {
         SubquestionResource subquestionResource = new SubquestionResource();
         ReflectionTestUtils.setField(subquestionResource, "subquestionSearchRepository", subquestionSearchRepository);
         ReflectionTestUtils.setField(subquestionResource, "subquestionRepository", subquestionRepository);
+        ReflectionTestUtils.setField(subquestionResource, "searchOutboxService", searchOutboxService);
+        ReflectionTestUtils.setField(subquestionResource, "responseCacheService", responseCacheService);
         this.restSubquestionMockMvc = MockMvcBuilders.standaloneSetup(subquestionResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setMessageConverters(jacksonMessageConverter).build();
@@ -130,9 +142,11 @@ public class SubquestionResourceIntTest {
         assertThat(testSubquestion.getLastmodifieddatetime()).isEqualTo(DEFAULT_LASTMODIFIEDDATETIME);
         assertThat(testSubquestion.getDomain()).isEqualTo(DEFAULT_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Subquestion in ElasticSearch
-        Subquestion subquestionEs = subquestionSearchRepository.findOne(testSubquestion.getId());
-        assertThat(subquestionEs).isEqualToComparingFieldByField(testSubquestion);
+        SubquestionDocument subquestionEs = subquestionSearchRepository.findOne(testSubquestion.getId());
+        assertThat(subquestionEs).isEqualToComparingFieldByField(new SubquestionDocument(testSubquestion));
     }
 
     @Test
@@ -281,6 +295,28 @@ public class SubquestionResourceIntTest {
                 .andExpect(jsonPath("$.[*].domain").value(hasItem(DEFAULT_DOMAIN.toString())));
     }
 
+    @Test
+    @Transactional
+    public void getAllSubquestionsAfterId() throws Exception {
+        // Initialize the database
+        subquestionRepository.saveAndFlush(subquestion);
+
+        // Get the page from the subquestion, without counting
+        restSubquestionMockMvc.perform(get("/api/subquestions?after={after}&size=1", subquestion.getId() - 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(subquestion.getId().intValue()));
+
+        // Nothing is after the last subquestion: no link to a next page, and the count only when it is asked for
+        restSubquestionMockMvc.perform(get("/api/subquestions?after={after}&size=1&count=true", subquestion.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("X-Total-Count", subquestionRepository.count()))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/subquestions?after=0&size=1>; rel=\"first\""))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
     @Test
     @Transactional
     public void getSubquestion() throws Exception {
@@ -314,7 +350,7 @@ public class SubquestionResourceIntTest {
     public void updateSubquestion() throws Exception {
         // Initialize the database
         subquestionRepository.saveAndFlush(subquestion);
-        subquestionSearchRepository.save(subquestion);
+        subquestionSearchRepository.save(new SubquestionDocument(subquestion));
         int databaseSizeBeforeUpdate = subquestionRepository.findAll().size();
 
         // Update the subquestion
@@ -345,9 +381,11 @@ public class SubquestionResourceIntTest {
         assertThat(testSubquestion.getLastmodifieddatetime()).isEqualTo(UPDATED_LASTMODIFIEDDATETIME);
         assertThat(testSubquestion.getDomain()).isEqualTo(UPDATED_DOMAIN);
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate the Subquestion in ElasticSearch
-        Subquestion subquestionEs = subquestionSearchRepository.findOne(testSubquestion.getId());
-        assertThat(subquestionEs).isEqualToComparingFieldByField(testSubquestion);
+        SubquestionDocument subquestionEs = subquestionSearchRepository.findOne(testSubquestion.getId());
+        assertThat(subquestionEs).isEqualToComparingFieldByField(new SubquestionDocument(testSubquestion));
     }
 
     @Test
@@ -355,7 +393,7 @@ public class SubquestionResourceIntTest {
     public void deleteSubquestion() throws Exception {
         // Initialize the database
         subquestionRepository.saveAndFlush(subquestion);
-        subquestionSearchRepository.save(subquestion);
+        subquestionSearchRepository.save(new SubquestionDocument(subquestion));
         int databaseSizeBeforeDelete = subquestionRepository.findAll().size();
 
         // Get the subquestion
@@ -363,6 +401,8 @@ public class SubquestionResourceIntTest {
                 .accept(TestUtil.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
+        TestUtil.drainSearchOutbox(searchOutboxService);
+
         // Validate ElasticSearch is empty
         boolean subquestionExistsInEs = subquestionSearchRepository.exists(subquestion.getId());
         assertThat(subquestionExistsInEs).isFalse();
@@ -377,7 +417,7 @@ public class SubquestionResourceIntTest {
     public void searchSubquestion() throws Exception {
         // Initialize the database
         subquestionRepository.saveAndFlush(subquestion);
-        subquestionSearchRepository.save(subquestion);
+        subquestionSearchRepository.save(new SubquestionDocument(subquestion));
 
         // Search the subquestion
         restSubquestionMockMvc.perform(get("/api/_search/subquestions?query=id:" + subquestion.getId()))
@@ -2,6 +2,7 @@ package com.innvo.web.rest;
 
 import com.innvo.domain.util.JSR310DateTimeSerializer;
 import com.innvo.domain.util.JSR310LocalDateDeserializer;
+import com.innvo.service.SearchOutboxService;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -49,6 +50,18 @@ public class TestUtil {
         return mapper.writeValueAsBytes(object);
     }
 
+    /**
+     * Apply every operation waiting in the search outbox, batch after batch, so the Elasticsearch
+     * assertions see the writes of the test.
+     *
+     * @param searchOutboxService the service of the outbox
+     */
+    public static void drainSearchOutbox(SearchOutboxService searchOutboxService) {
+        while (searchOutboxService.drain() > 0) {
+            // until no operation is due
+        }
+    }
+
     /**
      * Create a byte array with a specific size filled with specified data.
      *
@@ -0,0 +1,38 @@
+package com.innvo.benchmark;
+
+import com.innvo.AdapAssessmentApp;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The application context of the benchmarks that need the database.
+ *
+ * <p>
+ * It is started once per JMH fork with the test configuration: an in-memory H2 database
+ * created by Liquibase, including the seed questionnaires.
+ * </p>
+ */
+public final class BenchmarkContext {
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkContext() {
+    }
+
+    public static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(AdapAssessmentApp.class)
+                .properties("server.port=0")
+                .run();
+        }
+        return context;
+    }
+
+    public static synchronized void close() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.innvo.benchmark;
+
+/**
+ * Generated inputs of the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Build the "details" JSON of a response, as sent by the assessment page.
+     *
+     * @param questiongroups the number of question groups
+     * @param questionsPerGroup the number of questions in each group
+     * @return the JSON
+     */
+    public static String details(int questiongroups, int questionsPerGroup) {
+        StringBuilder json = new StringBuilder("{\"questiongroups\":[");
+        for (int g = 0; g < questiongroups; g++) {
+            if (g > 0) {
+                json.append(',');
+            }
+            json.append("{\"questiongroup\":\"").append(1000 + g).append("\",\"questions\":[");
+            for (int q = 0; q < questionsPerGroup; q++) {
+                if (q > 0) {
+                    json.append(',');
+                }
+                long questionId = 10000L + g * questionsPerGroup + q;
+                json.append("{\"question\":\"").append(questionId)
+                    .append("\",\"subquestion\":\"").append(q % 3 == 0 ? String.valueOf(questionId) : "")
+                    .append("\",\"response\":\"A").append(q % 5).append("\"}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+}
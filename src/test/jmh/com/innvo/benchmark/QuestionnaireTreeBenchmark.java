@@ -0,0 +1,62 @@
+package com.innvo.benchmark;
+
+import com.innvo.domain.Questionnaire;
+import com.innvo.repository.QuestionnaireRepository;
+import com.innvo.service.QuestionnaireTreeService;
+import com.innvo.web.rest.dto.QuestionnaireTreeDTO;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembly of the tree of the seeded cyber questionnaire, straight from the database and from the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class QuestionnaireTreeBenchmark {
+
+    private static final long CYBER_QUESTIONNAIRE_ID = 10000L;
+
+    private QuestionnaireTreeService questionnaireTreeService;
+
+    private Questionnaire questionnaire;
+
+    @Setup
+    public void setup() {
+        ApplicationContext context = BenchmarkContext.get();
+        questionnaireTreeService = context.getBean(QuestionnaireTreeService.class);
+        questionnaire = context.getBean(QuestionnaireRepository.class).findOne(CYBER_QUESTIONNAIRE_ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public QuestionnaireTreeDTO assemble() {
+        return questionnaireTreeService.getTree(questionnaire);
+    }
+
+    @Benchmark
+    public QuestionnaireTreeService.SerializedTree cached() throws JsonProcessingException {
+        return questionnaireTreeService.getSerializedTree(CYBER_QUESTIONNAIRE_ID);
+    }
+}
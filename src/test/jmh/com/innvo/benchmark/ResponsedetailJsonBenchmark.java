@@ -0,0 +1,74 @@
+package com.innvo.benchmark;
+
+import com.innvo.domain.Responsedetail;
+import com.innvo.web.rest.dto.Question;
+import com.innvo.web.rest.dto.Questiongroup;
+import com.innvo.web.rest.dto.ResponsedetailJson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of the "details" JSON of a response, and construction of its Responsedetail entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResponsedetailJsonBenchmark {
+
+    @Param({"10", "100"})
+    private int questionsPerGroup;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String details;
+
+    private ResponsedetailJson responsedetailJson;
+
+    @Setup
+    public void setup() throws IOException {
+        details = BenchmarkData.details(10, questionsPerGroup);
+        responsedetailJson = objectMapper.readValue(details, ResponsedetailJson.class);
+    }
+
+    @Benchmark
+    public ResponsedetailJson deserialize() throws IOException {
+        return objectMapper.readValue(details, ResponsedetailJson.class);
+    }
+
+    @Benchmark
+    public List<Responsedetail> construct() {
+        List<Responsedetail> responsedetails = new ArrayList<>();
+        for (Questiongroup questiongroup : responsedetailJson.getQuestiongroups()) {
+            for (Question question : questiongroup.getQuestions()) {
+                Responsedetail responsedetail = new Responsedetail();
+                responsedetail.setResponseId(1L);
+                responsedetail.setQuestionId(Long.valueOf(question.getQuestion()));
+                if (question.getSubquestion() != null && !question.getSubquestion().isEmpty()) {
+                    responsedetail.setSubquestionId(Long.valueOf(question.getSubquestion()));
+                }
+                responsedetail.setResponse(question.getResponse());
+                responsedetails.add(responsedetail);
+            }
+        }
+        return responsedetails;
+    }
+}
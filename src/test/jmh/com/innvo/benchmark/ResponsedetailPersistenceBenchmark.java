@@ -0,0 +1,93 @@
+package com.innvo.benchmark;
+
+import com.innvo.domain.Responsedetail;
+import com.innvo.repository.ResponsedetailRepository;
+import com.innvo.service.ResponsedetailIngestionService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistence of the details of one response in the embedded H2 database: the batched ingestion
+ * against one JPA save per row. Every invocation is rolled back, so the tables do not grow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResponsedetailPersistenceBenchmark {
+
+    private static final long RESPONSE_ID = 1L;
+
+    @Param({"10", "100"})
+    private int questionsPerGroup;
+
+    private String details;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ResponsedetailIngestionService responsedetailIngestionService;
+
+    private ResponsedetailRepository responsedetailRepository;
+
+    @Setup
+    public void setup() {
+        ApplicationContext context = BenchmarkContext.get();
+        details = BenchmarkData.details(10, questionsPerGroup);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        responsedetailIngestionService = context.getBean(ResponsedetailIngestionService.class);
+        responsedetailRepository = context.getBean(ResponsedetailRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public Integer ingest() {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            try {
+                return responsedetailIngestionService.ingest(RESPONSE_ID, details);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public Integer saveEach() {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            int rows = 10 * questionsPerGroup;
+            for (int i = 0; i < rows; i++) {
+                Responsedetail responsedetail = new Responsedetail();
+                responsedetail.setResponseId(RESPONSE_ID);
+                responsedetail.setQuestionId(10000L + i);
+                responsedetail.setResponse("A" + i % 5);
+                responsedetailRepository.save(responsedetail);
+            }
+            responsedetailRepository.flush();
+            return rows;
+        });
+    }
+}
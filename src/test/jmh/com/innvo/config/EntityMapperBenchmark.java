@@ -0,0 +1,92 @@
+package com.innvo.config;
+
+import com.innvo.domain.Question;
+import com.innvo.domain.Questiongroup;
+import com.innvo.domain.Questionnaire;
+import com.innvo.domain.Responsedetail;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of entities into Elasticsearch documents, with the mapper of ElasticSearchConfiguration.
+ * It lives in the config package to build that mapper exactly like the application does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityMapperBenchmark {
+
+    private EntityMapper entityMapper;
+
+    private Question question;
+
+    private Responsedetail responsedetail;
+
+    @Setup
+    public void setup() {
+        entityMapper = new ElasticSearchConfiguration().entityMapper(new JacksonConfiguration().jackson2ObjectMapperBuilder());
+
+        Questionnaire questionnaire = new Questionnaire();
+        questionnaire.setId(1L);
+        questionnaire.setTitle("Cyber security assessment");
+        questionnaire.setStatus("Active");
+        questionnaire.setLastmodifiedby("admin");
+        questionnaire.setLastmodifieddatetime(ZonedDateTime.now());
+        questionnaire.setDomain("DEMO");
+        Questiongroup questiongroup = new Questiongroup();
+        questiongroup.setId(2L);
+        questiongroup.setTitle("Access control");
+        questiongroup.setDescription("Who can access the systems and how");
+        questiongroup.setPosition(1);
+        questiongroup.setStatus("Active");
+        questiongroup.setLastmodifiedby("admin");
+        questiongroup.setLastmodifieddatetime(ZonedDateTime.now());
+        questiongroup.setDomain("DEMO");
+        questiongroup.setQuestionnaire(questionnaire);
+        question = new Question();
+        question.setId(3L);
+        question.setQuestion("Are administrator accounts protected by a second factor?");
+        question.setCode("AC-01");
+        question.setPosition(1);
+        question.setMandatory(true);
+        question.setStatus("Active");
+        question.setLastmodifiedby("admin");
+        question.setLastmodifieddatetime(ZonedDateTime.now());
+        question.setDomain("DEMO");
+        question.setType("radio");
+        question.setQuestiongroup(questiongroup);
+
+        responsedetail = new Responsedetail();
+        responsedetail.setId(4L);
+        responsedetail.setResponseId(5L);
+        responsedetail.setQuestionId(3L);
+        responsedetail.setResponse("A1");
+    }
+
+    @Benchmark
+    public String question() throws IOException {
+        return entityMapper.mapToString(question);
+    }
+
+    @Benchmark
+    public String responsedetail() throws IOException {
+        return entityMapper.mapToString(responsedetail);
+    }
+}